@@ -0,0 +1,30 @@
+package br.com.lalurecf.application.port.in.ecf;
+
+import br.com.lalurecf.infrastructure.dto.ecf.EcfDiffResponse;
+
+/**
+ * Port IN para comparação estrutural do bloco M entre dois arquivos ECF.
+ *
+ * <p>Compara os blocos M300/M350 (com filhos) pela chave
+ * {codigoApuracao}|{tipo}|{codigoEnquadramento} e retorna blocos adicionados, removidos e
+ * alterados com a diferença do totalValor.
+ */
+public interface DiffEcfFilesUseCase {
+
+  /**
+   * Compara dois arquivos ECF da empresa.
+   *
+   * <p>Sem IDs informados, compara o IMPORTED_ECF (base) com o COMPLETE_ECF (alvo) do ano
+   * fiscal. Com IDs, compara quaisquer dois arquivos da empresa.
+   *
+   * @param companyId ID da empresa (para verificar ownership)
+   * @param fiscalYear ano fiscal (usado quando os IDs não são informados)
+   * @param baseFileId ID do arquivo base (opcional, informado junto com targetFileId)
+   * @param targetFileId ID do arquivo alvo (opcional, informado junto com baseFileId)
+   * @return diferenças entre os blocos M dos dois arquivos
+   * @throws jakarta.persistence.EntityNotFoundException se algum arquivo não for encontrado
+   * @throws org.springframework.security.access.AccessDeniedException se algum arquivo não
+   *     pertence à empresa
+   */
+  EcfDiffResponse diff(Long companyId, Integer fiscalYear, Long baseFileId, Long targetFileId);
+}
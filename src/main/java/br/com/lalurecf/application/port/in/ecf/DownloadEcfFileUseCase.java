@@ -7,7 +7,7 @@ import br.com.lalurecf.domain.model.EcfFileDownloadData;
  * Port IN para download de arquivo ECF.
  *
  * <p>Busca o arquivo por tipo (unique por empresa+ano+tipo), verifica ownership
- * e retorna o conteúdo em bytes (ISO-8859-1).
+ * e retorna os metadados com a abertura do conteúdo em streaming (ISO-8859-1 ou GZIP).
  */
 public interface DownloadEcfFileUseCase {
 
@@ -17,7 +17,7 @@ public interface DownloadEcfFileUseCase {
    * @param fileType tipo do arquivo (ARQUIVO_PARCIAL, IMPORTED_ECF, COMPLETE_ECF)
    * @param companyId ID da empresa
    * @param fiscalYear ano fiscal
-   * @return dados para download: bytes, fileName, fileSizeBytes
+   * @return dados para download: fileName, fileSizeBytes, contentHash, generatedAt e conteúdo
    * @throws jakarta.persistence.EntityNotFoundException se arquivo não encontrado
    */
   EcfFileDownloadData download(EcfFileType fileType, Long companyId, Integer fiscalYear);
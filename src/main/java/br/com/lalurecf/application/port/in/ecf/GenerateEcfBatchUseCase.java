@@ -0,0 +1,35 @@
+package br.com.lalurecf.application.port.in.ecf;
+
+import br.com.lalurecf.infrastructure.dto.ecf.EcfBatchGenerationResponse;
+import java.util.Optional;
+
+/**
+ * Port IN para geração em lote dos arquivos ECF de todas as empresas ativas.
+ *
+ * <p>Para cada empresa ACTIVE gera o Arquivo Parcial e, quando houver ECF Importado, o ECF
+ * Completo. Cada empresa é processada em transação própria: falha em uma empresa não afeta
+ * as demais. O lote roda em segundo plano e é acompanhado por polling.
+ */
+public interface GenerateEcfBatchUseCase {
+
+  /**
+   * Inicia a geração dos arquivos ECF de todas as empresas ativas para o ano fiscal informado.
+   *
+   * <p>Retorna sem aguardar o processamento. Se já houver um lote em execução para o ano
+   * fiscal, retorna esse lote.
+   *
+   * @param fiscalYear ano fiscal de referência (do contexto X-Fiscal-Year)
+   * @param generatedBy identificador do usuário autenticado
+   * @return situação inicial do lote, com o jobId para consulta
+   */
+  EcfBatchGenerationResponse start(Integer fiscalYear, String generatedBy);
+
+  /**
+   * Consulta a situação de um lote.
+   *
+   * @param jobId identificador retornado por {@link #start}
+   * @return relatório por empresa (sucesso/ignorada/erro) e métricas de throughput, ou vazio
+   *     se o lote não existir ou já tiver expirado
+   */
+  Optional<EcfBatchGenerationResponse> findJob(String jobId);
+}
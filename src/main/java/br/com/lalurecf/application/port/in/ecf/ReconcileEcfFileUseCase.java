@@ -0,0 +1,25 @@
+package br.com.lalurecf.application.port.in.ecf;
+
+import br.com.lalurecf.infrastructure.dto.ecf.EcfReconciliationResponse;
+
+/**
+ * Port IN para conciliação do bloco M de um arquivo ECF com os Lançamentos da Parte B.
+ *
+ * <p>Detecta arquivos editados ou reenviados cujo bloco M deixou de refletir os lançamentos
+ * cadastrados, sem regenerar o arquivo.
+ */
+public interface ReconcileEcfFileUseCase {
+
+  /**
+   * Compara os totais M300/M350 e M305/M310/M355/M360 do arquivo com os totais calculados no
+   * banco a partir dos lançamentos ACTIVE do ano fiscal do arquivo.
+   *
+   * @param ecfFileId ID do arquivo ECF
+   * @param companyId ID da empresa (para verificar ownership)
+   * @return divergências encontradas
+   * @throws jakarta.persistence.EntityNotFoundException se o arquivo não for encontrado
+   * @throws org.springframework.security.access.AccessDeniedException se o arquivo não
+   *     pertence à empresa
+   */
+  EcfReconciliationResponse reconcile(Long ecfFileId, Long companyId);
+}
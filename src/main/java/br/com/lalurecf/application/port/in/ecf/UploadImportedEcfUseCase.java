@@ -1,6 +1,7 @@
 package br.com.lalurecf.application.port.in.ecf;
 
 import br.com.lalurecf.infrastructure.dto.ecf.UploadImportedEcfResponse;
+import java.io.InputStream;
 
 /**
  * Port IN para upload e armazenamento do ECF Importado.
@@ -12,7 +13,7 @@ public interface UploadImportedEcfUseCase {
   /**
    * Valida e armazena o ECF importado.
    *
-   * @param fileContent bytes do arquivo (encoding ISO-8859-1)
+   * @param content conteúdo do arquivo (encoding ISO-8859-1), lido em streaming e não fechado
    * @param originalFileName nome original do arquivo (para validar extensão .txt)
    * @param fiscalYear ano fiscal de referência
    * @param companyId ID da empresa
@@ -21,6 +22,6 @@ public interface UploadImportedEcfUseCase {
    * @throws IllegalArgumentException se as validações falharem
    */
   UploadImportedEcfResponse upload(
-      byte[] fileContent, String originalFileName,
+      InputStream content, String originalFileName,
       Integer fiscalYear, Long companyId, String generatedBy, boolean overwrite);
 }
@@ -0,0 +1,26 @@
+package br.com.lalurecf.application.port.out;
+
+/**
+ * Port OUT para o controle de admissão das operações pesadas ({@code @LimitedConcurrency}).
+ *
+ * <p>Cada operação admitida ocupa uma vaga global. Operações que continuam em segundo plano em
+ * vários workers (lote de ECF) obtêm uma vaga adicional por worker, para que o limite global
+ * continue valendo para as conexões realmente usadas depois que a requisição termina.
+ */
+public interface AdmissionControlPort {
+
+  /**
+   * Obtém, sem esperar, até {@code max} vagas globais adicionais para a operação em curso.
+   *
+   * @param max vagas adicionais desejadas
+   * @return vagas obtidas (0 a {@code max}); devolver com {@link #releaseAdditional}
+   */
+  int tryAcquireAdditional(int max);
+
+  /**
+   * Devolve vagas obtidas por {@link #tryAcquireAdditional}.
+   *
+   * @param permits quantidade de vagas
+   */
+  void releaseAdditional(int permits);
+}
@@ -1,6 +1,8 @@
 package br.com.lalurecf.application.port.out;
 
+import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.model.Company;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -44,4 +46,12 @@ public interface CompanyRepositoryPort {
    * @return página de empresas
    */
   Page<Company> findAll(Pageable pageable);
+
+  /**
+   * Lista todas as empresas com o status informado (sem paginação).
+   *
+   * @param status status das empresas (ex: ACTIVE)
+   * @return lista de empresas
+   */
+  List<Company> findAllByStatus(Status status);
 }
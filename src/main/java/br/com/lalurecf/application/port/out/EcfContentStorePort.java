@@ -0,0 +1,131 @@
+package br.com.lalurecf.application.port.out;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Port OUT para o armazenamento de conteúdo de arquivos ECF.
+ *
+ * <p>O conteúdo é endereçado pelo SHA-256 (hex) dos bytes ISO-8859-1 e armazenado comprimido:
+ * gravar o mesmo conteúdo duas vezes devolve o mesmo hash e não duplica dados. Os
+ * {@code EcfFile} guardam apenas o hash; a contagem de referências é mantida pelo
+ * {@link EcfFileRepositoryPort} via {@link #retain}/{@link #release}.
+ *
+ * <p>Conteúdo recém-gravado sem nenhuma referência fica órfão até ser retido — é
+ * responsabilidade do chamador persistir o {@code EcfFile} na mesma transação. A gravação deve
+ * ocorrer dentro dessa transação: o conteúdo fica protegido de um {@link #release} concorrente
+ * até ela terminar.
+ */
+public interface EcfContentStorePort {
+
+  /**
+   * Resultado da gravação: hash e métricas calculados na mesma passada da compressão.
+   *
+   * @param hash SHA-256 (hex) do conteúdo
+   * @param sizeBytes tamanho do conteúdo em bytes ISO-8859-1
+   * @param lineCount quantidade de linhas (a última linha conta mesmo sem {@code \n} final)
+   */
+  record StoredContent(String hash, long sizeBytes, int lineCount) {}
+
+  /**
+   * Produtor de conteúdo escrito diretamente no armazenamento (sem materializar a String).
+   */
+  @FunctionalInterface
+  interface ContentWriter {
+
+    /**
+     * Escreve o conteúdo do arquivo. Caracteres são codificados em ISO-8859-1.
+     *
+     * @param writer destino do conteúdo
+     * @throws IOException se a escrita falhar
+     */
+    void writeTo(Writer writer) throws IOException;
+  }
+
+  /**
+   * Grava o conteúdo lido do stream (bytes ISO-8859-1), calculando hash e compressão numa única
+   * passada.
+   *
+   * @param content bytes do arquivo (não é fechado)
+   * @return hash, tamanho e quantidade de linhas do conteúdo
+   */
+  StoredContent store(InputStream content);
+
+  /**
+   * Grava o conteúdo produzido pelo {@code writer}, calculando hash e compressão numa única
+   * passada.
+   *
+   * @param writer produtor do conteúdo
+   * @return hash, tamanho e quantidade de linhas do conteúdo
+   */
+  StoredContent store(ContentWriter writer);
+
+  /**
+   * Grava o conteúdo de uma String.
+   *
+   * @param content conteúdo do arquivo
+   * @return hash, tamanho e quantidade de linhas do conteúdo
+   */
+  default StoredContent store(String content) {
+    return store(writer -> writer.write(content));
+  }
+
+  /**
+   * Abre o conteúdo descomprimido para leitura em streaming: o armazenamento é lido em trechos,
+   * sob demanda, com memória limitada independentemente do tamanho do arquivo. Em conteúdo sem
+   * compressão, {@code skip} não lê os trechos pulados; no comprimido, descomprime até o ponto.
+   *
+   * @param hash SHA-256 do conteúdo
+   * @return stream com os bytes ISO-8859-1 do arquivo (o chamador deve fechá-lo)
+   * @throws IllegalStateException se o conteúdo não existir
+   */
+  InputStream openStream(String hash);
+
+  /**
+   * Abre o conteúdo comprimido em GZIP para entrega com {@code Content-Encoding: gzip}, sem
+   * descomprimir, lido em trechos como {@link #openStream}. Conteúdo legado armazenado sem
+   * compressão é comprimido durante a leitura.
+   *
+   * @param hash SHA-256 do conteúdo
+   * @return stream GZIP dos bytes ISO-8859-1 do arquivo (o chamador deve fechá-lo)
+   * @throws IllegalStateException se o conteúdo não existir
+   */
+  InputStream openGzipStream(String hash);
+
+  /**
+   * Lê o conteúdo descomprimido completo em bytes ISO-8859-1. Materializa o arquivo inteiro:
+   * prefira {@link #openStream} quando o consumidor puder ler em streaming.
+   *
+   * @param hash SHA-256 do conteúdo
+   * @return bytes do arquivo
+   * @throws IllegalStateException se o conteúdo não existir
+   */
+  byte[] readBytes(String hash);
+
+  /**
+   * Lê o conteúdo completo como String (ISO-8859-1).
+   *
+   * @param hash SHA-256 do conteúdo
+   * @return conteúdo do arquivo
+   * @throws IllegalStateException se o conteúdo não existir
+   */
+  default String read(String hash) {
+    return new String(readBytes(hash), StandardCharsets.ISO_8859_1);
+  }
+
+  /**
+   * Incrementa a contagem de referências do conteúdo.
+   *
+   * @param hash SHA-256 do conteúdo
+   */
+  void retain(String hash);
+
+  /**
+   * Decrementa a contagem de referências, removendo o conteúdo quando chega a zero.
+   *
+   * @param hash SHA-256 do conteúdo
+   */
+  void release(String hash);
+}
@@ -0,0 +1,42 @@
+package br.com.lalurecf.application.port.out;
+
+import br.com.lalurecf.domain.enums.EcfFileStatus;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import java.time.LocalDateTime;
+
+/**
+ * Record com os metadados de um arquivo ECF, usado pela listagem.
+ *
+ * <p>Projeção direta das colunas de {@code tb_ecf_file}: não hidrata a entidade nem acessa o
+ * armazenamento de conteúdo.
+ *
+ * @param id ID do arquivo
+ * @param fileType tipo do arquivo
+ * @param fiscalYear ano fiscal de referência
+ * @param fileName nome do arquivo para download
+ * @param contentHash SHA-256 do conteúdo
+ * @param sizeBytes tamanho do conteúdo em bytes (nullable)
+ * @param lineCount quantidade de linhas do conteúdo (nullable)
+ * @param fileStatus status do arquivo no ciclo de vida
+ * @param validationErrors erros de validação serializados como JSON array (nullable)
+ * @param generatedAt timestamp de geração ou importação
+ * @param generatedBy usuário que gerou/importou o arquivo
+ * @param sourceImportedEcfId ID do ECF Importado base (nullable)
+ * @param sourceParcialFileId ID do Arquivo Parcial base (nullable)
+ */
+public record EcfFileMetadata(
+    Long id,
+    EcfFileType fileType,
+    Integer fiscalYear,
+    String fileName,
+    String contentHash,
+    Long sizeBytes,
+    Integer lineCount,
+    EcfFileStatus fileStatus,
+    String validationErrors,
+    LocalDateTime generatedAt,
+    String generatedBy,
+    Long sourceImportedEcfId,
+    Long sourceParcialFileId
+) {
+}
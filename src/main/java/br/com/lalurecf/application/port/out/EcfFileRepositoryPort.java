@@ -41,6 +41,17 @@ public interface EcfFileRepositoryPort {
    */
   List<EcfFile> findByCompanyAndFiscalYear(Long companyId, Integer fiscalYear);
 
+  /**
+   * Lista apenas os metadados dos arquivos ECF de uma empresa para um ano fiscal.
+   *
+   * <p>Usado pela listagem: não carrega entidades nem conteúdo.
+   *
+   * @param companyId ID da empresa
+   * @param fiscalYear ano fiscal
+   * @return metadados dos arquivos (pode ser vazia)
+   */
+  List<EcfFileMetadata> findMetadataByCompanyAndFiscalYear(Long companyId, Integer fiscalYear);
+
   /**
    * Busca arquivo ECF por empresa, ano fiscal e tipo.
    *
@@ -53,4 +64,16 @@ public interface EcfFileRepositoryPort {
    */
   Optional<EcfFile> findByCompanyAndFiscalYearAndType(
       Long companyId, Integer fiscalYear, EcfFileType type);
+
+  /**
+   * Verifica se existe arquivo ECF de um tipo para a empresa e ano fiscal, sem carregar o
+   * conteúdo.
+   *
+   * @param companyId ID da empresa
+   * @param fiscalYear ano fiscal
+   * @param type tipo do arquivo
+   * @return true se o arquivo existir
+   */
+  boolean existsByCompanyAndFiscalYearAndType(
+      Long companyId, Integer fiscalYear, EcfFileType type);
 }
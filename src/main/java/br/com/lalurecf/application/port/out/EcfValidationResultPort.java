@@ -0,0 +1,37 @@
+package br.com.lalurecf.application.port.out;
+
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.Optional;
+
+/**
+ * Port OUT para os resultados de validação persistidos de conteúdos ECF.
+ *
+ * <p>O resultado depende apenas do conteúdo, do tipo de arquivo (conjunto de regras) e da versão
+ * do validador, por isso é chaveado por (hash do conteúdo, tipo, versão) e compartilhado entre
+ * arquivos com o mesmo conteúdo. O resultado é removido junto com o conteúdo quando este deixa
+ * de ser referenciado (ver {@link EcfContentStorePort#release}).
+ */
+public interface EcfValidationResultPort {
+
+  /**
+   * Busca o resultado de uma validação anterior.
+   *
+   * @param contentHash SHA-256 do conteúdo
+   * @param fileType tipo do arquivo validado
+   * @param validatorVersion versão das regras de validação
+   * @return resultado, se já validado com esta versão
+   */
+  Optional<ValidationResult> find(String contentHash, EcfFileType fileType, int validatorVersion);
+
+  /**
+   * Persiste o resultado de uma validação (ignorado se já existir para a mesma chave).
+   *
+   * @param contentHash SHA-256 do conteúdo
+   * @param fileType tipo do arquivo validado
+   * @param validatorVersion versão das regras de validação
+   * @param result resultado da validação
+   */
+  void save(String contentHash, EcfFileType fileType, int validatorVersion,
+      ValidationResult result);
+}
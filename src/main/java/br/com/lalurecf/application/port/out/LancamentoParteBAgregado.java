@@ -0,0 +1,41 @@
+package br.com.lalurecf.application.port.out;
+
+import br.com.lalurecf.domain.enums.TipoAjuste;
+import br.com.lalurecf.domain.enums.TipoApuracao;
+import br.com.lalurecf.domain.enums.TipoRelacionamento;
+import java.math.BigDecimal;
+
+/**
+ * Record representando uma linha pré-agregada de Lançamentos da Parte B.
+ *
+ * <p>Cada linha totaliza os lançamentos ACTIVE que compartilham a mesma combinação de
+ * apuração, mês, parâmetro, relacionamento, contas e tipo de ajuste. É a unidade mínima
+ * necessária para montar M300/M305/M310 (e equivalentes CSLL) sem carregar os lançamentos.
+ *
+ * @param tipoApuracao IRPJ ou CSLL
+ * @param mesReferencia mês de referência (1-12)
+ * @param parametroTributarioId ID do parâmetro tributário (código de enquadramento)
+ * @param tipoRelacionamento relacionamento do lançamento (conta contábil, Parte B ou ambos)
+ * @param contaParteBId ID da conta da Parte B (nullable)
+ * @param contaContabilId ID da conta contábil (nullable)
+ * @param tipoAjuste ADICAO ou EXCLUSAO
+ * @param valorTotal soma dos valores dos lançamentos agrupados
+ * @param quantidade quantidade de lançamentos agrupados
+ * @param primeiroId menor ID entre os lançamentos agrupados (ordem de inserção)
+ * @param primeiraDescricao descrição do lançamento de menor ID
+ */
+@SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+public record LancamentoParteBAgregado(
+    TipoApuracao tipoApuracao,
+    Integer mesReferencia,
+    Long parametroTributarioId,
+    TipoRelacionamento tipoRelacionamento,
+    Long contaParteBId,
+    Long contaContabilId,
+    TipoAjuste tipoAjuste,
+    BigDecimal valorTotal,
+    long quantidade,
+    Long primeiroId,
+    String primeiraDescricao
+) {
+}
@@ -54,6 +54,35 @@ public interface LancamentoParteBRepositoryPort {
   List<LancamentoParteB> findByCompanyIdAndAnoReferenciaAndStatus(
       Long companyId, Integer anoReferencia, Status status);
 
+  /**
+   * Agrega no banco os lançamentos Parte B ACTIVE de uma empresa em um ano de referência.
+   *
+   * <p>Agrupa por (tipoApuracao, mes, parametro, tipoRelacionamento, contaParteB,
+   * contaContabil, tipoAjuste), retornando soma, quantidade, menor ID e a descrição do
+   * lançamento de menor ID. Ordenado por tipoApuracao, mês e menor ID.
+   *
+   * @param companyId ID da empresa
+   * @param anoReferencia ano de referência
+   * @return linhas agregadas (vazia se não houver lançamentos ACTIVE)
+   */
+  List<LancamentoParteBAgregado> findAgregadosAtivosByCompanyIdAndAnoReferencia(
+      Long companyId, Integer anoReferencia);
+
+  /**
+   * Totaliza no banco os lançamentos Parte B ACTIVE de uma empresa em um ano de referência,
+   * nos mesmos agrupamentos dos registros do bloco M.
+   *
+   * <p>Uma única consulta agrupa por (tipoApuracao, mês, código de enquadramento) e, dentro
+   * deles, por código de conta da Parte B e por código de conta contábil, conforme o
+   * relacionamento de cada lançamento. Ordenado por tipoApuracao, mês, código e nível.
+   *
+   * @param companyId ID da empresa
+   * @param anoReferencia ano de referência
+   * @return totais esperados (vazia se não houver lançamentos ACTIVE)
+   */
+  List<LancamentoParteBTotal> findTotaisBlocoMAtivosByCompanyIdAndAnoReferencia(
+      Long companyId, Integer anoReferencia);
+
   /**
    * Busca todos lançamentos Parte B de uma empresa com paginação.
    *
@@ -0,0 +1,41 @@
+package br.com.lalurecf.application.port.out;
+
+import br.com.lalurecf.domain.enums.TipoApuracao;
+import java.math.BigDecimal;
+
+/**
+ * Record representando um total esperado no bloco M, calculado no banco a partir dos
+ * Lançamentos da Parte B ACTIVE.
+ *
+ * <p>Cada linha corresponde a um registro que a geração do bloco M produz para o mês: o
+ * M300/M350 do código de enquadramento ({@link Nivel#ENQUADRAMENTO}), um M305/M355 por conta
+ * da Parte B ({@link Nivel#CONTA_PARTE_B}) ou um M310/M360 por conta contábil
+ * ({@link Nivel#CONTA_CONTABIL}).
+ *
+ * @param tipoApuracao IRPJ (M300/M305/M310) ou CSLL (M350/M355/M360)
+ * @param mesReferencia mês de referência (1-12)
+ * @param codigoEnquadramento código do parâmetro tributário
+ * @param nivel registro totalizado
+ * @param codigoConta código da conta (null em {@link Nivel#ENQUADRAMENTO})
+ * @param valorTotal soma dos valores dos lançamentos
+ */
+@SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+public record LancamentoParteBTotal(
+    TipoApuracao tipoApuracao,
+    Integer mesReferencia,
+    String codigoEnquadramento,
+    Nivel nivel,
+    String codigoConta,
+    BigDecimal valorTotal
+) {
+
+  /** Registro do bloco M a que o total corresponde. */
+  public enum Nivel {
+    /** M300/M350: todos os lançamentos do código de enquadramento no mês. */
+    ENQUADRAMENTO,
+    /** M305/M355: lançamentos CONTA_PARTE_B ou AMBOS, por conta da Parte B. */
+    CONTA_PARTE_B,
+    /** M310/M360: lançamentos CONTA_CONTABIL ou AMBOS, por conta contábil. */
+    CONTA_CONTABIL
+  }
+}
@@ -2,14 +2,17 @@ package br.com.lalurecf.application.service;
 
 import br.com.lalurecf.application.port.in.ecf.GenerateArquivoParcialUseCase;
 import br.com.lalurecf.application.port.out.CompanyRepositoryPort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort.StoredContent;
 import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.application.port.out.LancamentoParteBAgregado;
 import br.com.lalurecf.application.port.out.LancamentoParteBRepositoryPort;
 import br.com.lalurecf.domain.enums.EcfFileStatus;
 import br.com.lalurecf.domain.enums.EcfFileType;
 import br.com.lalurecf.domain.enums.Status;
+import br.com.lalurecf.domain.exception.EmptyFiscalYearException;
 import br.com.lalurecf.domain.model.Company;
 import br.com.lalurecf.domain.model.EcfFile;
-import br.com.lalurecf.domain.model.LancamentoParteB;
 import br.com.lalurecf.infrastructure.dto.ecf.GenerateArquivoParcialResponse;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,6 +37,7 @@ public class ArquivoParcialAssemblerService implements GenerateArquivoParcialUse
   private final EcfFileRepositoryPort ecfFileRepositoryPort;
   private final LancamentoParteBRepositoryPort lancamentoParteBRepositoryPort;
   private final CompanyRepositoryPort companyRepositoryPort;
+  private final EcfContentStorePort ecfContentStorePort;
 
   /**
    * Gera o Arquivo Parcial ECF em 5 passos:
@@ -50,18 +54,22 @@ public class ArquivoParcialAssemblerService implements GenerateArquivoParcialUse
 
     log.info("Gerando Arquivo Parcial ECF: companyId={}, fiscalYear={}", companyId, fiscalYear);
 
-    // Passo 1: validar lançamentos ACTIVE (filtrados no banco)
-    List<LancamentoParteB> active =
-        lancamentoParteBRepositoryPort.findByCompanyIdAndAnoReferenciaAndStatus(
-            companyId, fiscalYear, Status.ACTIVE);
+    // Passo 1: validar lançamentos ACTIVE (agregados no banco via GROUP BY)
+    List<LancamentoParteBAgregado> agregados =
+        lancamentoParteBRepositoryPort.findAgregadosAtivosByCompanyIdAndAnoReferencia(
+            companyId, fiscalYear);
 
-    if (active.isEmpty()) {
-      throw new IllegalArgumentException(
+    if (agregados.isEmpty()) {
+      throw new EmptyFiscalYearException(
           "Nenhum Lançamento da Parte B encontrado para o ano fiscal " + fiscalYear);
     }
 
-    // Passo 2: gerar conteúdo do bloco M reutilizando a lista já carregada
-    String content = partMGeneratorService.generateArquivoParcial(active, fiscalYear);
+    // Passo 2: gerar conteúdo do bloco M reutilizando as linhas já agregadas
+    String content =
+        partMGeneratorService.generateArquivoParcialFromAgregados(agregados, fiscalYear);
+    int totalLancamentos = (int) agregados.stream()
+        .mapToLong(LancamentoParteBAgregado::quantidade)
+        .sum();
 
     // Passo 3: montar EcfFile
     Company company = companyRepositoryPort.findById(companyId)
@@ -70,11 +78,14 @@ public class ArquivoParcialAssemblerService implements GenerateArquivoParcialUse
     String cnpj = company.getCnpj() != null ? company.getCnpj().getValue() : companyId.toString();
     String fileName = String.format("Parcial_M_%d_%s.txt", fiscalYear, cnpj);
 
+    StoredContent stored = ecfContentStorePort.store(content);
     EcfFile ecfFile = EcfFile.builder()
         .fileType(EcfFileType.ARQUIVO_PARCIAL)
         .companyId(companyId)
         .fiscalYear(fiscalYear)
-        .content(content)
+        .contentHash(stored.hash())
+        .sizeBytes(stored.sizeBytes())
+        .lineCount(stored.lineCount())
         .fileName(fileName)
         .fileStatus(EcfFileStatus.DRAFT)
         .generatedAt(LocalDateTime.now())
@@ -109,6 +120,6 @@ public class ArquivoParcialAssemblerService implements GenerateArquivoParcialUse
         saved.getId(),
         saved.getFileName(),
         periodoCount,
-        active.size());
+        totalLancamentos);
   }
 }
@@ -2,6 +2,7 @@ package br.com.lalurecf.application.service;
 
 import br.com.lalurecf.application.port.in.AuthenticateUserUseCase;
 import br.com.lalurecf.application.port.out.UserRepositoryPort;
+import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.exception.InvalidCredentialsException;
 import br.com.lalurecf.domain.exception.MustChangePasswordException;
 import br.com.lalurecf.domain.model.User;
@@ -43,6 +44,12 @@ public class AuthService implements AuthenticateUserUseCase {
       throw new InvalidCredentialsException("Credenciais inválidas");
     }
 
+    // Usuário inativo não recebe novos tokens (os existentes são revogados ao inativar)
+    if (Status.INACTIVE.equals(user.getStatus())) {
+      log.warn("Tentativa de login de usuário inativo: {}", request.getEmail());
+      throw new InvalidCredentialsException("Credenciais inválidas");
+    }
+
     // CRÍTICO: Bloqueia login se usuário deve trocar senha
     if (user.getMustChangePassword()) {
       log.warn("Tentativa de login com mustChangePassword=true: {}", request.getEmail());
@@ -50,7 +57,8 @@ public class AuthService implements AuthenticateUserUseCase {
           "Você deve trocar sua senha temporária antes de fazer login.");
     }
 
-    String accessToken = jwtTokenProvider.generateAccessToken(user.getEmail(), user.getRole());
+    String accessToken =
+        jwtTokenProvider.generateAccessToken(user.getEmail(), user.getRole(), user.getId());
     // RefreshToken gerado por compatibilidade com frontend, mas não é mais necessário
     // (accessToken tem validade de 7 dias - login semanal)
     String refreshToken = jwtTokenProvider.generateRefreshToken(user.getEmail());
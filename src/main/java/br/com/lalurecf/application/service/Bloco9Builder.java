@@ -0,0 +1,182 @@
+package br.com.lalurecf.application.service;
+
+import br.com.lalurecf.domain.util.SpedDocument;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Reconstrói o bloco 9 (|9001|…|9990|9999|) a partir das contagens coletadas em uma única
+ * passada pelo arquivo.
+ *
+ * <ul>
+ *   <li>|9900|TIPO_REG|QTD| — contador atualizado para cada tipo já declarado; tipos do arquivo
+ *       sem 9900 (ex: M305 vindo do Parcial) ganham um registro na posição alfabética
+ *   <li>|9990|QTD_LIN_9| — total de linhas do bloco 9 (inclui o próprio 9990)
+ *   <li>|9999|QTD_LIN| — total geral de linhas do arquivo (inclui o próprio 9999)
+ * </ul>
+ *
+ * <p>Os registros 9900 existentes mantêm sua ordem e seu layout (campos extras). Cada tipo novo
+ * entra logo após o 9900 do maior tipo declarado que o antecede na ordem dos blocos (0, A, …, Y,
+ * 9), resolvido em um {@link TreeMap} dos tipos declarados sem reescanear as linhas.
+ *
+ * <p>As linhas são acumuladas como texto e indexadas em um {@link SpedDocument} no
+ * {@link #build}: tipos e campos dos 9900 vêm dos offsets do índice, sem dividir as linhas.
+ */
+final class Bloco9Builder {
+
+  /** Totalizadores do bloco 9 que nunca recebem um 9900 novo. */
+  private static final Set<String> TIPOS_SEM_9900_NOVO =
+      Set.of("9900", "9990", "9999", "9001", "9100");
+
+  private static final int ANTES_DO_PRIMEIRO = -1;
+
+  /** Linhas originais do bloco 9, na ordem do arquivo, cada uma terminada em {@code \n}. */
+  private final StringBuilder texto = new StringBuilder();
+
+  /**
+   * Ordem dos blocos no arquivo: alfabética, exceto o bloco 9, que é sempre o último (em ordem
+   * alfabética pura "9001" viria antes de "C001"). Só registros de 4 caracteres contam como
+   * bloco 9: arquivos que declaram o bloco 0 sem zeros à esquerda (|9900|930|, |9900|990|)
+   * mantêm esses tipos antes das letras, como na ordem alfabética.
+   */
+  private static final Comparator<String> ORDEM_BLOCOS =
+      Comparator.<String, Boolean>comparing(tipo -> tipo.length() == 4 && tipo.startsWith("9"))
+          .thenComparing(Comparator.naturalOrder());
+
+  /**
+   * Adiciona uma linha original do bloco 9.
+   *
+   * @param line linha do arquivo, sem {@code \n}
+   */
+  void add(String line) {
+    texto.append(line).append('\n');
+  }
+
+  /**
+   * Gera as linhas do bloco 9 com os contadores recalculados.
+   *
+   * @param countByTipo contagem por tipo de registro de todo o arquivo
+   * @param totalGeral total de registros do arquivo
+   * @param total9 total de registros cujo tipo começa com "9"
+   * @return linhas do bloco 9, na ordem de gravação
+   */
+  List<String> build(Map<String, Integer> countByTipo, int totalGeral, int total9) {
+    SpedDocument linhas = SpedDocument.parse(texto);
+
+    // 9900 válidos (≥ 4 campos); tipo → posição do primeiro 9900 que o declara
+    int tipo9900 = linhas.tipoId("9900");
+    boolean[] registro9900 = new boolean[linhas.lineCount()];
+    TreeMap<String, Integer> declarados = new TreeMap<>(ORDEM_BLOCOS);
+    int primeiro9900 = -1;
+    int template9900 = -1;
+    for (int i = 0; i < linhas.lineCount(); i++) {
+      if (tipo9900 == SpedDocument.SEM_TIPO || linhas.tipoId(i) != tipo9900
+          || linhas.fieldCount(i) < 4) {
+        continue;
+      }
+      if (primeiro9900 < 0) {
+        primeiro9900 = i;
+      }
+      registro9900[i] = true;
+      declarados.putIfAbsent(linhas.fieldString(i, 2), i);
+      template9900 = i;
+    }
+
+    // Novos 9900: agrupados pela posição do 9900 declarado após o qual entram
+    // (ANTES_DO_PRIMEIRO = menor que todos os declarados); cada grupo fica ordenado por tipo
+    Map<Integer, TreeMap<String, Integer>> novosDepoisDe = new HashMap<>();
+    int novos = 0;
+    if (template9900 >= 0) {
+      for (Map.Entry<String, Integer> e : countByTipo.entrySet()) {
+        String tipo = e.getKey();
+        if (tipo.isEmpty() || TIPOS_SEM_9900_NOVO.contains(tipo) || declarados.containsKey(tipo)) {
+          continue;
+        }
+        Map.Entry<String, Integer> anterior = declarados.lowerEntry(tipo);
+        int grupo = anterior != null ? anterior.getValue() : ANTES_DO_PRIMEIRO;
+        novosDepoisDe.computeIfAbsent(grupo, k -> new TreeMap<>()).put(tipo, e.getValue());
+        novos++;
+      }
+    }
+
+    int total9900 = countByTipo.getOrDefault("9900", 0) + novos;
+    int numCampos = template9900 >= 0 ? linhas.fieldCount(template9900) : 0;
+    List<String> resultado = new ArrayList<>(linhas.lineCount() + novos);
+    for (int i = 0; i < linhas.lineCount(); i++) {
+      if (i == primeiro9900) {
+        appendNovos(resultado, novosDepoisDe.get(ANTES_DO_PRIMEIRO), numCampos);
+      }
+
+      if (registro9900[i]) {
+        String tipoReg = linhas.fieldString(i, 2);
+        int count = "9900".equals(tipoReg) ? total9900 : countByTipo.getOrDefault(tipoReg, 0);
+        resultado.add(render9900(linhas, i, count));
+      } else {
+        resultado.add(renderTotalizador(linhas.rawLine(i), totalGeral + novos, total9 + novos));
+      }
+
+      appendNovos(resultado, novosDepoisDe.get(i), numCampos);
+    }
+    return resultado;
+  }
+
+  /** Reescreve o 9900 com a nova quantidade (campo 3), preservando os demais campos. */
+  private static String render9900(SpedDocument linhas, int line, int count) {
+    StringBuilder sb = new StringBuilder();
+    for (int field = 0; field < linhas.fieldCount(line); field++) {
+      if (field > 0) {
+        sb.append('|');
+      }
+      if (field == 3) {
+        sb.append(count);
+      } else {
+        sb.append(linhas.field(line, field));
+      }
+    }
+    if (linhas.rawLine(line).endsWith("\r")) {
+      sb.append('\r');
+    }
+    return sb.toString();
+  }
+
+  private static String renderTotalizador(String line, int totalGeral, int total9) {
+    if (line.startsWith("|9990|") || "|9990".equals(line)) {
+      return "|9990|" + total9 + "|";
+    }
+    if (line.startsWith("|9999|") || "|9999".equals(line)) {
+      return "|9999|" + totalGeral + "|";
+    }
+    return line;
+  }
+
+  private void appendNovos(
+      List<String> resultado, TreeMap<String, Integer> novos, int numCampos) {
+    if (novos == null) {
+      return;
+    }
+    for (Map.Entry<String, Integer> e : novos.entrySet()) {
+      resultado.add(formatRegistro9900(e.getKey(), e.getValue(), numCampos));
+    }
+  }
+
+  /**
+   * Constrói uma linha |9900| com o número de campos compatível com o formato existente.
+   * Layout: |9900|TIPO_REG|QTD_REG|... campos extras vazios|
+   */
+  private static String formatRegistro9900(String tipoReg, int qtd, int numCampos) {
+    StringBuilder sb = new StringBuilder();
+    sb.append("|9900|").append(tipoReg).append("|").append(qtd).append("|");
+    // numCampos inclui os 2 vazios das pontas; já preenchemos 4 (vazio, 9900, tipo, qtd)
+    // restam (numCampos - 5) campos vazios antes do "|" final
+    int camposExtras = Math.max(0, numCampos - 5);
+    for (int i = 0; i < camposExtras; i++) {
+      sb.append("|");
+    }
+    return sb.toString();
+  }
+}
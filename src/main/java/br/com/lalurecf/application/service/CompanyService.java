@@ -33,6 +33,7 @@ import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.PlanoDe
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.TaxParameterJpaRepository;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.TaxParameterTypeJpaRepository;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.ValorParametroTemporalJpaRepository;
+import br.com.lalurecf.infrastructure.cache.CompanySnapshotCache;
 import br.com.lalurecf.infrastructure.dto.company.CompanyDetailResponse;
 import br.com.lalurecf.infrastructure.dto.company.CompanyResponse;
 import br.com.lalurecf.infrastructure.dto.company.CreateCompanyRequest;
@@ -98,6 +99,7 @@ public class CompanyService implements
   private final PeriodoContabilAuditJpaRepository periodoContabilAuditRepository;
   private final ValorParametroTemporalJpaRepository valorParametroTemporalRepository;
   private final PlanoDeContasJpaRepository planoDeContasRepository;
+  private final CompanySnapshotCache companySnapshotCache;
 
   @Override
   @Transactional
@@ -375,6 +377,7 @@ public class CompanyService implements
     }
 
     CompanyEntity updated = companyRepository.save(entity);
+    companySnapshotCache.evict(id);
     log.info("Empresa atualizada com sucesso. ID: {}", id);
 
     return toDetailResponse(updated);
@@ -435,6 +438,7 @@ public class CompanyService implements
     // Atualizar empresa
     company.setPeriodoContabil(periodoNovo);
     companyRepository.save(company);
+    companySnapshotCache.evict(companyId);
 
     log.info("Período Contábil atualizado com sucesso. "
         + "Company ID: {}, Anterior: {}, Novo: {}",
@@ -459,6 +463,8 @@ public class CompanyService implements
           return new EntityNotFoundException("Empresa não encontrada com ID: " + id);
         });
 
+    // Remove agora e de novo ao final da transação (ver CompanySnapshotCache#evict)
+    companySnapshotCache.evict(id);
     Status oldStatus = entity.getStatus();
     entity.setStatus(newStatus.toStatus());
     companyRepository.save(entity);
@@ -1,12 +1,12 @@
 package br.com.lalurecf.application.service;
 
 import br.com.lalurecf.application.port.in.ecf.DownloadEcfFileUseCase;
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
 import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
 import br.com.lalurecf.domain.enums.EcfFileType;
 import br.com.lalurecf.domain.model.EcfFile;
 import br.com.lalurecf.domain.model.EcfFileDownloadData;
 import jakarta.persistence.EntityNotFoundException;
-import java.nio.charset.StandardCharsets;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,8 +15,9 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Serviço responsável por preparar o download de arquivos ECF.
  *
- * <p>Busca o EcfFile por tipo (unique por empresa+ano+tipo) e converte o conteúdo String
- * para byte[] usando encoding ISO-8859-1 (padrão SPED ECF).
+ * <p>Busca o EcfFile por tipo (unique por empresa+ano+tipo) e devolve os metadados com a
+ * abertura preguiçosa do conteúdo no armazenamento: bytes ISO-8859-1 (padrão SPED ECF)
+ * descomprimidos em streaming, ou o GZIP armazenado sem descompressão.
  */
 @Service
 @RequiredArgsConstructor
@@ -24,6 +25,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class DownloadEcfFileService implements DownloadEcfFileUseCase {
 
   private final EcfFileRepositoryPort ecfFileRepositoryPort;
+  private final EcfContentStorePort ecfContentStorePort;
 
   @Override
   @Transactional(readOnly = true)
@@ -37,8 +39,13 @@ public class DownloadEcfFileService implements DownloadEcfFileUseCase {
             String.format("Arquivo ECF do tipo %s não encontrado para empresa %d e ano %d",
                 fileType, companyId, fiscalYear)));
 
-    byte[] bytes = ecfFile.getContent().getBytes(StandardCharsets.ISO_8859_1);
-
-    return new EcfFileDownloadData(bytes, ecfFile.getFileName(), bytes.length);
+    String hash = ecfFile.getContentHash();
+    return new EcfFileDownloadData(
+        ecfFile.getFileName(),
+        ecfFile.getSizeBytes() != null ? ecfFile.getSizeBytes() : -1,
+        hash,
+        ecfFile.getGeneratedAt(),
+        () -> ecfContentStorePort.openStream(hash),
+        () -> ecfContentStorePort.openGzipStream(hash));
   }
 }
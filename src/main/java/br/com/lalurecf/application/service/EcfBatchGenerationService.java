@@ -0,0 +1,299 @@
+package br.com.lalurecf.application.service;
+
+import br.com.lalurecf.application.port.in.ecf.GenerateArquivoParcialUseCase;
+import br.com.lalurecf.application.port.in.ecf.GenerateCompleteEcfUseCase;
+import br.com.lalurecf.application.port.in.ecf.GenerateEcfBatchUseCase;
+import br.com.lalurecf.application.port.out.AdmissionControlPort;
+import br.com.lalurecf.application.port.out.CompanyRepositoryPort;
+import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.domain.enums.Status;
+import br.com.lalurecf.domain.exception.EmptyFiscalYearException;
+import br.com.lalurecf.domain.model.Company;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfBatchGenerationResponse;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfBatchGenerationResponse.CompanyResult;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfBatchGenerationResponse.JobStatus;
+import br.com.lalurecf.infrastructure.dto.ecf.GenerateArquivoParcialResponse;
+import br.com.lalurecf.infrastructure.dto.ecf.GenerateCompleteEcfResponse;
+import br.com.lalurecf.infrastructure.exception.ServerBusyException;
+import br.com.lalurecf.infrastructure.security.ContextSnapshot;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.concurrent.DelegatingSecurityContextExecutorService;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Serviço de geração em lote dos arquivos ECF de todas as empresas ativas.
+ *
+ * <p>O lote roda em segundo plano: {@link #start} devolve o jobId e a situação do lote é
+ * consultada por polling em {@link #findJob}, com os resultados das empresas já processadas.
+ * Há no máximo um lote em execução por ano fiscal.
+ *
+ * <p>As empresas são processadas com concorrência limitada ({@code ecf.batch.concurrency},
+ * limitada a uma conexão a menos que o pool, que fica livre para as demais requisições). Como o
+ * lote continua depois que a requisição devolve a sua vaga, cada worker ocupa uma vaga própria
+ * no controle de admissão ({@link AdmissionControlPort}), obtida ao iniciar o lote e devolvida ao
+ * final; sem vagas livres o lote roda com menos workers, e sem nenhuma não é iniciado (HTTP
+ * 429). Com threads virtuais habilitadas, os workers do lote também são virtuais.
+ *
+ * <p>Cada empresa roda em transação própria, com o {@code CompanyContext} e o
+ * {@code FiscalYearContext} da empresa vinculados ao worker ({@link ContextSnapshot}): Arquivo
+ * Parcial e, se houver ECF Importado, ECF Completo são confirmados ou revertidos juntos, sem
+ * afetar as demais empresas do lote. Empresas sem lançamentos da Parte B no ano são ignoradas,
+ * não contadas como falha.
+ *
+ * <p>Os lotes ficam em memória por {@code ecf.batch.job-retention-minutes} após o fim: válido
+ * enquanto a aplicação roda em uma única instância.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+public class EcfBatchGenerationService implements GenerateEcfBatchUseCase {
+
+  private static final long RETRY_AFTER_SECONDS = 5;
+  private static final String BUSY_MESSAGE =
+      "Servidor ocupado com outras importações/gerações. Tente novamente em instantes.";
+
+  private final CompanyRepositoryPort companyRepositoryPort;
+  private final EcfFileRepositoryPort ecfFileRepositoryPort;
+  private final GenerateArquivoParcialUseCase generateArquivoParcialUseCase;
+  private final GenerateCompleteEcfUseCase generateCompleteEcfUseCase;
+  private final PlatformTransactionManager transactionManager;
+  private final AdmissionControlPort admissionControlPort;
+
+  private final Map<String, BatchJob> jobs = new ConcurrentHashMap<>();
+
+  @Value("${ecf.batch.concurrency:4}")
+  private int concurrency;
+
+  @Value("${ecf.batch.job-retention-minutes:60}")
+  private long jobRetentionMinutes;
+
+  @Value("${spring.datasource.hikari.maximum-pool-size:10}")
+  private int connectionPoolSize;
+
+  @Value("${spring.threads.virtual.enabled:false}")
+  private boolean virtualThreads;
+
+  @Override
+  public synchronized EcfBatchGenerationResponse start(Integer fiscalYear, String generatedBy) {
+    purgeExpiredJobs();
+    // Dois lotes do mesmo ano gravariam os mesmos arquivos: o segundo POST acompanha o primeiro
+    for (BatchJob job : jobs.values()) {
+      if (job.fiscalYear.equals(fiscalYear) && !job.isFinished()) {
+        return job.snapshot();
+      }
+    }
+
+    List<Company> companies = companyRepositoryPort.findAllByStatus(Status.ACTIVE);
+
+    int desejados = Math.max(1, Math.min(concurrency, connectionPoolSize - 1));
+    int workers = admissionControlPort.tryAcquireAdditional(desejados);
+    if (workers == 0) {
+      throw new ServerBusyException(BUSY_MESSAGE, RETRY_AFTER_SECONDS);
+    }
+
+    BatchJob job = new BatchJob(UUID.randomUUID().toString(), fiscalYear, companies.size());
+    jobs.put(job.id, job);
+    log.info("Gerando ECF em lote: jobId={}, fiscalYear={}, empresas={}, concorrencia={}",
+        job.id, fiscalYear, companies.size(), workers);
+
+    ThreadFactory threads = virtualThreads
+        ? Thread.ofVirtual().name("ecf-batch-job-", 0).factory()
+        : Thread.ofPlatform().name("ecf-batch-job-", 0).factory();
+    // Propaga o SecurityContext do chamador para o lote (auditoria createdBy/updatedBy)
+    threads.newThread(new DelegatingSecurityContextRunnable(
+        () -> run(job, companies, generatedBy, workers))).start();
+    return job.snapshot();
+  }
+
+  @Override
+  public Optional<EcfBatchGenerationResponse> findJob(String jobId) {
+    return Optional.ofNullable(jobs.get(jobId)).map(BatchJob::snapshot);
+  }
+
+  /**
+   * Conclusão do lote, para quem precisa aguardá-lo (testes).
+   *
+   * @param jobId identificador do lote
+   * @return future completado com o relatório final
+   */
+  CompletableFuture<EcfBatchGenerationResponse> completion(String jobId) {
+    return jobs.get(jobId).done;
+  }
+
+  private void run(BatchJob job, List<Company> companies, String generatedBy, int workers) {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    ExecutorService executor = new DelegatingSecurityContextExecutorService(virtualThreads
+        ? Executors.newFixedThreadPool(workers, Thread.ofVirtual().name("ecf-batch-", 0).factory())
+        : Executors.newFixedThreadPool(workers));
+
+    JobStatus status = JobStatus.COMPLETED;
+    String error = null;
+    try {
+      List<CompletableFuture<Void>> futures = new ArrayList<>(companies.size());
+      for (int i = 0; i < companies.size(); i++) {
+        Company company = companies.get(i);
+        int posicao = i;
+        ContextSnapshot contexto = new ContextSnapshot(company.getId(), company, job.fiscalYear);
+        futures.add(CompletableFuture.runAsync(
+            () -> job.complete(posicao,
+                processCompany(company, job.fiscalYear, generatedBy, transactionTemplate)),
+            task -> executor.execute(contexto.wrap(task))));
+      }
+      CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    } catch (RuntimeException e) {
+      log.error("Lote ECF interrompido: jobId={}, fiscalYear={}", job.id, job.fiscalYear, e);
+      status = JobStatus.FAILED;
+      error = e.getMessage();
+    } finally {
+      // Aguarda os workers antes de devolver as vagas que eles ocupam
+      executor.close();
+      admissionControlPort.releaseAdditional(workers);
+    }
+
+    EcfBatchGenerationResponse report = job.finish(status, error);
+    log.info("Lote ECF concluído: jobId={}, fiscalYear={}, total={}, sucesso={}, ignoradas={}, "
+            + "erro={}, completos={}, duracaoMs={}, empresas/s={}",
+        job.id, job.fiscalYear, report.getTotalCompanies(), report.getSucceeded(),
+        report.getSkipped(), report.getFailed(), report.getCompletosGerados(),
+        report.getDurationMs(), String.format("%.2f", report.getCompaniesPerSecond()));
+  }
+
+  private void purgeExpiredJobs() {
+    LocalDateTime limite = LocalDateTime.now().minusMinutes(jobRetentionMinutes);
+    jobs.values().removeIf(job -> job.finishedBefore(limite));
+  }
+
+  private CompanyResult processCompany(
+      Company company, Integer fiscalYear, String generatedBy,
+      TransactionTemplate transactionTemplate) {
+
+    long inicio = System.nanoTime();
+    CompanyResult.CompanyResultBuilder result = CompanyResult.builder()
+        .companyId(company.getId())
+        .cnpj(company.getCnpj() != null ? company.getCnpj().getValue() : null)
+        .razaoSocial(company.getRazaoSocial());
+
+    try {
+      Long[] fileIds = transactionTemplate.execute(status -> {
+        GenerateArquivoParcialResponse parcial =
+            generateArquivoParcialUseCase.generate(fiscalYear, company.getId(), generatedBy);
+
+        Long completoId = null;
+        if (ecfFileRepositoryPort.existsByCompanyAndFiscalYearAndType(
+            company.getId(), fiscalYear, EcfFileType.IMPORTED_ECF)) {
+          GenerateCompleteEcfResponse completo =
+              generateCompleteEcfUseCase.generate(fiscalYear, company.getId(), generatedBy);
+          completoId = completo.getEcfFileId();
+        }
+        return new Long[] {parcial.getEcfFileId(), completoId};
+      });
+
+      result.success(true).parcialFileId(fileIds[0]).completoFileId(fileIds[1]);
+    } catch (EmptyFiscalYearException e) {
+      log.info("Empresa sem lançamentos ignorada no lote: companyId={}, fiscalYear={}",
+          company.getId(), fiscalYear);
+      result.skipped(true).skipReason(e.getMessage());
+    } catch (RuntimeException e) {
+      log.warn("Falha na geração em lote: companyId={}, fiscalYear={}, erro={}",
+          company.getId(), fiscalYear, e.getMessage());
+      result.success(false).error(e.getMessage());
+    }
+
+    return result.durationMs((System.nanoTime() - inicio) / 1_000_000).build();
+  }
+
+  /** Lote em execução ou concluído: resultados por posição da empresa no lote. */
+  private static final class BatchJob {
+
+    private final String id;
+    private final Integer fiscalYear;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long inicio = System.nanoTime();
+    private final CompanyResult[] results;
+    private final CompletableFuture<EcfBatchGenerationResponse> done = new CompletableFuture<>();
+    private JobStatus status = JobStatus.RUNNING;
+    private LocalDateTime finishedAt;
+    private long durationMs;
+    private String error;
+
+    private BatchJob(String id, Integer fiscalYear, int totalCompanies) {
+      this.id = id;
+      this.fiscalYear = fiscalYear;
+      this.results = new CompanyResult[totalCompanies];
+    }
+
+    private synchronized void complete(int posicao, CompanyResult result) {
+      results[posicao] = result;
+    }
+
+    private EcfBatchGenerationResponse finish(JobStatus finalStatus, String finalError) {
+      EcfBatchGenerationResponse report;
+      synchronized (this) {
+        status = finalStatus;
+        error = finalError;
+        finishedAt = LocalDateTime.now();
+        durationMs = (System.nanoTime() - inicio) / 1_000_000;
+        report = snapshot();
+      }
+      done.complete(report);
+      return report;
+    }
+
+    private synchronized boolean isFinished() {
+      return status != JobStatus.RUNNING;
+    }
+
+    private synchronized boolean finishedBefore(LocalDateTime limite) {
+      return finishedAt != null && finishedAt.isBefore(limite);
+    }
+
+    private synchronized EcfBatchGenerationResponse snapshot() {
+      List<CompanyResult> processadas =
+          Arrays.stream(results).filter(Objects::nonNull).toList();
+      int succeeded = (int) processadas.stream().filter(CompanyResult::isSuccess).count();
+      int skipped = (int) processadas.stream().filter(CompanyResult::isSkipped).count();
+      int completos = (int) processadas.stream().filter(r -> r.getCompletoFileId() != null).count();
+      long duracao = finishedAt != null ? durationMs : (System.nanoTime() - inicio) / 1_000_000;
+      double companiesPerSecond =
+          duracao > 0 ? processadas.size() * 1000.0 / duracao : processadas.size();
+
+      return EcfBatchGenerationResponse.builder()
+          .jobId(id)
+          .status(status)
+          .fiscalYear(fiscalYear)
+          .startedAt(startedAt)
+          .finishedAt(finishedAt)
+          .totalCompanies(results.length)
+          .processedCompanies(processadas.size())
+          .succeeded(succeeded)
+          .skipped(skipped)
+          .failed(processadas.size() - succeeded - skipped)
+          .completosGerados(completos)
+          .durationMs(duracao)
+          .companiesPerSecond(companiesPerSecond)
+          .error(error)
+          .results(new ArrayList<>(processadas))
+          .build();
+    }
+  }
+}
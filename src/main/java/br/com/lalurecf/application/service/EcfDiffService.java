@@ -0,0 +1,166 @@
+package br.com.lalurecf.application.service;
+
+import br.com.lalurecf.application.port.in.ecf.DiffEcfFilesUseCase;
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.domain.model.EcfFile;
+import br.com.lalurecf.domain.util.Centavos;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfDiffResponse;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfDiffResponse.BlockDiff;
+import jakarta.persistence.EntityNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Serviço de comparação estrutural do bloco M entre dois arquivos ECF.
+ *
+ * <p>Os dois arquivos são indexados com {@link EcfMergerService#parseParcial} (mesma chave
+ * {codigoApuracao}|{tipo}|{codigoEnquadramento} usada no merge) e comparados em tempo linear:
+ * cada bloco da base é procurado no índice do alvo por hash, e os blocos do alvo que não
+ * existem na base são os adicionados.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EcfDiffService implements DiffEcfFilesUseCase {
+
+  private static final int CAMPO_TOTAL_VALOR = 6;
+
+  private final EcfFileRepositoryPort ecfFileRepositoryPort;
+  private final EcfContentStorePort ecfContentStorePort;
+
+  @Override
+  @Transactional(readOnly = true)
+  public EcfDiffResponse diff(
+      Long companyId, Integer fiscalYear, Long baseFileId, Long targetFileId) {
+    if ((baseFileId == null) != (targetFileId == null)) {
+      throw new IllegalArgumentException("Informe baseFileId e targetFileId, ou nenhum dos dois");
+    }
+
+    EcfFile base;
+    EcfFile target;
+    if (baseFileId == null) {
+      base = findByType(companyId, fiscalYear, EcfFileType.IMPORTED_ECF);
+      target = findByType(companyId, fiscalYear, EcfFileType.COMPLETE_ECF);
+    } else {
+      base = findOwned(baseFileId, companyId);
+      target = findOwned(targetFileId, companyId);
+    }
+    log.info("Comparando EcfFiles: base={}, alvo={}, companyId={}",
+        base.getId(), target.getId(), companyId);
+
+    EcfDiffResponse response = diff(blockIndex(base), blockIndex(target));
+    response.setBaseFileId(base.getId());
+    response.setBaseFileType(base.getFileType());
+    response.setTargetFileId(target.getId());
+    response.setTargetFileType(target.getFileType());
+
+    log.info("Comparação concluída: adicionados={}, removidos={}, alterados={}, iguais={}",
+        response.getAdded().size(), response.getRemoved().size(),
+        response.getChanged().size(), response.getUnchanged());
+    return response;
+  }
+
+  /**
+   * Compara dois índices de blocos, na ordem em que aparecem nos arquivos.
+   *
+   * @param base índice da base (chave → linhas do bloco)
+   * @param alvo índice do alvo (chave → linhas do bloco)
+   * @return diferenças, sem os IDs e tipos dos arquivos
+   */
+  EcfDiffResponse diff(Map<String, List<String>> base, Map<String, List<String>> alvo) {
+    EcfDiffResponse response = new EcfDiffResponse();
+    int iguais = 0;
+    for (Map.Entry<String, List<String>> entry : base.entrySet()) {
+      List<String> linhasAlvo = alvo.get(entry.getKey());
+      if (linhasAlvo == null) {
+        response.getRemoved().add(blockDiff(entry.getKey(), entry.getValue(), null));
+      } else if (linhasAlvo.equals(entry.getValue())) {
+        iguais++;
+      } else {
+        response.getChanged().add(blockDiff(entry.getKey(), entry.getValue(), linhasAlvo));
+      }
+    }
+    for (Map.Entry<String, List<String>> entry : alvo.entrySet()) {
+      if (!base.containsKey(entry.getKey())) {
+        response.getAdded().add(blockDiff(entry.getKey(), null, entry.getValue()));
+      }
+    }
+    response.setUnchanged(iguais);
+    return response;
+  }
+
+  /** Índice de blocos do bloco M, lido do conteúdo em streaming. */
+  private Map<String, List<String>> blockIndex(EcfFile ecfFile) {
+    try (Reader reader = new InputStreamReader(
+        ecfContentStorePort.openStream(ecfFile.getContentHash()), StandardCharsets.ISO_8859_1)) {
+      return EcfMergerService.parseParcial(reader).blockIndex();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Erro ao ler EcfFile " + ecfFile.getId(), e);
+    }
+  }
+
+  private BlockDiff blockDiff(String chave, List<String> linhasBase, List<String> linhasAlvo) {
+    String[] partesChave = chave.split("\\|", -1);
+    Long valorBase = linhasBase != null ? totalValor(linhasBase.get(0)) : null;
+    Long valorAlvo = linhasAlvo != null ? totalValor(linhasAlvo.get(0)) : null;
+    boolean valorInvalido =
+        (linhasBase != null && valorBase == null) || (linhasAlvo != null && valorAlvo == null);
+
+    return BlockDiff.builder()
+        .key(chave)
+        .codigoApuracao(partesChave[0])
+        .registro(partesChave[1])
+        .codigoEnquadramento(partesChave[2])
+        .valorBase(valorBase != null ? Centavos.toBigDecimal(valorBase) : null)
+        .valorAlvo(valorAlvo != null ? Centavos.toBigDecimal(valorAlvo) : null)
+        .delta(valorInvalido ? null : Centavos.toBigDecimal(Centavos.subtract(
+            valorAlvo != null ? valorAlvo : Centavos.ZERO,
+            valorBase != null ? valorBase : Centavos.ZERO)))
+        .linhasBase(linhasBase != null ? linhasBase : List.of())
+        .linhasAlvo(linhasAlvo != null ? linhasAlvo : List.of())
+        .build();
+  }
+
+  /** totalValor do M300/M350 em centavos, ou null se ausente ou inválido. */
+  private static Long totalValor(String linhaPai) {
+    String[] campos = linhaPai.split("\\|", -1);
+    if (campos.length <= CAMPO_TOTAL_VALOR || campos[CAMPO_TOTAL_VALOR].isEmpty()) {
+      return null;
+    }
+    try {
+      return Centavos.parse(campos[CAMPO_TOTAL_VALOR]);
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  private EcfFile findByType(Long companyId, Integer fiscalYear, EcfFileType fileType) {
+    return ecfFileRepositoryPort
+        .findByCompanyAndFiscalYearAndType(companyId, fiscalYear, fileType)
+        .orElseThrow(() -> new EntityNotFoundException(
+            String.format("Arquivo ECF do tipo %s não encontrado para empresa %d e ano %d",
+                fileType, companyId, fiscalYear)));
+  }
+
+  private EcfFile findOwned(Long ecfFileId, Long companyId) {
+    EcfFile ecfFile = ecfFileRepositoryPort.findById(ecfFileId)
+        .orElseThrow(() -> new EntityNotFoundException(
+            "EcfFile não encontrado: " + ecfFileId));
+    if (!ecfFile.getCompanyId().equals(companyId)) {
+      throw new AccessDeniedException("Arquivo ECF não pertence à empresa informada");
+    }
+    return ecfFile;
+  }
+}
@@ -2,20 +2,33 @@ package br.com.lalurecf.application.service;
 
 import br.com.lalurecf.application.port.in.ecf.GenerateCompleteEcfUseCase;
 import br.com.lalurecf.application.port.out.CompanyRepositoryPort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort.StoredContent;
 import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
 import br.com.lalurecf.domain.enums.EcfFileStatus;
 import br.com.lalurecf.domain.enums.EcfFileType;
 import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.model.Company;
 import br.com.lalurecf.domain.model.EcfFile;
+import br.com.lalurecf.domain.util.SpedDocument;
 import br.com.lalurecf.infrastructure.dto.ecf.GenerateCompleteEcfResponse;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -28,11 +41,17 @@ import org.springframework.transaction.annotation.Transactional;
  * <ol>
  *   <li>Carrega IMPORTED_ECF e ARQUIVO_PARCIAL do repositório</li>
  *   <li>Parseia o Parcial em mapa indexado por {codigoApuracao}|{tipo}|{codigoEnquadramento}</li>
- *   <li>Percorre Importado linha a linha; substitui M300/M350 cujo código existe no Parcial</li>
+ *   <li>Obtém o índice do Importado (cacheado por hash) e percorre apenas o bloco M, substituindo
+ *   M300/M350 cujo código existe no Parcial; o restante é copiado em bloco do stream do conteúdo
+ *   armazenado, sem carregar o arquivo em memória</li>
  *   <li>Adiciona M030 do Parcial ausentes no Importado e M400/M410/M405 do Parcial</li>
- *   <li>Recalcula M990</li>
- *   <li>Salva como COMPLETE_ECF</li>
+ *   <li>Recalcula M990 e os totalizadores do bloco 9, na mesma passada</li>
+ *   <li>Grava o resultado direto no armazenamento de conteúdo e salva como COMPLETE_ECF</li>
  * </ol>
+ *
+ * <p>Parcial, bloco M e bloco 9 do Importado são lidos pelo {@link SpedDocument}. Só o merge de
+ * Importados fora da estrutura do {@link ImportedEcfIndex} percorre o arquivo inteiro linha a
+ * linha do stream, extraindo tipo e campos com a mesma convenção.
  */
 @Service
 @RequiredArgsConstructor
@@ -41,6 +60,8 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
 
   private final EcfFileRepositoryPort ecfFileRepositoryPort;
   private final CompanyRepositoryPort companyRepositoryPort;
+  private final EcfContentStorePort ecfContentStorePort;
+  private final ImportedEcfIndexService importedEcfIndexService;
 
   @Override
   @Transactional
@@ -63,16 +84,28 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
                 + "Gere o Arquivo Parcial antes de gerar o ECF Completo."));
 
     // Passo 2: Parsear o Parcial
-    ParsedParcial parsed = parseParcial(parcialFile.getContent());
-
-    // Passos 3, 4: Merge linha a linha
-    List<String> resultLines = mergeContent(importedEcf.getContent(), parsed);
-
-    // Passo 5: Recalcular M990 e os totalizadores do bloco 9 (9900/9990/9999)
-    recalcularM990(resultLines);
-    recalcularBloco9(resultLines);
+    ParsedParcial parsed;
+    try (Reader reader = new InputStreamReader(
+        ecfContentStorePort.openStream(parcialFile.getContentHash()),
+        StandardCharsets.ISO_8859_1)) {
+      parsed = parseParcial(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Erro ao ler Arquivo Parcial: " + e.getMessage(), e);
+    }
 
-    String resultContent = String.join("\n", resultLines) + "\n";
+    // Passos 3 a 5: merge em passada única (índice → armazenamento de conteúdo), contando os
+    // tipos de registro e recalculando M990 e o bloco 9 (9900/9990/9999) ao final
+    ImportedEcfIndex imported = importedEcfIndexService.indexar(importedEcf.getContentHash());
+    AtomicReference<MergeResult> merged = new AtomicReference<>();
+    StoredContent stored;
+    try (Reader reader = new InputStreamReader(
+        ecfContentStorePort.openStream(importedEcf.getContentHash()),
+        StandardCharsets.ISO_8859_1)) {
+      stored = ecfContentStorePort.store(
+          writer -> merged.set(merge(imported, reader, parsed, writer)));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Erro ao gerar ECF Completo: " + e.getMessage(), e);
+    }
 
     // Passo 6: Salvar como COMPLETE_ECF
     Company company = companyRepositoryPort.findById(companyId)
@@ -85,7 +118,9 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
         .fileType(EcfFileType.COMPLETE_ECF)
         .companyId(companyId)
         .fiscalYear(fiscalYear)
-        .content(resultContent)
+        .contentHash(stored.hash())
+        .sizeBytes(stored.sizeBytes())
+        .lineCount(stored.lineCount())
         .fileName(fileName)
         .fileStatus(EcfFileStatus.DRAFT)
         .generatedAt(LocalDateTime.now())
@@ -98,26 +133,33 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
     EcfFile saved = ecfFileRepositoryPort.saveOrReplace(completeEcf);
     log.info("ECF Completo salvo: id={}, fileName={}", saved.getId(), saved.getFileName());
 
-    int totalLinhas = extractM990Count(resultLines);
-
     return new GenerateCompleteEcfResponse(
         true,
         "ECF Completo gerado com sucesso",
         saved.getId(),
         saved.getFileName(),
-        (long) resultContent.length(),
+        merged.get().caracteres(),
         importedEcf.getId(),
         parcialFile.getId(),
-        totalLinhas);
+        merged.get().totalLinhasM990());
   }
 
   /**
    * Parseia o Arquivo Parcial em estruturas indexadas para uso no merge.
    *
    * <p>Indexa M300/M350 com seus filhos (M305/M310/M355/M360) por chave
-   * {codigoApuracao}|{tipo}|{codigoEnquadramento}. Coleta M030 completos e M400/M410/M405.
+   * {codigoApuracao}|{tipo}|{codigoEnquadramento}. Coleta M030 completos e M400/M410/M405. O
+   * Parcial contém só o bloco M e é lido inteiro em um {@link SpedDocument}.
+   *
+   * @param reader conteúdo do Arquivo Parcial; não é fechado
+   * @return Parcial indexado
+   * @throws IOException se ocorrer erro de leitura
    */
-  ParsedParcial parseParcial(String parcialContent) {
+  static ParsedParcial parseParcial(Reader reader) throws IOException {
+    StringWriter conteudo = new StringWriter();
+    reader.transferTo(conteudo);
+    SpedDocument doc = SpedDocument.parse(conteudo.toString());
+
     Map<String, List<String>> blockIndex = new LinkedHashMap<>();
     Set<String> periodos = new LinkedHashSet<>();
     Map<String, List<String>> m030Blocks = new LinkedHashMap<>();
@@ -128,18 +170,19 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
     List<String> m030BlocoAtual = null;
     boolean inM400 = false;
 
-    for (String line : parcialContent.split("\n")) {
-      String tipo = extractTipo(line);
+    for (int i = 0; i < doc.lineCount(); i++) {
+      String tipo = doc.tipo(i);
       if (tipo == null) {
         continue;
       }
+      String line = doc.rawLine(i);
 
       switch (tipo) {
         case "M030" -> {
           if (periodoAtual != null && m030BlocoAtual != null) {
             m030Blocks.put(periodoAtual, new ArrayList<>(m030BlocoAtual));
           }
-          periodoAtual = extractField(line, 4);
+          periodoAtual = doc.fieldString(i, 4);
           periodos.add(periodoAtual);
           m030BlocoAtual = new ArrayList<>();
           m030BlocoAtual.add(line);
@@ -147,8 +190,7 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
           inM400 = false;
         }
         case "M300", "M350" -> {
-          String codigo = extractField(line, 2);
-          chaveAtual = periodoAtual + "|" + tipo + "|" + codigo;
+          chaveAtual = periodoAtual + "|" + tipo + "|" + doc.fieldString(i, 2);
           blockIndex.put(chaveAtual, new ArrayList<>(List.of(line)));
           if (m030BlocoAtual != null) {
             m030BlocoAtual.add(line);
@@ -187,33 +229,79 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
   }
 
   /**
-   * Executa o merge linha a linha do ECF Importado usando os dados do Parcial.
+   * Executa o merge do ECF Importado com o Parcial em uma única passada.
+   *
+   * <p>Lê o Importado do {@code reader} e grava o resultado no {@code writer} à medida que
+   * avança: apenas o bloco M (para recalcular o M990) e o bloco 9 (para os totalizadores)
+   * ficam em memória. Os tipos de registro são contados on-the-fly e o bloco 9 é reescrito
+   * ao final com as contagens do arquivo resultante.
+   *
+   * <p>Linhas são separadas por {@code \n} (um {@code \r} final é preservado na linha) e
+   * linhas vazias ao final do arquivo são descartadas; o resultado termina com {@code \n}.
+   *
+   * @param reader conteúdo do ECF Importado
+   * @param parsed Parcial já indexado
+   * @param writer destino do ECF Completo
+   * @return estatísticas do arquivo gerado
+   * @throws IOException se ocorrer erro de leitura ou escrita
    */
-  List<String> mergeContent(String importedContent, ParsedParcial parsed) {
-    List<String> result = new ArrayList<>();
-    String[] importedLines = importedContent.split("\n");
+  MergeResult merge(Reader reader, ParsedParcial parsed, Writer writer) throws IOException {
+    SaidaMerge saida = new SaidaMerge(writer);
+    mergeLinhas(new LinhasDoStream(new LinhaReader(reader)), parsed, saida);
+    return saida.finish();
+  }
 
+  /**
+   * Executa o merge a partir do índice cacheado do ECF Importado.
+   *
+   * <p>Resultado idêntico a {@link #merge(Reader, ParsedParcial, Writer)}, mas prefixo e sufixo
+   * (tudo fora do bloco M e do bloco 9) são copiados em bloco do {@code reader}, com as
+   * contagens de registros pré-calculadas no índice: só o bloco M e o bloco 9 do índice são
+   * percorridos, pelos seus {@link SpedDocument}, e o bloco M e o bloco 9 do {@code reader} são
+   * descartados.
+   *
+   * @param imported índice do ECF Importado
+   * @param reader conteúdo do ECF Importado (o mesmo que gerou o índice)
+   * @param parsed Parcial já indexado
+   * @param writer destino do ECF Completo
+   * @return estatísticas do arquivo gerado
+   * @throws IOException se ocorrer erro de leitura ou escrita
+   */
+  MergeResult merge(ImportedEcfIndex imported, Reader reader, ParsedParcial parsed,
+      Writer writer) throws IOException {
+    if (!imported.isEstruturado()) {
+      return merge(reader, parsed, writer);
+    }
+    SaidaMerge saida = new SaidaMerge(writer);
+    saida.addTrecho(reader, imported.fimPrefixo(), imported.contagemPrefixo());
+    pular(reader, imported.inicioSufixo() - imported.fimPrefixo());
+    mergeLinhas(new LinhasDoDocumento(imported.documentoBlocoM()), parsed, saida);
+    saida.addTrecho(reader, imported.fimSufixo() - imported.inicioSufixo(),
+        imported.contagemSufixo());
+    SpedDocument bloco9 = imported.documentoBloco9();
+    for (int i = 0; i < bloco9.lineCount(); i++) {
+      saida.add(bloco9.rawLine(i), bloco9.tipo(i));
+    }
+    return saida.finish();
+  }
+
+  private void mergeLinhas(Linhas linhas, ParsedParcial parsed, SaidaMerge saida)
+      throws IOException {
     boolean inBlocoM = false;
+    boolean afterM990 = false;
     String periodoAtual = "";
     boolean substituindo = false;
-    Set<String> keysUsed = new LinkedHashSet<>();
-    Set<String> periodosInImportado = new LinkedHashSet<>();
+    Set<String> keysUsed = new HashSet<>();
+    Set<String> periodosInImportado = new HashSet<>();
     List<String> blocoLinhas = new ArrayList<>();
-    List<String> linhasAposM = new ArrayList<>();
-    boolean afterM990 = false;
 
-    for (String line : importedLines) {
-      String tipo = extractTipo(line);
-
-      // Linhas após M990: copiadas sem alteração
-      if (afterM990) {
-        linhasAposM.add(line);
-        continue;
-      }
+    while (linhas.next()) {
+      String line = linhas.linha();
+      String tipo = linhas.tipo();
 
-      // Linhas antes de M001: copiadas sem alteração
-      if (!inBlocoM && !"M001".equals(tipo)) {
-        result.add(line);
+      // Linhas antes de M001 e após M990: copiadas sem alteração
+      if (afterM990 || (!inBlocoM && !"M001".equals(tipo))) {
+        saida.add(line, tipo);
         continue;
       }
 
@@ -225,7 +313,7 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
 
       if ("M990".equals(tipo)) {
         // Inserir M300/M350 não usados do período atual antes do M990
-        blocoLinhas.addAll(buildUnusedForPeriod(periodoAtual, parsed.blockIndex, keysUsed));
+        addUnusedForPeriod(periodoAtual, parsed.blockIndex, keysUsed, blocoLinhas);
         // Adicionar M030 do Parcial não presentes no Importado
         for (String periodo : parsed.periodos) {
           if (!periodosInImportado.contains(periodo)) {
@@ -237,8 +325,10 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
         }
         // Adicionar M400/M410/M405 do Parcial
         blocoLinhas.addAll(parsed.m400Lines);
-        // M990 placeholder — será recalculado
-        blocoLinhas.add("|M990|0|");
+        // M990 recalculado: total de linhas do bloco M, incluindo M001 e o próprio M990
+        blocoLinhas.add("|M990|" + (blocoLinhas.size() + 1) + "|");
+        saida.addAll(blocoLinhas);
+        blocoLinhas.clear();
         afterM990 = true;
         inBlocoM = false;
         continue;
@@ -246,10 +336,8 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
 
       if ("M030".equals(tipo)) {
         // Fechar período anterior
-        if (!periodoAtual.isEmpty()) {
-          blocoLinhas.addAll(buildUnusedForPeriod(periodoAtual, parsed.blockIndex, keysUsed));
-        }
-        periodoAtual = extractField(line, 4);
+        addUnusedForPeriod(periodoAtual, parsed.blockIndex, keysUsed, blocoLinhas);
+        periodoAtual = linhas.campo(4);
         periodosInImportado.add(periodoAtual);
         substituindo = false;
         blocoLinhas.add(line);
@@ -257,10 +345,10 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
       }
 
       if ("M300".equals(tipo) || "M350".equals(tipo)) {
-        String codigo = extractField(line, 2);
-        String chave = periodoAtual + "|" + tipo + "|" + codigo;
-        if (parsed.blockIndex.containsKey(chave)) {
-          blocoLinhas.addAll(parsed.blockIndex.get(chave));
+        String chave = periodoAtual + "|" + tipo + "|" + linhas.campo(2);
+        List<String> substituto = parsed.blockIndex.get(chave);
+        if (substituto != null) {
+          blocoLinhas.addAll(substituto);
           keysUsed.add(chave);
           substituindo = true;
         } else {
@@ -289,235 +377,221 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
       blocoLinhas.add(line);
     }
 
-    result.addAll(blocoLinhas);
-    result.addAll(linhasAposM);
-    return result;
+    // Importado sem M990: o bloco M vai até o fim do arquivo, sem recálculo
+    saida.addAll(blocoLinhas);
   }
 
-  private List<String> buildUnusedForPeriod(
-      String periodo, Map<String, List<String>> blockIndex, Set<String> keysUsed) {
-    List<String> lines = new ArrayList<>();
+  /** Descarta {@code quantidade} caracteres do {@code reader}. */
+  private static void pular(Reader reader, long quantidade) throws IOException {
+    long restante = quantidade;
+    while (restante > 0) {
+      long pulados = reader.skip(restante);
+      if (pulados <= 0) {
+        throw new EOFException("ECF Importado menor que o índice (conteúdo alterado?)");
+      }
+      restante -= pulados;
+    }
+  }
+
+  private void addUnusedForPeriod(
+      String periodo, Map<String, List<String>> blockIndex, Set<String> keysUsed,
+      List<String> destino) {
     if (periodo.isEmpty()) {
-      return lines;
+      return;
     }
+    String prefixo = periodo + "|";
     for (Map.Entry<String, List<String>> entry : blockIndex.entrySet()) {
       String key = entry.getKey();
-      if (key.startsWith(periodo + "|") && !keysUsed.contains(key)) {
-        lines.addAll(entry.getValue());
-        keysUsed.add(key);
+      if (key.startsWith(prefixo) && keysUsed.add(key)) {
+        destino.addAll(entry.getValue());
       }
     }
-    return lines;
+  }
+
+  private static int parseIntOrZero(String value) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      return 0;
+    }
   }
 
   /**
-   * Recalcula os totalizadores do bloco 9 (encerramento do arquivo).
-   *
-   * <ul>
-   *   <li>|9900|TIPO_REG|QTD| — quantidade de registros de cada tipo no arquivo
-   *   <li>|9990|QTD_LIN_9| — total de linhas do bloco 9 (inclui o próprio 9990)
-   *   <li>|9999|QTD_LIN| — total geral de linhas do arquivo (inclui o próprio 9999)
-   * </ul>
+   * Destino das linhas do merge: grava direto no {@link Writer} e contabiliza cada registro.
    *
-   * <p>Os tipos listados nos registros 9900 são preservados; apenas o contador é atualizado
-   * com a contagem atual do arquivo após o merge.
+   * <p>A partir do primeiro registro do bloco 9 (tipo iniciado por "9") as linhas passam a
+   * ser retidas no {@link Bloco9Builder}, pois os totalizadores só são conhecidos ao final.
    */
-  void recalcularBloco9(List<String> resultLines) {
-    // Contagem de cada tipo de registro no arquivo final
-    Map<String, Integer> countByTipo = new LinkedHashMap<>();
-    for (String line : resultLines) {
-      String tipo = extractTipo(line);
-      if (tipo != null) {
-        countByTipo.merge(tipo, 1, Integer::sum);
-      }
+  private final class SaidaMerge {
+
+    private final Writer writer;
+    private final Map<String, Integer> countByTipo = new LinkedHashMap<>();
+    private Bloco9Builder bloco9;
+    private int totalGeral;
+    private int total9;
+    private long caracteres;
+    private Integer m990Declarado;
+
+    SaidaMerge(Writer writer) {
+      this.writer = writer;
     }
 
-    // Atualizar cada |9900|TIPO|QTD| com a contagem correta;
-    // coletar tipos que já têm registro 9900 (para depois identificar os faltantes).
-    Set<String> tiposComRegistro9900 = new LinkedHashSet<>();
-    int ultimoIndice9900 = -1;
-    String template9900 = null;
-    for (int i = 0; i < resultLines.size(); i++) {
-      String line = resultLines.get(i);
-      if (!"9900".equals(extractTipo(line))) {
-        continue;
-      }
-      String[] parts = line.split("\\|", -1);
-      if (parts.length < 4) {
-        continue;
-      }
-      String tipoReg = parts[2];
-      tiposComRegistro9900.add(tipoReg);
-      int novoCount = countByTipo.getOrDefault(tipoReg, 0);
-      parts[3] = String.valueOf(novoCount);
-      resultLines.set(i, String.join("|", parts));
-      ultimoIndice9900 = i;
-      template9900 = line; // guarda última linha pra clonar formato (nº de campos)
+    /** Linha gerada no merge (bloco M ou Parcial). */
+    void add(String line) throws IOException {
+      add(line, ImportedEcfIndex.extractTipo(line));
     }
 
-    // Adicionar |9900| para tipos que apareceram no arquivo após o merge
-    // mas não estavam no bloco 9 original (ex: M305, M310 vindos do parcial).
-    List<String> tiposFaltantes = new ArrayList<>();
-    for (String tipo : countByTipo.keySet()) {
-      if (tipo == null || tipo.isEmpty()) {
-        continue;
-      }
-      // Ignora os totalizadores do bloco 9
-      if ("9900".equals(tipo) || "9990".equals(tipo) || "9999".equals(tipo)
-          || "9001".equals(tipo) || "9100".equals(tipo)) {
-        continue;
+    /** Linha do Importado, com o tipo já extraído. */
+    void add(String line, String tipo) throws IOException {
+      registrar(tipo);
+      if (m990Declarado == null && "M990".equals(tipo)) {
+        m990Declarado = parseIntOrZero(ImportedEcfIndex.extractField(line, 2));
       }
-      if (!tiposComRegistro9900.contains(tipo)) {
-        tiposFaltantes.add(tipo);
+      if (bloco9 != null) {
+        bloco9.add(line);
+      } else {
+        write(line);
       }
     }
 
-    if (!tiposFaltantes.isEmpty() && ultimoIndice9900 >= 0) {
-      // Detectar formato do 9900 (número de campos) a partir de um existente
-      int numCampos = template9900 != null ? template9900.split("\\|", -1).length : 6;
-
-      // Inserir cada novo 9900 na posição alfabética correta dentro do bloco
-      for (String tipo : tiposFaltantes) {
-        int count = countByTipo.getOrDefault(tipo, 0);
-        String novaLinha = formatRegistro9900(tipo, count, numCampos);
-        int posicao = findInsertPosition9900(resultLines, tipo);
-        resultLines.add(posicao, novaLinha);
-      }
-
-      // Atualizar countByTipo com os novos 9900 inseridos (afeta |9900|9900|)
-      countByTipo.merge("9900", tiposFaltantes.size(), Integer::sum);
-
-      // Re-percorrer os |9900| para atualizar o contador do tipo "9900"
-      // (que agora cresceu por causa das novas linhas adicionadas).
-      for (int i = 0; i < resultLines.size(); i++) {
-        String line = resultLines.get(i);
-        if (!"9900".equals(extractTipo(line))) {
-          continue;
-        }
-        String[] parts = line.split("\\|", -1);
-        if (parts.length < 4 || !"9900".equals(parts[2])) {
-          continue;
+    /**
+     * Trecho copiado do Importado sem alteração, direto do stream em blocos. O trecho não pode
+     * conter registros do bloco 9 nem |M990| (garantido pela estrutura do
+     * {@link ImportedEcfIndex}).
+     */
+    void addTrecho(Reader reader, long tamanho, Map<String, Integer> contagem)
+        throws IOException {
+      char[] buffer = new char[8192];
+      long restante = tamanho;
+      while (restante > 0) {
+        int lidos = reader.read(buffer, 0, (int) Math.min(buffer.length, restante));
+        if (lidos < 0) {
+          throw new EOFException("ECF Importado menor que o índice (conteúdo alterado?)");
         }
-        parts[3] = String.valueOf(countByTipo.getOrDefault("9900", 0));
-        resultLines.set(i, String.join("|", parts));
+        writer.write(buffer, 0, lidos);
+        restante -= lidos;
+      }
+      caracteres += tamanho;
+      for (Map.Entry<String, Integer> entry : contagem.entrySet()) {
+        countByTipo.merge(entry.getKey(), entry.getValue(), Integer::sum);
+        totalGeral += entry.getValue();
       }
     }
 
-    // Recontar |9990| (total bloco 9) e |9999| (total geral)
-    int total9 = 0;
-    int totalGeral = 0;
-    for (String line : resultLines) {
-      String tipo = extractTipo(line);
+    private void registrar(String tipo) {
       if (tipo == null) {
-        continue;
+        return;
       }
+      countByTipo.merge(tipo, 1, Integer::sum);
       totalGeral++;
       if (tipo.startsWith("9")) {
         total9++;
+        if (bloco9 == null) {
+          bloco9 = new Bloco9Builder();
+        }
       }
     }
 
-    for (int i = 0; i < resultLines.size(); i++) {
-      String line = resultLines.get(i);
-      String tipo = extractTipo(line);
-      if ("9990".equals(tipo)) {
-        resultLines.set(i, "|9990|" + total9 + "|");
-      } else if ("9999".equals(tipo)) {
-        resultLines.set(i, "|9999|" + totalGeral + "|");
+    void addAll(List<String> lines) throws IOException {
+      for (String line : lines) {
+        add(line);
       }
     }
-  }
 
-  /**
-   * Encontra a posição correta para inserir um novo |9900|TIPO|...| mantendo
-   * a ordem dos registros 9900 existentes (geralmente alfabética).
-   *
-   * <p>Procura o primeiro 9900 cujo tipo seja "maior" que o novo (comparação alfabética),
-   * e insere antes dele. Se nenhum for maior, insere após o último 9900.
-   */
-  private int findInsertPosition9900(List<String> lines, String novoTipo) {
-    int ultimoIndice9900 = -1;
-    for (int i = 0; i < lines.size(); i++) {
-      String line = lines.get(i);
-      if (!"9900".equals(extractTipo(line))) {
-        continue;
-      }
-      String[] parts = line.split("\\|", -1);
-      if (parts.length < 3) {
-        continue;
-      }
-      String tipoAtual = parts[2];
-      if (tipoAtual.compareTo(novoTipo) > 0) {
-        return i;
+    MergeResult finish() throws IOException {
+      if (bloco9 != null) {
+        for (String line : bloco9.build(countByTipo, totalGeral, total9)) {
+          write(line);
+        }
       }
-      ultimoIndice9900 = i;
+      writer.flush();
+      return new MergeResult(m990Declarado != null ? m990Declarado : 0, caracteres);
     }
-    return ultimoIndice9900 + 1;
-  }
 
-  /**
-   * Constrói uma linha |9900| com o número de campos compatível com o formato existente.
-   * Layout: |9900|TIPO_REG|QTD_REG|... campos extras vazios|
-   */
-  private String formatRegistro9900(String tipoReg, int qtd, int numCampos) {
-    StringBuilder sb = new StringBuilder();
-    sb.append("|9900|").append(tipoReg).append("|").append(qtd).append("|");
-    // numCampos inclui os 2 vazios das pontas; já preenchemos 4 (vazio, 9900, tipo, qtd)
-    // restam (numCampos - 5) campos vazios antes do "|" final
-    int camposExtras = Math.max(0, numCampos - 5);
-    for (int i = 0; i < camposExtras; i++) {
-      sb.append("|");
+    private void write(String line) throws IOException {
+      writer.write(line);
+      writer.write('\n');
+      caracteres += line.length() + 1;
     }
-    return sb.toString();
   }
 
-  void recalcularM990(List<String> resultLines) {
-    int m990Idx = -1;
-    int m001Idx = -1;
-    for (int i = 0; i < resultLines.size(); i++) {
-      String tipo = extractTipo(resultLines.get(i));
-      if ("M001".equals(tipo)) {
-        m001Idx = i;
-      }
-      if ("M990".equals(tipo)) {
-        m990Idx = i;
-        break;
-      }
+  /** Linhas do Importado percorridas pelo merge, com tipo e campos de cada uma. */
+  private interface Linhas {
+
+    /** Avança para a próxima linha; false no fim. */
+    boolean next() throws IOException;
+
+    /** Linha corrente, sem {@code \n} (um {@code \r} final é preservado). */
+    String linha();
+
+    /** Tipo do registro da linha corrente, ou null fora do formato SPED. */
+    String tipo();
+
+    /** Campo da linha corrente, numerado como em {@link SpedDocument#fieldString}. */
+    String campo(int field);
+  }
+
+  /** Linhas de um trecho já indexado (bloco M do {@link ImportedEcfIndex}). */
+  private static final class LinhasDoDocumento implements Linhas {
+
+    private final SpedDocument doc;
+    private int atual = -1;
+
+    LinhasDoDocumento(SpedDocument doc) {
+      this.doc = doc;
     }
-    if (m990Idx >= 0 && m001Idx >= 0) {
-      int totalLinhas = m990Idx - m001Idx + 1; // inclui M001 e M990
-      resultLines.set(m990Idx, "|M990|" + totalLinhas + "|");
+
+    @Override
+    public boolean next() {
+      return ++atual < doc.lineCount();
     }
-  }
 
-  private int extractM990Count(List<String> resultLines) {
-    for (String line : resultLines) {
-      String tipo = extractTipo(line);
-      if ("M990".equals(tipo)) {
-        String[] parts = line.split("\\|", -1);
-        if (parts.length > 2) {
-          try {
-            return Integer.parseInt(parts[2]);
-          } catch (NumberFormatException e) {
-            return 0;
-          }
-        }
-      }
+    @Override
+    public String linha() {
+      return doc.rawLine(atual);
     }
-    return 0;
-  }
 
-  private String extractTipo(String line) {
-    if (line == null || line.isBlank() || !line.startsWith("|")) {
-      return null;
+    @Override
+    public String tipo() {
+      return doc.tipo(atual);
+    }
+
+    @Override
+    public String campo(int field) {
+      return doc.fieldString(atual, field);
     }
-    String[] parts = line.split("\\|", -1);
-    return parts.length > 1 ? parts[1] : null;
   }
 
-  private String extractField(String line, int fieldIndex) {
-    String[] parts = line.split("\\|", -1);
-    return parts.length > fieldIndex ? parts[fieldIndex] : "";
+  /** Linhas lidas do stream, para Importados fora da estrutura do índice. */
+  private static final class LinhasDoStream implements Linhas {
+
+    private final LinhaReader reader;
+    private String linha;
+
+    LinhasDoStream(LinhaReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public boolean next() throws IOException {
+      linha = reader.next();
+      return linha != null;
+    }
+
+    @Override
+    public String linha() {
+      return linha;
+    }
+
+    @Override
+    public String tipo() {
+      return ImportedEcfIndex.extractTipo(linha);
+    }
+
+    @Override
+    public String campo(int field) {
+      return ImportedEcfIndex.extractField(linha, field);
+    }
   }
 
   /**
@@ -534,4 +608,13 @@ public class EcfMergerService implements GenerateCompleteEcfUseCase {
       Map<String, List<String>> m030Blocks,
       List<String> m400Lines) {
   }
+
+  /**
+   * Estatísticas do ECF Completo gerado pelo merge.
+   *
+   * @param totalLinhasM990 total de linhas do bloco M declarado no M990
+   * @param caracteres tamanho do conteúdo gerado (1 byte por caractere em ISO-8859-1)
+   */
+  record MergeResult(int totalLinhasM990, long caracteres) {
+  }
 }
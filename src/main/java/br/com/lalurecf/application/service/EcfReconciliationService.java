@@ -0,0 +1,259 @@
+package br.com.lalurecf.application.service;
+
+import br.com.lalurecf.application.port.in.ecf.ReconcileEcfFileUseCase;
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.application.port.out.LancamentoParteBRepositoryPort;
+import br.com.lalurecf.application.port.out.LancamentoParteBTotal;
+import br.com.lalurecf.application.service.validation.EcfLeiaute;
+import br.com.lalurecf.domain.enums.TipoApuracao;
+import br.com.lalurecf.domain.model.EcfFile;
+import br.com.lalurecf.domain.util.Centavos;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfReconciliationResponse;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfReconciliationResponse.Mismatch;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfReconciliationResponse.MismatchType;
+import jakarta.persistence.EntityNotFoundException;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Serviço de conciliação do bloco M de um arquivo ECF com os Lançamentos da Parte B.
+ *
+ * <p>Os totais esperados vêm de uma única consulta agregada no banco
+ * ({@link LancamentoParteBRepositoryPort#findTotaisBlocoMAtivosByCompanyIdAndAnoReferencia}),
+ * sem carregar lançamentos. O arquivo é lido em streaming, uma linha por vez, do início até o
+ * |M990|; só são acumulados os M300/M350 com total esperado (mesma chave
+ * {codigoApuracao}|{registro}|{codigoEnquadramento} da geração, com codigoApuracao = A{mês})
+ * e os filhos desses registros. Memória proporcional aos totais esperados, não ao arquivo.
+ *
+ * <p>M300/M350 sem lançamentos no banco (ex: vindos do ECF importado) não são conciliados.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+public class EcfReconciliationService implements ReconcileEcfFileUseCase {
+
+  /** Sentinela de valor ausente ou inválido no arquivo. */
+  private static final long VALOR_INVALIDO = Long.MIN_VALUE;
+
+  private final EcfFileRepositoryPort ecfFileRepositoryPort;
+  private final EcfContentStorePort ecfContentStorePort;
+  private final LancamentoParteBRepositoryPort lancamentoParteBRepositoryPort;
+
+  @Override
+  @Transactional(readOnly = true)
+  public EcfReconciliationResponse reconcile(Long ecfFileId, Long companyId) {
+    EcfFile ecfFile = ecfFileRepositoryPort.findById(ecfFileId)
+        .orElseThrow(() -> new EntityNotFoundException(
+            "EcfFile não encontrado: " + ecfFileId));
+    if (!ecfFile.getCompanyId().equals(companyId)) {
+      throw new AccessDeniedException("Arquivo ECF não pertence à empresa informada");
+    }
+
+    List<LancamentoParteBTotal> totais = lancamentoParteBRepositoryPort
+        .findTotaisBlocoMAtivosByCompanyIdAndAnoReferencia(companyId, ecfFile.getFiscalYear());
+    log.info("Conciliando EcfFile {} com {} totais esperados (companyId={}, ano={})",
+        ecfFileId, totais.size(), companyId, ecfFile.getFiscalYear());
+
+    EcfReconciliationResponse response;
+    try (InputStream in = ecfContentStorePort.openStream(ecfFile.getContentHash());
+        BufferedReader reader =
+            new BufferedReader(new InputStreamReader(in, StandardCharsets.ISO_8859_1))) {
+      response = reconcile(totais, reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Falha ao ler o arquivo ECF " + ecfFileId, e);
+    }
+    response.setEcfFileId(ecfFile.getId());
+    response.setFileType(ecfFile.getFileType());
+    response.setFiscalYear(ecfFile.getFiscalYear());
+
+    log.info("Conciliação concluída: EcfFile {}, verificados={}, divergências={}",
+        ecfFileId, response.getCheckedTotals(), response.getMismatches().size());
+    return response;
+  }
+
+  /**
+   * Concilia os totais esperados com o bloco M lido do {@code arquivo}.
+   *
+   * @param totais totais calculados a partir dos lançamentos
+   * @param arquivo conteúdo do arquivo ECF, lido até o |M990|
+   * @return divergências, sem a identificação do EcfFile (preenchida pelo chamador)
+   * @throws IOException em falha de leitura
+   */
+  EcfReconciliationResponse reconcile(List<LancamentoParteBTotal> totais, BufferedReader arquivo)
+      throws IOException {
+    Map<Chave, Long> esperados = new LinkedHashMap<>();
+    Set<Chave> paisEsperados = new HashSet<>();
+    for (LancamentoParteBTotal total : totais) {
+      Chave chave = chave(total);
+      esperados.merge(chave, Centavos.of(total.valorTotal()), Centavos::add);
+      if (total.nivel() == LancamentoParteBTotal.Nivel.ENQUADRAMENTO) {
+        paisEsperados.add(chave);
+      }
+    }
+
+    Map<Chave, Long> noArquivo = lerTotais(arquivo, paisEsperados);
+
+    EcfReconciliationResponse response = new EcfReconciliationResponse();
+    for (Map.Entry<Chave, Long> esperado : esperados.entrySet()) {
+      Long valor = noArquivo.get(esperado.getKey());
+      if (valor == null) {
+        response.getMismatches().add(
+            mismatch(MismatchType.MISSING_IN_FILE, esperado.getKey(), esperado.getValue(), null));
+      } else if (valor != esperado.getValue().longValue()) {
+        response.getMismatches().add(
+            mismatch(MismatchType.VALUE_DIFFERS, esperado.getKey(), esperado.getValue(), valor));
+      }
+    }
+    for (Map.Entry<Chave, Long> registro : noArquivo.entrySet()) {
+      if (!esperados.containsKey(registro.getKey())) {
+        response.getMismatches().add(
+            mismatch(MismatchType.NOT_IN_DATABASE, registro.getKey(), null, registro.getValue()));
+      }
+    }
+    response.setCheckedTotals(esperados.size());
+    response.setConsistent(response.getMismatches().isEmpty());
+    return response;
+  }
+
+  /**
+   * Percorre o arquivo até o |M990| somando, por chave, os M300/M350 esperados e os
+   * M305/M310/M355/M360 abaixo deles. Valores inválidos tornam o total inválido.
+   */
+  private static Map<Chave, Long> lerTotais(BufferedReader arquivo, Set<Chave> paisEsperados)
+      throws IOException {
+    Map<Chave, Long> totais = new LinkedHashMap<>();
+    Campos campos = new Campos(EcfLeiaute.maisRecente());
+    String periodo = null;
+    Chave pai = null;
+    String linha;
+    while ((linha = arquivo.readLine()) != null) {
+      if (linha.length() < 6 || linha.charAt(0) != '|' || linha.charAt(5) != '|') {
+        continue;
+      }
+      String tipo = linha.substring(1, 5);
+      switch (tipo) {
+        case "0000" -> campos = new Campos(EcfLeiaute.daVersao(
+            campo(linha.split("\\|", -1), EcfLeiaute.CAMPO_COD_VER)));
+        case "M030" -> {
+          periodo = campo(linha.split("\\|", -1), campos.periodo);
+          pai = null;
+        }
+        case "M300", "M350" -> {
+          String[] partes = linha.split("\\|", -1);
+          Chave chave = new Chave(periodo, tipo, campo(partes, campos.codigo), null);
+          pai = paisEsperados.contains(chave) ? chave : null;
+          if (pai != null) {
+            somar(totais, pai, campo(partes, campos.valor));
+          }
+        }
+        case "M305", "M355" -> {
+          if (pai != null) {
+            String[] partes = linha.split("\\|", -1);
+            somar(totais, filho(pai, tipo, campo(partes, campos.contaParteB)),
+                campo(partes, campos.valorParteB));
+          }
+        }
+        case "M310", "M360" -> {
+          if (pai != null) {
+            String[] partes = linha.split("\\|", -1);
+            somar(totais, filho(pai, tipo, campo(partes, campos.contaContabil)),
+                campo(partes, campos.valorContabil));
+          }
+        }
+        case "M990" -> {
+          return totais;
+        }
+        default -> {
+          // demais registros não entram na conciliação
+        }
+      }
+    }
+    return totais;
+  }
+
+  private static void somar(Map<Chave, Long> totais, Chave chave, String valor) {
+    long centavos;
+    try {
+      centavos = valor.isEmpty() ? VALOR_INVALIDO : Centavos.parse(valor);
+    } catch (NumberFormatException e) {
+      centavos = VALOR_INVALIDO;
+    }
+    totais.merge(chave, centavos, (a, b) ->
+        a == VALOR_INVALIDO || b == VALOR_INVALIDO ? VALOR_INVALIDO : Centavos.add(a, b));
+  }
+
+  private static String campo(String[] partes, int indice) {
+    return indice < partes.length ? partes[indice] : "";
+  }
+
+  private static Chave chave(LancamentoParteBTotal total) {
+    boolean irpj = total.tipoApuracao() == TipoApuracao.IRPJ;
+    String registro = switch (total.nivel()) {
+      case ENQUADRAMENTO -> irpj ? "M300" : "M350";
+      case CONTA_PARTE_B -> irpj ? "M305" : "M355";
+      case CONTA_CONTABIL -> irpj ? "M310" : "M360";
+    };
+    return new Chave(String.format("A%02d", total.mesReferencia()), registro,
+        total.codigoEnquadramento(), total.codigoConta());
+  }
+
+  private static Chave filho(Chave pai, String registro, String conta) {
+    return new Chave(pai.codigoApuracao(), registro, pai.codigoEnquadramento(), conta);
+  }
+
+  private static Mismatch mismatch(MismatchType type, Chave chave, Long esperado, Long arquivo) {
+    return Mismatch.builder()
+        .type(type)
+        .codigoApuracao(chave.codigoApuracao())
+        .registro(chave.registro())
+        .codigoEnquadramento(chave.codigoEnquadramento())
+        .conta(chave.conta())
+        .valorEsperado(esperado != null ? Centavos.toBigDecimal(esperado) : null)
+        .valorArquivo(arquivo != null && arquivo != VALOR_INVALIDO
+            ? Centavos.toBigDecimal(arquivo) : null)
+        .build();
+  }
+
+  /** Registro do bloco M identificado por período, tipo, enquadramento e conta (filhos). */
+  private record Chave(
+      String codigoApuracao, String registro, String codigoEnquadramento, String conta) {
+  }
+
+  /** Posições dos campos conciliados no leiaute do arquivo. */
+  private static final class Campos {
+
+    final int periodo;
+    final int codigo;
+    final int valor;
+    final int contaParteB;
+    final int valorParteB;
+    final int contaContabil;
+    final int valorContabil;
+
+    Campos(EcfLeiaute leiaute) {
+      periodo = leiaute.campo("M030", "PER_APUR");
+      codigo = leiaute.campo("M300", "CODIGO");
+      valor = leiaute.campo("M300", "VALOR");
+      contaParteB = leiaute.campo("M305", "COD_CTA_B");
+      valorParteB = leiaute.campo("M305", "VL_CTA");
+      contaContabil = leiaute.campo("M310", "COD_CTA");
+      valorContabil = leiaute.campo("M310", "VL_CTA");
+    }
+  }
+}
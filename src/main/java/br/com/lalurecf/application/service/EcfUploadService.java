@@ -2,20 +2,33 @@ package br.com.lalurecf.application.service;
 
 import br.com.lalurecf.application.port.in.ecf.UploadImportedEcfUseCase;
 import br.com.lalurecf.application.port.out.CompanyRepositoryPort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort.StoredContent;
 import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.application.service.validation.EcfLeiaute;
 import br.com.lalurecf.domain.enums.EcfFileStatus;
 import br.com.lalurecf.domain.enums.EcfFileType;
 import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.model.Company;
 import br.com.lalurecf.domain.model.EcfFile;
+import br.com.lalurecf.domain.util.CompressedUploads;
+import br.com.lalurecf.domain.util.SpedDocument;
 import br.com.lalurecf.infrastructure.dto.ecf.UploadImportedEcfResponse;
-import java.io.BufferedReader;
-import java.io.StringReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,36 +38,64 @@ import org.springframework.transaction.annotation.Transactional;
  * <p>Valida extensão, tamanho, formato SPED, presença do bloco M e ano fiscal.
  * Lê o conteúdo em ISO-8859-1 (LATIN-1) conforme padrão SPED ECF.
  * Persiste via upsert e rebaixa COMPLETE_ECF existente para DRAFT.
+ *
+ * <p>O upload (opcionalmente comprimido em .gz ou .zip, descomprimido em streaming) é copiado
+ * para um arquivo temporário, validado por uma varredura
+ * do arquivo mapeado em memória (ISO-8859-1: um byte por caractere) e gravado no
+ * armazenamento lendo do disco — o conteúdo nunca é materializado no heap.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class EcfUploadService implements UploadImportedEcfUseCase {
 
-  private static final long MAX_FILE_SIZE_BYTES = 50L * 1024 * 1024; // 50MB
+  /** Linhas iniciais em que o formato SPED é verificado. */
+  private static final int LINHAS_VERIFICADAS_FORMATO = 50;
+
+  private static final int BUFFER_SIZE = 64 * 1024;
 
   private final EcfFileRepositoryPort ecfFileRepositoryPort;
   private final CompanyRepositoryPort companyRepositoryPort;
+  private final EcfContentStorePort ecfContentStorePort;
+
+  /**
+   * Tamanho máximo do upload (MB). A validação do arquivo armazenado
+   * ({@link EcfValidationCacheService}) ainda carrega o conteúdo inteiro em memória, então o
+   * limite padrão continua o de antes do upload em streaming.
+   */
+  @Value("${ecf.upload.max-size-mb:50}")
+  private long maxFileSizeMb;
 
   @Override
   @Transactional
   public UploadImportedEcfResponse upload(
-      byte[] fileContent, String originalFileName,
+      InputStream content, String originalFileName,
       Integer fiscalYear, Long companyId, String generatedBy, boolean overwrite) {
 
     log.info("Upload ECF Importado: companyId={}, fiscalYear={}, file={}, overwrite={}",
         companyId, fiscalYear, originalFileName, overwrite);
 
-    // Passo 1: validar extensão
-    if (originalFileName == null || !originalFileName.toLowerCase().endsWith(".txt")) {
-      throw new IllegalArgumentException("O arquivo deve ter extensão .txt");
+    // Passo 1: descomprimir (.gz/.zip) em streaming e validar extensão do arquivo
+    Path spooled;
+    try (InputStream descomprimido = openUpload(content, originalFileName)) {
+      // Passo 2: copiar para arquivo temporário, validando o tamanho durante a cópia
+      spooled = spool(descomprimido);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Falha ao ler o arquivo enviado", e);
     }
-
-    // Passo 2: validar tamanho
-    if (fileContent.length > MAX_FILE_SIZE_BYTES) {
-      throw new IllegalArgumentException("O arquivo excede o tamanho máximo de 50MB");
+    try {
+      return storeSpooled(spooled, fiscalYear, companyId, generatedBy, overwrite);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Falha ao ler o arquivo enviado", e);
+    } finally {
+      deleteSpooled(spooled);
     }
+  }
 
+  /** Valida o arquivo temporário e o persiste como IMPORTED_ECF. */
+  private UploadImportedEcfResponse storeSpooled(
+      Path spooled, Integer fiscalYear, Long companyId, String generatedBy, boolean overwrite)
+      throws IOException {
     // Passo 3: verificar se já existe e respeitar flag overwrite
     Optional<EcfFile> existing = ecfFileRepositoryPort
         .findByCompanyAndFiscalYearAndType(companyId, fiscalYear, EcfFileType.IMPORTED_ECF);
@@ -72,24 +113,27 @@ public class EcfUploadService implements UploadImportedEcfUseCase {
           null);
     }
 
-    // Passo 4: converter para String ISO-8859-1
-    String content = new String(fileContent, StandardCharsets.ISO_8859_1);
-
-    // Passo 5: varredura única — valida SPED, |0000|, |M001| e conta linhas
-    ParseResult parsed = parseAndValidate(content, fiscalYear);
+    // Passo 4: varredura única do arquivo mapeado — valida SPED, |0000| e |M001|
+    validate(spooled, fiscalYear);
 
-    // Passo 6: construir EcfFile
+    // Passo 5: construir EcfFile
     Company company = companyRepositoryPort.findById(companyId)
         .orElseThrow(() -> new IllegalArgumentException("Empresa não encontrada: " + companyId));
 
     String cnpj = company.getCnpj() != null ? company.getCnpj().getValue() : companyId.toString();
     String fileName = String.format("ECF_Importado_%d_%s.txt", fiscalYear, cnpj);
 
+    StoredContent stored;
+    try (InputStream in = Files.newInputStream(spooled)) {
+      stored = ecfContentStorePort.store(in);
+    }
     EcfFile ecfFile = EcfFile.builder()
         .fileType(EcfFileType.IMPORTED_ECF)
         .companyId(companyId)
         .fiscalYear(fiscalYear)
-        .content(content)
+        .contentHash(stored.hash())
+        .sizeBytes(stored.sizeBytes())
+        .lineCount(stored.lineCount())
         .fileName(fileName)
         .fileStatus(EcfFileStatus.DRAFT)
         .generatedAt(LocalDateTime.now())
@@ -97,11 +141,11 @@ public class EcfUploadService implements UploadImportedEcfUseCase {
         .status(Status.ACTIVE)
         .build();
 
-    // Passo 7: persistir (upsert)
+    // Passo 6: persistir (upsert)
     EcfFile saved = ecfFileRepositoryPort.saveOrReplace(ecfFile);
     log.info("ECF Importado salvo: id={}, fileName={}", saved.getId(), saved.getFileName());
 
-    // Passo 8: rebaixar COMPLETE_ECF existente para DRAFT
+    // Passo 7: rebaixar COMPLETE_ECF existente para DRAFT
     ecfFileRepositoryPort
         .findByCompanyAndFiscalYearAndType(companyId, fiscalYear, EcfFileType.COMPLETE_ECF)
         .filter(ecf -> ecf.getFileStatus() == EcfFileStatus.VALIDATED
@@ -120,73 +164,167 @@ public class EcfUploadService implements UploadImportedEcfUseCase {
 
     return new UploadImportedEcfResponse(
         true, message, saved.getId(), saved.getFileName(),
-        (long) fileContent.length, parsed.lineCount);
+        stored.sizeBytes(), stored.lineCount());
   }
 
   /**
-   * Varredura única do conteúdo: valida formato SPED (50 primeiras linhas),
-   * extrai e valida ano fiscal do |0000|, verifica presença de |M001| e conta linhas.
+   * Abre o conteúdo descomprimido do upload ({@code .txt}, {@code .txt.gz} ou {@code .zip} com
+   * um {@code .txt}). O limite de tamanho descomprimido é aplicado na cópia para disco.
    */
-  private ParseResult parseAndValidate(String content, Integer fiscalYear) {
-    int lineCount = 0;
-    boolean found0000 = false;
-    boolean foundM001 = false;
-
-    try (BufferedReader reader = new BufferedReader(new StringReader(content))) {
-      String line;
-      while ((line = reader.readLine()) != null) {
-        lineCount++;
-
-        if (!line.isBlank()) {
-          if (lineCount <= 50
-              && (!line.startsWith("|") || !line.endsWith("|"))) {
-            throw new IllegalArgumentException(
-                "O arquivo não está no formato SPED "
-                    + "(linhas devem iniciar e terminar com |)");
-          }
-
-          if (!found0000 && line.startsWith("|0000|")) {
-            found0000 = true;
-            validateFiscalYearFromLine(line, fiscalYear);
-          }
-
-          if (!foundM001 && line.contains("|M001|")) {
-            foundM001 = true;
-          }
+  private InputStream openUpload(InputStream content, String originalFileName)
+      throws IOException {
+    CompressedUploads.Upload upload =
+        CompressedUploads.open(content, originalFileName, Long.MAX_VALUE);
+    if (upload.fileName() == null || !upload.fileName().toLowerCase().endsWith(".txt")) {
+      upload.content().close();
+      throw new IllegalArgumentException(
+          "O arquivo deve ter extensão .txt (opcionalmente comprimido em .gz ou .zip)");
+    }
+    return upload.content();
+  }
+
+  /**
+   * Copia o upload para um arquivo temporário, rejeitando-o assim que exceder o tamanho
+   * máximo (sem consumir o restante do stream).
+   */
+  private Path spool(InputStream content) {
+    long maxBytes = maxFileSizeMb * 1024 * 1024;
+    Path spooled;
+    try {
+      spooled = Files.createTempFile("ecf-upload-", ".txt");
+    } catch (IOException e) {
+      throw new UncheckedIOException("Falha ao criar arquivo temporário do upload", e);
+    }
+    try (OutputStream out = Files.newOutputStream(spooled)) {
+      byte[] buffer = new byte[BUFFER_SIZE];
+      long total = 0;
+      int lidos;
+      while ((lidos = content.read(buffer)) != -1) {
+        total += lidos;
+        if (total > maxBytes) {
+          throw new IllegalArgumentException(
+              "O arquivo excede o tamanho máximo de " + maxFileSizeMb + "MB");
         }
+        out.write(buffer, 0, lidos);
       }
-    } catch (IllegalArgumentException e) {
+      return spooled;
+    } catch (IOException e) {
+      deleteSpooled(spooled);
+      throw new UncheckedIOException("Falha ao ler o arquivo enviado", e);
+    } catch (RuntimeException e) {
+      deleteSpooled(spooled);
       throw e;
-    } catch (Exception e) {
-      throw new RuntimeException("Erro ao ler conteúdo do arquivo: " + e.getMessage(), e);
+    }
+  }
+
+  private void deleteSpooled(Path spooled) {
+    try {
+      Files.deleteIfExists(spooled);
+    } catch (IOException e) {
+      log.warn("Não foi possível remover o arquivo temporário {}: {}", spooled, e.getMessage());
+    }
+  }
+
+  /**
+   * Varredura única do arquivo mapeado em memória: valida formato SPED (50 primeiras linhas),
+   * extrai e valida ano fiscal do |0000| e verifica presença de |M001|. A contagem de linhas vem
+   * do {@link EcfContentStorePort#store} (mesma contagem de {@link SpedDocument#lineCount()}).
+   *
+   * <p>Só a linha do |0000| é copiada para o heap; as demais são lidas direto do mapeamento.
+   */
+  private void validate(Path spooled, Integer fiscalYear) throws IOException {
+    ByteBuffer conteudo;
+    try (FileChannel channel = FileChannel.open(spooled, StandardOpenOption.READ)) {
+      conteudo = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    int tamanho = conteudo.limit();
+    int linhas = 0;
+    boolean tem0000 = false;
+    boolean temM001 = false;
+    int inicio = 0;
+    while (inicio < tamanho) {
+      int quebra = inicio;
+      while (quebra < tamanho && conteudo.get(quebra) != '\n') {
+        quebra++;
+      }
+      // \r antes do \n (ou no fim do arquivo) faz parte do terminador
+      int fim = quebra > inicio && conteudo.get(quebra - 1) == '\r' ? quebra - 1 : quebra;
+
+      // Mesma ordem de erros da leitura linha a linha: o |0000| é validado ao ser alcançado
+      if (linhas < LINHAS_VERIFICADAS_FORMATO
+          && !isBlank(conteudo, inicio, fim) && !isPipeDelimited(conteudo, inicio, fim)) {
+        throw new IllegalArgumentException(
+            "O arquivo não está no formato SPED "
+                + "(linhas devem iniciar e terminar com |)");
+      }
+      if (!tem0000 && isTipo(conteudo, inicio, fim, "0000")) {
+        tem0000 = true;
+        byte[] linha0000 = new byte[fim - inicio];
+        conteudo.get(inicio, linha0000);
+        validateFiscalYear(
+            SpedDocument.parse(new String(linha0000, StandardCharsets.ISO_8859_1)), 0,
+            fiscalYear);
+      }
+      if (!temM001 && isTipo(conteudo, inicio, fim, "M001")) {
+        temM001 = true;
+      }
+      linhas++;
+      inicio = quebra + 1;
     }
 
-    if (!found0000) {
+    if (!tem0000) {
       throw new IllegalArgumentException(
           "O arquivo não contém o registro |0000| obrigatório");
     }
-    if (!foundM001) {
+
+    if (!temM001) {
       throw new IllegalArgumentException(
           "O arquivo não contém bloco M (|M001| não encontrado)");
     }
+  }
+
+  private static boolean isBlank(ByteBuffer conteudo, int inicio, int fim) {
+    for (int i = inicio; i < fim; i++) {
+      if (!Character.isWhitespace((char) (conteudo.get(i) & 0xFF))) {
+        return false;
+      }
+    }
+    return true;
+  }
 
-    return new ParseResult(lineCount);
+  private static boolean isPipeDelimited(ByteBuffer conteudo, int inicio, int fim) {
+    return fim > inicio && conteudo.get(inicio) == '|' && conteudo.get(fim - 1) == '|';
   }
 
-  private void validateFiscalYearFromLine(String line, Integer fiscalYear) {
-    // Layout SPED ECF |0000|:
-    // |0000|LECF|CODE_VER|CNPJ|NOME|IND_SIT_INI_PER|SIT_ESPECIAL|
-    //   PAT_REM_PJ|DT_SIT_ESP|DT_INI|DT_FIN|...
-    // fields[0]="" fields[1]="0000" ... fields[10]=DT_INI (DDMMAAAA)
-    // fields[11]=DT_FIN (DDMMAAAA)
-    String[] fields = line.split("\\|", -1);
-    if (fields.length < 12 || fields[11].length() < 8) {
+  /** Indica se a linha é do registro {@code tipo} (texto entre o 1º e o 2º {@code |}). */
+  private static boolean isTipo(ByteBuffer conteudo, int inicio, int fim, String tipo) {
+    int fimTipo = inicio + 1 + tipo.length();
+    if (fimTipo > fim || conteudo.get(inicio) != '|'
+        || (fimTipo < fim && conteudo.get(fimTipo) != '|')) {
+      return false;
+    }
+    for (int i = 0; i < tipo.length(); i++) {
+      if (conteudo.get(inicio + 1 + i) != tipo.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void validateFiscalYear(SpedDocument doc, int linha0000, Integer fiscalYear) {
+    // Posição do DT_FIN (DDMMAAAA) no leiaute da versão declarada em COD_VER
+    EcfLeiaute leiaute = EcfLeiaute.daVersao(
+        doc.fieldString(linha0000, EcfLeiaute.CAMPO_COD_VER));
+    int campoDataFim = leiaute.campo("0000", "DT_FIN");
+    if (doc.fieldCount(linha0000) <= campoDataFim
+        || doc.field(linha0000, campoDataFim).length() < 8) {
       throw new IllegalArgumentException(
           "Registro |0000| com formato inválido — "
               + "não foi possível extrair o ano fiscal");
     }
 
-    String dataFim = fields[11];
+    String dataFim = doc.fieldString(linha0000, campoDataFim);
     int anoArquivo;
     try {
       anoArquivo = Integer.parseInt(dataFim.substring(4, 8));
@@ -203,6 +341,4 @@ public class EcfUploadService implements UploadImportedEcfUseCase {
               anoArquivo, fiscalYear));
     }
   }
-
-  private record ParseResult(int lineCount) {}
 }
@@ -0,0 +1,62 @@
+package br.com.lalurecf.application.service;
+
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfValidationResultPort;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serviço que fornece o resultado de validação de um conteúdo ECF, validando apenas uma vez por
+ * (hash do conteúdo, tipo de arquivo, versão do validador).
+ *
+ * <p>Dois níveis: cache em memória "ecf-validation-result" (chave hash|tipo — a versão é fixa
+ * durante a execução) e resultados persistidos via {@link EcfValidationResultPort}, que
+ * sobrevivem a reinícios e são compartilhados entre instâncias. Como o conteúdo é endereçado
+ * por SHA-256, alterar o conteúdo de um arquivo gera um novo hash e nunca lê resultado
+ * desatualizado; o resultado persistido do conteúdo anterior é removido junto com ele.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class EcfValidationCacheService {
+
+  /** Nome do cache configurado em {@code CacheConfig}. */
+  public static final String CACHE_NAME = "ecf-validation-result";
+
+  private final EcfValidationResultPort ecfValidationResultPort;
+  private final EcfContentStorePort ecfContentStorePort;
+  private final EcfValidatorService ecfValidatorService;
+
+  /**
+   * Retorna o resultado da validação do conteúdo, validando apenas quando ainda não há
+   * resultado para a versão atual do validador.
+   *
+   * @param contentHash SHA-256 do conteúdo
+   * @param fileType tipo do arquivo (define o conjunto de regras)
+   * @return resultado da validação com erros e avisos
+   */
+  @Cacheable(value = CACHE_NAME, key = "#contentHash + '|' + #fileType")
+  public ValidationResult validar(String contentHash, EcfFileType fileType) {
+    Optional<ValidationResult> persisted =
+        ecfValidationResultPort.find(contentHash, fileType, EcfValidatorService.VERSION);
+    if (persisted.isPresent()) {
+      log.info("Resultado de validação reaproveitado: hash={}, fileType={}",
+          contentHash, fileType);
+      return persisted.get();
+    }
+
+    String content = ecfContentStorePort.read(contentHash);
+    ValidationResult result = switch (fileType) {
+      case ARQUIVO_PARCIAL -> ecfValidatorService.validateArquivoParcial(content);
+      case IMPORTED_ECF -> ecfValidatorService.validateImportedEcf(content);
+      case COMPLETE_ECF -> ecfValidatorService.validateCompleteEcf(content);
+    };
+    ecfValidationResultPort.save(contentHash, fileType, EcfValidatorService.VERSION, result);
+    return result;
+  }
+}
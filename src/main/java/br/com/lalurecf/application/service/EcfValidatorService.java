@@ -1,8 +1,17 @@
 package br.com.lalurecf.application.service;
 
+import br.com.lalurecf.application.service.validation.BlocoMRule;
+import br.com.lalurecf.application.service.validation.EcfLeiaute;
+import br.com.lalurecf.application.service.validation.EcfValidationEngine;
+import br.com.lalurecf.application.service.validation.EstruturaSpedRule;
+import br.com.lalurecf.application.service.validation.LeiauteEcfRule;
+import br.com.lalurecf.application.service.validation.M990CountRule;
+import br.com.lalurecf.domain.util.SpedDocument;
 import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
-import java.math.BigDecimal;
-import java.util.Set;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 /**
@@ -10,12 +19,39 @@ import org.springframework.stereotype.Service;
  *
  * <p>Valida campos obrigatórios dos registros M conforme layout SPED ECF.
  * Possui 3 métodos, um por tipo de arquivo (ARQUIVO_PARCIAL, IMPORTED_ECF, COMPLETE_ECF).
+ * Cada tipo é um conjunto de regras executado pelo {@link EcfValidationEngine} em uma única
+ * passada sobre o documento indexado.
+ *
+ * <p>IMPORTED_ECF e COMPLETE_ECF também são verificados contra o {@link EcfLeiaute} da versão
+ * declarada no |0000| (hierarquia, tipo, tamanho e obrigatoriedade dos campos de todos os
+ * registros descritos), na mesma passada.
+ *
+ * <p>IMPORTED_ECF e COMPLETE_ECF acima de {@link #LIMIAR_PARALELO_CARACTERES} são divididos nos
+ * blocos SPED e validados em paralelo no {@code ecfGenerationPool}, com resultado idêntico ao
+ * sequencial, quando {@code ecf.validation.parallel=true}. É opt-in, como a geração paralela:
+ * as tarefas disputam o pool com a geração e a admissão HTTP conta a requisição como uma vaga.
  */
 @Service
+@RequiredArgsConstructor
 public class EcfValidatorService {
 
-  private static final Set<String> VALID_INDICADORES = Set.of("1", "2", "3");
-  private static final Set<String> VALID_DC = Set.of("D", "C");
+  /**
+   * Versão das regras de validação, parte da chave dos resultados persistidos. Incrementar ao
+   * alterar qualquer regra ou mensagem para que conteúdos já validados sejam reavaliados.
+   */
+  public static final int VERSION = 4;
+
+  /** Tamanho a partir do qual a validação por blocos compensa o custo das tarefas. */
+  static final int LIMIAR_PARALELO_CARACTERES = 256 * 1024;
+
+  private static final EcfValidationEngine PARCIAL =
+      new EcfValidationEngine(List.of(BlocoMRule::new));
+
+  private final ForkJoinPool ecfGenerationPool;
+
+  /** Se true, valida IMPORTED_ECF e COMPLETE_ECF grandes por blocos em paralelo. */
+  @Value("${ecf.validation.parallel:false}")
+  private boolean parallelValidation;
 
   /**
    * Valida o conteúdo de um ARQUIVO_PARCIAL.
@@ -27,255 +63,50 @@ public class EcfValidatorService {
    * @return resultado da validação com erros e avisos
    */
   public ValidationResult validateArquivoParcial(String content) {
-    ValidationResult result = new ValidationResult();
-    String[] lines = content.split("\n");
-
-    boolean hasM030 = false;
-    String paiAtual = null;
-    String indicadorAtual = null;
-    String codigoAtual = null;
-    BigDecimal totalValorDeclarado = BigDecimal.ZERO;
-    BigDecimal somaFilhos = BigDecimal.ZERO;
-    boolean hasM305Filho = false;
-    boolean hasM310Filho = false;
-
-    for (String line : lines) {
-      String tipo = extractTipo(line);
-      if (tipo == null) {
-        continue;
-      }
-
-      switch (tipo) {
-        case "M030" -> {
-          // Validar consistência do pai anterior
-          if (paiAtual != null) {
-            validarConsistenciaPai(paiAtual, indicadorAtual, codigoAtual,
-                totalValorDeclarado, somaFilhos, hasM305Filho, hasM310Filho, result);
-          }
-          hasM030 = true;
-          paiAtual = null;
-          indicadorAtual = null;
-          hasM305Filho = false;
-          hasM310Filho = false;
-        }
-        case "M300", "M350" -> {
-          if (paiAtual != null) {
-            validarConsistenciaPai(paiAtual, indicadorAtual, codigoAtual,
-                totalValorDeclarado, somaFilhos, hasM305Filho, hasM310Filho, result);
-          }
-          paiAtual = tipo;
-          codigoAtual = extractField(line, 2);
-          indicadorAtual = extractField(line, 5);
-          somaFilhos = BigDecimal.ZERO;
-          hasM305Filho = false;
-          hasM310Filho = false;
-
-          if (codigoAtual.isBlank()) {
-            result.addError(tipo + ": codigoEnquadramento vazio");
-          }
-          if (!VALID_INDICADORES.contains(indicadorAtual)) {
-            result.addError(tipo + " código " + codigoAtual
-                + ": indicador inválido '" + indicadorAtual + "' (esperado 1, 2 ou 3)");
-          }
-          final String totalValorStr = extractField(line, 6);
-          totalValorDeclarado = parseBigDecimal(totalValorStr);
-          if (totalValorDeclarado == null) {
-            result.addError(tipo + " código " + codigoAtual
-                + ": totalValor inválido '" + totalValorStr + "'");
-            totalValorDeclarado = BigDecimal.ZERO;
-          }
-        }
-        case "M305", "M355" -> {
-          hasM305Filho = true;
-          String codigo = extractField(line, 2);
-          String valorStr = extractField(line, 3);
-          String dc = extractField(line, 4);
-          if (codigo.isBlank()) {
-            result.addError(tipo + ": codigoContaParteB vazio");
-          }
-          BigDecimal valor = parseBigDecimal(valorStr);
-          if (valor == null) {
-            result.addError(tipo + " conta " + codigo + ": valor inválido '" + valorStr + "'");
-          } else {
-            somaFilhos = somaFilhos.add(valor);
-          }
-          if (!VALID_DC.contains(dc)) {
-            result.addError(tipo + " conta " + codigo + ": D/C inválido '" + dc + "'");
-          }
-        }
-        case "M310", "M360" -> {
-          hasM310Filho = true;
-          String codigo = extractField(line, 2);
-          String valorStr = extractField(line, 4);
-          String dc = extractField(line, 5);
-          if (codigo.isBlank()) {
-            result.addError(tipo + ": codigoContabil vazio");
-          }
-          BigDecimal valor = parseBigDecimal(valorStr);
-          if (valor == null) {
-            result.addError(tipo + " conta " + codigo + ": valor inválido '" + valorStr + "'");
-          } else if ("2".equals(indicadorAtual)) {
-            // indicador=2: apenas filhos M310/M360 — acumular para comparar com totalValor
-            somaFilhos = somaFilhos.add(valor);
-          }
-          if (!VALID_DC.contains(dc)) {
-            result.addError(tipo + " conta " + codigo + ": D/C inválido '" + dc + "'");
-          }
-        }
-        default -> {
-          // outros registros não validados aqui
-        }
-      }
-    }
-
-    // Validar o último pai
-    if (paiAtual != null) {
-      validarConsistenciaPai(paiAtual, indicadorAtual, codigoAtual,
-          totalValorDeclarado, somaFilhos, hasM305Filho, hasM310Filho, result);
-    }
-
-    if (!hasM030) {
-      result.addError("Nenhum registro M030 encontrado no arquivo");
-    }
-
-    return result;
+    return PARCIAL.validate(SpedDocument.parse(content));
   }
 
   /**
    * Valida o conteúdo de um IMPORTED_ECF.
    *
-   * <p>Verifica presença de M001 e M990, e que todas as linhas estão no formato SPED.
+   * <p>Verifica presença de M001 e M990, que todas as linhas estão no formato SPED e o leiaute
+   * dos registros.
    *
    * @param content conteúdo do arquivo como string
    * @return resultado da validação
    */
   public ValidationResult validateImportedEcf(String content) {
-    ValidationResult result = new ValidationResult();
-
-    boolean hasM001 = content.contains("|M001|");
-    boolean hasM990 = content.contains("|M990|");
-
-    if (!hasM001) {
-      result.addError("Registro |M001| não encontrado");
-    }
-    if (!hasM990) {
-      result.addError("Registro |M990| não encontrado");
-    }
-
-    long invalidLines = content.lines()
-        .filter(l -> !l.isBlank())
-        .filter(l -> !l.startsWith("|") || !l.endsWith("|"))
-        .count();
-
-    if (invalidLines > 0) {
-      result.addError(invalidLines
-          + " linha(s) não estão no formato SPED (devem iniciar e terminar com |)");
-    }
-
-    return result;
+    String versao = EcfLeiaute.versaoDeclarada(content);
+    EcfLeiaute leiaute = EcfLeiaute.daVersao(versao);
+    return validar(new EcfValidationEngine(List.of(
+        EstruturaSpedRule::new,
+        () -> new LeiauteEcfRule(leiaute, versao))), content);
   }
 
   /**
    * Valida o conteúdo de um COMPLETE_ECF.
    *
    * <p>Aplica todas as validações do ARQUIVO_PARCIAL para o bloco M, além de validar
-   * presença de M001, M990 e a contagem de linhas do M990.
+   * presença de M001, M990, a contagem de linhas do M990 e o leiaute dos registros. As regras
+   * são avaliadas na mesma passada.
    *
    * @param content conteúdo do arquivo como string
    * @return resultado da validação
    */
   public ValidationResult validateCompleteEcf(String content) {
-    ValidationResult result = validateImportedEcf(content);
-
-    // Validar conteúdo do bloco M (mesma lógica do Parcial)
-    ValidationResult parcialResult = validateArquivoParcial(content);
-    parcialResult.getErrors().forEach(result::addError);
-    parcialResult.getWarnings().forEach(result::addWarning);
-
-    // Validar contagem do M990
-    validateM990Count(content, result);
-
-    return result;
-  }
-
-  private void validarConsistenciaPai(
-      String tipo, String indicador, String codigo,
-      BigDecimal totalDeclarado, BigDecimal somaFilhos,
-      boolean hasM305, boolean hasM310, ValidationResult result) {
-
-    if ("1".equals(indicador) && hasM310) {
-      result.addError(tipo + " código " + codigo
-          + ": indicador=1 (só Parte B) mas existem filhos M310/M360");
-    }
-    if ("2".equals(indicador) && hasM305) {
-      result.addError(tipo + " código " + codigo
-          + ": indicador=2 (só Contábil) mas existem filhos M305/M355");
-    }
-    if (totalDeclarado.compareTo(somaFilhos) != 0) {
-      result.addWarning(tipo + " código " + codigo
-          + ": totalValor=" + formatBr(totalDeclarado)
-          + " difere da soma dos filhos=" + formatBr(somaFilhos));
-    }
-  }
-
-  private void validateM990Count(String content, ValidationResult result) {
-    String[] lines = content.split("\n");
-    int m001Idx = -1;
-    int m990Idx = -1;
-    int m990Declared = 0;
-
-    for (int i = 0; i < lines.length; i++) {
-      String tipo = extractTipo(lines[i]);
-      if ("M001".equals(tipo)) {
-        m001Idx = i;
-      }
-      if ("M990".equals(tipo)) {
-        m990Idx = i;
-        String countStr = extractField(lines[i], 2);
-        try {
-          m990Declared = Integer.parseInt(countStr);
-        } catch (NumberFormatException e) {
-          result.addError("M990: contagem inválida '" + countStr + "'");
-          return;
-        }
-        break;
-      }
-    }
-
-    if (m001Idx >= 0 && m990Idx >= 0) {
-      int actualCount = m990Idx - m001Idx + 1;
-      if (actualCount != m990Declared) {
-        result.addError("M990 declara " + m990Declared
-            + " linhas mas o bloco M tem " + actualCount + " linhas");
-      }
-    }
-  }
-
-  private String extractTipo(String line) {
-    if (line == null || line.isBlank() || !line.startsWith("|")) {
-      return null;
-    }
-    String[] parts = line.split("\\|", -1);
-    return parts.length > 1 ? parts[1] : null;
-  }
-
-  private String extractField(String line, int fieldIndex) {
-    String[] parts = line.split("\\|", -1);
-    return parts.length > fieldIndex ? parts[fieldIndex] : "";
+    String versao = EcfLeiaute.versaoDeclarada(content);
+    EcfLeiaute leiaute = EcfLeiaute.daVersao(versao);
+    return validar(new EcfValidationEngine(List.of(
+        EstruturaSpedRule::new,
+        () -> new BlocoMRule(leiaute),
+        M990CountRule::new,
+        () -> new LeiauteEcfRule(leiaute, versao))), content);
   }
 
-  private BigDecimal parseBigDecimal(String value) {
-    if (value == null || value.isBlank()) {
-      return null;
+  private ValidationResult validar(EcfValidationEngine engine, String content) {
+    if (parallelValidation && content.length() >= LIMIAR_PARALELO_CARACTERES) {
+      return engine.validate(content, ecfGenerationPool);
     }
-    try {
-      return new BigDecimal(value.replace(",", "."));
-    } catch (NumberFormatException e) {
-      return null;
-    }
-  }
-
-  private String formatBr(BigDecimal value) {
-    return String.format("%.2f", value).replace(".", ",");
+    return engine.validate(SpedDocument.parse(content));
   }
 }
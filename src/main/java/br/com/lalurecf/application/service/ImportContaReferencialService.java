@@ -4,14 +4,12 @@ import br.com.lalurecf.application.port.in.contareferencial.ImportContaReferenci
 import br.com.lalurecf.application.port.out.ContaReferencialRepositoryPort;
 import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.model.ContaReferencial;
+import br.com.lalurecf.domain.util.CompressedUploads;
 import br.com.lalurecf.infrastructure.dto.contareferencial.ImportContaReferencialResponse;
 import br.com.lalurecf.infrastructure.dto.contareferencial.ImportContaReferencialResponse.ContaReferencialPreview;
 import br.com.lalurecf.infrastructure.dto.contareferencial.ImportContaReferencialResponse.ImportError;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.time.Year;
 import java.util.ArrayList;
@@ -75,27 +73,11 @@ public class ImportContaReferencialService implements ImportContaReferencialUseC
     int totalLines = 0;
     int processedLines = 0;
 
-    // Detectar e remover BOM; se presente, usar UTF-8
-    byte[] rawBytes;
-    try {
-      rawBytes = file.getBytes();
-    } catch (Exception e) {
-      throw new RuntimeException("Error reading file: " + e.getMessage(), e);
-    }
-    int bomOffset = 0;
-    Charset charset = StandardCharsets.ISO_8859_1;
-    if (rawBytes.length >= 3
-        && (rawBytes[0] & 0xFF) == 0xEF
-        && (rawBytes[1] & 0xFF) == 0xBB
-        && (rawBytes[2] & 0xFF) == 0xBF) {
-      bomOffset = 3;
-      charset = StandardCharsets.UTF_8;
-    }
-
-    try (BufferedReader reader = new BufferedReader(
-            new InputStreamReader(
-                new ByteArrayInputStream(rawBytes, bomOffset, rawBytes.length - bomOffset),
-                charset));
+    // Conteúdo descomprimido em streaming (.csv, .gz ou .zip), limitado a MAX_FILE_SIZE;
+    // UTF-8 se houver BOM (removido), senão ISO-8859-1
+    try (InputStream content = CompressedUploads.open(
+            file.getInputStream(), file.getOriginalFilename(), MAX_FILE_SIZE).content();
+        BufferedReader reader = CompressedUploads.textReader(content);
         CSVParser csvParser = createCsvParser(reader, file)) {
 
       for (CSVRecord record : csvParser) {
@@ -198,6 +180,9 @@ public class ImportContaReferencialService implements ImportContaReferencialUseC
           .preview(preview)
           .build();
 
+    } catch (IllegalArgumentException e) {
+      // Arquivo comprimido inválido ou acima do limite: erro de entrada (400)
+      throw e;
     } catch (Exception e) {
       log.error("Error importing ContaReferencial: {}", e.getMessage(), e);
       throw new RuntimeException("Error importing file: " + e.getMessage(), e);
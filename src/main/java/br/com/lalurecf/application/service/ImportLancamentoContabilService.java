@@ -8,15 +8,13 @@ import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.model.Company;
 import br.com.lalurecf.domain.model.LancamentoContabil;
 import br.com.lalurecf.domain.model.PlanoDeContas;
+import br.com.lalurecf.domain.util.CompressedUploads;
 import br.com.lalurecf.infrastructure.dto.lancamentocontabil.ImportLancamentoContabilResponse;
 import br.com.lalurecf.infrastructure.dto.lancamentocontabil.ImportLancamentoContabilResponse.ImportError;
 import br.com.lalurecf.infrastructure.dto.lancamentocontabil.ImportLancamentoContabilResponse.LancamentoContabilPreview;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.InputStreamReader;
+import java.io.InputStream;
 import java.math.BigDecimal;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
@@ -101,28 +99,11 @@ public class ImportLancamentoContabilService implements ImportLancamentoContabil
     int processedLines = 0;
     int skippedLines = 0;
 
-    // Detectar e remover BOM; se presente, usar UTF-8
-    byte[] rawBytes;
-    try {
-      rawBytes = file.getBytes();
-    } catch (Exception e) {
-      throw new RuntimeException("Error reading file: " + e.getMessage(), e);
-    }
-    int bomOffset = 0;
-    Charset charset = StandardCharsets.ISO_8859_1;
-    if (rawBytes.length >= 3
-        && (rawBytes[0] & 0xFF) == 0xEF
-        && (rawBytes[1] & 0xFF) == 0xBB
-        && (rawBytes[2] & 0xFF) == 0xBF) {
-      bomOffset = 3;
-      charset = StandardCharsets.UTF_8;
-    }
-
-    try (BufferedReader reader =
-            new BufferedReader(
-                new InputStreamReader(
-                    new ByteArrayInputStream(rawBytes, bomOffset, rawBytes.length - bomOffset),
-                    charset));
+    // Conteúdo descomprimido em streaming (.csv, .gz ou .zip), limitado a MAX_FILE_SIZE;
+    // UTF-8 se houver BOM (removido), senão ISO-8859-1
+    try (InputStream content = CompressedUploads.open(
+            file.getInputStream(), file.getOriginalFilename(), MAX_FILE_SIZE).content();
+        BufferedReader reader = CompressedUploads.textReader(content);
         CSVParser csvParser = createCsvParser(reader, file)) {
 
       for (CSVRecord record : csvParser) {
@@ -349,6 +330,9 @@ public class ImportLancamentoContabilService implements ImportLancamentoContabil
           .preview(dryRun ? previews : null)
           .build();
 
+    } catch (IllegalArgumentException e) {
+      // Arquivo comprimido inválido ou acima do limite: erro de entrada (400)
+      throw e;
     } catch (Exception e) {
       log.error("Error during import: {}", e.getMessage(), e);
       throw new RuntimeException("Error processing CSV file: " + e.getMessage(), e);
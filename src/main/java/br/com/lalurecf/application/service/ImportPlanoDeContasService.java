@@ -9,15 +9,13 @@ import br.com.lalurecf.domain.enums.NaturezaConta;
 import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.model.ContaReferencial;
 import br.com.lalurecf.domain.model.PlanoDeContas;
+import br.com.lalurecf.domain.util.CompressedUploads;
 import br.com.lalurecf.domain.util.MascaraNiveisUtils;
 import br.com.lalurecf.infrastructure.dto.planodecontas.ImportPlanoDeContasResponse;
 import br.com.lalurecf.infrastructure.dto.planodecontas.ImportPlanoDeContasResponse.ImportError;
 import br.com.lalurecf.infrastructure.dto.planodecontas.ImportPlanoDeContasResponse.PlanoDeContasPreview;
 import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
-import java.nio.charset.StandardCharsets;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -90,28 +88,11 @@ public class ImportPlanoDeContasService implements ImportPlanoDeContasUseCase {
             .collect(Collectors.toMap(ContaReferencial::getCodigoRfb, Function.identity(),
                 (a, b) -> a));
 
-    // Detectar e remover BOM; se presente, usar UTF-8
-    byte[] rawBytes;
-    try {
-      rawBytes = file.getBytes();
-    } catch (Exception e) {
-      throw new RuntimeException("Error reading file: " + e.getMessage(), e);
-    }
-    int bomOffset = 0;
-    Charset charset = StandardCharsets.ISO_8859_1;
-    if (rawBytes.length >= 3
-        && (rawBytes[0] & 0xFF) == 0xEF
-        && (rawBytes[1] & 0xFF) == 0xBB
-        && (rawBytes[2] & 0xFF) == 0xBF) {
-      bomOffset = 3;
-      charset = StandardCharsets.UTF_8;
-    }
-
-    try (BufferedReader reader =
-            new BufferedReader(
-                new InputStreamReader(
-                    new ByteArrayInputStream(rawBytes, bomOffset, rawBytes.length - bomOffset),
-                    charset));
+    // Conteúdo descomprimido em streaming (.csv, .gz ou .zip), limitado a MAX_FILE_SIZE;
+    // UTF-8 se houver BOM (removido), senão ISO-8859-1
+    try (InputStream content = CompressedUploads.open(
+            file.getInputStream(), file.getOriginalFilename(), MAX_FILE_SIZE).content();
+        BufferedReader reader = CompressedUploads.textReader(content);
         CSVParser csvParser = createCsvParser(reader, file)) {
 
       for (CSVRecord record : csvParser) {
@@ -255,6 +236,9 @@ public class ImportPlanoDeContasService implements ImportPlanoDeContasUseCase {
           .preview(preview)
           .build();
 
+    } catch (IllegalArgumentException e) {
+      // Arquivo comprimido inválido ou acima do limite: erro de entrada (400)
+      throw e;
     } catch (Exception e) {
       log.error("Error importing PlanoDeContas: {}", e.getMessage(), e);
       throw new RuntimeException("Error importing file: " + e.getMessage(), e);
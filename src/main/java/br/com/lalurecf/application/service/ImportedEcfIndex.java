@@ -0,0 +1,267 @@
+package br.com.lalurecf.application.service;
+
+import br.com.lalurecf.domain.util.SpedDocument;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Índice estrutural imutável de um ECF Importado, reaproveitado entre gerações do ECF Completo.
+ *
+ * <p>Divide o conteúdo em quatro trechos: prefixo (antes do |M001|), bloco M (|M001| até o
+ * primeiro |M990|), sufixo (após o |M990| até o primeiro registro do bloco 9) e bloco 9. Prefixo e
+ * sufixo não mudam no merge: ficam apenas como intervalos de caracteres do arquivo armazenado,
+ * com a contagem de registros por tipo já calculada, e são copiados do stream do conteúdo. Só o
+ * texto do bloco M e do bloco 9 fica em memória, indexado em {@link SpedDocument} uma vez por
+ * entrada do cache: o merge percorre tipos e campos pelos índices, sem reprocessar as linhas.
+ *
+ * <p>Arquivos fora dessa estrutura (sem |M001|, |M990| antes do |M001| ou registro do bloco 9 antes
+ * do |M990|) não são indexados e o merge percorre todas as linhas do stream.
+ */
+public final class ImportedEcfIndex {
+
+  private static final ImportedEcfIndex NAO_ESTRUTURADO =
+      new ImportedEcfIndex(false, 0, 0, 0, Map.of(), Map.of(), null, null);
+
+  /** String + array de bytes (cabeçalhos), sem o conteúdo. */
+  private static final long BYTES_STRING = 40;
+  /** Entrada do LinkedHashMap + posição na tabela. */
+  private static final long BYTES_ENTRADA_MAPA = 48;
+  private static final long BYTES_INTEGER = 16;
+  /** LinkedHashMap + tabela inicial + visão imutável. */
+  private static final long BYTES_MAPA = 160;
+  private static final long BYTES_OBJETO = 64;
+  /** Nó do Caffeine + chave (hash SHA-256 em hexadecimal). */
+  private static final long BYTES_ENTRADA_CACHE = 96 + BYTES_STRING + 64;
+
+  private static final int PREFIXO = 0;
+  private static final int BLOCO_M = 1;
+  private static final int SUFIXO = 2;
+  private static final int BLOCO_9 = 3;
+
+  private final boolean estruturado;
+  private final long fimPrefixo;
+  private final long fimBlocoM;
+  private final long inicioBloco9;
+  private final Map<String, Integer> contagemPrefixo;
+  private final Map<String, Integer> contagemSufixo;
+  private final String blocoM;
+  private final String bloco9;
+  private final SpedDocument documentoBlocoM;
+  private final SpedDocument documentoBloco9;
+
+  private ImportedEcfIndex(boolean estruturado, long fimPrefixo, long fimBlocoM,
+      long inicioBloco9, Map<String, Integer> contagemPrefixo,
+      Map<String, Integer> contagemSufixo, String blocoM, String bloco9) {
+    this.estruturado = estruturado;
+    this.fimPrefixo = fimPrefixo;
+    this.fimBlocoM = fimBlocoM;
+    this.inicioBloco9 = inicioBloco9;
+    this.contagemPrefixo = contagemPrefixo;
+    this.contagemSufixo = contagemSufixo;
+    this.blocoM = blocoM;
+    this.bloco9 = bloco9;
+    this.documentoBlocoM = blocoM == null ? null : SpedDocument.parse(blocoM);
+    this.documentoBloco9 = bloco9 == null ? null : SpedDocument.parse(bloco9);
+  }
+
+  /**
+   * Indexa o ECF Importado em uma passada sobre o stream, sem guardar o conteúdo.
+   *
+   * @param reader conteúdo do arquivo (ISO-8859-1); não é fechado
+   * @return índice do arquivo
+   * @throws IOException se ocorrer erro de leitura
+   */
+  public static ImportedEcfIndex of(Reader reader) throws IOException {
+    LinhaReader linhas = new LinhaReader(reader);
+    Map<String, Integer> contagemPrefixo = new LinkedHashMap<>();
+    Map<String, Integer> contagemSufixo = new LinkedHashMap<>();
+    StringBuilder blocoM = new StringBuilder();
+    StringBuilder bloco9 = new StringBuilder();
+    long fimPrefixo = 0;
+    long fimBlocoM = 0;
+    long inicioBloco9 = 0;
+
+    int trecho = PREFIXO;
+    long offset = linhas.offset();
+    String line;
+    while ((line = linhas.next()) != null) {
+      String tipo = extractTipo(line);
+      boolean registro9 = tipo != null && tipo.startsWith("9");
+      switch (trecho) {
+        case PREFIXO -> {
+          if ("M001".equals(tipo)) {
+            fimPrefixo = offset;
+            blocoM.append(line).append('\n');
+            trecho = BLOCO_M;
+          } else if (registro9 || "M990".equals(tipo)) {
+            return NAO_ESTRUTURADO;
+          } else {
+            contar(contagemPrefixo, tipo);
+          }
+        }
+        case BLOCO_M -> {
+          if (registro9) {
+            return NAO_ESTRUTURADO;
+          }
+          blocoM.append(line).append('\n');
+          if ("M990".equals(tipo)) {
+            fimBlocoM = linhas.offset();
+            trecho = SUFIXO;
+          }
+        }
+        case SUFIXO -> {
+          if (registro9) {
+            inicioBloco9 = offset;
+            bloco9.append(line).append('\n');
+            trecho = BLOCO_9;
+          } else {
+            contar(contagemSufixo, tipo);
+          }
+        }
+        default -> bloco9.append(line).append('\n');
+      }
+      offset = linhas.offset();
+    }
+    if (trecho != BLOCO_9) {
+      return NAO_ESTRUTURADO;
+    }
+
+    return new ImportedEcfIndex(true, fimPrefixo, fimBlocoM, inicioBloco9,
+        Collections.unmodifiableMap(contagemPrefixo),
+        Collections.unmodifiableMap(contagemSufixo), blocoM.toString(), bloco9.toString());
+  }
+
+  /** Indica se o arquivo segue a estrutura prefixo/bloco M/sufixo/bloco 9. */
+  public boolean isEstruturado() {
+    return estruturado;
+  }
+
+  /** Offset (exclusivo) do fim do prefixo = início do |M001|. */
+  public long fimPrefixo() {
+    return fimPrefixo;
+  }
+
+  /** Offset do início do sufixo = linha seguinte ao |M990|. */
+  public long inicioSufixo() {
+    return fimBlocoM;
+  }
+
+  /** Offset (exclusivo) do fim do sufixo = início do bloco 9. */
+  public long fimSufixo() {
+    return inicioBloco9;
+  }
+
+  /** Contagem de registros por tipo no prefixo, na ordem de primeira ocorrência. */
+  public Map<String, Integer> contagemPrefixo() {
+    return contagemPrefixo;
+  }
+
+  /** Contagem de registros por tipo no sufixo, na ordem de primeira ocorrência. */
+  public Map<String, Integer> contagemSufixo() {
+    return contagemSufixo;
+  }
+
+  /** Linhas do |M001| ao |M990|, inclusive, cada uma terminada em {@code \n}. */
+  public String blocoM() {
+    return blocoM;
+  }
+
+  /**
+   * Linhas do primeiro registro do bloco 9 ao fim do arquivo, sem linhas vazias finais, cada uma
+   * terminada em {@code \n}.
+   */
+  public String bloco9() {
+    return bloco9;
+  }
+
+  /** {@link #blocoM()} indexado (null se o arquivo não for estruturado). */
+  public SpedDocument documentoBlocoM() {
+    return documentoBlocoM;
+  }
+
+  /** {@link #bloco9()} indexado (null se o arquivo não for estruturado). */
+  public SpedDocument documentoBloco9() {
+    return documentoBloco9;
+  }
+
+  /**
+   * Memória retida pela entrada do cache, em KB (peso no cache "ecf-imported-index").
+   *
+   * <p>Soma o texto do bloco M e do bloco 9 (1 byte por caractere: conteúdo lido como ISO-8859-1
+   * fica em compact strings) e seus índices, as contagens por tipo de registro e os cabeçalhos
+   * dos objetos, além da chave (hash SHA-256) e da entrada do próprio cache.
+   */
+  public int pesoKb() {
+    long bytes = BYTES_ENTRADA_CACHE + BYTES_OBJETO
+        + bytesTexto(blocoM) + bytesTexto(bloco9)
+        + bytesIndice(documentoBlocoM) + bytesIndice(documentoBloco9)
+        + bytesContagem(contagemPrefixo) + bytesContagem(contagemSufixo);
+    return (int) Math.min(Integer.MAX_VALUE, (bytes + 1023) / 1024);
+  }
+
+  private static long bytesTexto(String texto) {
+    return texto == null ? 0 : BYTES_STRING + texto.length();
+  }
+
+  private static long bytesIndice(SpedDocument documento) {
+    return documento == null ? 0 : documento.indexBytes();
+  }
+
+  private static long bytesContagem(Map<String, Integer> contagem) {
+    long bytes = BYTES_MAPA;
+    for (String tipo : contagem.keySet()) {
+      bytes += BYTES_ENTRADA_MAPA + BYTES_INTEGER + bytesTexto(tipo);
+    }
+    return bytes;
+  }
+
+  /**
+   * Tipo do registro de uma linha lida do stream, com a mesma convenção do
+   * {@link SpedDocument#tipo(int)} (um {@code \r} final não faz parte do tipo).
+   *
+   * @param line linha sem {@code \n}
+   * @return tipo do registro, ou null se a linha não inicia com {@code |}
+   */
+  static String extractTipo(String line) {
+    if (line == null || !line.startsWith("|")) {
+      return null;
+    }
+    int fim = line.indexOf('|', 1);
+    return line.substring(1, fim >= 0 ? fim : fimConteudo(line));
+  }
+
+  /**
+   * Campo de uma linha lida do stream, com a numeração e a convenção de {@code \r} do
+   * {@link SpedDocument#fieldString(int, int)}.
+   *
+   * @param line linha sem {@code \n}
+   * @param field índice do campo (0 = antes do primeiro {@code |}, 1 = tipo, ...)
+   * @return campo; vazio se não existir
+   */
+  static String extractField(String line, int field) {
+    int inicio = 0;
+    for (int i = 0; i < field; i++) {
+      int sep = line.indexOf('|', inicio);
+      if (sep < 0) {
+        return "";
+      }
+      inicio = sep + 1;
+    }
+    int fim = line.indexOf('|', inicio);
+    return line.substring(inicio, fim >= 0 ? fim : Math.max(inicio, fimConteudo(line)));
+  }
+
+  /** Fim do conteúdo da linha, sem um {@code \r} final. */
+  private static int fimConteudo(String line) {
+    return line.endsWith("\r") ? line.length() - 1 : line.length();
+  }
+
+  private static void contar(Map<String, Integer> contagem, String tipo) {
+    if (tipo != null) {
+      contagem.merge(tipo, 1, Integer::sum);
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package br.com.lalurecf.application.service;
+
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.stereotype.Service;
+
+/**
+ * Serviço que fornece o {@link ImportedEcfIndex} de um ECF Importado.
+ *
+ * <p>O índice é cacheado pelo hash do conteúdo (cache "ecf-imported-index"): como o conteúdo é
+ * endereçado por SHA-256, um novo upload gera um novo hash e a entrada anterior simplesmente
+ * expira — não há invalidação explícita. Regerar o ECF Completo sem novo upload reaproveita o
+ * índice sem indexar o arquivo novamente.
+ *
+ * <p>A indexação lê o conteúdo em streaming ({@link EcfContentStorePort#openStream}): só o bloco
+ * M e o bloco 9 são retidos.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ImportedEcfIndexService {
+
+  /** Nome do cache configurado em {@code CacheConfig}. */
+  public static final String CACHE_NAME = "ecf-imported-index";
+
+  private final EcfContentStorePort ecfContentStorePort;
+
+  /**
+   * Retorna o índice do conteúdo, percorrendo o arquivo apenas em cache miss.
+   *
+   * @param contentHash SHA-256 do conteúdo do ECF Importado
+   * @return índice estrutural do arquivo
+   */
+  @Cacheable(value = CACHE_NAME, key = "#contentHash")
+  public ImportedEcfIndex indexar(String contentHash) {
+    ImportedEcfIndex index;
+    try (Reader reader = new InputStreamReader(
+        ecfContentStorePort.openStream(contentHash), StandardCharsets.ISO_8859_1)) {
+      index = ImportedEcfIndex.of(reader);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Erro ao indexar ECF Importado: " + contentHash, e);
+    }
+    log.info("ECF Importado indexado: hash={}, estruturado={}", contentHash,
+        index.isEstruturado());
+    return index;
+  }
+}
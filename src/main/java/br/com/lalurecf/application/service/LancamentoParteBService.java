@@ -17,6 +17,7 @@ import br.com.lalurecf.domain.model.ContaParteB;
 import br.com.lalurecf.domain.model.LancamentoParteB;
 import br.com.lalurecf.domain.model.PlanoDeContas;
 import br.com.lalurecf.domain.model.TaxParameter;
+import br.com.lalurecf.domain.util.LongObjectMap;
 import br.com.lalurecf.infrastructure.dto.lancamentoparteb.CreateLancamentoParteBRequest;
 import br.com.lalurecf.infrastructure.dto.lancamentoparteb.LancamentoParteBResponse;
 import br.com.lalurecf.infrastructure.dto.lancamentoparteb.UpdateLancamentoParteBRequest;
@@ -26,10 +27,10 @@ import br.com.lalurecf.infrastructure.dto.user.ToggleStatusResponse;
 import br.com.lalurecf.infrastructure.exception.ResourceNotFoundException;
 import br.com.lalurecf.infrastructure.security.CompanyContext;
 import br.com.lalurecf.infrastructure.security.FiscalYearContext;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -161,20 +162,33 @@ public class LancamentoParteBService
     List<LancamentoParteB> content = lancamentosPage.getContent();
 
     // Batch-fetch códigos relacionados para evitar N+1
-    Map<Long, String> contaContabilCodes = fetchPlanoDeContasCodes(content);
-    Map<Long, String> contaParteBCodes = fetchContaParteBCodes(content);
-    Map<Long, String> parametroCodes = fetchParametroCodes(content);
+    LongObjectMap<String> contaContabilCodes = fetchPlanoDeContasCodes(content);
+    LongObjectMap<String> contaParteBCodes = fetchContaParteBCodes(content);
+    LongObjectMap<String> parametroCodes = fetchParametroCodes(content);
 
     return lancamentosPage.map(
         l ->
             dtoMapper.toResponse(
                 l,
-                contaContabilCodes.get(l.getContaContabilId()),
-                contaParteBCodes.get(l.getContaParteBId()),
-                parametroCodes.get(l.getParametroTributarioId())));
+                codigoPorId(contaContabilCodes, l.getContaContabilId()),
+                codigoPorId(contaParteBCodes, l.getContaParteBId()),
+                codigoPorId(parametroCodes, l.getParametroTributarioId())));
   }
 
-  private Map<Long, String> fetchPlanoDeContasCodes(List<LancamentoParteB> lancamentos) {
+  private static String codigoPorId(LongObjectMap<String> codes, Long id) {
+    return id == null ? null : codes.get(id);
+  }
+
+  private static <T> LongObjectMap<String> indexarCodigos(
+      List<T> entidades, ToLongFunction<T> id, Function<T, String> codigo) {
+    LongObjectMap<String> codes = new LongObjectMap<>(entidades.size());
+    for (T entidade : entidades) {
+      codes.put(id.applyAsLong(entidade), codigo.apply(entidade));
+    }
+    return codes;
+  }
+
+  private LongObjectMap<String> fetchPlanoDeContasCodes(List<LancamentoParteB> lancamentos) {
     List<Long> ids =
         lancamentos.stream()
             .map(LancamentoParteB::getContaContabilId)
@@ -182,13 +196,13 @@ public class LancamentoParteBService
             .distinct()
             .collect(Collectors.toList());
     if (ids.isEmpty()) {
-      return new HashMap<>();
+      return new LongObjectMap<>();
     }
-    return planoDeContasRepository.findAllById(ids).stream()
-        .collect(Collectors.toMap(PlanoDeContas::getId, PlanoDeContas::getCode));
+    return indexarCodigos(planoDeContasRepository.findAllById(ids),
+        PlanoDeContas::getId, PlanoDeContas::getCode);
   }
 
-  private Map<Long, String> fetchContaParteBCodes(List<LancamentoParteB> lancamentos) {
+  private LongObjectMap<String> fetchContaParteBCodes(List<LancamentoParteB> lancamentos) {
     List<Long> ids =
         lancamentos.stream()
             .map(LancamentoParteB::getContaParteBId)
@@ -196,13 +210,13 @@ public class LancamentoParteBService
             .distinct()
             .collect(Collectors.toList());
     if (ids.isEmpty()) {
-      return new HashMap<>();
+      return new LongObjectMap<>();
     }
-    return contaParteBRepository.findAllById(ids).stream()
-        .collect(Collectors.toMap(ContaParteB::getId, ContaParteB::getCodigoConta));
+    return indexarCodigos(contaParteBRepository.findAllById(ids),
+        ContaParteB::getId, ContaParteB::getCodigoConta);
   }
 
-  private Map<Long, String> fetchParametroCodes(List<LancamentoParteB> lancamentos) {
+  private LongObjectMap<String> fetchParametroCodes(List<LancamentoParteB> lancamentos) {
     List<Long> ids =
         lancamentos.stream()
             .map(LancamentoParteB::getParametroTributarioId)
@@ -210,10 +224,10 @@ public class LancamentoParteBService
             .distinct()
             .collect(Collectors.toList());
     if (ids.isEmpty()) {
-      return new HashMap<>();
+      return new LongObjectMap<>();
     }
-    return taxParameterRepository.findAllById(ids).stream()
-        .collect(Collectors.toMap(TaxParameter::getId, TaxParameter::getCode));
+    return indexarCodigos(taxParameterRepository.findAllById(ids),
+        TaxParameter::getId, TaxParameter::getCode);
   }
 
   private LancamentoParteBResponse toResponseWithCodes(LancamentoParteB lancamento) {
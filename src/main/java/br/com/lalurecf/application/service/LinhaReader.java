@@ -0,0 +1,100 @@
+package br.com.lalurecf.application.service;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Leitor de linhas separadas apenas por {@code \n}, equivalente a {@code split("\n")}:
+ * preserva {@code \r} e descarta linhas vazias ao final do conteúdo.
+ *
+ * <p>Mantém o offset (em caracteres) do início da próxima linha, usado para localizar trechos
+ * do arquivo sem guardar o conteúdo.
+ */
+final class LinhaReader {
+
+  private final Reader reader;
+  private final char[] buffer = new char[8192];
+  private final StringBuilder atual = new StringBuilder(256);
+  private int pos;
+  private int limite;
+  private int vaziasPendentes;
+  private String proxima;
+  private boolean fim;
+  private long offset;
+
+  LinhaReader(Reader reader) {
+    this.reader = reader;
+  }
+
+  /**
+   * Próxima linha, sem o {@code \n}.
+   *
+   * @return linha, ou null no fim do conteúdo
+   * @throws IOException se ocorrer erro de leitura
+   */
+  String next() throws IOException {
+    String line = proximaLinha();
+    if (line != null) {
+      offset += line.length() + 1;
+    }
+    return line;
+  }
+
+  /** Offset do primeiro caractere da próxima linha retornada por {@link #next()}. */
+  long offset() {
+    return offset;
+  }
+
+  private String proximaLinha() throws IOException {
+    if (vaziasPendentes > 0) {
+      vaziasPendentes--;
+      return "";
+    }
+    if (proxima != null) {
+      String line = proxima;
+      proxima = null;
+      return line;
+    }
+    String line;
+    while ((line = lerLinha()) != null) {
+      if (!line.isEmpty()) {
+        if (vaziasPendentes == 0) {
+          return line;
+        }
+        // Linhas vazias só são emitidas se houver conteúdo depois delas
+        proxima = line;
+        vaziasPendentes--;
+        return "";
+      }
+      vaziasPendentes++;
+    }
+    vaziasPendentes = 0;
+    return null;
+  }
+
+  private String lerLinha() throws IOException {
+    if (fim) {
+      return null;
+    }
+    atual.setLength(0);
+    while (true) {
+      if (pos == limite) {
+        limite = reader.read(buffer, 0, buffer.length);
+        pos = 0;
+        if (limite <= 0) {
+          fim = true;
+          return atual.length() > 0 ? atual.toString() : null;
+        }
+      }
+      int inicio = pos;
+      while (pos < limite && buffer[pos] != '\n') {
+        pos++;
+      }
+      atual.append(buffer, inicio, pos - inicio);
+      if (pos < limite) {
+        pos++;
+        return atual.toString();
+      }
+    }
+  }
+}
@@ -1,10 +1,10 @@
 package br.com.lalurecf.application.service;
 
 import br.com.lalurecf.application.port.in.ecf.ListEcfFilesUseCase;
+import br.com.lalurecf.application.port.out.EcfFileMetadata;
 import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
 import br.com.lalurecf.domain.enums.EcfFileStatus;
 import br.com.lalurecf.domain.enums.EcfFileType;
-import br.com.lalurecf.domain.model.EcfFile;
 import br.com.lalurecf.infrastructure.dto.ecf.EcfFileListResponse;
 import br.com.lalurecf.infrastructure.dto.ecf.EcfFileSummary;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -18,8 +18,8 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Serviço de listagem de arquivos ECF por empresa e ano fiscal.
  *
- * <p>Busca todos os EcfFile da empresa+ano, separa por tipo, e mapeia para DTOs de sumário.
- * O campo {@code content} não é exposto no response (somente metadados).
+ * <p>Busca os metadados dos EcfFile da empresa+ano (projeção, sem carregar conteúdo), separa por
+ * tipo e mapeia para DTOs de sumário. Tamanho e linhas vêm das colunas persistidas ao gravar.
  */
 @Service
 @RequiredArgsConstructor
@@ -35,19 +35,20 @@ public class ListEcfFilesService implements ListEcfFilesUseCase {
     log.info("Listando arquivos ECF: companyId={}, fiscalYear={}, fileType={}",
         companyId, fiscalYear, fileType);
 
-    List<EcfFile> files = ecfFileRepositoryPort.findByCompanyAndFiscalYear(companyId, fiscalYear);
+    List<EcfFileMetadata> files =
+        ecfFileRepositoryPort.findMetadataByCompanyAndFiscalYear(companyId, fiscalYear);
 
     EcfFileSummary parcial = null;
     EcfFileSummary importado = null;
     EcfFileSummary completo = null;
 
-    for (EcfFile file : files) {
+    for (EcfFileMetadata file : files) {
       EcfFileSummary summary = toSummary(file);
-      switch (file.getFileType()) {
+      switch (file.fileType()) {
         case ARQUIVO_PARCIAL -> parcial = summary;
         case IMPORTED_ECF -> importado = summary;
         case COMPLETE_ECF -> completo = summary;
-        default -> log.warn("Tipo de arquivo ECF desconhecido: {}", file.getFileType());
+        default -> log.warn("Tipo de arquivo ECF desconhecido: {}", file.fileType());
       }
     }
 
@@ -83,34 +84,34 @@ public class ListEcfFilesService implements ListEcfFilesUseCase {
     }
   }
 
-  private EcfFileSummary toSummary(EcfFile file) {
+  private EcfFileSummary toSummary(EcfFileMetadata file) {
     EcfFileSummary summary = new EcfFileSummary();
-    summary.setId(file.getId());
-    summary.setFiscalYear(file.getFiscalYear());
-    summary.setFileType(file.getFileType() != null ? file.getFileType().name() : null);
-    summary.setFileName(file.getFileName());
-    summary.setFileSizeBytes(
-        file.getContent() != null ? (long) file.getContent().length() : 0L);
-    summary.setFileStatus(file.getFileStatus() != null ? file.getFileStatus().name() : null);
-    summary.setGeneratedAt(file.getGeneratedAt());
-    summary.setGeneratedBy(file.getGeneratedBy());
-    summary.setSourceImportedEcfId(file.getSourceImportedEcfId());
-    summary.setSourceParcialFileId(file.getSourceParcialFileId());
+    summary.setId(file.id());
+    summary.setFiscalYear(file.fiscalYear());
+    summary.setFileType(file.fileType() != null ? file.fileType().name() : null);
+    summary.setFileName(file.fileName());
+    summary.setFileSizeBytes(file.sizeBytes() != null ? file.sizeBytes() : 0L);
+    summary.setLineCount(file.lineCount());
+    summary.setFileStatus(file.fileStatus() != null ? file.fileStatus().name() : null);
+    summary.setGeneratedAt(file.generatedAt());
+    summary.setGeneratedBy(file.generatedBy());
+    summary.setSourceImportedEcfId(file.sourceImportedEcfId());
+    summary.setSourceParcialFileId(file.sourceParcialFileId());
     summary.setValidationErrors(deserializeErrors(file));
     return summary;
   }
 
-  private List<String> deserializeErrors(EcfFile file) {
-    if (file.getFileStatus() != EcfFileStatus.ERROR
-        || file.getValidationErrors() == null
-        || file.getValidationErrors().isBlank()) {
+  private List<String> deserializeErrors(EcfFileMetadata file) {
+    if (file.fileStatus() != EcfFileStatus.ERROR
+        || file.validationErrors() == null
+        || file.validationErrors().isBlank()) {
       return null;
     }
     try {
       return objectMapper.readValue(
-          file.getValidationErrors(), new TypeReference<List<String>>() {});
+          file.validationErrors(), new TypeReference<List<String>>() {});
     } catch (Exception e) {
-      log.warn("Falha ao desserializar validationErrors do arquivo {}: {}", file.getId(),
+      log.warn("Falha ao desserializar validationErrors do arquivo {}: {}", file.id(),
           e.getMessage());
       return null;
     }
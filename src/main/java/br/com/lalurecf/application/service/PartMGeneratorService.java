@@ -1,10 +1,10 @@
 package br.com.lalurecf.application.service;
 
 import br.com.lalurecf.application.port.out.ContaParteBRepositoryPort;
+import br.com.lalurecf.application.port.out.LancamentoParteBAgregado;
 import br.com.lalurecf.application.port.out.LancamentoParteBRepositoryPort;
 import br.com.lalurecf.application.port.out.PlanoDeContasRepositoryPort;
 import br.com.lalurecf.application.port.out.TaxParameterRepositoryPort;
-import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.enums.TipoAjuste;
 import br.com.lalurecf.domain.enums.TipoApuracao;
 import br.com.lalurecf.domain.enums.TipoRelacionamento;
@@ -12,18 +12,28 @@ import br.com.lalurecf.domain.model.ContaParteB;
 import br.com.lalurecf.domain.model.LancamentoParteB;
 import br.com.lalurecf.domain.model.PlanoDeContas;
 import br.com.lalurecf.domain.model.TaxParameter;
+import br.com.lalurecf.domain.util.Centavos;
+import br.com.lalurecf.domain.util.LongIdIndex;
+import br.com.lalurecf.domain.util.LongObjectMap;
 import java.math.BigDecimal;
 import java.text.Normalizer;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.ToLongFunction;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -44,10 +54,20 @@ public class PartMGeneratorService {
 
   private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("ddMMyyyy");
 
+  private static final LayoutGrupo GRUPO_IRPJ =
+      new LayoutGrupo(TipoApuracao.IRPJ, "M300", "M305", "M310");
+  private static final LayoutGrupo GRUPO_CSLL =
+      new LayoutGrupo(TipoApuracao.CSLL, "M350", "M355", "M360");
+
   private final LancamentoParteBRepositoryPort lancamentoRepo;
   private final ContaParteBRepositoryPort contaParteBRepo;
   private final PlanoDeContasRepositoryPort planoDeContasRepo;
   private final TaxParameterRepositoryPort taxParameterRepo;
+  private final ForkJoinPool ecfGenerationPool;
+
+  /** Se true, gera cada unidade (IRPJ|CSLL) × mês em paralelo no {@link #ecfGenerationPool}. */
+  @Value("${ecf.generation.parallel:false}")
+  private boolean parallelGeneration;
 
   /**
    * Gera o conteúdo do bloco M para o arquivo parcial ECF.
@@ -56,6 +76,8 @@ public class PartMGeneratorService {
    * como string com separador de linha. O chamador (assembler da Story 5.3) deve
    * adicionar a linha M001 antes deste conteúdo.
    *
+   * <p>Os totais são agregados no banco (GROUP BY), sem materializar os lançamentos.
+   *
    * @param companyId ID da empresa
    * @param fiscalYear ano fiscal de referência
    * @return conteúdo do bloco M terminando com M990
@@ -63,10 +85,9 @@ public class PartMGeneratorService {
    */
   @Transactional(readOnly = true)
   public String generateArquivoParcial(Long companyId, Integer fiscalYear) {
-    List<LancamentoParteB> active =
-        lancamentoRepo.findByCompanyIdAndAnoReferenciaAndStatus(
-            companyId, fiscalYear, Status.ACTIVE);
-    return generateArquivoParcial(active, fiscalYear);
+    List<LancamentoParteBAgregado> agregados =
+        lancamentoRepo.findAgregadosAtivosByCompanyIdAndAnoReferencia(companyId, fiscalYear);
+    return generateArquivoParcialFromAgregados(agregados, fiscalYear);
   }
 
   /**
@@ -74,14 +95,44 @@ public class PartMGeneratorService {
    * já carregou os lançamentos.
    */
   public String generateArquivoParcial(List<LancamentoParteB> active, Integer fiscalYear) {
-    if (active.isEmpty()) {
+    return generateArquivoParcialFromAgregados(agregar(active), fiscalYear);
+  }
+
+  /**
+   * Variante que recebe as linhas já agregadas (ver
+   * {@link LancamentoParteBRepositoryPort#findAgregadosAtivosByCompanyIdAndAnoReferencia}).
+   *
+   * <p>As linhas devem estar na ordem de inserção dos lançamentos dentro de cada mês: a
+   * primeira linha de cada grupo define tipo de ajuste e histórico do M300/M350.
+   */
+  public String generateArquivoParcialFromAgregados(
+      List<LancamentoParteBAgregado> agregados, Integer fiscalYear) {
+    return generateArquivoParcialFromAgregados(agregados, fiscalYear, parallelGeneration);
+  }
+
+  /**
+   * Gera o bloco M sequencialmente ou em paralelo.
+   *
+   * <p>No modo paralelo, cada unidade independente (IRPJ|CSLL) × mês é formatada como tarefa
+   * no pool de geração, em buffer próprio; os segmentos são concatenados na ordem canônica
+   * (IRPJ antes de CSLL, meses crescentes). As consultas ao banco continuam na thread chamadora
+   * (dentro da transação), portanto o conteúdo gerado é idêntico ao do modo sequencial.
+   * Package-private para facilitar testes unitários.
+   */
+  String generateArquivoParcialFromAgregados(
+      List<LancamentoParteBAgregado> agregados, Integer fiscalYear, boolean paralelo) {
+    if (agregados.isEmpty()) {
       throw new IllegalArgumentException(
           "Nenhum lançamento da Parte B ativo encontrado para o ano " + fiscalYear);
     }
 
     List<String> lines = new ArrayList<>();
-    lines.addAll(generateGrupoIrpj(active, fiscalYear));
-    lines.addAll(generateGrupoCsll(active, fiscalYear));
+    if (paralelo) {
+      lines.addAll(generateGruposEmParalelo(agregados, fiscalYear));
+    } else {
+      lines.addAll(generateGrupo(agregados, fiscalYear, GRUPO_IRPJ));
+      lines.addAll(generateGrupo(agregados, fiscalYear, GRUPO_CSLL));
+    }
 
     lines.add(String.format("|M990|%d|", lines.size() + 1));
 
@@ -93,7 +144,7 @@ public class PartMGeneratorService {
    * Package-private para facilitar testes unitários.
    */
   List<String> generateGrupoIrpj(List<LancamentoParteB> active, Integer fiscalYear) {
-    return generateGrupo(active, fiscalYear, TipoApuracao.IRPJ, "M300", "M305", "M310");
+    return generateGrupo(agregar(active), fiscalYear, GRUPO_IRPJ);
   }
 
   /**
@@ -101,167 +152,264 @@ public class PartMGeneratorService {
    * Package-private para facilitar testes unitários.
    */
   List<String> generateGrupoCsll(List<LancamentoParteB> active, Integer fiscalYear) {
-    return generateGrupo(active, fiscalYear, TipoApuracao.CSLL, "M350", "M355", "M360");
+    return generateGrupo(agregar(active), fiscalYear, GRUPO_CSLL);
   }
 
-  private List<String> generateGrupo(
-      List<LancamentoParteB> allActive, Integer fiscalYear,
-      TipoApuracao tipoApuracao, String regPai, String regFilhoParteB, String regFilhoContabil) {
+  /**
+   * Agrega em memória uma lista de lançamentos no mesmo formato retornado pelo banco,
+   * preservando a ordem de primeira ocorrência de cada combinação.
+   * Package-private para facilitar testes unitários.
+   */
+  List<LancamentoParteBAgregado> agregar(List<LancamentoParteB> lancamentos) {
+    Map<List<Object>, LancamentoParteBAgregado> porChave = new LinkedHashMap<>();
+    for (LancamentoParteB l : lancamentos) {
+      List<Object> chave = Arrays.asList(
+          l.getTipoApuracao(), l.getMesReferencia(), l.getParametroTributarioId(),
+          l.getTipoRelacionamento(), l.getContaParteBId(), l.getContaContabilId(),
+          l.getTipoAjuste());
+      LancamentoParteBAgregado atual = porChave.get(chave);
+      BigDecimal valor = l.getValor() != null ? l.getValor() : BigDecimal.ZERO;
+      if (atual == null) {
+        porChave.put(chave, new LancamentoParteBAgregado(
+            l.getTipoApuracao(), l.getMesReferencia(), l.getParametroTributarioId(),
+            l.getTipoRelacionamento(), l.getContaParteBId(), l.getContaContabilId(),
+            l.getTipoAjuste(), valor, 1, l.getId(), l.getDescricao()));
+      } else {
+        porChave.put(chave, new LancamentoParteBAgregado(
+            atual.tipoApuracao(), atual.mesReferencia(), atual.parametroTributarioId(),
+            atual.tipoRelacionamento(), atual.contaParteBId(), atual.contaContabilId(),
+            atual.tipoAjuste(), atual.valorTotal().add(valor), atual.quantidade() + 1,
+            atual.primeiroId(), atual.primeiraDescricao()));
+      }
+    }
+    return new ArrayList<>(porChave.values());
+  }
 
-    List<LancamentoParteB> filtered = allActive.stream()
-        .filter(l -> l.getTipoApuracao() == tipoApuracao)
-        .collect(Collectors.toList());
+  private List<String> generateGrupo(
+      List<LancamentoParteBAgregado> agregados, Integer fiscalYear, LayoutGrupo layout) {
 
-    if (filtered.isEmpty()) {
+    Map<Integer, List<LancamentoParteBAgregado>> byMes = agruparPorMes(agregados, layout);
+    if (byMes.isEmpty()) {
       return new ArrayList<>();
     }
 
-    // Batch-fetch entidades relacionadas (evita N+1 dentro dos loops)
-    Map<Long, TaxParameter> parametrosById = batchFetchParametros(filtered);
-    Map<Long, ContaParteB> contasParteBById = batchFetchContasParteB(filtered);
-    Map<Long, PlanoDeContas> contasContabeisById = batchFetchPlanoDeContas(filtered);
+    Lookups lookups = batchFetch(byMes);
+    List<String> lines = new ArrayList<>();
+    for (Map.Entry<Integer, List<LancamentoParteBAgregado>> mesEntry : byMes.entrySet()) {
+      lines.addAll(generateMes(
+          fiscalYear, mesEntry.getKey(), mesEntry.getValue(), layout, lookups));
+    }
+    return lines;
+  }
 
-    // Período cumulativo desde 01/01 do ano fiscal
-    LocalDate inicioAno = LocalDate.of(fiscalYear, 1, 1);
+  private List<String> generateGruposEmParalelo(
+      List<LancamentoParteBAgregado> agregados, Integer fiscalYear) {
+
+    // Lookups resolvidos na thread chamadora; as tarefas apenas formatam texto
+    List<Future<List<String>>> segmentos = new ArrayList<>();
+    for (LayoutGrupo layout : List.of(GRUPO_IRPJ, GRUPO_CSLL)) {
+      Map<Integer, List<LancamentoParteBAgregado>> byMes = agruparPorMes(agregados, layout);
+      if (byMes.isEmpty()) {
+        continue;
+      }
+      Lookups lookups = batchFetch(byMes);
+      for (Map.Entry<Integer, List<LancamentoParteBAgregado>> mesEntry : byMes.entrySet()) {
+        int mes = mesEntry.getKey();
+        List<LancamentoParteBAgregado> agregadosMes = mesEntry.getValue();
+        segmentos.add(CompletableFuture.supplyAsync(
+            () -> generateMes(fiscalYear, mes, agregadosMes, layout, lookups),
+            ecfGenerationPool));
+      }
+    }
+
+    List<String> lines = new ArrayList<>();
+    try {
+      for (Future<List<String>> segmento : segmentos) {
+        lines.addAll(segmento.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Geração do bloco M interrompida", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException runtimeException) {
+        throw runtimeException;
+      }
+      throw new IllegalStateException("Falha na geração do bloco M", e.getCause());
+    } finally {
+      segmentos.forEach(segmento -> segmento.cancel(true));
+    }
+    return lines;
+  }
 
-    // Agrupar por mesReferencia (ordenado)
-    Map<Integer, List<LancamentoParteB>> byMes = new TreeMap<>(
-        filtered.stream().collect(Collectors.groupingBy(LancamentoParteB::getMesReferencia)));
+  private Map<Integer, List<LancamentoParteBAgregado>> agruparPorMes(
+      List<LancamentoParteBAgregado> agregados, LayoutGrupo layout) {
+    return agregados.stream()
+        .filter(a -> a.tipoApuracao() == layout.tipoApuracao())
+        .collect(Collectors.groupingBy(
+            LancamentoParteBAgregado::mesReferencia, TreeMap::new, Collectors.toList()));
+  }
+
+  private Lookups batchFetch(Map<Integer, List<LancamentoParteBAgregado>> byMes) {
+    // Batch-fetch entidades relacionadas (evita N+1 dentro dos loops)
+    List<LancamentoParteBAgregado> todos = byMes.values().stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toList());
+    return new Lookups(
+        batchFetchParametros(todos),
+        batchFetchContasParteB(todos),
+        batchFetchPlanoDeContas(todos));
+  }
+
+  /**
+   * Formata o segmento de um mês: M030 seguido dos M300/M350 e filhos. Não acessa o banco,
+   * podendo ser executado em qualquer thread.
+   */
+  private List<String> generateMes(
+      Integer fiscalYear, int mes, List<LancamentoParteBAgregado> agregadosMes,
+      LayoutGrupo layout, Lookups lookups) {
 
     List<String> lines = new ArrayList<>();
 
-    for (Map.Entry<Integer, List<LancamentoParteB>> mesEntry : byMes.entrySet()) {
-      int mes = mesEntry.getKey();
-      List<LancamentoParteB> lancamentosMes = mesEntry.getValue();
-
-      // M030 — sempre 01/01 a último dia do mês corrente
-      LocalDate fim = LocalDate.of(fiscalYear, mes, 1)
-          .withDayOfMonth(LocalDate.of(fiscalYear, mes, 1).lengthOfMonth());
-      String codigoApuracao = "A" + String.format("%02d", mes);
-      lines.add(String.format("|M030|%s|%s|%s|",
-          inicioAno.format(DATE_FORMAT), fim.format(DATE_FORMAT), codigoApuracao));
-
-      // Agrupar por parametroTributarioId, ordenado pelo code (numérico crescente)
-      // para seguir o padrão do ECF (ex: 6 → 8 → 8.65 → 8.75 → 95)
-      Map<Long, List<LancamentoParteB>> byParametro = lancamentosMes.stream()
-          .collect(Collectors.groupingBy(
-              LancamentoParteB::getParametroTributarioId,
-              LinkedHashMap::new,
-              Collectors.toList()));
-
-      List<Map.Entry<Long, List<LancamentoParteB>>> sortedByParametro =
-          new ArrayList<>(byParametro.entrySet());
-      sortedByParametro.sort((a, b) -> {
-        TaxParameter pa = parametrosById.get(a.getKey());
-        TaxParameter pb = parametrosById.get(b.getKey());
-        return compareCodesNumerically(
-            pa != null ? pa.getCode() : "",
-            pb != null ? pb.getCode() : "");
-      });
-
-      for (Map.Entry<Long, List<LancamentoParteB>> paramEntry : sortedByParametro) {
-        Long parametroId = paramEntry.getKey();
-        List<LancamentoParteB> grupo = paramEntry.getValue();
-
-        TaxParameter parametro = parametrosById.get(parametroId);
-        if (parametro == null) {
-          throw new IllegalArgumentException(
-              "ParametroTributario não encontrado: " + parametroId);
+    // M030 — sempre 01/01 a último dia do mês corrente (período cumulativo desde 01/01)
+    LocalDate inicioAno = LocalDate.of(fiscalYear, 1, 1);
+    LocalDate fim = LocalDate.of(fiscalYear, mes, 1)
+        .withDayOfMonth(LocalDate.of(fiscalYear, mes, 1).lengthOfMonth());
+    String codigoApuracao = "A" + String.format("%02d", mes);
+    lines.add(String.format("|M030|%s|%s|%s|",
+        inicioAno.format(DATE_FORMAT), fim.format(DATE_FORMAT), codigoApuracao));
+
+    // Agrupar por parametroTributarioId, ordenado pelo code (numérico crescente)
+    // para seguir o padrão do ECF (ex: 6 → 8 → 8.65 → 8.75 → 95)
+    LongObjectMap<List<LancamentoParteBAgregado>> byParametro =
+        new LongObjectMap<>(agregadosMes.size());
+    for (LancamentoParteBAgregado a : agregadosMes) {
+      byParametro.computeIfAbsent(a.parametroTributarioId(), k -> new ArrayList<>()).add(a);
+    }
+
+    // Ordena as posições (ordem de primeira ocorrência) pelo código do parâmetro
+    List<Integer> sortedByParametro = new ArrayList<>(byParametro.size());
+    for (int i = 0; i < byParametro.size(); i++) {
+      sortedByParametro.add(i);
+    }
+    sortedByParametro.sort((a, b) -> {
+      TaxParameter pa = lookups.parametros().get(byParametro.keyAt(a));
+      TaxParameter pb = lookups.parametros().get(byParametro.keyAt(b));
+      return compareCodesNumerically(
+          pa != null ? pa.getCode() : "",
+          pb != null ? pb.getCode() : "");
+    });
+
+    for (int posicao : sortedByParametro) {
+      long parametroId = byParametro.keyAt(posicao);
+      List<LancamentoParteBAgregado> grupo = byParametro.valueAt(posicao);
+
+      TaxParameter parametro = lookups.parametros().get(parametroId);
+      if (parametro == null) {
+        throw new IllegalArgumentException(
+            "ParametroTributario não encontrado: " + parametroId);
+      }
+
+      TipoAjuste tipoAjuste = grupo.get(0).tipoAjuste();
+      String tipoAjusteStr = tipoAjuste == TipoAjuste.ADICAO ? "A" : "E";
+      String dc = tipoAjuste == TipoAjuste.ADICAO ? "D" : "C";
+      String indicador = determineIndicador(grupo);
+      // Somas em centavos (long): uma conversão por linha agregada, sem BigDecimal por passo
+      // Totais M305/M310 indexados pelo ID denso da conta (ordem de primeira ocorrência)
+      long somaValores = Centavos.ZERO;
+      LongIdIndex m305Contas = new LongIdIndex(grupo.size());
+      LongIdIndex m310Contas = new LongIdIndex(grupo.size());
+      long[] m305Totals = new long[grupo.size()];
+      long[] m310Totals = new long[grupo.size()];
+      for (LancamentoParteBAgregado a : grupo) {
+        long valor = Centavos.of(a.valorTotal());
+        somaValores = Centavos.add(somaValores, valor);
+        TipoRelacionamento rel = a.tipoRelacionamento();
+        if ((rel == TipoRelacionamento.CONTA_PARTE_B || rel == TipoRelacionamento.AMBOS)
+            && a.contaParteBId() != null) {
+          int i = m305Contas.add(a.contaParteBId());
+          m305Totals[i] = Centavos.add(m305Totals[i], valor);
+        }
+        if ((rel == TipoRelacionamento.CONTA_CONTABIL || rel == TipoRelacionamento.AMBOS)
+            && a.contaContabilId() != null) {
+          int i = m310Contas.add(a.contaContabilId());
+          m310Totals[i] = Centavos.add(m310Totals[i], valor);
         }
+      }
+      String historico = grupo.get(0).primeiraDescricao();
 
-        TipoAjuste tipoAjuste = grupo.get(0).getTipoAjuste();
-        String tipoAjusteStr = tipoAjuste == TipoAjuste.ADICAO ? "A" : "E";
-        String dc = tipoAjuste == TipoAjuste.ADICAO ? "D" : "C";
-        String indicador = determineIndicador(grupo);
-        BigDecimal somaValores = grupo.stream()
-            .map(LancamentoParteB::getValor)
-            .reduce(BigDecimal.ZERO, BigDecimal::add);
-        String historico = grupo.get(0).getDescricao();
-
-        // M300/M350 — registro pai
-        lines.add(String.format("|%s|%s|%s|%s|%s|%s|%s|",
-            regPai, parametro.getCode(), removeAccents(parametro.getDescription()),
-            tipoAjusteStr, indicador, formatValor(somaValores), removeAccents(historico)));
-
-        // M305/M355 — agrupado por contaParteBId, todos juntos primeiro
-        Map<Long, BigDecimal> m305Totals = grupo.stream()
-            .filter(l -> l.getTipoRelacionamento() == TipoRelacionamento.CONTA_PARTE_B
-                || l.getTipoRelacionamento() == TipoRelacionamento.AMBOS)
-            .filter(l -> l.getContaParteBId() != null)
-            .collect(Collectors.groupingBy(
-                LancamentoParteB::getContaParteBId,
-                LinkedHashMap::new,
-                Collectors.reducing(BigDecimal.ZERO,
-                    LancamentoParteB::getValor, BigDecimal::add)));
-
-        for (Map.Entry<Long, BigDecimal> e : m305Totals.entrySet()) {
-          ContaParteB conta = contasParteBById.get(e.getKey());
-          if (conta == null) {
-            throw new IllegalArgumentException("ContaParteB não encontrada: " + e.getKey());
-          }
-          lines.add(String.format("|%s|%s|%s|%s|",
-              regFilhoParteB, conta.getCodigoConta(), formatValor(e.getValue()), dc));
+      // M300/M350 — registro pai
+      lines.add(String.format("|%s|%s|%s|%s|%s|%s|%s|",
+          layout.regPai(), parametro.getCode(), removeAccents(parametro.getDescription()),
+          tipoAjusteStr, indicador, Centavos.format(somaValores), removeAccents(historico)));
+
+      // M305/M355 — agrupado por contaParteBId, todos juntos primeiro
+      for (int i = 0; i < m305Contas.size(); i++) {
+        ContaParteB conta = lookups.contasParteB().get(m305Contas.keyAt(i));
+        if (conta == null) {
+          throw new IllegalArgumentException(
+              "ContaParteB não encontrada: " + m305Contas.keyAt(i));
         }
+        lines.add(String.format("|%s|%s|%s|%s|",
+            layout.regFilhoParteB(), conta.getCodigoConta(), Centavos.format(m305Totals[i]), dc));
+      }
 
-        // M310/M360 — agrupado por contaContabilId, depois dos M305
-        Map<Long, BigDecimal> m310Totals = grupo.stream()
-            .filter(l -> l.getTipoRelacionamento() == TipoRelacionamento.CONTA_CONTABIL
-                || l.getTipoRelacionamento() == TipoRelacionamento.AMBOS)
-            .filter(l -> l.getContaContabilId() != null)
-            .collect(Collectors.groupingBy(
-                LancamentoParteB::getContaContabilId,
-                LinkedHashMap::new,
-                Collectors.reducing(BigDecimal.ZERO,
-                    LancamentoParteB::getValor, BigDecimal::add)));
-
-        for (Map.Entry<Long, BigDecimal> e : m310Totals.entrySet()) {
-          PlanoDeContas plano = contasContabeisById.get(e.getKey());
-          if (plano == null) {
-            throw new IllegalArgumentException("PlanoDeContas não encontrado: " + e.getKey());
-          }
-          lines.add(String.format("|%s|%s||%s|%s|",
-              regFilhoContabil, plano.getCode(), formatValor(e.getValue()), dc));
+      // M310/M360 — agrupado por contaContabilId, depois dos M305
+      for (int i = 0; i < m310Contas.size(); i++) {
+        PlanoDeContas plano = lookups.contasContabeis().get(m310Contas.keyAt(i));
+        if (plano == null) {
+          throw new IllegalArgumentException(
+              "PlanoDeContas não encontrado: " + m310Contas.keyAt(i));
         }
+        lines.add(String.format("|%s|%s||%s|%s|",
+            layout.regFilhoContabil(), plano.getCode(), Centavos.format(m310Totals[i]), dc));
       }
     }
 
     return lines;
   }
 
-  private Map<Long, TaxParameter> batchFetchParametros(List<LancamentoParteB> lancamentos) {
-    List<Long> ids = lancamentos.stream()
-        .map(LancamentoParteB::getParametroTributarioId)
+  private LongObjectMap<TaxParameter> batchFetchParametros(
+      List<LancamentoParteBAgregado> agregados) {
+    List<Long> ids = agregados.stream()
+        .map(LancamentoParteBAgregado::parametroTributarioId)
         .filter(java.util.Objects::nonNull)
         .distinct()
         .collect(Collectors.toList());
     return ids.isEmpty()
-        ? Map.of()
-        : taxParameterRepo.findAllById(ids).stream()
-            .collect(Collectors.toMap(TaxParameter::getId, p -> p));
+        ? new LongObjectMap<>()
+        : indexarPorId(taxParameterRepo.findAllById(ids), TaxParameter::getId);
   }
 
-  private Map<Long, ContaParteB> batchFetchContasParteB(List<LancamentoParteB> lancamentos) {
-    List<Long> ids = lancamentos.stream()
-        .map(LancamentoParteB::getContaParteBId)
+  private LongObjectMap<ContaParteB> batchFetchContasParteB(
+      List<LancamentoParteBAgregado> agregados) {
+    List<Long> ids = agregados.stream()
+        .map(LancamentoParteBAgregado::contaParteBId)
         .filter(java.util.Objects::nonNull)
         .distinct()
         .collect(Collectors.toList());
     return ids.isEmpty()
-        ? Map.of()
-        : contaParteBRepo.findAllById(ids).stream()
-            .collect(Collectors.toMap(ContaParteB::getId, c -> c));
+        ? new LongObjectMap<>()
+        : indexarPorId(contaParteBRepo.findAllById(ids), ContaParteB::getId);
   }
 
-  private Map<Long, PlanoDeContas> batchFetchPlanoDeContas(List<LancamentoParteB> lancamentos) {
-    List<Long> ids = lancamentos.stream()
-        .map(LancamentoParteB::getContaContabilId)
+  private LongObjectMap<PlanoDeContas> batchFetchPlanoDeContas(
+      List<LancamentoParteBAgregado> agregados) {
+    List<Long> ids = agregados.stream()
+        .map(LancamentoParteBAgregado::contaContabilId)
         .filter(java.util.Objects::nonNull)
         .distinct()
         .collect(Collectors.toList());
     return ids.isEmpty()
-        ? Map.of()
-        : planoDeContasRepo.findAllById(ids).stream()
-            .collect(Collectors.toMap(PlanoDeContas::getId, p -> p));
+        ? new LongObjectMap<>()
+        : indexarPorId(planoDeContasRepo.findAllById(ids), PlanoDeContas::getId);
+  }
+
+  private static <T> LongObjectMap<T> indexarPorId(List<T> entidades, ToLongFunction<T> id) {
+    LongObjectMap<T> porId = new LongObjectMap<>(entidades.size());
+    for (T entidade : entidades) {
+      porId.put(id.applyAsLong(entidade), entidade);
+    }
+    return porId;
   }
 
   /**
@@ -301,39 +449,38 @@ public class PartMGeneratorService {
             conta.getCodigoConta(),
             lanc.getMesReferencia(), lanc.getAnoReferencia(),
             lanc.getTipoAjuste().name(),
-            formatValor(lanc.getValor()), dc,
+            Centavos.format(Centavos.of(lanc.getValor())), dc,
             lanc.getDescricao()));
       }
 
       // M405 — saldo da conta (⚠️ confirmar campos no SPED ECF manual)
-      BigDecimal totalAdic = lancamentosDaConta.stream()
-          .filter(l -> l.getTipoAjuste() == TipoAjuste.ADICAO)
-          .map(LancamentoParteB::getValor)
-          .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-      BigDecimal totalExcl = lancamentosDaConta.stream()
-          .filter(l -> l.getTipoAjuste() == TipoAjuste.EXCLUSAO)
-          .map(LancamentoParteB::getValor)
-          .reduce(BigDecimal.ZERO, BigDecimal::add);
+      long totalAdic = Centavos.ZERO;
+      long totalExcl = Centavos.ZERO;
+      for (LancamentoParteB lanc : lancamentosDaConta) {
+        if (lanc.getTipoAjuste() == TipoAjuste.ADICAO) {
+          totalAdic = Centavos.add(totalAdic, Centavos.of(lanc.getValor()));
+        } else if (lanc.getTipoAjuste() == TipoAjuste.EXCLUSAO) {
+          totalExcl = Centavos.add(totalExcl, Centavos.of(lanc.getValor()));
+        }
+      }
 
-      BigDecimal saldoAnterior = conta.getSaldoInicial() != null
-          ? conta.getSaldoInicial() : BigDecimal.ZERO;
-      BigDecimal saldoAtual = saldoAnterior.add(totalAdic).subtract(totalExcl);
+      long saldoAnterior = Centavos.of(conta.getSaldoInicial());
+      long saldoAtual = Centavos.subtract(Centavos.add(saldoAnterior, totalAdic), totalExcl);
 
       lines.add(String.format("|M405|%s|%s|%s|%s|%s|",
           conta.getCodigoConta(),
-          formatValor(saldoAnterior), formatValor(totalAdic),
-          formatValor(totalExcl), formatValor(saldoAtual)));
+          Centavos.format(saldoAnterior), Centavos.format(totalAdic),
+          Centavos.format(totalExcl), Centavos.format(saldoAtual)));
     }
 
     return lines;
   }
 
-  private String determineIndicador(List<LancamentoParteB> grupo) {
+  private String determineIndicador(List<LancamentoParteBAgregado> grupo) {
     boolean allContaParteB = grupo.stream()
-        .allMatch(l -> l.getTipoRelacionamento() == TipoRelacionamento.CONTA_PARTE_B);
+        .allMatch(a -> a.tipoRelacionamento() == TipoRelacionamento.CONTA_PARTE_B);
     boolean allContaContabil = grupo.stream()
-        .allMatch(l -> l.getTipoRelacionamento() == TipoRelacionamento.CONTA_CONTABIL);
+        .allMatch(a -> a.tipoRelacionamento() == TipoRelacionamento.CONTA_CONTABIL);
 
     if (allContaParteB) {
       return "1";
@@ -371,10 +518,15 @@ public class PartMGeneratorService {
         .replaceAll("\\p{InCombiningDiacriticalMarks}+", "");
   }
 
-  private String formatValor(BigDecimal valor) {
-    if (valor == null) {
-      return "0,00";
-    }
-    return String.format("%.2f", valor).replace(".", ",");
+  /** Registros usados por um grupo do bloco M (IRPJ: M300/M305/M310; CSLL: M350/M355/M360). */
+  private record LayoutGrupo(
+      TipoApuracao tipoApuracao, String regPai, String regFilhoParteB, String regFilhoContabil) {
+  }
+
+  /** Entidades relacionadas de um grupo, carregadas em lote antes da formatação. */
+  private record Lookups(
+      LongObjectMap<TaxParameter> parametros,
+      LongObjectMap<ContaParteB> contasParteB,
+      LongObjectMap<PlanoDeContas> contasContabeis) {
   }
 }
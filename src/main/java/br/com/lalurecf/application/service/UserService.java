@@ -19,6 +19,7 @@ import br.com.lalurecf.infrastructure.dto.user.ToggleStatusResponse;
 import br.com.lalurecf.infrastructure.dto.user.UpdateUserRequest;
 import br.com.lalurecf.infrastructure.dto.user.UserResponse;
 import br.com.lalurecf.infrastructure.exception.ResourceNotFoundException;
+import br.com.lalurecf.infrastructure.security.TokenRevocationList;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -46,6 +47,7 @@ public class UserService
   private final UserRepositoryPort userRepository;
   private final PasswordEncoder passwordEncoder;
   private final UserDtoMapper userDtoMapper;
+  private final TokenRevocationList tokenRevocationList;
 
   @Override
   @Transactional
@@ -129,9 +131,14 @@ public class UserService
     // Atualizar campos permitidos (não permite alterar email/password)
     user.setFirstName(request.getFirstName());
     user.setLastName(request.getLastName());
+    boolean roleAlterada = user.getRole() != request.getRole();
     user.setRole(request.getRole());
 
     User updated = userRepository.save(user);
+    if (roleAlterada) {
+      // Tokens emitidos carregam a role antiga
+      tokenRevocationList.revokeUser(id);
+    }
     log.info("Usuário atualizado com sucesso: id={}", updated.getId());
 
     return userDtoMapper.toResponse(updated);
@@ -147,6 +154,9 @@ public class UserService
 
     user.setStatus(request.getStatus());
     userRepository.save(user);
+    if (request.getStatus() == Status.INACTIVE) {
+      tokenRevocationList.revokeUser(id);
+    }
 
     log.info(
         "Status do usuário alterado com sucesso: id={}, newStatus={}", id, request.getStatus());
@@ -178,6 +188,7 @@ public class UserService
     user.setPassword(passwordEncoder.encode(request.getTemporaryPassword()));
     user.setMustChangePassword(true);
     userRepository.save(user);
+    tokenRevocationList.revokeUser(userId);
 
     log.info("Senha resetada com sucesso para usuário: id={}, email={}", userId, user.getEmail());
 
@@ -8,6 +8,7 @@ import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.persistence.EntityNotFoundException;
+import java.util.Objects;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.access.AccessDeniedException;
@@ -17,8 +18,9 @@ import org.springframework.transaction.annotation.Transactional;
 /**
  * Serviço responsável por orquestrar a validação de arquivos ECF.
  *
- * <p>Busca o EcfFile, verifica ownership, delega ao EcfValidatorService
- * e persiste o resultado (fileStatus + validationErrors).
+ * <p>Busca o EcfFile, verifica ownership, obtém o resultado do EcfValidationCacheService
+ * (que só executa o EcfValidatorService para conteúdos ainda não validados) e persiste o
+ * resultado (fileStatus + validationErrors) apenas quando ele muda o arquivo.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,7 +28,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class ValidateEcfFileService implements ValidateEcfFileUseCase {
 
   private final EcfFileRepositoryPort ecfFileRepositoryPort;
-  private final EcfValidatorService ecfValidatorService;
+  private final EcfValidationCacheService ecfValidationCacheService;
   private final ObjectMapper objectMapper;
 
   @Override
@@ -42,21 +44,21 @@ public class ValidateEcfFileService implements ValidateEcfFileUseCase {
       throw new AccessDeniedException("Arquivo ECF não pertence à empresa informada");
     }
 
-    ValidationResult result = switch (ecfFile.getFileType()) {
-      case ARQUIVO_PARCIAL -> ecfValidatorService.validateArquivoParcial(ecfFile.getContent());
-      case IMPORTED_ECF -> ecfValidatorService.validateImportedEcf(ecfFile.getContent());
-      case COMPLETE_ECF -> ecfValidatorService.validateCompleteEcf(ecfFile.getContent());
-    };
+    ValidationResult result =
+        ecfValidationCacheService.validar(ecfFile.getContentHash(), ecfFile.getFileType());
 
     // Atualizar fileStatus e validationErrors
-    if (result.isValid()) {
-      ecfFile.setFileStatus(EcfFileStatus.VALIDATED);
-      ecfFile.setValidationErrors(null);
-    } else {
-      ecfFile.setFileStatus(EcfFileStatus.ERROR);
-      ecfFile.setValidationErrors(serializeErrors(result.getErrors()));
+    EcfFileStatus fileStatus = result.isValid() ? EcfFileStatus.VALIDATED : EcfFileStatus.ERROR;
+    String validationErrors = result.isValid() ? null : serializeErrors(result.getErrors());
+    if (fileStatus == ecfFile.getFileStatus()
+        && Objects.equals(validationErrors, ecfFile.getValidationErrors())) {
+      log.info("EcfFile {} inalterado desde a última validação: valid={}",
+          ecfFileId, result.isValid());
+      return result;
     }
 
+    ecfFile.setFileStatus(fileStatus);
+    ecfFile.setValidationErrors(validationErrors);
     ecfFileRepositoryPort.saveOrReplace(ecfFile);
     log.info("EcfFile {} validado: valid={}, errors={}, warnings={}",
         ecfFileId, result.isValid(), result.getErrors().size(), result.getWarnings().size());
@@ -0,0 +1,193 @@
+package br.com.lalurecf.application.service.validation;
+
+import br.com.lalurecf.domain.util.Centavos;
+import br.com.lalurecf.domain.util.SpedDocument;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.Set;
+
+/**
+ * Regra do conteúdo do bloco M: presença de M030, campos obrigatórios de M300/M350 e filhos
+ * M305/M310/M355/M360, consistência do indicador e totalValor comparado à soma dos filhos.
+ *
+ * <p>O registro pai corrente é mantido como estado: a consistência de um M300/M350 é avaliada
+ * ao chegar o próximo M030/M300/M350 ou ao fim do arquivo. As posições dos campos vêm do
+ * {@link EcfLeiaute} (M350/M355/M360 têm o mesmo leiaute de M300/M305/M310).
+ */
+@SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+public class BlocoMRule implements EcfValidationRule {
+
+  private static final Set<String> TIPOS =
+      Set.of("M030", "M300", "M350", "M305", "M355", "M310", "M360");
+  private static final Set<String> VALID_INDICADORES = Set.of("1", "2", "3");
+  /** Sentinela de valor monetário inválido (somas são acumuladas em centavos). */
+  private static final long VALOR_INVALIDO = Long.MIN_VALUE;
+
+  private final int campoCodigo;
+  private final int campoIndicador;
+  private final int campoValor;
+  private final int campoCodigoParteB;
+  private final int campoValorParteB;
+  private final int campoDcParteB;
+  private final int campoCodigoContabil;
+  private final int campoValorContabil;
+  private final int campoDcContabil;
+
+  private boolean hasM030;
+  private String paiAtual;
+  private String indicadorAtual;
+  private String codigoAtual;
+  private long totalValorDeclarado = Centavos.ZERO;
+  private long somaFilhos = Centavos.ZERO;
+  private boolean hasM305Filho;
+  private boolean hasM310Filho;
+
+  /** Regra com as posições de campo do leiaute mais recente (ex: ARQUIVO_PARCIAL, sem |0000|). */
+  public BlocoMRule() {
+    this(EcfLeiaute.maisRecente());
+  }
+
+  /**
+   * Regra com as posições de campo de um leiaute.
+   *
+   * @param leiaute leiaute declarado no arquivo
+   */
+  public BlocoMRule(EcfLeiaute leiaute) {
+    campoCodigo = leiaute.campo("M300", "CODIGO");
+    campoIndicador = leiaute.campo("M300", "IND_RELACAO");
+    campoValor = leiaute.campo("M300", "VALOR");
+    campoCodigoParteB = leiaute.campo("M305", "COD_CTA_B");
+    campoValorParteB = leiaute.campo("M305", "VL_CTA");
+    campoDcParteB = leiaute.campo("M305", "IND_VL_CTA");
+    campoCodigoContabil = leiaute.campo("M310", "COD_CTA");
+    campoValorContabil = leiaute.campo("M310", "VL_CTA");
+    campoDcContabil = leiaute.campo("M310", "IND_VL_CTA");
+  }
+
+  @Override
+  public Set<String> tipos() {
+    return TIPOS;
+  }
+
+  @Override
+  public void accept(SpedDocument doc, int line, ValidationResult result) {
+    String tipo = doc.tipo(line);
+    switch (tipo) {
+      case "M030" -> {
+        // Validar consistência do pai anterior
+        fecharPai(result);
+        hasM030 = true;
+        paiAtual = null;
+        indicadorAtual = null;
+        hasM305Filho = false;
+        hasM310Filho = false;
+      }
+      case "M300", "M350" -> {
+        fecharPai(result);
+        paiAtual = tipo;
+        codigoAtual = doc.fieldString(line, campoCodigo);
+        indicadorAtual = doc.fieldString(line, campoIndicador);
+        somaFilhos = Centavos.ZERO;
+        hasM305Filho = false;
+        hasM310Filho = false;
+
+        if (codigoAtual.isBlank()) {
+          result.addError(tipo + ": codigoEnquadramento vazio");
+        }
+        if (!VALID_INDICADORES.contains(indicadorAtual)) {
+          result.addError(tipo + " código " + codigoAtual
+              + ": indicador inválido '" + indicadorAtual + "' (esperado 1, 2 ou 3)");
+        }
+        totalValorDeclarado = parseCentavos(doc.field(line, campoValor));
+        if (totalValorDeclarado == VALOR_INVALIDO) {
+          result.addError(tipo + " código " + codigoAtual
+              + ": totalValor inválido '" + doc.field(line, campoValor) + "'");
+          totalValorDeclarado = Centavos.ZERO;
+        }
+      }
+      case "M305", "M355" -> {
+        hasM305Filho = true;
+        validarFilho(doc, line, tipo, campoCodigoParteB, campoValorParteB, campoDcParteB, true,
+            "codigoContaParteB", result);
+      }
+      case "M310", "M360" -> {
+        hasM310Filho = true;
+        // indicador=2: apenas filhos M310/M360 — acumular para comparar com totalValor
+        validarFilho(doc, line, tipo, campoCodigoContabil, campoValorContabil, campoDcContabil,
+            "2".equals(indicadorAtual), "codigoContabil", result);
+      }
+      default -> {
+        // tipos não inscritos não chegam aqui
+      }
+    }
+  }
+
+  @Override
+  public void finish(ValidationResult result) {
+    // Validar o último pai
+    fecharPai(result);
+
+    if (!hasM030) {
+      result.addError("Nenhum registro M030 encontrado no arquivo");
+    }
+  }
+
+  /**
+   * Valida um filho M305/M310/M355/M360: código, valor e D/C, acrescentando o valor à soma dos
+   * filhos quando {@code acumular}. Os campos só são copiados para {@link String} ao montar
+   * mensagens de erro.
+   */
+  private void validarFilho(
+      SpedDocument doc, int line, String tipo, int campoCodigoFilho, int campoValorFilho,
+      int campoDc, boolean acumular, String nomeCodigo, ValidationResult result) {
+    if (doc.isFieldBlank(line, campoCodigoFilho)) {
+      result.addError(tipo + ": " + nomeCodigo + " vazio");
+    }
+    long valor = parseCentavos(doc.field(line, campoValorFilho));
+    if (valor == VALOR_INVALIDO) {
+      result.addError(tipo + " conta " + doc.field(line, campoCodigoFilho)
+          + ": valor inválido '" + doc.field(line, campoValorFilho) + "'");
+    } else if (acumular) {
+      somaFilhos = Centavos.add(somaFilhos, valor);
+    }
+    if (!doc.fieldEquals(line, campoDc, "D") && !doc.fieldEquals(line, campoDc, "C")) {
+      result.addError(tipo + " conta " + doc.field(line, campoCodigoFilho)
+          + ": D/C inválido '" + doc.field(line, campoDc) + "'");
+    }
+  }
+
+  private void fecharPai(ValidationResult result) {
+    if (paiAtual == null) {
+      return;
+    }
+    String tipo = paiAtual;
+    String codigo = codigoAtual;
+    if ("1".equals(indicadorAtual) && hasM310Filho) {
+      result.addError(tipo + " código " + codigo
+          + ": indicador=1 (só Parte B) mas existem filhos M310/M360");
+    }
+    if ("2".equals(indicadorAtual) && hasM305Filho) {
+      result.addError(tipo + " código " + codigo
+          + ": indicador=2 (só Contábil) mas existem filhos M305/M355");
+    }
+    if (totalValorDeclarado != somaFilhos) {
+      result.addWarning(tipo + " código " + codigo
+          + ": totalValor=" + Centavos.format(totalValorDeclarado)
+          + " difere da soma dos filhos=" + Centavos.format(somaFilhos));
+    }
+  }
+
+  /**
+   * Converte o valor para centavos; retorna {@link #VALOR_INVALIDO} se vazio, em branco ou fora
+   * do formato monetário (mais de 2 casas decimais, texto não numérico).
+   */
+  private static long parseCentavos(CharSequence value) {
+    if (value.isEmpty()) {
+      return VALOR_INVALIDO;
+    }
+    try {
+      return Centavos.parse(value);
+    } catch (NumberFormatException e) {
+      return VALOR_INVALIDO;
+    }
+  }
+}
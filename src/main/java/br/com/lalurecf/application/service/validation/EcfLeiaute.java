@@ -0,0 +1,318 @@
+package br.com.lalurecf.application.service.validation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Leiaute SPED ECF compilado: registros, hierarquia e campos (ordem, tipo, tamanho e
+ * obrigatoriedade) de uma versão do leiaute.
+ *
+ * <p>Cada versão é descrita em {@code ecf/leiaute/ecf-<COD_VER>.txt} (formato no cabeçalho do
+ * próprio recurso) e compilada uma única vez em arrays por registro, consultados por índice na
+ * validação. A versão de um arquivo é a declarada no campo COD_VER do |0000|; versões sem
+ * descrição usam o leiaute mais recente.
+ *
+ * <p>Índices de campo seguem a numeração do {@code split("\\|")} usada em todo o projeto:
+ * 0 = vazio antes do primeiro {@code |}, 1 = REG, 2 = primeiro campo do leiaute.
+ */
+public final class EcfLeiaute {
+
+  /** Índice do campo COD_VER no |0000| (estável entre versões; seleciona o leiaute). */
+  public static final int CAMPO_COD_VER = 3;
+
+  static final byte ALFANUMERICO = 'C';
+  static final byte NUMERICO = 'N';
+  static final byte DATA = 'D';
+  static final byte VALOR = 'V';
+
+  /** Versões descritas, da mais antiga para a mais recente. */
+  private static final List<String> VERSOES = List.of("0010");
+
+  private static final Map<String, EcfLeiaute> LEIAUTES = carregarTodos();
+
+  private final String versao;
+  private final int anoCalendario;
+  private final Map<String, Registro> registros;
+
+  private EcfLeiaute(String versao, int anoCalendario, Map<String, Registro> registros) {
+    this.versao = versao;
+    this.anoCalendario = anoCalendario;
+    this.registros = registros;
+  }
+
+  /**
+   * Leiaute de uma versão.
+   *
+   * @param codVer COD_VER declarado no |0000| (pode ser null)
+   * @return leiaute da versão, ou o mais recente se a versão não estiver descrita
+   */
+  public static EcfLeiaute daVersao(String codVer) {
+    EcfLeiaute leiaute = codVer == null ? null : LEIAUTES.get(codVer);
+    return leiaute != null ? leiaute : maisRecente();
+  }
+
+  /** Leiaute mais recente descrito. */
+  public static EcfLeiaute maisRecente() {
+    return LEIAUTES.get(VERSOES.get(VERSOES.size() - 1));
+  }
+
+  /**
+   * COD_VER declarado no primeiro |0000| do conteúdo, sem indexar o arquivo.
+   *
+   * @param texto conteúdo do arquivo
+   * @return COD_VER, ou null se não houver |0000| com esse campo
+   */
+  public static String versaoDeclarada(String texto) {
+    int inicio = texto.startsWith("|0000|") ? 0 : texto.indexOf("\n|0000|");
+    if (inicio < 0) {
+      return null;
+    }
+    if (inicio > 0) {
+      inicio++;
+    }
+    int campo = inicio + "|0000|".length();
+    for (int f = 2; f < CAMPO_COD_VER; f++) {
+      campo = indexOfCampo(texto, campo);
+      if (campo < 0) {
+        return null;
+      }
+    }
+    int fim = indexOfCampo(texto, campo);
+    return fim < 0 ? null : texto.substring(campo, fim - 1);
+  }
+
+  /** Offset do campo seguinte ao que começa em {@code inicio}, ou -1 no fim da linha. */
+  private static int indexOfCampo(String texto, int inicio) {
+    for (int i = inicio; i < texto.length(); i++) {
+      char c = texto.charAt(i);
+      if (c == '|') {
+        return i + 1;
+      }
+      if (c == '\n' || c == '\r') {
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  /** Versão do leiaute (COD_VER, ex: "0010"). */
+  public String versao() {
+    return versao;
+  }
+
+  /** Ano-calendário a que a versão se aplica. */
+  public int anoCalendario() {
+    return anoCalendario;
+  }
+
+  /** Tipos de registro descritos. */
+  public Set<String> tipos() {
+    return registros.keySet();
+  }
+
+  /**
+   * Descrição de um registro.
+   *
+   * @param tipo tipo do registro (ex: "M300")
+   * @return registro, ou null se não descrito neste leiaute
+   */
+  public Registro registro(String tipo) {
+    return registros.get(tipo);
+  }
+
+  /**
+   * Índice de um campo na linha.
+   *
+   * @param tipo tipo do registro (ex: "0000")
+   * @param nome nome do campo no leiaute (ex: "DT_FIN")
+   * @return índice no {@code split("\\|")} da linha
+   * @throws IllegalArgumentException se o registro ou o campo não estiverem descritos
+   */
+  public int campo(String tipo, String nome) {
+    Registro registro = registros.get(tipo);
+    if (registro != null) {
+      for (int c = 0; c < registro.nomes.length; c++) {
+        if (registro.nomes[c].equals(nome)) {
+          return c + 2;
+        }
+      }
+    }
+    throw new IllegalArgumentException(
+        "Campo " + tipo + "." + nome + " não descrito no leiaute ECF " + versao);
+  }
+
+  private static Map<String, EcfLeiaute> carregarTodos() {
+    Map<String, EcfLeiaute> leiautes = new HashMap<>();
+    for (String versao : VERSOES) {
+      String recurso = "ecf/leiaute/ecf-" + versao + ".txt";
+      try (InputStream in = EcfLeiaute.class.getClassLoader().getResourceAsStream(recurso)) {
+        if (in == null) {
+          throw new IllegalStateException("Leiaute ECF não encontrado: " + recurso);
+        }
+        EcfLeiaute leiaute =
+            compilar(recurso, new InputStreamReader(in, StandardCharsets.UTF_8));
+        if (!leiaute.versao.equals(versao)) {
+          throw new IllegalStateException(
+              "Leiaute ECF " + recurso + " declara a versão " + leiaute.versao);
+        }
+        leiautes.put(versao, leiaute);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Falha ao ler o leiaute ECF " + recurso, e);
+      }
+    }
+    return Map.copyOf(leiautes);
+  }
+
+  /**
+   * Compila a descrição textual de um leiaute.
+   *
+   * @param origem nome da origem, usado nas mensagens de erro
+   * @param reader descrição do leiaute
+   * @return leiaute compilado
+   * @throws IOException em falha de leitura
+   * @throws IllegalStateException se a descrição for inválida
+   */
+  static EcfLeiaute compilar(String origem, Reader reader) throws IOException {
+    String versao = null;
+    int anoCalendario = 0;
+    Map<String, Registro> registros = new HashMap<>();
+    BufferedReader linhas = new BufferedReader(reader);
+    String linha;
+    int numero = 0;
+    while ((linha = linhas.readLine()) != null) {
+      numero++;
+      linha = linha.strip();
+      if (linha.isEmpty() || linha.startsWith("#")) {
+        continue;
+      }
+      try {
+        if (linha.startsWith("versao=")) {
+          versao = linha.substring("versao=".length());
+        } else if (linha.startsWith("ano-calendario=")) {
+          anoCalendario = Integer.parseInt(linha.substring("ano-calendario=".length()));
+        } else {
+          Registro registro = compilarRegistro(linha.split("\\s+"), registros);
+          registros.put(registro.tipo, registro);
+        }
+      } catch (IllegalArgumentException e) {
+        throw new IllegalStateException(
+            "Leiaute ECF inválido (" + origem + " linha " + numero + "): " + e.getMessage(), e);
+      }
+    }
+    if (versao == null) {
+      throw new IllegalStateException("Leiaute ECF inválido (" + origem + "): sem versao=");
+    }
+    return new EcfLeiaute(versao, anoCalendario, Map.copyOf(registros));
+  }
+
+  private static Registro compilarRegistro(String[] tokens, Map<String, Registro> registros) {
+    if (tokens.length < 2) {
+      throw new IllegalArgumentException("esperado REG PAI CAMPO...");
+    }
+    String tipo = tokens[0];
+    if (registros.containsKey(tipo)) {
+      throw new IllegalArgumentException("registro " + tipo + " duplicado");
+    }
+    Registro pai = null;
+    if (!"-".equals(tokens[1])) {
+      pai = registros.get(tokens[1]);
+      if (pai == null) {
+        throw new IllegalArgumentException(
+            "pai " + tokens[1] + " de " + tipo + " deve ser descrito antes");
+      }
+    }
+
+    int quantidade = tokens.length - 2;
+    boolean aberto = quantidade > 0 && "...".equals(tokens[tokens.length - 1]);
+    if (aberto) {
+      quantidade--;
+    }
+    List<String> nomes = new ArrayList<>(quantidade);
+    byte[] tipos = new byte[quantidade];
+    int[] tamanhos = new int[quantidade];
+    boolean[] obrigatorios = new boolean[quantidade];
+    for (int c = 0; c < quantidade; c++) {
+      String token = tokens[c + 2];
+      int sep = token.indexOf(':');
+      if (sep <= 0 || sep == token.length() - 1) {
+        throw new IllegalArgumentException("campo '" + token + "' fora do formato NOME:TIPO");
+      }
+      nomes.add(token.substring(0, sep));
+      String spec = token.substring(sep + 1);
+      obrigatorios[c] = spec.endsWith("*");
+      // Condicional (?) é verificado como opcional: o leiaute não descreve a condição
+      if (obrigatorios[c] || spec.endsWith("?")) {
+        spec = spec.substring(0, spec.length() - 1);
+      }
+      tipos[c] = switch (spec.charAt(0)) {
+        case 'C' -> ALFANUMERICO;
+        case 'N' -> NUMERICO;
+        case 'D' -> DATA;
+        case 'V' -> VALOR;
+        default -> throw new IllegalArgumentException("tipo inválido em '" + token + "'");
+      };
+      tamanhos[c] = spec.length() > 1 ? Integer.parseInt(spec.substring(1)) : 0;
+    }
+    return new Registro(tipo, pai, nomes.toArray(String[]::new), tipos, tamanhos,
+        obrigatorios, aberto);
+  }
+
+  /**
+   * Registro compilado: campos em arrays paralelos, indexados pela posição no leiaute
+   * (índice da linha − 2).
+   */
+  public static final class Registro {
+
+    final String tipo;
+    final Registro pai;
+    final int nivel;
+    final String[] nomes;
+    final byte[] tipos;
+    final int[] tamanhos;
+    final boolean[] obrigatorios;
+    /** Se true, campos além dos descritos são aceitos sem verificação. */
+    final boolean aberto;
+
+    private Registro(String tipo, Registro pai, String[] nomes, byte[] tipos, int[] tamanhos,
+        boolean[] obrigatorios, boolean aberto) {
+      this.tipo = tipo;
+      this.pai = pai;
+      this.nivel = pai == null ? 0 : pai.nivel + 1;
+      this.nomes = nomes;
+      this.tipos = tipos;
+      this.tamanhos = tamanhos;
+      this.obrigatorios = obrigatorios;
+      this.aberto = aberto;
+    }
+
+    /** Tipo do registro (ex: "M300"). */
+    public String tipo() {
+      return tipo;
+    }
+
+    /** Registro pai, ou null na raiz. */
+    public Registro pai() {
+      return pai;
+    }
+
+    /** Nível na hierarquia (0 = |0000| e |9999|, 1 = abertura/encerramento de bloco). */
+    public int nivel() {
+      return nivel;
+    }
+
+    /** Quantidade de campos descritos (sem o REG). */
+    public int quantidadeCampos() {
+      return nomes.length;
+    }
+  }
+}
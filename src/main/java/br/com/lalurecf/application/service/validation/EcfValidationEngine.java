@@ -0,0 +1,239 @@
+package br.com.lalurecf.application.service.validation;
+
+import br.com.lalurecf.domain.util.SpedDocument;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+
+/**
+ * Motor de validação em passada única sobre um {@link SpedDocument}.
+ *
+ * <p>As inscrições das regras são resolvidas uma vez para os IDs de tipo do documento; depois
+ * cada linha é despachada, numa única varredura, apenas para as regras inscritas no seu tipo
+ * (e para as regras que recebem todas as linhas). Novas regras entram na lista sem adicionar
+ * passadas.
+ *
+ * <p>Cada regra acumula em um resultado próprio e os resultados são concatenados na ordem das
+ * regras: erros e avisos saem agrupados por regra, como se cada uma tivesse percorrido o
+ * arquivo isoladamente. O motor é imutável e thread-safe; as regras são instanciadas a cada
+ * validação.
+ *
+ * <p>{@link #validate(String, ForkJoinPool)} divide o arquivo nos blocos SPED (cada bloco
+ * começa no seu registro de abertura |x001|, ex: |0001|, |M001|, |9001|, e vai até a linha
+ * anterior à próxima abertura, incluindo o |x990|) e indexa e valida os blocos em paralelo. As
+ * regras {@link SegmentableValidationRule} são avaliadas por bloco e combinadas na ordem do
+ * arquivo; as demais percorrem os blocos em sequência, à medida que ficam prontos. O
+ * resultado é idêntico ao da validação sequencial.
+ */
+public final class EcfValidationEngine {
+
+  private final List<Supplier<EcfValidationRule>> regras;
+
+  /**
+   * Cria o motor com as regras na ordem em que seus resultados devem aparecer.
+   *
+   * @param regras fábricas das regras (uma instância nova por validação)
+   */
+  public EcfValidationEngine(List<Supplier<EcfValidationRule>> regras) {
+    this.regras = List.copyOf(regras);
+  }
+
+  /**
+   * Valida o documento em uma única passada.
+   *
+   * @param doc documento indexado
+   * @return resultado com erros e avisos de todas as regras
+   */
+  public ValidationResult validate(SpedDocument doc) {
+    EcfValidationRule[] instancias = instanciar();
+    ValidationResult[] resultados = novosResultados();
+    despachar(doc, instancias, resultados);
+    return concluir(instancias, resultados);
+  }
+
+  /**
+   * Valida o arquivo por blocos em paralelo no {@code pool}.
+   *
+   * <p>Arquivos com um único bloco são validados sequencialmente na thread chamadora.
+   *
+   * @param content conteúdo do arquivo
+   * @param pool pool onde os blocos são indexados e validados
+   * @return resultado idêntico ao de {@code validate(SpedDocument.parse(content))}
+   */
+  public ValidationResult validate(String content, ForkJoinPool pool) {
+    List<Integer> inicios = iniciosDeBloco(content);
+    if (inicios.size() < 2) {
+      return validate(SpedDocument.parse(content));
+    }
+
+    EcfValidationRule[] sequenciais = instanciar();
+    boolean[] porBloco = new boolean[sequenciais.length];
+    boolean haSequenciais = false;
+    for (int r = 0; r < sequenciais.length; r++) {
+      porBloco[r] = sequenciais[r] instanceof SegmentableValidationRule<?>;
+      if (porBloco[r]) {
+        sequenciais[r] = null;
+      } else {
+        haSequenciais = true;
+      }
+    }
+
+    List<ForkJoinTask<Bloco>> tarefas = new ArrayList<>(inicios.size());
+    for (int b = 0; b < inicios.size(); b++) {
+      int inicio = inicios.get(b);
+      int fim = b + 1 < inicios.size() ? inicios.get(b + 1) : content.length();
+      tarefas.add(pool.submit(() -> validarBloco(content.substring(inicio, fim), porBloco)));
+    }
+
+    // Regras sequenciais percorrem os blocos em ordem, enquanto os seguintes são indexados
+    ValidationResult[] resultados = novosResultados();
+    EcfValidationRule[] combinadas = new EcfValidationRule[regras.size()];
+    int linhasAnteriores = 0;
+    for (ForkJoinTask<Bloco> tarefa : tarefas) {
+      Bloco bloco = tarefa.join();
+      if (haSequenciais) {
+        despachar(bloco.doc(), sequenciais, resultados);
+      }
+      for (int r = 0; r < combinadas.length; r++) {
+        if (!porBloco[r]) {
+          continue;
+        }
+        if (combinadas[r] == null) {
+          combinadas[r] = bloco.instancias()[r];
+        } else {
+          combinar(combinadas[r], bloco.instancias()[r], linhasAnteriores);
+        }
+        resultados[r].addAll(bloco.resultados()[r]);
+      }
+      linhasAnteriores += bloco.doc().lineCount();
+    }
+
+    for (int r = 0; r < combinadas.length; r++) {
+      if (!porBloco[r]) {
+        combinadas[r] = sequenciais[r];
+      }
+    }
+    return concluir(combinadas, resultados);
+  }
+
+  private Bloco validarBloco(String content, boolean[] porBloco) {
+    SpedDocument doc = SpedDocument.parse(content);
+    EcfValidationRule[] instancias = new EcfValidationRule[regras.size()];
+    for (int r = 0; r < instancias.length; r++) {
+      if (porBloco[r]) {
+        instancias[r] = regras.get(r).get();
+      }
+    }
+    ValidationResult[] resultados = novosResultados();
+    despachar(doc, instancias, resultados);
+    return new Bloco(doc, instancias, resultados);
+  }
+
+  /** Despacha as linhas do documento às regras não nulas, em uma única varredura. */
+  private static void despachar(
+      SpedDocument doc, EcfValidationRule[] instancias, ValidationResult[] resultados) {
+    List<Integer> todasLinhas = new ArrayList<>();
+    List<List<Integer>> inscricoes = new ArrayList<>(doc.tipoCount());
+    for (int t = 0; t < doc.tipoCount(); t++) {
+      inscricoes.add(new ArrayList<>());
+    }
+    for (int r = 0; r < instancias.length; r++) {
+      if (instancias[r] == null) {
+        continue;
+      }
+      Set<String> tipos = instancias[r].tipos();
+      if (tipos == null) {
+        todasLinhas.add(r);
+        continue;
+      }
+      for (String tipo : tipos) {
+        int id = doc.tipoId(tipo);
+        if (id != SpedDocument.SEM_TIPO) {
+          inscricoes.get(id).add(r);
+        }
+      }
+    }
+
+    int[] paraTodas = toArray(todasLinhas);
+    int[][] porTipo = new int[inscricoes.size()][];
+    for (int t = 0; t < porTipo.length; t++) {
+      porTipo[t] = toArray(inscricoes.get(t));
+    }
+
+    for (int i = 0, linhas = doc.lineCount(); i < linhas; i++) {
+      for (int r : paraTodas) {
+        instancias[r].accept(doc, i, resultados[r]);
+      }
+      int id = doc.tipoId(i);
+      if (id != SpedDocument.SEM_TIPO) {
+        for (int r : porTipo[id]) {
+          instancias[r].accept(doc, i, resultados[r]);
+        }
+      }
+    }
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static void combinar(
+      EcfValidationRule acumulada, EcfValidationRule seguinte, int linhasAnteriores) {
+    ((SegmentableValidationRule) acumulada).combine(
+        (SegmentableValidationRule) seguinte, linhasAnteriores);
+  }
+
+  private static ValidationResult concluir(
+      EcfValidationRule[] instancias, ValidationResult[] resultados) {
+    ValidationResult result = new ValidationResult();
+    for (int r = 0; r < instancias.length; r++) {
+      instancias[r].finish(resultados[r]);
+      result.addAll(resultados[r]);
+    }
+    return result;
+  }
+
+  private EcfValidationRule[] instanciar() {
+    EcfValidationRule[] instancias = new EcfValidationRule[regras.size()];
+    for (int r = 0; r < instancias.length; r++) {
+      instancias[r] = regras.get(r).get();
+    }
+    return instancias;
+  }
+
+  private ValidationResult[] novosResultados() {
+    ValidationResult[] resultados = new ValidationResult[regras.size()];
+    for (int r = 0; r < resultados.length; r++) {
+      resultados[r] = new ValidationResult();
+    }
+    return resultados;
+  }
+
+  /**
+   * Offsets das linhas que abrem um bloco (|x001|), precedidos do offset 0. A busca só
+   * examina os inícios de linha, sem indexar o conteúdo.
+   */
+  private static List<Integer> iniciosDeBloco(String content) {
+    List<Integer> inicios = new ArrayList<>();
+    inicios.add(0);
+    int nl = content.indexOf("\n|");
+    while (nl >= 0) {
+      int inicio = nl + 1;
+      if (content.startsWith("001|", inicio + 2)) {
+        inicios.add(inicio);
+      }
+      nl = content.indexOf("\n|", inicio);
+    }
+    return inicios;
+  }
+
+  private static int[] toArray(List<Integer> valores) {
+    return valores.stream().mapToInt(Integer::intValue).toArray();
+  }
+
+  /** Documento, regras por bloco e resultados parciais de um bloco. */
+  private record Bloco(
+      SpedDocument doc, EcfValidationRule[] instancias, ValidationResult[] resultados) {
+  }
+}
@@ -0,0 +1,41 @@
+package br.com.lalurecf.application.service.validation;
+
+import br.com.lalurecf.domain.util.SpedDocument;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.Set;
+
+/**
+ * Regra de validação de arquivo ECF executada pelo {@link EcfValidationEngine}.
+ *
+ * <p>A regra declara os tipos de registro que deseja receber e vê cada linha inscrita uma
+ * única vez, em ordem. Verificações entre registros (ex: M300 → M305/M310) são mantidas como
+ * estado da própria regra — por isso cada validação usa uma instância nova. Erros e avisos
+ * gravados no {@code result} recebido aparecem no resultado final na ordem das regras.
+ */
+public interface EcfValidationRule {
+
+  /**
+   * Tipos de registro inscritos.
+   *
+   * @return tipos de registro (ex: "M300"), ou null para receber todas as linhas, inclusive
+   *     linhas vazias e fora do formato SPED
+   */
+  Set<String> tipos();
+
+  /**
+   * Processa uma linha inscrita.
+   *
+   * @param doc documento indexado
+   * @param line índice da linha
+   * @param result resultado da regra
+   */
+  void accept(SpedDocument doc, int line, ValidationResult result);
+
+  /**
+   * Conclui a validação após a última linha (ex: consistência do último registro pai).
+   *
+   * @param result resultado da regra
+   */
+  default void finish(ValidationResult result) {
+  }
+}
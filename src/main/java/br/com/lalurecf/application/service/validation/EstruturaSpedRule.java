@@ -0,0 +1,57 @@
+package br.com.lalurecf.application.service.validation;
+
+import br.com.lalurecf.domain.util.SpedDocument;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.Set;
+
+/**
+ * Regra de estrutura do arquivo: presença de M001 e M990 e todas as linhas não vazias no
+ * formato SPED (iniciam e terminam com |).
+ *
+ * <p>Só acumula contadores, então pode ser avaliada por bloco na validação paralela.
+ */
+public class EstruturaSpedRule implements SegmentableValidationRule<EstruturaSpedRule> {
+
+  private boolean hasM001;
+  private boolean hasM990;
+  private long invalidLines;
+
+  @Override
+  public Set<String> tipos() {
+    return null;
+  }
+
+  @Override
+  public void accept(SpedDocument doc, int line, ValidationResult result) {
+    if (!doc.isBlank(line) && !doc.isPipeDelimited(line)) {
+      invalidLines++;
+    }
+    String tipo = doc.tipo(line);
+    if ("M001".equals(tipo)) {
+      hasM001 = true;
+    } else if ("M990".equals(tipo)) {
+      hasM990 = true;
+    }
+  }
+
+  @Override
+  public void combine(EstruturaSpedRule next, int linhasAnteriores) {
+    hasM001 |= next.hasM001;
+    hasM990 |= next.hasM990;
+    invalidLines += next.invalidLines;
+  }
+
+  @Override
+  public void finish(ValidationResult result) {
+    if (!hasM001) {
+      result.addError("Registro |M001| não encontrado");
+    }
+    if (!hasM990) {
+      result.addError("Registro |M990| não encontrado");
+    }
+    if (invalidLines > 0) {
+      result.addError(invalidLines
+          + " linha(s) não estão no formato SPED (devem iniciar e terminar com |)");
+    }
+  }
+}
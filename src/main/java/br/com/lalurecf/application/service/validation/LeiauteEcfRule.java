@@ -0,0 +1,277 @@
+package br.com.lalurecf.application.service.validation;
+
+import br.com.lalurecf.application.service.validation.EcfLeiaute.Registro;
+import br.com.lalurecf.domain.util.SpedDocument;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Regra do leiaute SPED ECF: hierarquia de registros e, campo a campo, obrigatoriedade, tipo
+ * e tamanho, para todos os registros descritos no {@link EcfLeiaute}.
+ *
+ * <p>A regra se inscreve apenas nos registros descritos; registros ausentes do leiaute não
+ * são verificados nem alteram a hierarquia. Linhas fora do formato SPED ficam a cargo da
+ * {@link EstruturaSpedRule}.
+ *
+ * <p>Ocorrências iguais (mesmo registro, campo e problema) são agregadas em uma mensagem com
+ * a quantidade de linhas e a primeira linha afetada, na ordem da primeira ocorrência. A
+ * hierarquia é verificada a partir do nível 2 (filhos dos registros de abertura de bloco), o
+ * que a torna local a cada bloco: a regra pode ser avaliada por bloco na validação paralela.
+ *
+ * <p>As ocorrências são erros, com uma exceção explícita: datas com 7 dígitos cujo dia perdeu o
+ * zero à esquerda (ex: {@code 1012023} para 01/01/2023), comuns em arquivos exportados por
+ * planilhas, violam o formato DDMMAAAA mas são aceitas com aviso. Qualquer outra data fora do
+ * formato continua sendo erro.
+ */
+public class LeiauteEcfRule implements SegmentableValidationRule<LeiauteEcfRule> {
+
+  private static final int FALTANTE = 0;
+  private static final int TIPO = 1;
+  private static final int TAMANHO = 2;
+  private static final int EXCESSO = 3;
+  private static final int HIERARQUIA = 4;
+  private static final int DATA_SEM_ZERO = 5;
+
+  private final EcfLeiaute leiaute;
+  private final String versaoDeclarada;
+
+  /** Ocorrências agregadas: {quantidade, primeira linha}, na ordem da primeira ocorrência. */
+  private final Map<Ocorrencia, int[]> ocorrencias = new LinkedHashMap<>();
+
+  /** Registros abertos por nível (pilha da hierarquia). */
+  private Registro[] abertos = new Registro[8];
+  private int profundidade;
+
+  /** Registro de cada ID de tipo do documento corrente (null = não descrito). */
+  private SpedDocument docResolvido;
+  private Registro[] porTipoId;
+
+  /**
+   * Cria a regra para um leiaute.
+   *
+   * @param leiaute leiaute aplicado
+   * @param versaoDeclarada COD_VER declarado no |0000| do arquivo (null se ausente); quando
+   *     diferente da versão do leiaute, a regra registra um aviso
+   */
+  public LeiauteEcfRule(EcfLeiaute leiaute, String versaoDeclarada) {
+    this.leiaute = leiaute;
+    this.versaoDeclarada = versaoDeclarada;
+  }
+
+  @Override
+  public Set<String> tipos() {
+    return leiaute.tipos();
+  }
+
+  @Override
+  public void accept(SpedDocument doc, int line, ValidationResult result) {
+    if (!doc.isPipeDelimited(line)) {
+      return;
+    }
+    Registro registro = registroDa(doc, line);
+
+    int nivel = registro.nivel;
+    if (nivel >= 2 && (profundidade < nivel || abertos[nivel - 1] != registro.pai)) {
+      registrar(registro, 0, HIERARQUIA, line);
+    }
+    if (nivel >= abertos.length) {
+      Registro[] maior = new Registro[nivel * 2];
+      System.arraycopy(abertos, 0, maior, 0, abertos.length);
+      abertos = maior;
+    }
+    // Níveis intermediários ausentes não herdam registros de um ramo anterior
+    for (int n = profundidade; n < nivel; n++) {
+      abertos[n] = null;
+    }
+    abertos[nivel] = registro;
+    profundidade = nivel + 1;
+
+    // fieldCount inclui o vazio antes do primeiro | e depois do último, além do REG
+    int presentes = doc.fieldCount(line) - 3;
+    int descritos = registro.tipos.length;
+    if (presentes > descritos && !registro.aberto) {
+      registrar(registro, 0, EXCESSO, line);
+    }
+    for (int c = 0; c < descritos; c++) {
+      CharSequence valor = c < presentes ? doc.field(line, c + 2) : "";
+      if (valor.isEmpty()) {
+        if (registro.obrigatorios[c]) {
+          registrar(registro, c, FALTANTE, line);
+        }
+        continue;
+      }
+      int problema = verificar(valor, registro.tipos[c], registro.tamanhos[c]);
+      if (problema >= 0) {
+        registrar(registro, c, problema, line);
+      }
+    }
+  }
+
+  @Override
+  public void combine(LeiauteEcfRule next, int linhasAnteriores) {
+    next.ocorrencias.forEach((ocorrencia, contagem) -> {
+      int[] atual = ocorrencias.get(ocorrencia);
+      if (atual == null) {
+        ocorrencias.put(ocorrencia, new int[] {contagem[0], contagem[1] + linhasAnteriores});
+      } else {
+        atual[0] += contagem[0];
+      }
+    });
+  }
+
+  @Override
+  public void finish(ValidationResult result) {
+    if (versaoDeclarada == null) {
+      result.addWarning("COD_VER do registro |0000| não encontrado — arquivo validado pelo "
+          + "leiaute ECF " + leiaute.versao());
+    } else if (!versaoDeclarada.equals(leiaute.versao())) {
+      result.addWarning("Leiaute ECF " + versaoDeclarada + " não descrito — arquivo validado "
+          + "pelo leiaute " + leiaute.versao());
+    }
+    ocorrencias.forEach((ocorrencia, contagem) -> {
+      String mensagem = mensagem(ocorrencia) + " em " + contagem[0]
+          + " linha(s), a primeira na linha " + (contagem[1] + 1);
+      if (ocorrencia.problema() == DATA_SEM_ZERO) {
+        result.addWarning(mensagem);
+      } else {
+        result.addError(mensagem);
+      }
+    });
+  }
+
+  /**
+   * Verifica o conteúdo não vazio de um campo.
+   *
+   * @return problema encontrado ({@link #TIPO}, {@link #TAMANHO} ou {@link #DATA_SEM_ZERO}), ou
+   *     -1 se válido
+   */
+  static int verificar(CharSequence valor, byte tipo, int tamanho) {
+    int n = valor.length();
+    switch (tipo) {
+      case EcfLeiaute.NUMERICO -> {
+        for (int i = 0; i < n; i++) {
+          if (!isDigito(valor.charAt(i))) {
+            return TIPO;
+          }
+        }
+        return tamanho > 0 && n > tamanho ? TAMANHO : -1;
+      }
+      case EcfLeiaute.DATA -> {
+        if (!isData(valor)) {
+          return TIPO;
+        }
+        return valor.length() == 8 ? -1 : DATA_SEM_ZERO;
+      }
+      case EcfLeiaute.VALOR -> {
+        return isValor(valor, tamanho) ? -1 : TIPO;
+      }
+      default -> {
+        return tamanho > 0 && n > tamanho ? TAMANHO : -1;
+      }
+    }
+  }
+
+  /**
+   * Data DDMMAAAA com dia 01–31 e mês 01–12, ou DMMAAAA (7 dígitos, dia 1–9 sem o zero à
+   * esquerda).
+   */
+  private static boolean isData(CharSequence valor) {
+    int n = valor.length();
+    if (n != 8 && n != 7) {
+      return false;
+    }
+    for (int i = 0; i < n; i++) {
+      if (!isDigito(valor.charAt(i))) {
+        return false;
+      }
+    }
+    int dia = n == 8
+        ? (valor.charAt(0) - '0') * 10 + (valor.charAt(1) - '0')
+        : valor.charAt(0) - '0';
+    int mes = (valor.charAt(n - 6) - '0') * 10 + (valor.charAt(n - 5) - '0');
+    return dia >= 1 && dia <= 31 && mes >= 1 && mes <= 12;
+  }
+
+  /** Valor [-]dígitos[,decimais], com no máximo {@code casas} decimais (0 = sem limite). */
+  private static boolean isValor(CharSequence valor, int casas) {
+    int n = valor.length();
+    int i = valor.charAt(0) == '-' ? 1 : 0;
+    int inteiros = 0;
+    while (i < n && isDigito(valor.charAt(i))) {
+      i++;
+      inteiros++;
+    }
+    if (inteiros == 0) {
+      return false;
+    }
+    if (i == n) {
+      return true;
+    }
+    if (valor.charAt(i) != ',') {
+      return false;
+    }
+    int decimais = n - i - 1;
+    if (decimais == 0 || (casas > 0 && decimais > casas)) {
+      return false;
+    }
+    for (i++; i < n; i++) {
+      if (!isDigito(valor.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isDigito(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private Registro registroDa(SpedDocument doc, int line) {
+    if (doc != docResolvido) {
+      docResolvido = doc;
+      porTipoId = new Registro[doc.tipoCount()];
+      for (int t = 0; t < porTipoId.length; t++) {
+        porTipoId[t] = leiaute.registro(doc.tipoById(t));
+      }
+    }
+    return porTipoId[doc.tipoId(line)];
+  }
+
+  private void registrar(Registro registro, int campo, int problema, int line) {
+    ocorrencias.computeIfAbsent(
+        new Ocorrencia(registro, campo, problema), o -> new int[] {0, line})[0]++;
+  }
+
+  private String mensagem(Ocorrencia ocorrencia) {
+    Registro registro = ocorrencia.registro();
+    int c = ocorrencia.campo();
+    return switch (ocorrencia.problema()) {
+      case HIERARQUIA -> registro.tipo + " fora da hierarquia (esperado dentro de "
+          + registro.pai.tipo + ")";
+      case EXCESSO -> registro.tipo + ": mais campos que os " + registro.tipos.length
+          + " do leiaute " + leiaute.versao();
+      case FALTANTE -> registro.tipo + " campo " + registro.nomes[c] + ": obrigatório vazio";
+      case TAMANHO -> registro.tipo + " campo " + registro.nomes[c] + ": excede "
+          + registro.tamanhos[c] + " caracteres";
+      case DATA_SEM_ZERO -> registro.tipo + " campo " + registro.nomes[c]
+          + ": data com 7 dígitos (dia sem o zero à esquerda), lida como DDMMAAAA";
+      default -> registro.tipo + " campo " + registro.nomes[c] + ": "
+          + descricaoTipo(registro.tipos[c], registro.tamanhos[c]);
+    };
+  }
+
+  private static String descricaoTipo(byte tipo, int tamanho) {
+    return switch (tipo) {
+      case EcfLeiaute.NUMERICO -> "deve conter apenas dígitos";
+      case EcfLeiaute.DATA -> "data inválida (esperado DDMMAAAA)";
+      default -> "valor inválido (esperado número com vírgula decimal"
+          + (tamanho > 0 ? " e até " + tamanho + " casas" : "") + ")";
+    };
+  }
+
+  /** Problema agregado: registro, posição do campo no leiaute e tipo de problema. */
+  private record Ocorrencia(Registro registro, int campo, int problema) {
+  }
+}
@@ -0,0 +1,71 @@
+package br.com.lalurecf.application.service.validation;
+
+import br.com.lalurecf.domain.util.SpedDocument;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.Set;
+
+/**
+ * Regra da contagem do M990: a quantidade declarada deve ser igual ao número de linhas do
+ * primeiro |M001| ao primeiro |M990|, inclusive.
+ *
+ * <p>Guarda apenas as primeiras ocorrências, então pode ser avaliada por bloco na validação
+ * paralela (as linhas do trecho seguinte são deslocadas ao combinar).
+ */
+public class M990CountRule implements SegmentableValidationRule<M990CountRule> {
+
+  private static final Set<String> TIPOS = Set.of("M001", "M990");
+
+  private int m001Idx = -1;
+  private int m990Idx = -1;
+  private String m990Declarado;
+
+  @Override
+  public Set<String> tipos() {
+    return TIPOS;
+  }
+
+  @Override
+  public void accept(SpedDocument doc, int line, ValidationResult result) {
+    if ("M001".equals(doc.tipo(line))) {
+      if (m001Idx < 0) {
+        m001Idx = line;
+      }
+    } else if (m990Idx < 0) {
+      m990Idx = line;
+      m990Declarado = doc.fieldString(line, 2);
+    }
+  }
+
+  @Override
+  public void combine(M990CountRule next, int linhasAnteriores) {
+    if (m001Idx < 0 && next.m001Idx >= 0) {
+      m001Idx = next.m001Idx + linhasAnteriores;
+    }
+    if (m990Idx < 0 && next.m990Idx >= 0) {
+      m990Idx = next.m990Idx + linhasAnteriores;
+      m990Declarado = next.m990Declarado;
+    }
+  }
+
+  @Override
+  public void finish(ValidationResult result) {
+    if (m990Idx < 0) {
+      return;
+    }
+    int m990Declared;
+    try {
+      m990Declared = Integer.parseInt(m990Declarado);
+    } catch (NumberFormatException e) {
+      result.addError("M990: contagem inválida '" + m990Declarado + "'");
+      return;
+    }
+
+    if (m001Idx >= 0 && m001Idx < m990Idx) {
+      int actualCount = m990Idx - m001Idx + 1;
+      if (actualCount != m990Declared) {
+        result.addError("M990 declara " + m990Declared
+            + " linhas mas o bloco M tem " + actualCount + " linhas");
+      }
+    }
+  }
+}
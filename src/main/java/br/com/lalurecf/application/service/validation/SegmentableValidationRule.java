@@ -0,0 +1,25 @@
+package br.com.lalurecf.application.service.validation;
+
+/**
+ * Regra cujo estado pode ser calculado por trechos independentes do arquivo e combinado
+ * depois, na ordem dos trechos.
+ *
+ * <p>Na validação paralela, cada bloco do arquivo recebe uma instância própria da regra; ao
+ * final, a instância do primeiro bloco incorpora as dos blocos seguintes via
+ * {@link #combine} e só então {@link #finish} é chamado. Regras que não implementam esta
+ * interface percorrem os blocos em sequência com uma única instância.
+ *
+ * @param <R> tipo concreto da regra
+ */
+public interface SegmentableValidationRule<R extends SegmentableValidationRule<R>>
+    extends EcfValidationRule {
+
+  /**
+   * Incorpora o estado do trecho seguinte.
+   *
+   * @param next regra que processou o trecho imediatamente posterior
+   * @param linhasAnteriores quantidade de linhas do arquivo antes do trecho de {@code next}
+   *     (índices de linha recebidos por {@code next} são relativos ao seu trecho)
+   */
+  void combine(R next, int linhasAnteriores);
+}
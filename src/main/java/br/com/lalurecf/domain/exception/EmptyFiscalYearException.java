@@ -0,0 +1,15 @@
+package br.com.lalurecf.domain.exception;
+
+/**
+ * Exception lançada quando não há lançamentos ACTIVE da Parte B no ano fiscal para gerar o
+ * Arquivo Parcial.
+ *
+ * <p>Estende {@link IllegalArgumentException}: na geração individual continua respondendo
+ * HTTP 400; a geração em lote registra a empresa como ignorada, não como falha.
+ */
+public class EmptyFiscalYearException extends IllegalArgumentException {
+
+  public EmptyFiscalYearException(String message) {
+    super(message);
+  }
+}
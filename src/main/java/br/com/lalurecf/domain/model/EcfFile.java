@@ -13,8 +13,9 @@ import lombok.NoArgsConstructor;
  * Modelo de domínio para arquivo ECF.
  *
  * <p>Representa qualquer um dos três tipos de arquivo ECF gerenciados pelo sistema:
- * ARQUIVO_PARCIAL, IMPORTED_ECF e COMPLETE_ECF. O conteúdo do arquivo é armazenado como
- * String com encoding ISO-8859-1 (LATIN-1), padrão do SPED ECF.
+ * ARQUIVO_PARCIAL, IMPORTED_ECF e COMPLETE_ECF. Guarda apenas metadados: o conteúdo
+ * (ISO-8859-1, padrão do SPED ECF) fica no {@code EcfContentStorePort}, endereçado por
+ * {@link #contentHash}.
  *
  * <p>Constraint: único por (fileType, companyId, fiscalYear).
  */
@@ -35,8 +36,14 @@ public class EcfFile {
   /**Ano fiscal de referência (ex: 2024). */
   private Integer fiscalYear;
 
-  /**Conteúdo do arquivo ECF em formato texto ISO-8859-1. */
-  private String content;
+  /**SHA-256 (hex) do conteúdo do arquivo no armazenamento de conteúdo ECF. */
+  private String contentHash;
+
+  /**Tamanho do conteúdo em bytes ISO-8859-1 (calculado ao gravar o conteúdo). */
+  private Long sizeBytes;
+
+  /**Quantidade de linhas do conteúdo (calculada ao gravar o conteúdo). */
+  private Integer lineCount;
 
   /**Nome do arquivo para download (ex: "ECF_PARCIAL_2024.txt"). */
   private String fileName;
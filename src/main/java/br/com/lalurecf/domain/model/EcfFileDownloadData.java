@@ -1,32 +1,44 @@
 package br.com.lalurecf.domain.model;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.function.Supplier;
+
 /**
  * Dado de domínio para download de arquivo ECF.
  *
- * <p>Encapsula o conteúdo em bytes (ISO-8859-1), nome e tamanho do arquivo
- * para entrega ao controller como ResponseEntity.
+ * <p>Encapsula os metadados do arquivo (nome, tamanho, hash e data de geração) e a abertura
+ * preguiçosa do conteúdo: nada é lido do armazenamento até o controller escrever o corpo, de
+ * modo que requisições condicionais respondidas com 304 não leem o conteúdo.
  */
 public class EcfFileDownloadData {
 
-  private final byte[] content;
   private final String fileName;
   private final long fileSizeBytes;
+  private final String contentHash;
+  private final LocalDateTime generatedAt;
+  private final Supplier<InputStream> content;
+  private final Supplier<InputStream> gzipContent;
 
   /**
    * Cria EcfFileDownloadData com todos os campos obrigatórios.
    *
-   * @param content bytes do arquivo em encoding ISO-8859-1
    * @param fileName nome do arquivo para o header Content-Disposition
-   * @param fileSizeBytes tamanho do arquivo em bytes
+   * @param fileSizeBytes tamanho do arquivo em bytes (-1 se desconhecido)
+   * @param contentHash SHA-256 do conteúdo (identifica a versão para ETag)
+   * @param generatedAt data de geração do conteúdo (para Last-Modified)
+   * @param content abre os bytes do arquivo em encoding ISO-8859-1
+   * @param gzipContent abre os bytes do arquivo comprimidos em GZIP
    */
-  public EcfFileDownloadData(byte[] content, String fileName, long fileSizeBytes) {
-    this.content = content;
+  public EcfFileDownloadData(String fileName, long fileSizeBytes, String contentHash,
+      LocalDateTime generatedAt, Supplier<InputStream> content,
+      Supplier<InputStream> gzipContent) {
     this.fileName = fileName;
     this.fileSizeBytes = fileSizeBytes;
-  }
-
-  public byte[] getContent() {
-    return content;
+    this.contentHash = contentHash;
+    this.generatedAt = generatedAt;
+    this.content = content;
+    this.gzipContent = gzipContent;
   }
 
   public String getFileName() {
@@ -36,4 +48,22 @@ public class EcfFileDownloadData {
   public long getFileSizeBytes() {
     return fileSizeBytes;
   }
+
+  public String getContentHash() {
+    return contentHash;
+  }
+
+  public LocalDateTime getGeneratedAt() {
+    return generatedAt;
+  }
+
+  /** Abre o conteúdo em ISO-8859-1; o chamador deve fechar o stream. */
+  public InputStream openContent() {
+    return content.get();
+  }
+
+  /** Abre o conteúdo comprimido em GZIP; o chamador deve fechar o stream. */
+  public InputStream openGzipContent() {
+    return gzipContent.get();
+  }
 }
@@ -0,0 +1,168 @@
+package br.com.lalurecf.domain.util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Aritmética de ponto fixo para valores monetários representados em centavos ({@code long}).
+ *
+ * <p>Todos os valores monetários do sistema têm escala 2 ({@code precision 19, scale 2}), então
+ * somas e saldos podem ser acumulados como {@code long} sem alocar um {@link BigDecimal} por
+ * operação. A conversão para {@link BigDecimal} fica restrita às bordas (persistência e API).
+ * Operações aritméticas lançam {@link ArithmeticException} em caso de overflow.
+ */
+public final class Centavos {
+
+  /** Valor zero em centavos. */
+  public static final long ZERO = 0L;
+
+  private static final int ESCALA = 2;
+
+  private Centavos() {}
+
+  /**
+   * Converte um {@link BigDecimal} para centavos, arredondando HALF_UP para 2 casas (mesmo
+   * arredondamento da formatação {@code %.2f}). {@code null} é tratado como zero.
+   *
+   * @param valor valor monetário
+   * @return valor em centavos
+   * @throws ArithmeticException se o valor não couber em {@code long}
+   */
+  public static long of(BigDecimal valor) {
+    if (valor == null) {
+      return ZERO;
+    }
+    return valor.setScale(ESCALA, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  /**
+   * Converte centavos para {@link BigDecimal} com escala 2.
+   *
+   * @param centavos valor em centavos
+   * @return valor monetário com escala 2
+   */
+  public static BigDecimal toBigDecimal(long centavos) {
+    return BigDecimal.valueOf(centavos, ESCALA);
+  }
+
+  /**
+   * Soma dois valores em centavos.
+   *
+   * @throws ArithmeticException em caso de overflow
+   */
+  public static long add(long a, long b) {
+    return Math.addExact(a, b);
+  }
+
+  /**
+   * Subtrai dois valores em centavos.
+   *
+   * @throws ArithmeticException em caso de overflow
+   */
+  public static long subtract(long a, long b) {
+    return Math.subtractExact(a, b);
+  }
+
+  /**
+   * Interpreta um valor no formato SPED ("1234,56") ou com ponto decimal ("1234.56").
+   *
+   * <p>Aceita sinal opcional e até 2 casas decimais. Formatos incomuns (ex: notação
+   * científica) são delegados a {@link BigDecimal}, desde que representáveis em centavos sem
+   * perda. Aceita qualquer {@link CharSequence} (ex: campo de um {@link SpedDocument}) sem
+   * exigir cópia para {@link String}.
+   *
+   * @param valor texto do valor
+   * @return valor em centavos
+   * @throws NumberFormatException se o texto não for um valor com até 2 casas decimais
+   */
+  public static long parse(CharSequence valor) {
+    if (valor == null || valor.isEmpty()) {
+      throw new NumberFormatException("Valor vazio");
+    }
+    int len = valor.length();
+    int i = 0;
+    boolean negativo = false;
+    char first = valor.charAt(0);
+    if (first == '-' || first == '+') {
+      negativo = first == '-';
+      i++;
+    }
+    long inteiro = 0;
+    int digitosInteiros = 0;
+    int casas = -1;
+    long fracao = 0;
+    for (; i < len; i++) {
+      char c = valor.charAt(i);
+      if (c >= '0' && c <= '9') {
+        if (casas < 0) {
+          if (++digitosInteiros > 16) {
+            return parseLento(valor);
+          }
+          inteiro = inteiro * 10 + (c - '0');
+        } else if (++casas > ESCALA) {
+          return parseLento(valor);
+        } else {
+          fracao = fracao * 10 + (c - '0');
+        }
+      } else if ((c == ',' || c == '.') && casas < 0) {
+        casas = 0;
+      } else {
+        return parseLento(valor);
+      }
+    }
+    if (digitosInteiros == 0 && casas <= 0) {
+      throw new NumberFormatException("Valor inválido: " + valor);
+    }
+    if (casas == 1) {
+      fracao *= 10;
+    }
+    long centavos = inteiro * 100 + fracao;
+    return negativo ? -centavos : centavos;
+  }
+
+  /**
+   * Formata centavos no padrão SPED: vírgula decimal, 2 casas, sem separador de milhar
+   * (ex: 123456 → "1234,56", -50 → "-0,50").
+   *
+   * @param centavos valor em centavos
+   * @return valor formatado
+   */
+  public static String format(long centavos) {
+    StringBuilder sb = new StringBuilder(24);
+    appendTo(sb, centavos);
+    return sb.toString();
+  }
+
+  /**
+   * Anexa o valor formatado no padrão SPED a um {@link StringBuilder}, sem alocações
+   * intermediárias.
+   *
+   * @param sb destino
+   * @param centavos valor em centavos
+   * @return o próprio {@code sb}
+   */
+  public static StringBuilder appendTo(StringBuilder sb, long centavos) {
+    if (centavos < 0) {
+      sb.append('-');
+      if (centavos == Long.MIN_VALUE) {
+        return sb.append(toBigDecimal(centavos).negate().toPlainString().replace('.', ','));
+      }
+      centavos = -centavos;
+    }
+    long fracao = centavos % 100;
+    sb.append(centavos / 100).append(',');
+    if (fracao < 10) {
+      sb.append('0');
+    }
+    return sb.append(fracao);
+  }
+
+  private static long parseLento(CharSequence valor) {
+    try {
+      BigDecimal decimal = new BigDecimal(valor.toString().replace(',', '.'));
+      return decimal.setScale(ESCALA, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    } catch (ArithmeticException e) {
+      throw new NumberFormatException("Valor fora do formato monetário: " + valor);
+    }
+  }
+}
@@ -0,0 +1,206 @@
+package br.com.lalurecf.domain.util;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Abertura de arquivos enviados por upload, aceitando conteúdo comprimido em {@code .gz} ou
+ * {@code .zip} com um único arquivo.
+ *
+ * <p>A descompressão é feita em streaming: os bytes descomprimidos vão direto para o leitor do
+ * chamador e nunca são materializados em memória. O total descomprimido é contado durante a
+ * leitura e a leitura falha assim que o limite é ultrapassado (proteção contra "zip bombs").
+ *
+ * <p>O formato é identificado pela extensão do nome original; demais arquivos são repassados
+ * sem alteração (também sujeitos ao limite).
+ */
+public final class CompressedUploads {
+
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private CompressedUploads() {
+  }
+
+  /**
+   * Conteúdo descomprimido de um upload.
+   *
+   * @param fileName nome do arquivo descomprimido (sem {@code .gz}; nome da entrada do
+   *     {@code .zip}); null se o upload não tiver nome
+   * @param content bytes descomprimidos (o chamador deve fechá-lo)
+   */
+  public record Upload(String fileName, InputStream content) {}
+
+  /**
+   * Abre o conteúdo descomprimido do upload.
+   *
+   * @param raw bytes enviados (fechado junto com {@link Upload#content()})
+   * @param fileName nome original do arquivo
+   * @param maxBytes tamanho máximo do conteúdo descomprimido
+   * @return nome e conteúdo descomprimido
+   * @throws IllegalArgumentException se o arquivo comprimido for inválido, o {@code .zip} não
+   *     contiver exatamente um arquivo ou, durante a leitura, o limite for ultrapassado
+   * @throws IOException se ocorrer erro de leitura
+   */
+  public static Upload open(InputStream raw, String fileName, long maxBytes) throws IOException {
+    String nome = fileName != null ? fileName.toLowerCase(Locale.ROOT) : "";
+    try {
+      if (nome.endsWith(".gz")) {
+        InputStream gzip = new GZIPInputStream(raw, BUFFER_SIZE);
+        return new Upload(fileName.substring(0, fileName.length() - 3),
+            new LimitedInputStream(gzip, maxBytes));
+      }
+      if (nome.endsWith(".zip")) {
+        ZipInputStream zip = new ZipInputStream(new BufferedInputStream(raw, BUFFER_SIZE));
+        ZipEntry entry = nextFile(zip);
+        if (entry == null) {
+          zip.close();
+          throw new IllegalArgumentException("O arquivo .zip não contém nenhum arquivo");
+        }
+        String entryName = entry.getName();
+        return new Upload(entryName.substring(entryName.lastIndexOf('/') + 1),
+            new LimitedInputStream(new SingleEntryInputStream(zip), maxBytes));
+      }
+    } catch (ZipException | EOFException e) {
+      raw.close();
+      throw new IllegalArgumentException(
+          "Arquivo comprimido inválido (" + fileName + "): " + e.getMessage(), e);
+    }
+    return new Upload(fileName, new LimitedInputStream(raw, maxBytes));
+  }
+
+  /**
+   * Leitor de texto do conteúdo: UTF-8 quando há BOM (removido), senão ISO-8859-1.
+   *
+   * @param content conteúdo descomprimido
+   * @return leitor com buffer sobre o conteúdo
+   * @throws IOException se ocorrer erro de leitura
+   */
+  public static BufferedReader textReader(InputStream content) throws IOException {
+    BufferedInputStream in = new BufferedInputStream(content, BUFFER_SIZE);
+    in.mark(3);
+    byte[] bom = in.readNBytes(3);
+    Charset charset = StandardCharsets.ISO_8859_1;
+    if (bom.length == 3
+        && (bom[0] & 0xFF) == 0xEF && (bom[1] & 0xFF) == 0xBB && (bom[2] & 0xFF) == 0xBF) {
+      charset = StandardCharsets.UTF_8;
+    } else {
+      in.reset();
+    }
+    return new BufferedReader(new InputStreamReader(in, charset), BUFFER_SIZE);
+  }
+
+  private static String tamanho(long bytes) {
+    long mb = 1024 * 1024;
+    return bytes % mb == 0 ? bytes / mb + "MB" : bytes + " bytes";
+  }
+
+  /** Próxima entrada de arquivo do zip, ignorando diretórios e metadados do macOS. */
+  private static ZipEntry nextFile(ZipInputStream zip) throws IOException {
+    ZipEntry entry;
+    while ((entry = zip.getNextEntry()) != null) {
+      if (!entry.isDirectory() && !entry.getName().startsWith("__MACOSX/")) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  /** Conteúdo da entrada atual; ao final, rejeita o zip se houver outra entrada de arquivo. */
+  private static final class SingleEntryInputStream extends FilterInputStream {
+
+    private boolean verificado;
+
+    SingleEntryInputStream(ZipInputStream zip) {
+      super(zip);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b < 0) {
+        verificarFim();
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int lidos = super.read(b, off, len);
+      if (lidos < 0) {
+        verificarFim();
+      }
+      return lidos;
+    }
+
+    private void verificarFim() throws IOException {
+      if (!verificado) {
+        verificado = true;
+        if (nextFile((ZipInputStream) in) != null) {
+          throw new IllegalArgumentException("O arquivo .zip deve conter um único arquivo");
+        }
+      }
+    }
+  }
+
+  /** Conta os bytes lidos e falha quando ultrapassam o limite. */
+  private static final class LimitedInputStream extends FilterInputStream {
+
+    private final long maxBytes;
+    private long lidos;
+
+    LimitedInputStream(InputStream in, long maxBytes) {
+      super(in);
+      this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        contar(1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      int n = super.read(b, off, len);
+      if (n > 0) {
+        contar(n);
+      }
+      return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long pulados = super.skip(n);
+      contar(pulados);
+      return pulados;
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+
+    private void contar(long n) {
+      lidos += n;
+      if (lidos > maxBytes) {
+        throw new IllegalArgumentException(
+            "O conteúdo descomprimido excede o tamanho máximo de " + tamanho(maxBytes));
+      }
+    }
+  }
+}
@@ -0,0 +1,138 @@
+package br.com.lalurecf.domain.util;
+
+import java.util.Arrays;
+
+/**
+ * Remapeia IDs {@code long} esparsos (chaves do banco) para índices densos {@code 0..n-1}, na
+ * ordem da primeira ocorrência.
+ *
+ * <p>Tabela hash de endereçamento aberto (sondagem linear) sobre arrays primitivos: não há
+ * boxing de chaves nem nós por entrada. Os índices densos permitem acumular valores em arrays
+ * paralelos ({@code long[]}, {@code Object[]}) em vez de mapas. Não é thread-safe.
+ */
+public final class LongIdIndex {
+
+  private static final int VAZIO = -1;
+  private static final int CAPACIDADE_MINIMA = 8;
+
+  /** Chaves em ordem de inserção (índice denso → ID). */
+  private long[] keys;
+
+  /** Slots da tabela hash; cada slot guarda o índice denso ou {@link #VAZIO}. */
+  private int[] slots;
+
+  private int size;
+
+  /** Cria um índice vazio com capacidade padrão. */
+  public LongIdIndex() {
+    this(CAPACIDADE_MINIMA);
+  }
+
+  /**
+   * Cria um índice dimensionado para a quantidade esperada de IDs distintos.
+   *
+   * @param capacidadeEsperada quantidade esperada de IDs
+   */
+  public LongIdIndex(int capacidadeEsperada) {
+    int capacidade = Math.max(CAPACIDADE_MINIMA, capacidadeEsperada);
+    keys = new long[capacidade];
+    slots = novaTabela(capacidade);
+  }
+
+  /**
+   * Retorna o índice denso do ID, atribuindo o próximo índice se o ID ainda não existir.
+   *
+   * @param id ID esparso
+   * @return índice denso (0..size-1)
+   */
+  public int add(long id) {
+    int mask = slots.length - 1;
+    int slot = hash(id) & mask;
+    while (true) {
+      int indice = slots[slot];
+      if (indice == VAZIO) {
+        break;
+      }
+      if (keys[indice] == id) {
+        return indice;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+    }
+    int novo = size++;
+    keys[novo] = id;
+    slots[slot] = novo;
+    if (size * 2 > slots.length) {
+      rehash();
+    }
+    return novo;
+  }
+
+  /**
+   * Retorna o índice denso do ID, ou -1 se o ID não estiver no índice.
+   *
+   * @param id ID esparso
+   * @return índice denso ou -1
+   */
+  public int indexOf(long id) {
+    int mask = slots.length - 1;
+    int slot = hash(id) & mask;
+    while (true) {
+      int indice = slots[slot];
+      if (indice == VAZIO) {
+        return -1;
+      }
+      if (keys[indice] == id) {
+        return indice;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  /**
+   * Retorna o ID associado a um índice denso.
+   *
+   * @param indice índice denso (0..size-1)
+   * @return ID esparso
+   */
+  public long keyAt(int indice) {
+    if (indice < 0 || indice >= size) {
+      throw new IndexOutOfBoundsException("Índice " + indice + " fora de 0.." + (size - 1));
+    }
+    return keys[indice];
+  }
+
+  /** Quantidade de IDs distintos no índice. */
+  public int size() {
+    return size;
+  }
+
+  private void rehash() {
+    slots = novaTabela(slots.length);
+    int mask = slots.length - 1;
+    for (int i = 0; i < size; i++) {
+      int slot = hash(keys[i]) & mask;
+      while (slots[slot] != VAZIO) {
+        slot = (slot + 1) & mask;
+      }
+      slots[slot] = i;
+    }
+  }
+
+  /** Tabela com potência de 2 &gt;= 2x a capacidade (fator de carga máximo de 0,5). */
+  private static int[] novaTabela(int capacidade) {
+    int tamanho = Integer.highestOneBit(Math.max(1, capacidade - 1)) << 2;
+    int[] tabela = new int[tamanho];
+    Arrays.fill(tabela, VAZIO);
+    return tabela;
+  }
+
+  /** Espalha os bits do ID (IDs sequenciais colidiriam nos slots baixos). */
+  private static int hash(long id) {
+    long h = id * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -0,0 +1,114 @@
+package br.com.lalurecf.domain.util;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.LongFunction;
+
+/**
+ * Mapa {@code long → V} especializado para chaves primitivas (IDs do banco).
+ *
+ * <p>Usa um {@link LongIdIndex} para as chaves e um array denso de valores, evitando boxing de
+ * {@code Long} e nós de entrada por elemento. A iteração por índice ({@link #keyAt(int)},
+ * {@link #valueAt(int)}) segue a ordem de inserção, como um {@code LinkedHashMap}. Não aceita
+ * remoção e não é thread-safe (seguro para leitura concorrente após construído).
+ *
+ * @param <V> tipo dos valores
+ */
+public final class LongObjectMap<V> {
+
+  private final LongIdIndex index;
+  private Object[] values;
+
+  /** Cria um mapa vazio com capacidade padrão. */
+  public LongObjectMap() {
+    this(8);
+  }
+
+  /**
+   * Cria um mapa dimensionado para a quantidade esperada de chaves.
+   *
+   * @param capacidadeEsperada quantidade esperada de chaves
+   */
+  public LongObjectMap(int capacidadeEsperada) {
+    index = new LongIdIndex(capacidadeEsperada);
+    values = new Object[Math.max(8, capacidadeEsperada)];
+  }
+
+  /**
+   * Associa o valor à chave, substituindo o anterior.
+   *
+   * @param key chave
+   * @param value valor
+   */
+  public void put(long key, V value) {
+    int indice = index.add(key);
+    if (indice >= values.length) {
+      values = Arrays.copyOf(values, Math.max(indice + 1, values.length * 2));
+    }
+    values[indice] = value;
+  }
+
+  /**
+   * Retorna o valor da chave ou {@code null} se ausente.
+   *
+   * @param key chave
+   * @return valor ou null
+   */
+  @SuppressWarnings("unchecked")
+  public V get(long key) {
+    int indice = index.indexOf(key);
+    return indice < 0 ? null : (V) values[indice];
+  }
+
+  /**
+   * Retorna o valor da chave, criando-o com a função informada se ausente.
+   *
+   * @param key chave
+   * @param factory função que cria o valor a partir da chave
+   * @return valor existente ou recém-criado
+   */
+  public V computeIfAbsent(long key, LongFunction<V> factory) {
+    V atual = get(key);
+    if (atual == null) {
+      atual = factory.apply(key);
+      put(key, atual);
+    }
+    return atual;
+  }
+
+  /** Indica se a chave está presente. */
+  public boolean containsKey(long key) {
+    return index.indexOf(key) >= 0;
+  }
+
+  /** Quantidade de chaves. */
+  public int size() {
+    return index.size();
+  }
+
+  /** Indica se o mapa está vazio. */
+  public boolean isEmpty() {
+    return index.size() == 0;
+  }
+
+  /**
+   * Retorna a chave na posição de inserção informada.
+   *
+   * @param indice posição (0..size-1)
+   * @return chave
+   */
+  public long keyAt(int indice) {
+    return index.keyAt(indice);
+  }
+
+  /**
+   * Retorna o valor na posição de inserção informada.
+   *
+   * @param indice posição (0..size-1)
+   * @return valor
+   */
+  @SuppressWarnings("unchecked")
+  public V valueAt(int indice) {
+    return (V) values[Objects.checkIndex(indice, index.size())];
+  }
+}
@@ -0,0 +1,518 @@
+package br.com.lalurecf.domain.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Índice de linhas e campos de um arquivo SPED (|TIPO|CAMPO|...|), construído em uma única
+ * varredura do conteúdo.
+ *
+ * <p>Guarda apenas offsets em arrays primitivos: início e fim de cada linha e a posição de cada
+ * delimitador {@code |}. Os tipos de registro são internados em IDs densos ({@code 0..n-1}),
+ * então comparar tipos não exige substring. Campos são expostos como {@link CharSequence} que
+ * apontam para o conteúdo original, sem cópia; {@code toString()} só é necessário quando o
+ * valor precisa sobreviver ao documento (chaves de mapa, mensagens).
+ *
+ * <p>Convenções de linha: linhas são separadas por {@code \n}; um {@code \r} imediatamente
+ * antes do {@code \n} (ou no fim do conteúdo) faz parte do terminador e não do conteúdo da
+ * linha, mas é preservado por {@link #rawLine(int)} e {@link #writeRawLine(int, Writer)}. Um
+ * {@code \n} final não abre uma nova linha (mesma contagem de {@code BufferedReader.readLine}).
+ *
+ * <p>Campos seguem a numeração de {@code line.split("\\|", -1)}: o campo 0 é o texto antes
+ * do primeiro {@code |} (vazio em linhas SPED), o campo 1 é o tipo do registro e assim por
+ * diante. Campos inexistentes são vazios. Não é thread-safe durante a construção; após
+ * {@link #parse(CharSequence)} é imutável.
+ */
+public final class SpedDocument {
+
+  /** ID de tipo para linhas que não são registros SPED (não iniciam com {@code |}). */
+  public static final int SEM_TIPO = -1;
+
+  private static final int CAPACIDADE_INICIAL = 64;
+
+  /** Cabeçalhos usados em {@link #indexBytes()}. */
+  private static final long BYTES_OBJETO = 48;
+  private static final long BYTES_ARRAY = 16;
+  private static final long BYTES_STRING = 40;
+
+  private final CharSequence content;
+  private final int lineCount;
+
+  /** Offset do primeiro caractere de cada linha. */
+  private final int[] lineStart;
+
+  /** Offset (exclusivo) do fim do conteúdo de cada linha, sem {@code \r\n}. */
+  private final int[] lineEnd;
+
+  /**
+   * Índice em {@link #pipes} do primeiro delimitador de cada linha; a linha {@code i} possui
+   * os delimitadores {@code pipes[firstPipe[i]] .. pipes[firstPipe[i + 1] - 1]}.
+   */
+  private final int[] firstPipe;
+
+  /** Offsets de todos os delimitadores {@code |}, em ordem. */
+  private final int[] pipes;
+
+  /** ID do tipo de cada linha, ou {@link #SEM_TIPO}. */
+  private final int[] tipoIds;
+
+  /** Tipos internados (ID → tipo). */
+  private final String[] tipos;
+
+  /** Tabela hash de endereçamento aberto: slot → ID do tipo + 1 (0 = vazio). */
+  private final int[] tipoSlots;
+
+  private SpedDocument(CharSequence content, int lineCount, int[] lineStart, int[] lineEnd,
+      int[] firstPipe, int[] pipes, int[] tipoIds, String[] tipos, int[] tipoSlots) {
+    this.content = content;
+    this.lineCount = lineCount;
+    this.lineStart = lineStart;
+    this.lineEnd = lineEnd;
+    this.firstPipe = firstPipe;
+    this.pipes = pipes;
+    this.tipoIds = tipoIds;
+    this.tipos = tipos;
+    this.tipoSlots = tipoSlots;
+  }
+
+  /**
+   * Indexa o conteúdo em uma única varredura.
+   *
+   * @param content conteúdo do arquivo (não é copiado; deve permanecer inalterado)
+   * @return documento indexado
+   */
+  public static SpedDocument parse(CharSequence content) {
+    return new Indexador(content).indexar();
+  }
+
+  /** Quantidade de linhas do conteúdo. */
+  public int lineCount() {
+    return lineCount;
+  }
+
+  /**
+   * Quantidade de linhas desconsiderando as linhas totalmente vazias ao final (mesmo
+   * resultado de {@code content.split("\n").length}).
+   */
+  public int lineCountWithoutTrailingEmpty() {
+    int n = lineCount;
+    while (n > 0 && rawEnd(n - 1) == lineStart[n - 1]) {
+      n--;
+    }
+    return n;
+  }
+
+  /**
+   * Offset do primeiro caractere da linha no conteúdo.
+   *
+   * @param line índice da linha (0..lineCount-1)
+   * @return offset no conteúdo original
+   */
+  public int lineOffset(int line) {
+    return lineStart[line];
+  }
+
+  /**
+   * Conteúdo da linha, sem terminador.
+   *
+   * @param line índice da linha (0..lineCount-1)
+   * @return visão sobre o conteúdo original
+   */
+  public CharSequence line(int line) {
+    return new Trecho(content, lineStart[line], lineEnd[line]);
+  }
+
+  /**
+   * Texto da linha exatamente como no conteúdo, incluindo um {@code \r} final (sem o
+   * {@code \n}).
+   *
+   * @param line índice da linha
+   * @return cópia da linha
+   */
+  public String rawLine(int line) {
+    return content.subSequence(lineStart[line], rawEnd(line)).toString();
+  }
+
+  /**
+   * Grava a linha exatamente como no conteúdo (incluindo um {@code \r} final, sem o
+   * {@code \n}), sem cópia intermediária quando o conteúdo é uma {@link String}.
+   *
+   * @param line índice da linha
+   * @param writer destino
+   * @return quantidade de caracteres gravados
+   * @throws IOException se ocorrer erro de escrita
+   */
+  public int writeRawLine(int line, Writer writer) throws IOException {
+    int inicio = lineStart[line];
+    int tamanho = rawEnd(line) - inicio;
+    if (content instanceof String s) {
+      writer.write(s, inicio, tamanho);
+    } else {
+      writer.append(content, inicio, inicio + tamanho);
+    }
+    return tamanho;
+  }
+
+  /** Indica se a linha é vazia ou contém apenas espaços em branco. */
+  public boolean isBlank(int line) {
+    for (int i = lineStart[line]; i < lineEnd[line]; i++) {
+      if (!Character.isWhitespace(content.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Indica se a linha inicia e termina com {@code |} (formato SPED). */
+  public boolean isPipeDelimited(int line) {
+    int inicio = lineStart[line];
+    int fim = lineEnd[line];
+    return fim > inicio && content.charAt(inicio) == '|' && content.charAt(fim - 1) == '|';
+  }
+
+  /**
+   * ID do tipo de registro da linha.
+   *
+   * @param line índice da linha
+   * @return ID denso do tipo, ou {@link #SEM_TIPO} se a linha não inicia com {@code |}
+   */
+  public int tipoId(int line) {
+    return tipoIds[line];
+  }
+
+  /**
+   * ID de um tipo de registro neste documento.
+   *
+   * @param tipo tipo do registro (ex: "M300")
+   * @return ID denso, ou {@link #SEM_TIPO} se nenhuma linha tem esse tipo
+   */
+  public int tipoId(String tipo) {
+    int mask = tipoSlots.length - 1;
+    int slot = hash(tipo, 0, tipo.length()) & mask;
+    int valor;
+    while ((valor = tipoSlots[slot]) != 0) {
+      if (tipos[valor - 1].equals(tipo)) {
+        return valor - 1;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return SEM_TIPO;
+  }
+
+  /**
+   * Tipo de registro da linha (instância internada: sem alocação por chamada).
+   *
+   * @param line índice da linha
+   * @return tipo do registro, ou null se a linha não inicia com {@code |}
+   */
+  public String tipo(int line) {
+    int id = tipoIds[line];
+    return id == SEM_TIPO ? null : tipos[id];
+  }
+
+  /** Quantidade de tipos de registro distintos. */
+  public int tipoCount() {
+    return tipos.length;
+  }
+
+  /**
+   * Tipo de registro correspondente a um ID.
+   *
+   * @param tipoId ID denso (0..tipoCount-1)
+   * @return tipo do registro
+   */
+  public String tipoById(int tipoId) {
+    return tipos[tipoId];
+  }
+
+  /**
+   * Primeira linha com o tipo informado.
+   *
+   * @param tipo tipo do registro
+   * @return índice da linha, ou -1 se não houver
+   */
+  public int firstLineOf(String tipo) {
+    int id = tipoId(tipo);
+    if (id == SEM_TIPO) {
+      return -1;
+    }
+    for (int i = 0; i < lineCount; i++) {
+      if (tipoIds[i] == id) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Quantidade de campos da linha (equivalente a {@code line.split("\\|", -1).length}).
+   *
+   * @param line índice da linha
+   * @return quantidade de campos
+   */
+  public int fieldCount(int line) {
+    return firstPipe[line + 1] - firstPipe[line] + 1;
+  }
+
+  /**
+   * Campo da linha, sem cópia.
+   *
+   * @param line índice da linha
+   * @param field índice do campo (0 = antes do primeiro {@code |}, 1 = tipo, ...)
+   * @return visão sobre o conteúdo original; vazio se o campo não existir
+   */
+  public CharSequence field(int line, int field) {
+    int inicio = fieldStart(line, field);
+    return inicio < 0 ? "" : new Trecho(content, inicio, fieldEnd(line, field));
+  }
+
+  /**
+   * Campo da linha como {@link String}.
+   *
+   * @param line índice da linha
+   * @param field índice do campo
+   * @return cópia do campo; vazio se o campo não existir
+   */
+  public String fieldString(int line, int field) {
+    int inicio = fieldStart(line, field);
+    return inicio < 0 ? "" : content.subSequence(inicio, fieldEnd(line, field)).toString();
+  }
+
+  /**
+   * Compara o campo com um texto, sem cópia.
+   *
+   * @param line índice da linha
+   * @param field índice do campo
+   * @param expected texto esperado
+   * @return true se o campo existir e for igual a {@code expected}
+   */
+  public boolean fieldEquals(int line, int field, CharSequence expected) {
+    int inicio = fieldStart(line, field);
+    if (inicio < 0) {
+      return expected.length() == 0;
+    }
+    int tamanho = fieldEnd(line, field) - inicio;
+    if (tamanho != expected.length()) {
+      return false;
+    }
+    for (int i = 0; i < tamanho; i++) {
+      if (content.charAt(inicio + i) != expected.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Indica se o campo é inexistente, vazio ou contém apenas espaços em branco. */
+  public boolean isFieldBlank(int line, int field) {
+    int inicio = fieldStart(line, field);
+    if (inicio < 0) {
+      return true;
+    }
+    int fim = fieldEnd(line, field);
+    for (int i = inicio; i < fim; i++) {
+      if (!Character.isWhitespace(content.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** Offset de início do campo, ou -1 se o campo não existir. */
+  private int fieldStart(int line, int field) {
+    if (field == 0) {
+      return lineStart[line];
+    }
+    int pipe = firstPipe[line] + field - 1;
+    return pipe < firstPipe[line + 1] ? pipes[pipe] + 1 : -1;
+  }
+
+  /** Offset (exclusivo) do fim de um campo existente. */
+  private int fieldEnd(int line, int field) {
+    int pipe = firstPipe[line] + field;
+    return pipe < firstPipe[line + 1] ? pipes[pipe] : lineEnd[line];
+  }
+
+  /**
+   * Memória retida pelos índices (offsets, tipos internados e tabela de tipos), em bytes, sem o
+   * conteúdo indexado.
+   *
+   * @return estimativa em bytes, pela capacidade dos arrays
+   */
+  public long indexBytes() {
+    long bytes = BYTES_OBJETO + BYTES_ARRAY * 7 + Integer.BYTES * ((long) lineStart.length
+        + lineEnd.length + firstPipe.length + pipes.length + tipoIds.length + tipoSlots.length);
+    for (String tipo : tipos) {
+      bytes += Integer.BYTES + BYTES_STRING + tipo.length();
+    }
+    return bytes;
+  }
+
+  /** Fim da linha incluindo um {@code \r} removido do conteúdo. */
+  private int rawEnd(int line) {
+    int fim = lineEnd[line];
+    return fim < content.length() && content.charAt(fim) == '\r' ? fim + 1 : fim;
+  }
+
+  private static int hash(CharSequence texto, int inicio, int fim) {
+    int h = 0;
+    for (int i = inicio; i < fim; i++) {
+      h = 31 * h + texto.charAt(i);
+    }
+    return h ^ (h >>> 16);
+  }
+
+  /** Varredura única do conteúdo, acumulando os offsets em arrays que crescem sob demanda. */
+  private static final class Indexador {
+
+    private final CharSequence content;
+    private int[] lineStart = new int[CAPACIDADE_INICIAL];
+    private int[] lineEnd = new int[CAPACIDADE_INICIAL];
+    private int[] firstPipe = new int[CAPACIDADE_INICIAL + 1];
+    private int[] tipoIds = new int[CAPACIDADE_INICIAL];
+    private int[] pipes = new int[CAPACIDADE_INICIAL * 8];
+    private String[] tipos = new String[CAPACIDADE_INICIAL];
+    private int[] tipoSlots = new int[CAPACIDADE_INICIAL * 2];
+    private int lines;
+    private int pipeCount;
+    private int pipesInicioLinha;
+    private int tipoCount;
+
+    Indexador(CharSequence content) {
+      this.content = content;
+    }
+
+    SpedDocument indexar() {
+      int len = content.length();
+      int inicio = 0;
+      for (int i = 0; i < len; i++) {
+        char c = content.charAt(i);
+        if (c == '|') {
+          if (pipeCount == pipes.length) {
+            pipes = Arrays.copyOf(pipes, pipeCount * 2);
+          }
+          pipes[pipeCount++] = i;
+        } else if (c == '\n') {
+          fecharLinha(inicio, i > inicio && content.charAt(i - 1) == '\r' ? i - 1 : i);
+          inicio = i + 1;
+        }
+      }
+      if (inicio < len) {
+        fecharLinha(inicio, content.charAt(len - 1) == '\r' ? len - 1 : len);
+      }
+      firstPipe[lines] = pipeCount;
+      return new SpedDocument(content, lines, lineStart, lineEnd, firstPipe,
+          pipes, tipoIds, Arrays.copyOf(tipos, tipoCount), tipoSlots);
+    }
+
+    private void fecharLinha(int inicio, int fim) {
+      if (lines == lineStart.length) {
+        int capacidade = lines * 2;
+        lineStart = Arrays.copyOf(lineStart, capacidade);
+        lineEnd = Arrays.copyOf(lineEnd, capacidade);
+        tipoIds = Arrays.copyOf(tipoIds, capacidade);
+        firstPipe = Arrays.copyOf(firstPipe, capacidade + 1);
+      }
+      int primeiro = pipesInicioLinha;
+      firstPipe[lines] = primeiro;
+      pipesInicioLinha = pipeCount;
+      lineStart[lines] = inicio;
+      lineEnd[lines] = fim;
+
+      int id = SEM_TIPO;
+      if (fim > inicio && content.charAt(inicio) == '|') {
+        // O primeiro delimitador é o próprio início da linha; o tipo vai até o segundo
+        int fimTipo = primeiro + 1 < pipeCount ? pipes[primeiro + 1] : fim;
+        id = internar(inicio + 1, fimTipo);
+      }
+      tipoIds[lines] = id;
+      lines++;
+    }
+
+    private int internar(int inicio, int fim) {
+      int mask = tipoSlots.length - 1;
+      int slot = hash(content, inicio, fim) & mask;
+      int valor;
+      while ((valor = tipoSlots[slot]) != 0) {
+        String tipo = tipos[valor - 1];
+        if (igual(tipo, inicio, fim)) {
+          return valor - 1;
+        }
+        slot = (slot + 1) & mask;
+      }
+      int id = tipoCount++;
+      if (id == tipos.length) {
+        tipos = Arrays.copyOf(tipos, id * 2);
+      }
+      tipos[id] = content.subSequence(inicio, fim).toString();
+      tipoSlots[slot] = id + 1;
+      if (tipoCount * 2 > tipoSlots.length) {
+        rehash();
+      }
+      return id;
+    }
+
+    private boolean igual(String tipo, int inicio, int fim) {
+      if (tipo.length() != fim - inicio) {
+        return false;
+      }
+      for (int i = 0; i < tipo.length(); i++) {
+        if (tipo.charAt(i) != content.charAt(inicio + i)) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private void rehash() {
+      int[] novos = new int[tipoSlots.length * 2];
+      int mask = novos.length - 1;
+      for (int id = 0; id < tipoCount; id++) {
+        String tipo = tipos[id];
+        int slot = hash(tipo, 0, tipo.length()) & mask;
+        while (novos[slot] != 0) {
+          slot = (slot + 1) & mask;
+        }
+        novos[slot] = id + 1;
+      }
+      tipoSlots = novos;
+    }
+  }
+
+  /** Visão sem cópia sobre um trecho do conteúdo. */
+  private static final class Trecho implements CharSequence {
+
+    private final CharSequence content;
+    private final int inicio;
+    private final int fim;
+
+    Trecho(CharSequence content, int inicio, int fim) {
+      this.content = content;
+      this.inicio = inicio;
+      this.fim = fim;
+    }
+
+    @Override
+    public int length() {
+      return fim - inicio;
+    }
+
+    @Override
+    public char charAt(int index) {
+      return content.charAt(inicio + Objects.checkIndex(index, fim - inicio));
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+      Objects.checkFromToIndex(start, end, fim - inicio);
+      return new Trecho(content, inicio + start, inicio + end);
+    }
+
+    @Override
+    public String toString() {
+      return content.subSequence(inicio, fim).toString();
+    }
+  }
+}
@@ -6,6 +6,9 @@ import br.com.lalurecf.application.port.in.contareferencial.ImportContaReferenci
 import br.com.lalurecf.application.port.in.contareferencial.ListContaReferencialUseCase;
 import br.com.lalurecf.application.port.in.contareferencial.ToggleContaReferencialStatusUseCase;
 import br.com.lalurecf.application.port.in.contareferencial.UpdateContaReferencialUseCase;
+import br.com.lalurecf.infrastructure.annotation.LimitedConcurrency;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry.VersionedResource;
 import br.com.lalurecf.infrastructure.dto.contareferencial.ContaReferencialResponse;
 import br.com.lalurecf.infrastructure.dto.contareferencial.CreateContaReferencialRequest;
 import br.com.lalurecf.infrastructure.dto.contareferencial.ImportContaReferencialResponse;
@@ -40,6 +43,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -63,6 +67,7 @@ public class ContaReferencialController {
   private final UpdateContaReferencialUseCase updateContaReferencialUseCase;
   private final ToggleContaReferencialStatusUseCase toggleContaReferencialStatusUseCase;
   private final ImportContaReferencialUseCase importContaReferencialUseCase;
+  private final ResourceVersionRegistry resourceVersionRegistry;
 
   /**
    * Cria uma nova conta referencial RFB.
@@ -105,16 +110,18 @@ public class ContaReferencialController {
    *   <li>Detecta duplicatas no arquivo e no banco
    * </ul>
    *
-   * @param file arquivo CSV/TXT
+   * @param file arquivo CSV/TXT, opcionalmente comprimido em .gz ou .zip
    * @param dryRun se true, apenas retorna preview sem persistir
    * @return relatório detalhado da importação
    */
   @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
   @PreAuthorize("hasRole('ADMIN')")
+  @LimitedConcurrency
   @Operation(
       summary = "Importar contas referenciais via CSV",
       description =
           "Importa múltiplas contas referenciais via arquivo CSV/TXT (ADMIN apenas). "
+              + "Aceita .gz ou .zip com um único arquivo. "
               + "Formato: codigoRfb;descricao;anoValidade")
   public ResponseEntity<ImportContaReferencialResponse> importContasReferenciais(
       @RequestParam("file") MultipartFile file,
@@ -131,9 +138,9 @@ public class ContaReferencialController {
       throw new IllegalArgumentException("File name cannot be empty");
     }
 
-    if (!originalFilename.toLowerCase().endsWith(".csv")
-        && !originalFilename.toLowerCase().endsWith(".txt")) {
-      throw new IllegalArgumentException("File must be CSV or TXT format");
+    String name = originalFilename.toLowerCase().replaceFirst("\\.gz$", "");
+    if (!name.endsWith(".csv") && !name.endsWith(".txt") && !name.endsWith(".zip")) {
+      throw new IllegalArgumentException("File must be CSV or TXT format (optionally .gz or .zip)");
     }
 
     ImportContaReferencialResponse response =
@@ -149,24 +156,36 @@ public class ContaReferencialController {
    * @param anoValidade filtro por ano de validade (opcional)
    * @param includeInactive se deve incluir contas inativas
    * @param pageable configuração de paginação
-   * @return página de contas referenciais
+   * @param webRequest requisição (If-None-Match)
+   * @return página de contas referenciais, ou 304 se o ETag fraco não mudou
    */
   @GetMapping
   @PreAuthorize("hasAnyRole('ADMIN', 'CONTADOR')")
   @Operation(
       summary = "Listar contas referenciais",
-      description = "Lista contas referenciais com paginação e filtros (ADMIN e CONTADOR)")
+      description = "Lista contas referenciais com paginação e filtros (ADMIN e CONTADOR). "
+          + "Retorna ETag fraco e responde 304 a If-None-Match sem alterações.")
   public ResponseEntity<Page<ContaReferencialResponse>> listContasReferenciais(
       @RequestParam(required = false) String search,
       @RequestParam(name = "ano_validade", required = false) Integer anoValidade,
       @RequestParam(name = "include_inactive", required = false, defaultValue = "false")
           Boolean includeInactive,
       @PageableDefault(size = 100, sort = "codigoRfb", direction = Sort.Direction.ASC)
-          Pageable pageable) {
+          Pageable pageable,
+      WebRequest webRequest) {
+    String etag = resourceVersionRegistry.etag(
+        webRequest, null, null, VersionedResource.CONTA_REFERENCIAL);
+    if (webRequest.checkNotModified(etag)) {
+      return null;
+    }
+
     Page<ContaReferencialResponse> response =
         listContaReferencialUseCase.listContasReferenciais(
             search, anoValidade, includeInactive, pageable);
-    return ResponseEntity.ok(response);
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(ResourceVersionRegistry.CACHE_CONTROL)
+        .body(response);
   }
 
   /**
@@ -1,27 +1,44 @@
 package br.com.lalurecf.infrastructure.adapter.in.rest;
 
+import br.com.lalurecf.application.port.in.ecf.DiffEcfFilesUseCase;
 import br.com.lalurecf.application.port.in.ecf.DownloadEcfFileUseCase;
 import br.com.lalurecf.application.port.in.ecf.FinalizeEcfFileUseCase;
 import br.com.lalurecf.application.port.in.ecf.GenerateArquivoParcialUseCase;
 import br.com.lalurecf.application.port.in.ecf.GenerateCompleteEcfUseCase;
+import br.com.lalurecf.application.port.in.ecf.GenerateEcfBatchUseCase;
 import br.com.lalurecf.application.port.in.ecf.ListEcfFilesUseCase;
+import br.com.lalurecf.application.port.in.ecf.ReconcileEcfFileUseCase;
 import br.com.lalurecf.application.port.in.ecf.UploadImportedEcfUseCase;
 import br.com.lalurecf.application.port.in.ecf.ValidateEcfFileUseCase;
 import br.com.lalurecf.domain.enums.EcfFileType;
 import br.com.lalurecf.domain.model.EcfFileDownloadData;
+import br.com.lalurecf.infrastructure.annotation.LimitedConcurrency;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry.VersionedResource;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfBatchGenerationResponse;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfDiffResponse;
 import br.com.lalurecf.infrastructure.dto.ecf.EcfFileListResponse;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfReconciliationResponse;
 import br.com.lalurecf.infrastructure.dto.ecf.FinalizeEcfFileResponse;
 import br.com.lalurecf.infrastructure.dto.ecf.GenerateArquivoParcialResponse;
 import br.com.lalurecf.infrastructure.dto.ecf.GenerateCompleteEcfResponse;
 import br.com.lalurecf.infrastructure.dto.ecf.UploadImportedEcfResponse;
 import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import br.com.lalurecf.infrastructure.exception.ResourceNotFoundException;
 import br.com.lalurecf.infrastructure.security.CompanyContext;
 import br.com.lalurecf.infrastructure.security.FiscalYearContext;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.ZoneId;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -32,9 +49,11 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -52,10 +71,14 @@ public class EcfController {
   private final GenerateArquivoParcialUseCase generateArquivoParcialUseCase;
   private final UploadImportedEcfUseCase uploadImportedEcfUseCase;
   private final GenerateCompleteEcfUseCase generateCompleteEcfUseCase;
+  private final GenerateEcfBatchUseCase generateEcfBatchUseCase;
   private final ValidateEcfFileUseCase validateEcfFileUseCase;
   private final DownloadEcfFileUseCase downloadEcfFileUseCase;
   private final ListEcfFilesUseCase listEcfFilesUseCase;
   private final FinalizeEcfFileUseCase finalizeEcfFileUseCase;
+  private final DiffEcfFilesUseCase diffEcfFilesUseCase;
+  private final ReconcileEcfFileUseCase reconcileEcfFileUseCase;
+  private final ResourceVersionRegistry resourceVersionRegistry;
 
   /**
    * Lista os arquivos ECF de uma empresa para um ano fiscal.
@@ -64,8 +87,13 @@ public class EcfController {
    * Campos são null quando o arquivo ainda não existe para o tipo. Suporta filtro opcional
    * por fileType.
    *
+   * <p>Emite ETag fraco a partir da versão de (empresa, ano fiscal) no
+   * {@link ResourceVersionRegistry}; com {@code If-None-Match} correspondente responde 304 sem
+   * consultar o banco.
+   *
    * @param fileType filtro opcional por tipo de arquivo (ARQUIVO_PARCIAL, IMPORTED_ECF,
    *                 COMPLETE_ECF)
+   * @param webRequest requisição (If-None-Match)
    * @return DTO com sumário de cada tipo de arquivo
    */
   @GetMapping
@@ -75,9 +103,10 @@ public class EcfController {
       description =
           "Retorna sumário dos arquivos ECF (ARQUIVO_PARCIAL, IMPORTED_ECF, COMPLETE_ECF) "
               + "para o ano fiscal informado. Campos null quando arquivo não existe. "
+              + "Retorna ETag fraco e responde 304 a If-None-Match sem alterações. "
               + "Requer headers X-Company-Id e X-Fiscal-Year.")
   public ResponseEntity<EcfFileListResponse> listEcfFiles(
-      @RequestParam(required = false) String fileType) {
+      @RequestParam(required = false) String fileType, WebRequest webRequest) {
 
     Long companyId = CompanyContext.getCurrentCompanyId();
     if (companyId == null) {
@@ -91,11 +120,21 @@ public class EcfController {
           "Fiscal year context is required (header X-Fiscal-Year missing)");
     }
 
+    String etag = resourceVersionRegistry.etag(
+        webRequest, companyId, fiscalYear, VersionedResource.ECF_FILE);
+    if (webRequest.checkNotModified(etag)) {
+      return null;
+    }
+
     log.info("GET /api/v1/ecf - companyId={}, fiscalYear={}, fileType={}",
         companyId, fiscalYear, fileType);
 
     EcfFileListResponse response = listEcfFilesUseCase.list(companyId, fiscalYear, fileType);
-    return ResponseEntity.ok(response);
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(ResourceVersionRegistry.CACHE_CONTROL)
+        .varyBy(ResourceVersionRegistry.VARY_HEADERS)
+        .body(response);
   }
 
   /**
@@ -110,6 +149,7 @@ public class EcfController {
    */
   @PostMapping("/generate-parcial")
   @PreAuthorize("hasRole('CONTADOR')")
+  @LimitedConcurrency
   @Operation(
       summary = "Gerar Arquivo Parcial ECF",
       description =
@@ -144,11 +184,11 @@ public class EcfController {
   /**
    * Faz upload e armazena o ECF Importado de sistema externo.
    *
-   * <p>Valida extensão, tamanho (máx 50MB), formato SPED e presença do bloco M.
+   * <p>Valida extensão, tamanho (ecf.upload.max-size-mb), formato SPED e presença do bloco M.
    * Persiste o arquivo com encoding ISO-8859-1 via upsert. Rebaixa COMPLETE_ECF
    * existente com status VALIDATED ou FINALIZED para DRAFT.
    *
-   * @param file arquivo ECF no formato SPED (extensão .txt)
+   * @param file arquivo ECF no formato SPED (extensão .txt, opcionalmente .txt.gz ou .zip)
    * @param overwrite se true, sobrescreve ECF importada existente; se false e existir, retorna
    *                  aviso com success=false
    * @return metadados do arquivo armazenado
@@ -156,11 +196,14 @@ public class EcfController {
    */
   @PostMapping(value = "/upload-importado", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
   @PreAuthorize("hasRole('CONTADOR')")
+  @LimitedConcurrency
   @Operation(
       summary = "Upload do ECF Importado",
       description =
           "Armazena o ECF gerado por sistema externo (Receita Federal/outro sistema). "
-              + "Valida extensão .txt, tamanho máx 50MB, formato SPED e presença de bloco M. "
+              + "Aceita .txt, .txt.gz ou .zip com um único .txt (descomprimido em streaming). "
+              + "Valida extensão .txt, tamanho máximo configurado (padrão 50MB), formato SPED "
+              + "e presença de bloco M. "
               + "Requer headers X-Company-Id e X-Fiscal-Year.")
   public ResponseEntity<UploadImportedEcfResponse> uploadImportado(
       @RequestParam("file") MultipartFile file,
@@ -185,9 +228,12 @@ public class EcfController {
     log.info("POST /api/v1/ecf/upload-importado - companyId={}, fiscalYear={}, file={}",
         companyId, fiscalYear, file.getOriginalFilename());
 
-    UploadImportedEcfResponse response = uploadImportedEcfUseCase.upload(
-        file.getBytes(), file.getOriginalFilename(), fiscalYear, companyId, generatedBy,
-        overwrite);
+    // O multipart já está em disco (file-size-threshold 0): o conteúdo é repassado em streaming
+    UploadImportedEcfResponse response;
+    try (InputStream content = file.getInputStream()) {
+      response = uploadImportedEcfUseCase.upload(
+          content, file.getOriginalFilename(), fiscalYear, companyId, generatedBy, overwrite);
+    }
 
     return ResponseEntity.ok(response);
   }
@@ -204,6 +250,7 @@ public class EcfController {
    */
   @PostMapping("/generate-completo")
   @PreAuthorize("hasRole('CONTADOR')")
+  @LimitedConcurrency
   @Operation(
       summary = "Gerar ECF Completo",
       description =
@@ -236,6 +283,69 @@ public class EcfController {
     return ResponseEntity.ok(response);
   }
 
+  /**
+   * Inicia a geração em lote dos arquivos ECF de todas as empresas ativas.
+   *
+   * <p>Para cada empresa ACTIVE gera o Arquivo Parcial e, se houver ECF Importado, o ECF
+   * Completo. Cada empresa roda em transação própria com concorrência limitada; falhas são
+   * reportadas por empresa sem interromper o lote e empresas sem lançamentos da Parte B no ano
+   * são reportadas como ignoradas. Não usa X-Company-Id.
+   *
+   * <p>Responde 202 sem aguardar o lote; o andamento é consultado em
+   * {@code GET /ecf/batch/jobs/{jobId}}. Com um lote do ano fiscal em execução, devolve esse
+   * lote.
+   *
+   * @return situação inicial do lote, com o jobId
+   */
+  @PostMapping("/batch/generate")
+  @PreAuthorize("hasRole('CONTADOR')")
+  @LimitedConcurrency
+  @Operation(
+      summary = "Gerar ECF em lote",
+      description =
+          "Inicia a geração do Arquivo Parcial (e do ECF Completo, quando houver ECF Importado) "
+              + "de todas as empresas ativas do ano fiscal e responde 202 com o jobId. "
+              + "Acompanhe em GET /ecf/batch/jobs/{jobId}. Requer header X-Fiscal-Year.")
+  public ResponseEntity<EcfBatchGenerationResponse> generateBatch() {
+
+    Integer fiscalYear = FiscalYearContext.getCurrentFiscalYear();
+    if (fiscalYear == null) {
+      throw new IllegalArgumentException(
+          "Fiscal year context is required (header X-Fiscal-Year missing)");
+    }
+
+    Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+    String generatedBy = authentication != null ? authentication.getName() : "unknown";
+
+    log.info("POST /api/v1/ecf/batch/generate - fiscalYear={}", fiscalYear);
+
+    EcfBatchGenerationResponse response = generateEcfBatchUseCase.start(fiscalYear, generatedBy);
+
+    return ResponseEntity.accepted().body(response);
+  }
+
+  /**
+   * Consulta o andamento de um lote iniciado por {@code POST /ecf/batch/generate}.
+   *
+   * <p>Enquanto o lote está em execução ({@code RUNNING}), retorna os resultados das empresas
+   * já processadas; ao final, o relatório completo.
+   *
+   * @param jobId identificador do lote
+   * @return situação do lote, relatório por empresa e métricas de throughput
+   */
+  @GetMapping("/batch/jobs/{jobId}")
+  @PreAuthorize("hasRole('CONTADOR')")
+  @Operation(
+      summary = "Consultar lote de geração ECF",
+      description =
+          "Retorna a situação do lote (RUNNING, COMPLETED ou FAILED) e o resultado de cada "
+              + "empresa já processada (sucesso, ignorada ou erro).")
+  public ResponseEntity<EcfBatchGenerationResponse> getBatchJob(@PathVariable String jobId) {
+    return generateEcfBatchUseCase.findJob(jobId)
+        .map(ResponseEntity::ok)
+        .orElseThrow(() -> new ResourceNotFoundException("Lote " + jobId + " não encontrado"));
+  }
+
   /**
    * Valida os campos obrigatórios do arquivo ECF conforme layout SPED.
    *
@@ -247,6 +357,7 @@ public class EcfController {
    */
   @PostMapping("/{ecfFileId}/validate")
   @PreAuthorize("hasRole('CONTADOR')")
+  @LimitedConcurrency
   @Operation(
       summary = "Validar arquivo ECF",
       description =
@@ -267,20 +378,113 @@ public class EcfController {
   }
 
   /**
-   * Faz download do arquivo ECF com encoding ISO-8859-1 (padrão SPED).
+   * Compara os blocos M de dois arquivos ECF da empresa.
+   *
+   * <p>Sem parâmetros, compara o IMPORTED_ECF (base) com o COMPLETE_ECF (alvo) do ano fiscal.
+   * Com baseFileId e targetFileId, compara quaisquer duas versões de EcfFile da empresa.
+   *
+   * @param baseFileId ID do arquivo base (opcional)
+   * @param targetFileId ID do arquivo alvo (opcional)
+   * @return blocos M300/M350 adicionados, removidos e alterados, com diferença de valores
+   */
+  @GetMapping("/diff")
+  @PreAuthorize("hasRole('CONTADOR')")
+  @Operation(
+      summary = "Comparar blocos M de arquivos ECF",
+      description =
+          "Compara os blocos M300/M350 por chave {codigoApuracao}|{tipo}|{codigoEnquadramento} "
+              + "e retorna blocos adicionados, removidos e alterados com a diferença do "
+              + "totalValor. Sem IDs, compara IMPORTED_ECF com COMPLETE_ECF do ano fiscal. "
+              + "Requer header X-Company-Id (e X-Fiscal-Year quando os IDs não são informados).")
+  public ResponseEntity<EcfDiffResponse> diffEcfFiles(
+      @RequestParam(required = false) Long baseFileId,
+      @RequestParam(required = false) Long targetFileId) {
+
+    Long companyId = CompanyContext.getCurrentCompanyId();
+    if (companyId == null) {
+      throw new IllegalArgumentException(
+          "Company context é obrigatório (header X-Company-Id ausente)");
+    }
+
+    Integer fiscalYear = FiscalYearContext.getCurrentFiscalYear();
+    if (fiscalYear == null && baseFileId == null && targetFileId == null) {
+      throw new IllegalArgumentException(
+          "Fiscal year context is required (header X-Fiscal-Year missing)");
+    }
+
+    log.info("GET /api/v1/ecf/diff - companyId={}, fiscalYear={}, baseFileId={}, targetFileId={}",
+        companyId, fiscalYear, baseFileId, targetFileId);
+
+    EcfDiffResponse response =
+        diffEcfFilesUseCase.diff(companyId, fiscalYear, baseFileId, targetFileId);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Concilia o bloco M de um arquivo ECF com os Lançamentos da Parte B cadastrados.
+   *
+   * <p>Os totais esperados são calculados no banco para o ano fiscal do arquivo; o arquivo é
+   * lido em streaming até o M990.
+   *
+   * @param ecfFileId ID do arquivo ECF a conciliar
+   * @return totais M300/M350 e M305/M310/M355/M360 divergentes
+   */
+  @GetMapping("/{ecfFileId}/reconciliation")
+  @PreAuthorize("hasRole('CONTADOR')")
+  @Operation(
+      summary = "Conciliar bloco M com lançamentos da Parte B",
+      description =
+          "Compara os totais M300/M350 por {codigoApuracao}|{codigoEnquadramento} e os "
+              + "M305/M310/M355/M360 por conta com os totais dos lançamentos ACTIVE do ano "
+              + "fiscal do arquivo. Retorna apenas as divergências. Requer header X-Company-Id.")
+  public ResponseEntity<EcfReconciliationResponse> reconcileEcfFile(
+      @PathVariable Long ecfFileId) {
+
+    Long companyId = CompanyContext.getCurrentCompanyId();
+    if (companyId == null) {
+      throw new IllegalArgumentException(
+          "Company context é obrigatório (header X-Company-Id ausente)");
+    }
+
+    log.info("GET /api/v1/ecf/{}/reconciliation - companyId={}", ecfFileId, companyId);
+
+    EcfReconciliationResponse response =
+        reconcileEcfFileUseCase.reconcile(ecfFileId, companyId);
+    return ResponseEntity.ok(response);
+  }
+
+  /**
+   * Faz download do arquivo ECF com encoding ISO-8859-1 (padrão SPED), em streaming.
+   *
+   * <p>ETag forte é o hash do conteúdo e Last-Modified a data de geração: If-None-Match e
+   * If-Modified-Since respondem 304 sem ler o conteúdo. Requisições com Range recebem 206
+   * (download retomável). Com {@code Accept-Encoding: gzip} e sem Range, o GZIP armazenado é
+   * entregue sem descompressão, com ETag própria.
+   *
+   * <p>Custo do Range: o conteúdo é lido do armazenamento em trechos, com memória limitada, mas
+   * o GZIP armazenado não tem acesso aleatório. Para servir o fim de um arquivo comprimido, o
+   * conteúdo é descomprimido desde o início e descartado até o offset (CPU proporcional ao
+   * offset, sem reter o arquivo). Conteúdo legado sem compressão pula direto para o offset.
    *
    * @param fileType tipo do arquivo (ARQUIVO_PARCIAL, IMPORTED_ECF, COMPLETE_ECF)
-   * @return arquivo .txt como byte[] com headers Content-Disposition, Content-Type
+   * @param acceptEncoding header Accept-Encoding (opcional)
+   * @param range header Range (opcional)
+   * @return arquivo .txt com headers Content-Disposition, Content-Type, ETag e Last-Modified
    */
   @GetMapping("/download/{fileType}")
   @PreAuthorize("hasRole('CONTADOR')")
   @Operation(
       summary = "Download do arquivo ECF",
       description =
-          "Retorna o arquivo ECF (.txt) com encoding ISO-8859-1. "
+          "Retorna o arquivo ECF (.txt) com encoding ISO-8859-1, em streaming. "
               + "Informe o tipo: ARQUIVO_PARCIAL, IMPORTED_ECF ou COMPLETE_ECF. "
-              + "Requer headers X-Company-Id e X-Fiscal-Year.")
-  public ResponseEntity<byte[]> downloadEcfFile(@PathVariable EcfFileType fileType) {
+              + "Suporta If-None-Match/If-Modified-Since (304), Range (206) e "
+              + "Accept-Encoding: gzip. Requer headers X-Company-Id e X-Fiscal-Year.")
+  public ResponseEntity<Resource> downloadEcfFile(
+      @PathVariable EcfFileType fileType,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          String acceptEncoding,
+      @RequestHeader(value = HttpHeaders.RANGE, required = false) String range) {
 
     Long companyId = CompanyContext.getCurrentCompanyId();
     if (companyId == null) {
@@ -294,17 +498,33 @@ public class EcfController {
           "Fiscal year context is required (header X-Fiscal-Year missing)");
     }
 
-    log.info("GET /api/v1/ecf/download/{} - companyId={}, fiscalYear={}",
-        fileType, companyId, fiscalYear);
+    log.info("GET /api/v1/ecf/download/{} - companyId={}, fiscalYear={}, range={}",
+        fileType, companyId, fiscalYear, range);
 
     EcfFileDownloadData data = downloadEcfFileUseCase.download(fileType, companyId, fiscalYear);
 
-    HttpHeaders headers = new HttpHeaders();
-    headers.setContentType(MediaType.parseMediaType("text/plain; charset=ISO-8859-1"));
-    headers.setContentDispositionFormData("attachment", data.getFileName());
-    headers.setContentLength(data.getFileSizeBytes());
+    // Range se aplica aos bytes do arquivo: com Range a resposta é sempre sem compressão
+    boolean gzip = range == null && acceptsGzip(acceptEncoding);
+
+    ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType("text/plain; charset=ISO-8859-1"))
+        .header(HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(data.getFileName()).build().toString())
+        .eTag(gzip ? data.getContentHash() + "-gzip" : data.getContentHash())
+        .cacheControl(CacheControl.noCache().cachePrivate())
+        .varyBy(HttpHeaders.ACCEPT_ENCODING);
+    if (data.getGeneratedAt() != null) {
+      response.lastModified(data.getGeneratedAt().atZone(ZoneId.systemDefault()));
+    }
 
-    return ResponseEntity.ok().headers(headers).body(data.getContent());
+    // 304 e 206 são resolvidos pelo Spring MVC a partir dos headers e do Resource
+    if (gzip) {
+      return response
+          .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .body(new EcfContentResource(data.getFileName(), -1, data::openGzipContent));
+    }
+    return response.body(
+        new EcfContentResource(data.getFileName(), data.getFileSizeBytes(), data::openContent));
   }
 
   /**
@@ -342,4 +562,67 @@ public class EcfController {
         ecfFileId, companyId, userId);
     return ResponseEntity.ok(response);
   }
+
+  /** Indica se o Accept-Encoding aceita gzip (com qualidade diferente de zero). */
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String codificacao : acceptEncoding.split(",")) {
+      String[] partes = codificacao.trim().split(";");
+      if (partes[0].trim().equalsIgnoreCase("gzip")) {
+        for (int i = 1; i < partes.length; i++) {
+          String parametro = partes[i].replace(" ", "");
+          if (parametro.matches("q=0(\\.0{0,3})?")) {
+            return false;
+          }
+        }
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Conteúdo do ECF aberto sob demanda, a cada escrita do corpo. Com tamanho conhecido, o Spring
+   * MVC atende Range com 206: abre o stream e pula até o início do intervalo (uma abertura por
+   * intervalo em Range múltiplo).
+   */
+  private static final class EcfContentResource extends AbstractResource {
+
+    private final String fileName;
+    private final long contentLength;
+    private final Supplier<InputStream> opener;
+
+    EcfContentResource(String fileName, long contentLength, Supplier<InputStream> opener) {
+      this.fileName = fileName;
+      this.contentLength = contentLength;
+      this.opener = opener;
+    }
+
+    @Override
+    public boolean exists() {
+      return true;
+    }
+
+    @Override
+    public long contentLength() {
+      return contentLength;
+    }
+
+    @Override
+    public String getFilename() {
+      return fileName;
+    }
+
+    @Override
+    public String getDescription() {
+      return "Conteúdo ECF [" + fileName + "]";
+    }
+
+    @Override
+    public InputStream getInputStream() {
+      return opener.get();
+    }
+  }
 }
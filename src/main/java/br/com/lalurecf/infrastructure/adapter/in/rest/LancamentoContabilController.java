@@ -9,6 +9,7 @@ import br.com.lalurecf.application.port.in.lancamentocontabil.ListLancamentoCont
 import br.com.lalurecf.application.port.in.lancamentocontabil.ToggleLancamentoContabilStatusUseCase;
 import br.com.lalurecf.application.port.in.lancamentocontabil.UpdateLancamentoContabilUseCase;
 import br.com.lalurecf.domain.model.LancamentoContabil;
+import br.com.lalurecf.infrastructure.annotation.LimitedConcurrency;
 import br.com.lalurecf.infrastructure.dto.importschema.ImportFieldSchema;
 import br.com.lalurecf.infrastructure.dto.importschema.ImportSchemaResponse;
 import br.com.lalurecf.infrastructure.dto.lancamentocontabil.CreateLancamentoContabilRequest;
@@ -89,12 +90,13 @@ public class LancamentoContabilController {
    *   <li>Valor > 0
    * </ul>
    *
-   * @param file arquivo CSV/TXT (max 50MB)
+   * @param file arquivo CSV/TXT, opcionalmente comprimido em .gz ou .zip (max 50MB descomprimido)
    * @param dryRun se true, apenas retorna preview sem persistir (default: false)
    * @return relatório da importação
    */
   @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
   @PreAuthorize("hasRole('CONTADOR')")
+  @LimitedConcurrency
   public ResponseEntity<ImportLancamentoContabilResponse> importLancamentos(
       @RequestParam("file") MultipartFile file,
       @RequestParam(value = "dryRun", required = false, defaultValue = "false") boolean dryRun) {
@@ -9,6 +9,7 @@ import br.com.lalurecf.application.port.in.lancamentoparteb.UpdateLancamentoPart
 import br.com.lalurecf.domain.enums.TipoAjuste;
 import br.com.lalurecf.domain.enums.TipoApuracao;
 import br.com.lalurecf.domain.enums.TipoRelacionamento;
+import br.com.lalurecf.infrastructure.annotation.LimitedConcurrency;
 import br.com.lalurecf.infrastructure.dto.importschema.ImportFieldSchema;
 import br.com.lalurecf.infrastructure.dto.importschema.ImportSchemaResponse;
 import br.com.lalurecf.infrastructure.dto.lancamentoparteb.CreateLancamentoParteBRequest;
@@ -89,16 +90,17 @@ public class LancamentoParteBController {
    *   <li>valor > 0
    * </ul>
    *
-   * @param file arquivo CSV/TXT (max 50MB)
+   * @param file arquivo CSV/TXT, opcionalmente comprimido em .gz ou .zip (max 50MB descomprimido)
    * @param dryRun se true, apenas retorna preview sem persistir (default: false)
    * @return relatório da importação
    */
   @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
   @PreAuthorize("hasRole('CONTADOR')")
+  @LimitedConcurrency
   @Operation(
       summary = "Importar lançamentos Parte B via CSV",
       description =
-          "Importa lançamentos da Parte B em lote via arquivo CSV/TXT. "
+          "Importa lançamentos da Parte B em lote via arquivo CSV/TXT (aceita .gz/.zip). "
               + "Requer header X-Company-Id. "
               + "Formato: mesReferencia;anoReferencia;tipoApuracao;tipoRelacionamento;"
               + "contaContabilCode;contaParteBCode;parametroTributarioCodigo;"
@@ -9,6 +9,9 @@ import br.com.lalurecf.application.port.in.planodecontas.UpdatePlanoDeContasUseC
 import br.com.lalurecf.domain.enums.AccountType;
 import br.com.lalurecf.domain.enums.ClasseContabil;
 import br.com.lalurecf.domain.enums.NaturezaConta;
+import br.com.lalurecf.infrastructure.annotation.LimitedConcurrency;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry.VersionedResource;
 import br.com.lalurecf.infrastructure.dto.importschema.ImportFieldSchema;
 import br.com.lalurecf.infrastructure.dto.importschema.ImportSchemaResponse;
 import br.com.lalurecf.infrastructure.dto.planodecontas.CreatePlanoDeContasRequest;
@@ -43,6 +46,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 /**
@@ -65,6 +69,7 @@ public class PlanoDeContasController {
   private final UpdatePlanoDeContasUseCase updatePlanoDeContasUseCase;
   private final TogglePlanoDeContasStatusUseCase togglePlanoDeContasStatusUseCase;
   private final ImportPlanoDeContasUseCase importPlanoDeContasUseCase;
+  private final ResourceVersionRegistry resourceVersionRegistry;
 
   /**
    * Cria uma nova conta contábil.
@@ -97,12 +102,13 @@ public class PlanoDeContasController {
    *   <li>Combinação (company + code + fiscalYear) deve ser única
    * </ul>
    *
-   * @param file arquivo CSV/TXT (max 10MB)
+   * @param file arquivo CSV/TXT, opcionalmente comprimido em .gz ou .zip (max 10MB descomprimido)
    * @param dryRun se true, apenas retorna preview sem persistir (default: false)
    * @return relatório da importação
    */
   @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
   @PreAuthorize("hasRole('CONTADOR')")
+  @LimitedConcurrency
   public ResponseEntity<ImportPlanoDeContasResponse> importPlanoDeContas(
       @RequestParam("file") MultipartFile file,
       @RequestParam(value = "dryRun", required = false, defaultValue = "false") boolean dryRun) {
@@ -144,7 +150,9 @@ public class PlanoDeContasController {
    * @param includeInactive incluir contas inativas (default: false)
    * @param leafOnly se true, retorna apenas contas do último nível (default: false)
    * @param pageable configuração de paginação
-   * @return página de contas
+   * @param webRequest requisição (If-None-Match)
+   * @return página de contas, ou 304 se o ETag fraco (versões do plano da empresa/ano e das
+   *     contas referenciais) não mudou
    */
   @GetMapping
   @PreAuthorize("hasRole('CONTADOR')")
@@ -156,17 +164,35 @@ public class PlanoDeContasController {
       @RequestParam(required = false, defaultValue = "false") Boolean includeInactive,
       @RequestParam(required = false, defaultValue = "false") Boolean leafOnly,
       @PageableDefault(size = 100, sort = "code", direction = Sort.Direction.ASC)
-          Pageable pageable) {
-    log.info("GET /api/v1/plano-de-contas - Listing plano de contas, leafOnly={}", leafOnly);
-
+          Pageable pageable,
+      WebRequest webRequest) {
     // Obter ano fiscal do contexto (header X-Fiscal-Year)
     Integer fiscalYear = FiscalYearContext.getCurrentFiscalYear();
 
+    // Versão por (empresa, ano): sem empresa o service rejeita a requisição e sem ano a
+    // listagem abrange todos os anos; nesses casos a resposta não é versionada
+    Long companyId = CompanyContext.getCurrentCompanyId();
+    String etag = companyId != null && fiscalYear != null
+        ? resourceVersionRegistry.etag(webRequest, companyId, fiscalYear,
+            VersionedResource.PLANO_DE_CONTAS, VersionedResource.CONTA_REFERENCIAL)
+        : null;
+    if (etag != null && webRequest.checkNotModified(etag)) {
+      return null;
+    }
+
+    log.info("GET /api/v1/plano-de-contas - Listing plano de contas, leafOnly={}", leafOnly);
+
     Page<PlanoDeContasResponse> response =
         listPlanoDeContasUseCase.execute(
             fiscalYear, accountType, classe, natureza, search, includeInactive, leafOnly,
             pageable);
-    return ResponseEntity.ok(response);
+    ResponseEntity.BodyBuilder ok = ResponseEntity.ok();
+    if (etag != null) {
+      ok.eTag(etag)
+          .cacheControl(ResourceVersionRegistry.CACHE_CONTROL)
+          .varyBy(ResourceVersionRegistry.VARY_HEADERS);
+    }
+    return ok.body(response);
   }
 
   /**
@@ -8,6 +8,8 @@ import br.com.lalurecf.application.port.in.taxparameter.ToggleTaxParameterStatus
 import br.com.lalurecf.application.port.in.taxparameter.UpdateTaxParameterUseCase;
 import br.com.lalurecf.domain.enums.ParameterNature;
 import br.com.lalurecf.domain.enums.Status;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry.VersionedResource;
 import br.com.lalurecf.infrastructure.dto.company.FilterOptionsResponse;
 import br.com.lalurecf.infrastructure.dto.company.ToggleStatusRequest;
 import br.com.lalurecf.infrastructure.dto.company.ToggleStatusResponse;
@@ -35,6 +37,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
  * Controller REST para operações com parâmetros tributários.
@@ -61,6 +64,7 @@ public class TaxParameterController {
   private final UpdateTaxParameterUseCase updateTaxParameterUseCase;
   private final ToggleTaxParameterStatusUseCase toggleTaxParameterStatusUseCase;
   private final GetTaxParameterTypesUseCase getTaxParameterTypesUseCase;
+  private final ResourceVersionRegistry resourceVersionRegistry;
 
   /**
    * Cria um novo parâmetro tributário.
@@ -85,7 +89,8 @@ public class TaxParameterController {
    * @param search busca em código e descrição - opcional
    * @param includeInactive incluir parâmetros inativos
    * @param pageable configuração de paginação
-   * @return página de parâmetros
+   * @param webRequest requisição (If-None-Match)
+   * @return página de parâmetros, ou 304 se o ETag fraco não mudou
    */
   @GetMapping
   @PreAuthorize("hasRole('ADMIN')")
@@ -96,13 +101,23 @@ public class TaxParameterController {
       @RequestParam(required = false) String search,
       @RequestParam(defaultValue = "false") boolean includeInactive,
       @RequestParam(required = false) Boolean fiscalMovementExclusive,
-      @PageableDefault(size = 50, sort = "codigo") Pageable pageable) {
+      @PageableDefault(size = 50, sort = "codigo") Pageable pageable,
+      WebRequest webRequest) {
+
+    String etag = resourceVersionRegistry.etag(
+        webRequest, null, null, VersionedResource.TAX_PARAMETER);
+    if (webRequest.checkNotModified(etag)) {
+      return null;
+    }
 
     log.info("GET /tax-parameters - Listando parâmetros. Nature: {}", nature);
     Page<TaxParameterResponse> response =
         listTaxParametersUseCase.list(type, typeId, nature, search, includeInactive,
             fiscalMovementExclusive, pageable);
-    return ResponseEntity.ok(response);
+    return ResponseEntity.ok()
+        .eTag(etag)
+        .cacheControl(ResourceVersionRegistry.CACHE_CONTROL)
+        .body(response);
   }
 
   /**
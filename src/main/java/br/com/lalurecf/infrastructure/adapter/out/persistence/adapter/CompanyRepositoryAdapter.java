@@ -1,11 +1,15 @@
 package br.com.lalurecf.infrastructure.adapter.out.persistence.adapter;
 
 import br.com.lalurecf.application.port.out.CompanyRepositoryPort;
+import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.model.Company;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.CompanyEntity;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.mapper.CompanyMapper;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.CompanyJpaRepository;
+import br.com.lalurecf.infrastructure.cache.CompanySnapshotCache;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -21,6 +25,7 @@ import org.springframework.stereotype.Component;
  * <ul>
  *   <li>Converter entre domain model (Company) e JPA entity (CompanyEntity)
  *   <li>Delegar operações de persistência ao CompanyJpaRepository
+ *   <li>Servir {@link #findById(Long)} pelo {@link CompanySnapshotCache} (contexto de empresa)
  * </ul>
  */
 @Component
@@ -29,6 +34,7 @@ public class CompanyRepositoryAdapter implements CompanyRepositoryPort {
 
   private final CompanyJpaRepository jpaRepository;
   private final CompanyMapper mapper;
+  private final CompanySnapshotCache snapshotCache;
 
   @Override
   public Optional<Company> findByCnpj(String cnpj) {
@@ -52,13 +58,13 @@ public class CompanyRepositoryAdapter implements CompanyRepositoryPort {
     }
 
     CompanyEntity savedEntity = jpaRepository.save(entity);
+    snapshotCache.evict(savedEntity.getId());
     return mapper.toDomain(savedEntity);
   }
 
   @Override
   public Optional<Company> findById(Long id) {
-    return jpaRepository.findById(id)
-        .map(mapper::toDomain);
+    return snapshotCache.get(id, key -> jpaRepository.findById(key).map(mapper::toDomain));
   }
 
   @Override
@@ -66,4 +72,11 @@ public class CompanyRepositoryAdapter implements CompanyRepositoryPort {
     return jpaRepository.findAll(pageable)
         .map(mapper::toDomain);
   }
+
+  @Override
+  public List<Company> findAllByStatus(Status status) {
+    return jpaRepository.findByStatus(status).stream()
+        .map(mapper::toDomain)
+        .collect(Collectors.toList());
+  }
 }
@@ -5,6 +5,8 @@ import br.com.lalurecf.domain.model.ContaReferencial;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.ContaReferencialEntity;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.mapper.ContaReferencialMapper;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.ContaReferencialJpaRepository;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry.VersionedResource;
 import br.com.lalurecf.infrastructure.security.SpringSecurityAuditorAware;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
@@ -31,6 +33,8 @@ import org.springframework.stereotype.Component;
  * <ul>
  *   <li>Converter entre domain model (ContaReferencial) e JPA entity (ContaReferencialEntity)
  *   <li>Delegar operações de persistência ao ContaReferencialJpaRepository
+ *   <li>Avançar a versão global no {@link ResourceVersionRegistry} a cada escrita (ETag de
+ *       {@code GET /conta-referencial} e {@code GET /plano-de-contas})
  * </ul>
  */
 @Component
@@ -47,9 +51,11 @@ public class ContaReferencialRepositoryAdapter implements ContaReferencialReposi
   private final ContaReferencialMapper mapper;
   private final JdbcTemplate jdbcTemplate;
   private final SpringSecurityAuditorAware auditorAware;
+  private final ResourceVersionRegistry resourceVersionRegistry;
 
   @Override
   public ContaReferencial save(ContaReferencial conta) {
+    resourceVersionRegistry.bump(VersionedResource.CONTA_REFERENCIAL, null, null);
     ContaReferencialEntity entity;
 
     if (conta.getId() != null) {
@@ -73,6 +79,7 @@ public class ContaReferencialRepositoryAdapter implements ContaReferencialReposi
 
   @Override
   public void saveAll(List<ContaReferencial> contas) {
+    resourceVersionRegistry.bump(VersionedResource.CONTA_REFERENCIAL, null, null);
     final long auditorId = auditorAware.getCurrentAuditor().orElse(1L);
     jdbcTemplate.batchUpdate(
         BATCH_INSERT_SQL,
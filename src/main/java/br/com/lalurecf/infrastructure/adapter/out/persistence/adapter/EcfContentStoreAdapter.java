@@ -0,0 +1,488 @@
+package br.com.lalurecf.infrastructure.adapter.out.persistence.adapter;
+
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Objects;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Adapter de persistência para o conteúdo de arquivos ECF ({@code tb_ecf_content}).
+ *
+ * <p>Implementa EcfContentStorePort via JdbcTemplate: o conteúdo é comprimido em GZIP e o SHA-256
+ * é calculado na mesma passada, sem materializar o texto descomprimido. Conteúdo idêntico é
+ * armazenado uma única vez: a gravação é um upsert cujo {@code DO UPDATE} não altera a linha
+ * existente, mas a bloqueia até o fim da transação. Assim um {@link #release} concorrente (que
+ * levaria {@code ref_count} a zero e removeria a linha) espera o {@link #retain} do chamador, em
+ * vez de apagar o conteúdo entre a gravação e a referência. Por isso a gravação exige transação.
+ *
+ * <p>Nenhum dos lados mantém o arquivo inteiro no heap. A gravação comprime para um arquivo
+ * temporário, enviado ao INSERT como stream. A leitura busca o {@code bytea} em trechos de
+ * {@link #SLICE_SIZE} ({@code substring}), um por consulta: o driver do PostgreSQL materializa o
+ * valor inteiro de uma coluna {@code bytea}, inclusive em {@code getBinaryStream}. O GZIP
+ * armazenado não é comprimido de novo pelo TOAST, então cada trecho lê só as páginas que cobre.
+ *
+ * <p>Linhas migradas do antigo {@code tb_ecf_file.content} são lidas com compressão NONE; as que
+ * não cabiam em LATIN1 foram gravadas em UTF8 ({@code charset}) e são convertidas na leitura,
+ * com '?' nos caracteres sem representação (como o download fazia com o texto original).
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class EcfContentStoreAdapter implements EcfContentStorePort {
+
+  private static final String COMPRESSION_GZIP = "GZIP";
+  private static final String COMPRESSION_NONE = "NONE";
+  private static final String CHARSET_UTF8 = "UTF8";
+  private static final int BUFFER_SIZE = 64 * 1024;
+  /** Bytes armazenados lidos por consulta: limite de memória de um stream aberto. */
+  static final int SLICE_SIZE = 1024 * 1024;
+
+  private static final String INSERT_SQL =
+      "INSERT INTO tb_ecf_content "
+          + "(hash, compression, data, size_bytes, compressed_size_bytes, ref_count, criado_em) "
+          + "VALUES (?, ?, ?, ?, ?, 0, CURRENT_TIMESTAMP) "
+          + "ON CONFLICT (hash) DO UPDATE SET ref_count = tb_ecf_content.ref_count";
+
+  private static final String RETAIN_SQL =
+      "UPDATE tb_ecf_content SET ref_count = ref_count + 1 WHERE hash = ?";
+
+  private static final String SELECT_SQL =
+      "SELECT compression, charset, size_bytes, octet_length(data) "
+          + "FROM tb_ecf_content WHERE hash = ?";
+
+  private static final String SELECT_SLICE_SQL =
+      "SELECT substring(data FROM ? FOR ?) FROM tb_ecf_content WHERE hash = ?";
+
+  private static final String RELEASE_SQL =
+      "UPDATE tb_ecf_content SET ref_count = ref_count - 1 WHERE hash = ?";
+
+  private static final String DELETE_UNREFERENCED_SQL =
+      "DELETE FROM tb_ecf_content WHERE hash = ? AND ref_count <= 0";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public StoredContent store(InputStream content) {
+    return write(content::transferTo);
+  }
+
+  @Override
+  @Transactional(propagation = Propagation.MANDATORY)
+  public StoredContent store(ContentWriter writer) {
+    return write(out -> {
+      Writer chars = new OutputStreamWriter(out, StandardCharsets.ISO_8859_1);
+      writer.writeTo(chars);
+      chars.flush();
+    });
+  }
+
+  @Override
+  public InputStream openStream(String hash) {
+    return open(hash, find(hash));
+  }
+
+  @Override
+  public InputStream openGzipStream(String hash) {
+    Blob blob = find(hash);
+    if (COMPRESSION_GZIP.equals(blob.compression())) {
+      return new SliceInputStream(hash, blob.storedBytes());
+    }
+    try {
+      return new GzipCompressingInputStream(open(hash, blob));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Falha ao comprimir conteúdo ECF: " + hash, e);
+    }
+  }
+
+  @Override
+  public byte[] readBytes(String hash) {
+    Blob blob = find(hash);
+    try (InputStream in = open(hash, blob)) {
+      return in.readNBytes(Math.toIntExact(blob.sizeBytes()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Conteúdo ECF corrompido: " + hash, e);
+    }
+  }
+
+  @Override
+  public void retain(String hash) {
+    if (jdbcTemplate.update(RETAIN_SQL, hash) == 0) {
+      throw new IllegalStateException("Conteúdo ECF não encontrado: " + hash);
+    }
+  }
+
+  @Override
+  public void release(String hash) {
+    jdbcTemplate.update(RELEASE_SQL, hash);
+    jdbcTemplate.update(DELETE_UNREFERENCED_SQL, hash);
+  }
+
+  /**
+   * Comprime, calcula o hash e conta linhas numa única passada, para um arquivo temporário, e
+   * grava se o hash ainda não existir; a linha fica bloqueada até o fim da transação.
+   */
+  private StoredContent write(ByteWriter writer) {
+    Path compressed;
+    try {
+      compressed = Files.createTempFile("ecf-content-", ".gz");
+    } catch (IOException e) {
+      throw new UncheckedIOException("Falha ao criar arquivo temporário do conteúdo ECF", e);
+    }
+    try {
+      HashingOutputStream hashing;
+      try (HashingOutputStream out = new HashingOutputStream(
+          new GZIPOutputStream(Files.newOutputStream(compressed), BUFFER_SIZE))) {
+        hashing = out;
+        writer.writeTo(out);
+      }
+
+      String hash = HexFormat.of().formatHex(hashing.digest.digest());
+      long compressedSize = Files.size(compressed);
+      try (InputStream data = Files.newInputStream(compressed)) {
+        jdbcTemplate.update(INSERT_SQL, ps -> {
+          ps.setString(1, hash);
+          ps.setString(2, COMPRESSION_GZIP);
+          ps.setBinaryStream(3, data, compressedSize);
+          ps.setLong(4, hashing.count);
+          ps.setLong(5, compressedSize);
+        });
+      }
+      return new StoredContent(hash, hashing.count, hashing.lineCount());
+    } catch (IOException e) {
+      throw new UncheckedIOException("Falha ao gravar conteúdo ECF", e);
+    } finally {
+      try {
+        Files.deleteIfExists(compressed);
+      } catch (IOException e) {
+        log.warn("Não foi possível remover o arquivo temporário {}: {}",
+            compressed, e.getMessage());
+      }
+    }
+  }
+
+  private Blob find(String hash) {
+    return jdbcTemplate.query(SELECT_SQL, rs -> {
+      if (!rs.next()) {
+        throw new IllegalStateException("Conteúdo ECF não encontrado: " + hash);
+      }
+      return new Blob(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4));
+    }, hash);
+  }
+
+  /** Conteúdo descomprimido em bytes ISO-8859-1, lido em trechos. */
+  private InputStream open(String hash, Blob blob) {
+    InputStream content = new SliceInputStream(hash, blob.storedBytes());
+    try {
+      if (COMPRESSION_GZIP.equals(blob.compression())) {
+        content = new GZIPInputStream(content, BUFFER_SIZE);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Conteúdo ECF corrompido: " + hash, e);
+    }
+    if (CHARSET_UTF8.equals(blob.charset())) {
+      return new Latin1InputStream(new InputStreamReader(content, StandardCharsets.UTF_8));
+    }
+    return content;
+  }
+
+  /**
+   * Metadados do conteúdo armazenado.
+   *
+   * @param sizeBytes tamanho descomprimido em ISO-8859-1
+   * @param storedBytes tamanho do {@code bytea} (comprimido, ou UTF8 nas linhas migradas)
+   */
+  private record Blob(String compression, String charset, long sizeBytes, long storedBytes) {}
+
+  /**
+   * Bytes armazenados de um conteúdo, buscados em trechos de {@link #SLICE_SIZE} sob demanda.
+   * {@link #skip} avança sem buscar os trechos pulados (Range em conteúdo NONE).
+   */
+  private final class SliceInputStream extends InputStream {
+
+    private final String hash;
+    private final long length;
+    /** Offset (0-based) do próximo trecho a buscar. */
+    private long position;
+    private byte[] slice = new byte[0];
+    private int pos;
+
+    SliceInputStream(String hash, long length) {
+      this.hash = hash;
+      this.length = length;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return fill() ? slice[pos++] & 0xFF : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      Objects.checkFromIndexSize(off, len, b.length);
+      if (len == 0) {
+        return 0;
+      }
+      if (!fill()) {
+        return -1;
+      }
+      int n = Math.min(len, slice.length - pos);
+      System.arraycopy(slice, pos, b, off, n);
+      pos += n;
+      return n;
+    }
+
+    @Override
+    public long skip(long n) {
+      if (n <= 0) {
+        return 0;
+      }
+      int buffered = slice.length - pos;
+      if (n <= buffered) {
+        pos += (int) n;
+        return n;
+      }
+      long target = Math.min(length, position + (n - buffered));
+      final long skipped = buffered + (target - position);
+      slice = new byte[0];
+      pos = 0;
+      position = target;
+      return skipped;
+    }
+
+    @Override
+    public int available() {
+      return slice.length - pos;
+    }
+
+    private boolean fill() throws IOException {
+      if (pos < slice.length) {
+        return true;
+      }
+      if (position >= length) {
+        return false;
+      }
+      int size = (int) Math.min(SLICE_SIZE, length - position);
+      // substring do PostgreSQL é 1-based; bytea tem no máximo 1 GB
+      byte[] next = jdbcTemplate.query(SELECT_SLICE_SQL, rs -> rs.next() ? rs.getBytes(1) : null,
+          Math.toIntExact(position + 1), size, hash);
+      if (next == null || next.length == 0) {
+        throw new IOException("Conteúdo ECF removido durante a leitura: " + hash);
+      }
+      slice = next;
+      pos = 0;
+      position += next.length;
+      return true;
+    }
+  }
+
+  /**
+   * Caracteres convertidos para ISO-8859-1, com '?' nos que não têm representação (um por
+   * caractere, inclusive pares de surrogates), como {@code String.getBytes(ISO_8859_1)}.
+   */
+  private static final class Latin1InputStream extends InputStream {
+
+    private final Reader reader;
+    private final char[] chars = new char[BUFFER_SIZE];
+    private final byte[] single = new byte[1];
+    private int pos;
+    private int limit;
+    private boolean afterHighSurrogate;
+
+    Latin1InputStream(Reader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public int read() throws IOException {
+      return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      Objects.checkFromIndexSize(off, len, b.length);
+      if (len == 0) {
+        return 0;
+      }
+      int n = 0;
+      while (n < len) {
+        if (pos == limit) {
+          if (n > 0) {
+            break;
+          }
+          limit = reader.read(chars);
+          pos = 0;
+          if (limit < 0) {
+            limit = 0;
+            return -1;
+          }
+        }
+        char c = chars[pos++];
+        if (afterHighSurrogate && Character.isLowSurrogate(c)) {
+          afterHighSurrogate = false;
+          continue;
+        }
+        afterHighSurrogate = Character.isHighSurrogate(c);
+        b[off + n++] = c <= 0xFF ? (byte) c : (byte) '?';
+      }
+      return n;
+    }
+
+    @Override
+    public void close() throws IOException {
+      reader.close();
+    }
+  }
+
+  /** Comprime em GZIP, sob demanda, o que lê da origem: memória limitada a um bloco. */
+  private static final class GzipCompressingInputStream extends InputStream {
+
+    private final InputStream source;
+    private final PendingBuffer pending = new PendingBuffer();
+    private final GZIPOutputStream gzip;
+    private final byte[] input = new byte[BUFFER_SIZE];
+    private final byte[] single = new byte[1];
+    private boolean finished;
+
+    GzipCompressingInputStream(InputStream source) throws IOException {
+      this.source = source;
+      this.gzip = new GZIPOutputStream(pending, BUFFER_SIZE);
+    }
+
+    @Override
+    public int read() throws IOException {
+      return read(single, 0, 1) < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      Objects.checkFromIndexSize(off, len, b.length);
+      if (len == 0) {
+        return 0;
+      }
+      while (pending.remaining() == 0) {
+        if (finished) {
+          return -1;
+        }
+        int n = source.read(input);
+        if (n < 0) {
+          gzip.finish();
+          finished = true;
+        } else {
+          gzip.write(input, 0, n);
+        }
+      }
+      return pending.drainTo(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+      try {
+        source.close();
+      } finally {
+        gzip.close();
+      }
+    }
+  }
+
+  /** Saída do GZIP ainda não lida, consumida em ordem e reaproveitada quando esvazia. */
+  private static final class PendingBuffer extends ByteArrayOutputStream {
+
+    private int drained;
+
+    PendingBuffer() {
+      super(BUFFER_SIZE);
+    }
+
+    int remaining() {
+      return count - drained;
+    }
+
+    int drainTo(byte[] b, int off, int len) {
+      int n = Math.min(len, count - drained);
+      System.arraycopy(buf, drained, b, off, n);
+      drained += n;
+      if (drained == count) {
+        reset();
+        drained = 0;
+      }
+      return n;
+    }
+  }
+
+  @FunctionalInterface
+  private interface ByteWriter {
+    void writeTo(OutputStream out) throws IOException;
+  }
+
+  /** Calcula SHA-256, tamanho e linhas dos bytes descomprimidos antes de repassá-los ao GZIP. */
+  private static final class HashingOutputStream extends FilterOutputStream {
+
+    private final MessageDigest digest;
+    private long count;
+    private int newLines;
+    private int lastByte = '\n';
+
+    HashingOutputStream(OutputStream out) {
+      super(out);
+      try {
+        this.digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException("SHA-256 indisponível", e);
+      }
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      digest.update((byte) b);
+      count++;
+      if ((byte) b == '\n') {
+        newLines++;
+      }
+      lastByte = (byte) b;
+      out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      digest.update(b, off, len);
+      count += len;
+      for (int i = off, end = off + len; i < end; i++) {
+        if (b[i] == '\n') {
+          newLines++;
+        }
+      }
+      if (len > 0) {
+        lastByte = b[off + len - 1];
+      }
+      out.write(b, off, len);
+    }
+
+    /** Linhas terminadas em {@code \n}, mais a última se o conteúdo não terminar em quebra. */
+    int lineCount() {
+      return lastByte == '\n' ? newLines : newLines + 1;
+    }
+  }
+}
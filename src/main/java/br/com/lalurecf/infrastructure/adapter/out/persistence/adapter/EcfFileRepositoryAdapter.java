@@ -1,5 +1,7 @@
 package br.com.lalurecf.infrastructure.adapter.out.persistence.adapter;
 
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfFileMetadata;
 import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
 import br.com.lalurecf.domain.enums.EcfFileType;
 import br.com.lalurecf.domain.model.EcfFile;
@@ -8,6 +10,8 @@ import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.EcfFileEnti
 import br.com.lalurecf.infrastructure.adapter.out.persistence.mapper.EcfFileMapper;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.CompanyJpaRepository;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.EcfFileJpaRepository;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry.VersionedResource;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -21,6 +25,11 @@ import org.springframework.stereotype.Component;
  *
  * <p>O método {@link #saveOrReplace} implementa semântica de upsert: busca por
  * (fileType, companyId, fiscalYear) e atualiza se existir, insere se não existir.
+ * Também mantém a contagem de referências do conteúdo no {@link EcfContentStorePort}: o hash
+ * novo é retido e o anterior liberado (e removido quando nenhum arquivo o referencia mais).
+ *
+ * <p>Cada gravação avança a versão de (empresa, ano fiscal) no {@link ResourceVersionRegistry},
+ * invalidando o ETag de {@code GET /ecf}.
  */
 @Component
 @RequiredArgsConstructor
@@ -29,16 +38,24 @@ public class EcfFileRepositoryAdapter implements EcfFileRepositoryPort {
   private final EcfFileJpaRepository jpaRepository;
   private final CompanyJpaRepository companyJpaRepository;
   private final EcfFileMapper mapper;
+  private final EcfContentStorePort ecfContentStorePort;
+  private final ResourceVersionRegistry resourceVersionRegistry;
 
   @Override
   public EcfFile saveOrReplace(EcfFile ecfFile) {
+    resourceVersionRegistry.bump(
+        VersionedResource.ECF_FILE, ecfFile.getCompanyId(), ecfFile.getFiscalYear());
     Optional<EcfFileEntity> existing = jpaRepository.findByCompanyIdAndFiscalYearAndFileType(
         ecfFile.getCompanyId(), ecfFile.getFiscalYear(), ecfFile.getFileType());
 
     EcfFileEntity entity;
+    String previousHash = null;
     if (existing.isPresent()) {
       entity = existing.get();
-      entity.setContent(ecfFile.getContent());
+      previousHash = entity.getContentHash();
+      entity.setContentHash(ecfFile.getContentHash());
+      entity.setSizeBytes(ecfFile.getSizeBytes());
+      entity.setLineCount(ecfFile.getLineCount());
       entity.setFileName(ecfFile.getFileName());
       entity.setFileStatus(ecfFile.getFileStatus());
       entity.setValidationErrors(ecfFile.getValidationErrors());
@@ -56,7 +73,17 @@ public class EcfFileRepositoryAdapter implements EcfFileRepositoryPort {
       entity.setSourceParcialFile(resolveSourceEcf(ecfFile.getSourceParcialFileId()));
     }
 
-    return mapper.toDomain(jpaRepository.save(entity));
+    if (ecfFile.getContentHash().equals(previousHash)) {
+      return mapper.toDomain(jpaRepository.save(entity));
+    }
+
+    // Flush antes de liberar: o conteúdo anterior só pode ser removido sem referências (FK)
+    ecfContentStorePort.retain(ecfFile.getContentHash());
+    EcfFileEntity saved = jpaRepository.saveAndFlush(entity);
+    if (previousHash != null) {
+      ecfContentStorePort.release(previousHash);
+    }
+    return mapper.toDomain(saved);
   }
 
   @Override
@@ -71,6 +98,12 @@ public class EcfFileRepositoryAdapter implements EcfFileRepositoryPort {
         .collect(Collectors.toList());
   }
 
+  @Override
+  public List<EcfFileMetadata> findMetadataByCompanyAndFiscalYear(
+      Long companyId, Integer fiscalYear) {
+    return jpaRepository.findMetadataByCompanyIdAndFiscalYear(companyId, fiscalYear);
+  }
+
   @Override
   public Optional<EcfFile> findByCompanyAndFiscalYearAndType(
       Long companyId, Integer fiscalYear, EcfFileType type) {
@@ -78,6 +111,12 @@ public class EcfFileRepositoryAdapter implements EcfFileRepositoryPort {
         .map(mapper::toDomain);
   }
 
+  @Override
+  public boolean existsByCompanyAndFiscalYearAndType(
+      Long companyId, Integer fiscalYear, EcfFileType type) {
+    return jpaRepository.existsByCompanyIdAndFiscalYearAndFileType(companyId, fiscalYear, type);
+  }
+
   private EcfFileEntity resolveSourceEcf(Long id) {
     if (id == null) {
       return null;
@@ -0,0 +1,75 @@
+package br.com.lalurecf.infrastructure.adapter.out.persistence.adapter;
+
+import br.com.lalurecf.application.port.out.EcfValidationResultPort;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.List;
+import java.util.Optional;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Adapter de persistência para resultados de validação ECF ({@code tb_ecf_validation_result}).
+ *
+ * <p>Implementa EcfValidationResultPort via JdbcTemplate. Erros e avisos são gravados como JSON
+ * arrays, na ordem original. A gravação usa {@code ON CONFLICT DO NOTHING}: validações
+ * simultâneas do mesmo conteúdo produzem o mesmo resultado, então a primeira prevalece.
+ */
+@Component
+@RequiredArgsConstructor
+public class EcfValidationResultAdapter implements EcfValidationResultPort {
+
+  private static final TypeReference<List<String>> LISTA = new TypeReference<>() { };
+
+  private static final String SELECT_SQL =
+      "SELECT errors, warnings FROM tb_ecf_validation_result "
+          + "WHERE content_hash = ? AND file_type = ? AND validator_version = ?";
+
+  private static final String INSERT_SQL =
+      "INSERT INTO tb_ecf_validation_result "
+          + "(content_hash, file_type, validator_version, valid, errors, warnings, criado_em) "
+          + "VALUES (?, ?, ?, ?, ?, ?, CURRENT_TIMESTAMP) "
+          + "ON CONFLICT (content_hash, file_type, validator_version) DO NOTHING";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final ObjectMapper objectMapper;
+
+  @Override
+  public Optional<ValidationResult> find(
+      String contentHash, EcfFileType fileType, int validatorVersion) {
+    List<ValidationResult> found = jdbcTemplate.query(SELECT_SQL,
+        (rs, rowNum) -> toResult(rs.getString(1), rs.getString(2)),
+        contentHash, fileType.name(), validatorVersion);
+    return found.stream().findFirst();
+  }
+
+  @Override
+  public void save(String contentHash, EcfFileType fileType, int validatorVersion,
+      ValidationResult result) {
+    jdbcTemplate.update(INSERT_SQL, contentHash, fileType.name(), validatorVersion,
+        result.isValid(), toJson(result.getErrors()), toJson(result.getWarnings()));
+  }
+
+  private ValidationResult toResult(String errors, String warnings) {
+    ValidationResult result = new ValidationResult();
+    try {
+      objectMapper.readValue(errors, LISTA).forEach(result::addError);
+      objectMapper.readValue(warnings, LISTA).forEach(result::addWarning);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Resultado de validação ECF corrompido", e);
+    }
+    return result;
+  }
+
+  private String toJson(List<String> messages) {
+    try {
+      return objectMapper.writeValueAsString(messages);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Falha ao serializar resultado de validação ECF", e);
+    }
+  }
+}
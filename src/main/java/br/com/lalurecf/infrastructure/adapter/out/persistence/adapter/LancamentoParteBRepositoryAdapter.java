@@ -1,9 +1,12 @@
 package br.com.lalurecf.infrastructure.adapter.out.persistence.adapter;
 
+import br.com.lalurecf.application.port.out.LancamentoParteBAgregado;
 import br.com.lalurecf.application.port.out.LancamentoParteBRepositoryPort;
+import br.com.lalurecf.application.port.out.LancamentoParteBTotal;
 import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.enums.TipoAjuste;
 import br.com.lalurecf.domain.enums.TipoApuracao;
+import br.com.lalurecf.domain.enums.TipoRelacionamento;
 import br.com.lalurecf.domain.model.LancamentoParteB;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.CompanyEntity;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.ContaParteBEntity;
@@ -61,6 +64,42 @@ public class LancamentoParteBRepositoryAdapter implements LancamentoParteBReposi
           + "status, criado_em, atualizado_em, criado_por, atualizado_por) "
           + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 'ACTIVE', NOW(), NOW(), ?, ?)";
 
+  private static final String AGREGADOS_SQL =
+      "SELECT tipo_apuracao, mes_referencia, parametro_tributario_id, tipo_relacionamento, "
+          + "conta_parte_b_id, conta_contabil_id, tipo_ajuste, "
+          + "SUM(valor) AS valor_total, COUNT(*) AS quantidade, MIN(id) AS primeiro_id, "
+          + "(ARRAY_AGG(descricao ORDER BY id))[1] AS primeira_descricao "
+          + "FROM tb_lancamento_parte_b "
+          + "WHERE company_id = ? AND ano_referencia = ? AND status = 'ACTIVE' "
+          + "GROUP BY tipo_apuracao, mes_referencia, parametro_tributario_id, "
+          + "tipo_relacionamento, conta_parte_b_id, conta_contabil_id, tipo_ajuste "
+          + "ORDER BY tipo_apuracao, mes_referencia, primeiro_id";
+
+  /**
+   * Totais do bloco M em uma varredura: GROUPING SETS por enquadramento, por conta da Parte B
+   * e por conta contábil. nivel = GROUPING(conta_contabil, conta_parte_b): 3 = enquadramento,
+   * 2 = conta da Parte B, 1 = conta contábil.
+   */
+  private static final String TOTAIS_BLOCO_M_SQL =
+      "SELECT tipo_apuracao, mes_referencia, codigo, conta_parte_b, conta_contabil, "
+          + "GROUPING(conta_contabil, conta_parte_b) AS nivel, SUM(valor) AS valor_total "
+          + "FROM (SELECT l.tipo_apuracao, l.mes_referencia, p.codigo, l.valor, "
+          + "CASE WHEN l.tipo_relacionamento IN ('CONTA_PARTE_B', 'AMBOS') "
+          + "THEN cb.codigo_conta END AS conta_parte_b, "
+          + "CASE WHEN l.tipo_relacionamento IN ('CONTA_CONTABIL', 'AMBOS') "
+          + "THEN pc.code END AS conta_contabil "
+          + "FROM tb_lancamento_parte_b l "
+          + "JOIN tb_parametros_tributarios p ON p.id = l.parametro_tributario_id "
+          + "LEFT JOIN tb_conta_parte_b cb ON cb.id = l.conta_parte_b_id "
+          + "LEFT JOIN tb_plano_de_contas pc ON pc.id = l.conta_contabil_id "
+          + "WHERE l.company_id = ? AND l.ano_referencia = ? AND l.status = 'ACTIVE') t "
+          + "GROUP BY GROUPING SETS ("
+          + "(tipo_apuracao, mes_referencia, codigo), "
+          + "(tipo_apuracao, mes_referencia, codigo, conta_parte_b), "
+          + "(tipo_apuracao, mes_referencia, codigo, conta_contabil)) "
+          + "ORDER BY tipo_apuracao, mes_referencia, codigo, nivel DESC, "
+          + "conta_parte_b, conta_contabil";
+
   private final LancamentoParteBJpaRepository jpaRepository;
   private final CompanyJpaRepository companyJpaRepository;
   private final PlanoDeContasJpaRepository planoDeContasJpaRepository;
@@ -201,6 +240,62 @@ public class LancamentoParteBRepositoryAdapter implements LancamentoParteBReposi
         .collect(Collectors.toList());
   }
 
+  @Override
+  public List<LancamentoParteBAgregado> findAgregadosAtivosByCompanyIdAndAnoReferencia(
+      Long companyId, Integer anoReferencia) {
+    return jdbcTemplate.query(
+        AGREGADOS_SQL,
+        (rs, rowNum) ->
+            new LancamentoParteBAgregado(
+                TipoApuracao.valueOf(rs.getString("tipo_apuracao")),
+                rs.getInt("mes_referencia"),
+                rs.getLong("parametro_tributario_id"),
+                TipoRelacionamento.valueOf(rs.getString("tipo_relacionamento")),
+                rs.getObject("conta_parte_b_id", Long.class),
+                rs.getObject("conta_contabil_id", Long.class),
+                TipoAjuste.valueOf(rs.getString("tipo_ajuste")),
+                rs.getBigDecimal("valor_total"),
+                rs.getLong("quantidade"),
+                rs.getLong("primeiro_id"),
+                rs.getString("primeira_descricao")),
+        companyId,
+        anoReferencia);
+  }
+
+  @Override
+  public List<LancamentoParteBTotal> findTotaisBlocoMAtivosByCompanyIdAndAnoReferencia(
+      Long companyId, Integer anoReferencia) {
+    List<LancamentoParteBTotal> totais = new ArrayList<>();
+    jdbcTemplate.query(
+        TOTAIS_BLOCO_M_SQL,
+        rs -> {
+          LancamentoParteBTotal.Nivel nivel = switch (rs.getInt("nivel")) {
+            case 3 -> LancamentoParteBTotal.Nivel.ENQUADRAMENTO;
+            case 2 -> LancamentoParteBTotal.Nivel.CONTA_PARTE_B;
+            default -> LancamentoParteBTotal.Nivel.CONTA_CONTABIL;
+          };
+          String conta = switch (nivel) {
+            case ENQUADRAMENTO -> null;
+            case CONTA_PARTE_B -> rs.getString("conta_parte_b");
+            case CONTA_CONTABIL -> rs.getString("conta_contabil");
+          };
+          // Lançamentos sem conta do nível formam um grupo com conta nula: não geram registro
+          if (nivel != LancamentoParteBTotal.Nivel.ENQUADRAMENTO && conta == null) {
+            return;
+          }
+          totais.add(new LancamentoParteBTotal(
+              TipoApuracao.valueOf(rs.getString("tipo_apuracao")),
+              rs.getInt("mes_referencia"),
+              rs.getString("codigo"),
+              nivel,
+              conta,
+              rs.getBigDecimal("valor_total")));
+        },
+        companyId,
+        anoReferencia);
+    return totais;
+  }
+
   @Override
   public Page<LancamentoParteB> findByCompanyId(Long companyId, Pageable pageable) {
     return jpaRepository.findByCompanyId(companyId, pageable).map(mapper::toDomain);
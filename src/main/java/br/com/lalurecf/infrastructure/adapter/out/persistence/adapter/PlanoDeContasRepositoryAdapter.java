@@ -11,6 +11,8 @@ import br.com.lalurecf.infrastructure.adapter.out.persistence.mapper.PlanoDeCont
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.CompanyJpaRepository;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.ContaReferencialJpaRepository;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.PlanoDeContasJpaRepository;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry.VersionedResource;
 import br.com.lalurecf.infrastructure.security.SpringSecurityAuditorAware;
 import jakarta.persistence.criteria.Predicate;
 import java.sql.PreparedStatement;
@@ -40,6 +42,8 @@ import org.springframework.stereotype.Component;
  * <ul>
  *   <li>Converter entre domain model (PlanoDeContas) e JPA entity (PlanoDeContasEntity)
  *   <li>Delegar operações de persistência ao PlanoDeContasJpaRepository
+ *   <li>Avançar a versão de (empresa, ano fiscal) no {@link ResourceVersionRegistry} a cada
+ *       escrita (ETag de {@code GET /plano-de-contas})
  * </ul>
  */
 @Component
@@ -59,9 +63,12 @@ public class PlanoDeContasRepositoryAdapter implements PlanoDeContasRepositoryPo
   private final ContaReferencialJpaRepository contaReferencialJpaRepository;
   private final JdbcTemplate jdbcTemplate;
   private final SpringSecurityAuditorAware auditorAware;
+  private final ResourceVersionRegistry resourceVersionRegistry;
 
   @Override
   public PlanoDeContas save(PlanoDeContas account) {
+    resourceVersionRegistry.bump(
+        VersionedResource.PLANO_DE_CONTAS, account.getCompanyId(), account.getFiscalYear());
     PlanoDeContasEntity entity;
 
     if (account.getId() != null) {
@@ -94,6 +101,11 @@ public class PlanoDeContasRepositoryAdapter implements PlanoDeContasRepositoryPo
 
   @Override
   public void saveAll(List<PlanoDeContas> accounts) {
+    accounts.stream()
+        .collect(Collectors.groupingBy(PlanoDeContas::getCompanyId,
+            Collectors.mapping(PlanoDeContas::getFiscalYear, Collectors.toSet())))
+        .forEach((companyId, anos) -> anos.forEach(ano -> resourceVersionRegistry.bump(
+            VersionedResource.PLANO_DE_CONTAS, companyId, ano)));
     final long auditorId = auditorAware.getCurrentAuditor().orElse(1L);
     jdbcTemplate.batchUpdate(
         BATCH_INSERT_SQL,
@@ -156,6 +168,7 @@ public class PlanoDeContasRepositoryAdapter implements PlanoDeContasRepositoryPo
 
   @Override
   public void deleteById(Long id) {
+    resourceVersionRegistry.bumpAll(VersionedResource.PLANO_DE_CONTAS);
     jpaRepository.deleteById(id);
   }
 
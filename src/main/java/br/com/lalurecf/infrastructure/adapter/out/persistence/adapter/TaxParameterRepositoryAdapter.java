@@ -5,6 +5,8 @@ import br.com.lalurecf.domain.model.TaxParameter;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.TaxParameterEntity;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.mapper.TaxParameterMapper;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.TaxParameterJpaRepository;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry.VersionedResource;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
@@ -20,6 +22,9 @@ import org.springframework.stereotype.Component;
  *
  * <p>Faz a ponte entre a camada de aplicação (ports) e a infraestrutura (JPA),
  * convertendo entre modelos de domínio e entidades JPA usando MapStruct.
+ *
+ * <p>Cada gravação avança a versão global no {@link ResourceVersionRegistry} (ETag de
+ * {@code GET /tax-parameters}).
  */
 @Component
 @RequiredArgsConstructor
@@ -27,6 +32,7 @@ public class TaxParameterRepositoryAdapter implements TaxParameterRepositoryPort
 
   private final TaxParameterJpaRepository jpaRepository;
   private final TaxParameterMapper mapper;
+  private final ResourceVersionRegistry resourceVersionRegistry;
 
   @Override
   public Optional<TaxParameter> findByCode(String code) {
@@ -36,6 +42,7 @@ public class TaxParameterRepositoryAdapter implements TaxParameterRepositoryPort
 
   @Override
   public TaxParameter save(TaxParameter taxParameter) {
+    resourceVersionRegistry.bump(VersionedResource.TAX_PARAMETER, null, null);
     TaxParameterEntity entity = mapper.toEntity(taxParameter);
     TaxParameterEntity saved = jpaRepository.save(entity);
     return mapper.toDomain(saved);
@@ -6,6 +6,8 @@ import br.com.lalurecf.domain.model.TaxParameterType;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.TaxParameterTypeEntity;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.mapper.TaxParameterTypeMapper;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.TaxParameterTypeJpaRepository;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry;
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry.VersionedResource;
 import java.util.List;
 import java.util.Optional;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +18,9 @@ import org.springframework.stereotype.Component;
  *
  * <p>Faz a ponte entre a camada de aplicação (ports) e a infraestrutura (JPA), convertendo entre
  * modelos de domínio e entidades JPA usando MapStruct.
+ *
+ * <p>Os parâmetros tributários listados incluem o tipo: cada gravação avança a versão de
+ * parâmetros tributários no {@link ResourceVersionRegistry}.
  */
 @Component
 @RequiredArgsConstructor
@@ -23,9 +28,11 @@ public class TaxParameterTypeRepositoryAdapter implements TaxParameterTypeReposi
 
   private final TaxParameterTypeJpaRepository jpaRepository;
   private final TaxParameterTypeMapper mapper;
+  private final ResourceVersionRegistry resourceVersionRegistry;
 
   @Override
   public TaxParameterType save(TaxParameterType taxParameterType) {
+    resourceVersionRegistry.bump(VersionedResource.TAX_PARAMETER, null, null);
     TaxParameterTypeEntity entity = mapper.toEntity(taxParameterType);
     TaxParameterTypeEntity saved = jpaRepository.save(entity);
     return mapper.toDomain(saved);
@@ -0,0 +1,69 @@
+package br.com.lalurecf.infrastructure.adapter.out.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Entidade JPA do conteúdo de arquivos ECF, endereçado pelo SHA-256 dos bytes ISO-8859-1.
+ *
+ * <p>Arquivos com conteúdo idêntico compartilham a mesma linha; {@code refCount} conta quantos
+ * {@link EcfFileEntity} apontam para ela. Leitura e escrita passam pelo
+ * {@code EcfContentStoreAdapter} (JDBC), que comprime/descomprime em streaming — esta entidade
+ * existe para mapear o schema.
+ *
+ * <p>Nota: Esta entidade NÃO estende BaseEntity pois não possui soft delete — o conteúdo é
+ * removido fisicamente quando deixa de ser referenciado.
+ */
+@Entity
+@Table(name = "tb_ecf_content")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EcfContentEntity {
+
+  /** SHA-256 (hex, minúsculo) do conteúdo descomprimido. */
+  @Id
+  @Column(name = "hash", length = 64)
+  private String hash;
+
+  /** Compressão aplicada em {@code data}: GZIP ou NONE (linhas migradas). */
+  @Column(name = "compression", nullable = false, length = 10)
+  private String compression;
+
+  /**
+   * Codificação de {@code data}: LATIN1, ou UTF8 para linhas migradas com caracteres fora do
+   * ISO-8859-1 (convertidas na leitura).
+   */
+  @Column(name = "charset", nullable = false, length = 10)
+  private String charset;
+
+  /** Conteúdo (comprimido conforme {@code compression}). */
+  @Column(name = "data", nullable = false)
+  private byte[] data;
+
+  /** Tamanho do conteúdo descomprimido em bytes. */
+  @Column(name = "size_bytes", nullable = false)
+  private Long sizeBytes;
+
+  /** Tamanho armazenado em {@code data}. */
+  @Column(name = "compressed_size_bytes", nullable = false)
+  private Long compressedSizeBytes;
+
+  /** Quantidade de arquivos ECF que referenciam este conteúdo. */
+  @Column(name = "ref_count", nullable = false)
+  private Integer refCount;
+
+  /** Timestamp de gravação do conteúdo. */
+  @Column(name = "criado_em", nullable = false)
+  private LocalDateTime createdAt;
+}
@@ -22,7 +22,8 @@ import lombok.experimental.SuperBuilder;
  * Entidade JPA para arquivo ECF.
  *
  * <p>Armazena os três tipos de arquivo ECF: ARQUIVO_PARCIAL, IMPORTED_ECF e COMPLETE_ECF.
- * O conteúdo é persistido como TEXT (sem limite de tamanho no PostgreSQL).
+ * O conteúdo fica em {@code tb_ecf_content} (comprimido, endereçado por SHA-256 e compartilhado
+ * entre arquivos idênticos); aqui é persistido apenas o hash.
  *
  * <p>Constraint único: (file_type, company_id, fiscal_year) garante um arquivo por tipo
  * por empresa por ano — suporta semântica de upsert (saveOrReplace).
@@ -55,9 +56,17 @@ public class EcfFileEntity extends BaseEntity {
   @Column(name = "fiscal_year", nullable = false)
   private Integer fiscalYear;
 
-  /** Conteúdo do arquivo ECF em formato texto ISO-8859-1. */
-  @Column(name = "content", nullable = false, columnDefinition = "TEXT")
-  private String content;
+  /** SHA-256 do conteúdo em {@code tb_ecf_content}. */
+  @Column(name = "content_hash", nullable = false, length = 64)
+  private String contentHash;
+
+  /** Tamanho do conteúdo em bytes ISO-8859-1. */
+  @Column(name = "size_bytes")
+  private Long sizeBytes;
+
+  /** Quantidade de linhas do conteúdo. */
+  @Column(name = "line_count")
+  private Integer lineCount;
 
   /** Nome do arquivo para download. */
   @Column(name = "file_name", length = 255)
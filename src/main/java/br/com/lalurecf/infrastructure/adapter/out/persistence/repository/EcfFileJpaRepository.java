@@ -1,10 +1,13 @@
 package br.com.lalurecf.infrastructure.adapter.out.persistence.repository;
 
+import br.com.lalurecf.application.port.out.EcfFileMetadata;
 import br.com.lalurecf.domain.enums.EcfFileType;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.EcfFileEntity;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 /**
@@ -36,4 +39,37 @@ public interface EcfFileJpaRepository extends JpaRepository<EcfFileEntity, Long>
    * @return lista de entities
    */
   List<EcfFileEntity> findByCompanyIdAndFiscalYear(Long companyId, Integer fiscalYear);
+
+  /**
+   * Lista os metadados dos arquivos ECF de uma empresa para um ano fiscal.
+   *
+   * <p>Projeção por construtor: seleciona apenas colunas de {@code tb_ecf_file}, sem hidratar
+   * entidades. As referências de source usam LEFT JOIN (são opcionais).
+   *
+   * @param companyId ID da empresa
+   * @param fiscalYear ano fiscal
+   * @return metadados dos arquivos
+   */
+  @Query(
+      "SELECT new br.com.lalurecf.application.port.out.EcfFileMetadata("
+          + "f.id, f.fileType, f.fiscalYear, f.fileName, f.contentHash, f.sizeBytes, "
+          + "f.lineCount, f.fileStatus, f.validationErrors, f.generatedAt, f.generatedBy, "
+          + "si.id, sp.id) "
+          + "FROM EcfFileEntity f "
+          + "LEFT JOIN f.sourceImportedEcf si "
+          + "LEFT JOIN f.sourceParcialFile sp "
+          + "WHERE f.company.id = :companyId AND f.fiscalYear = :fiscalYear")
+  List<EcfFileMetadata> findMetadataByCompanyIdAndFiscalYear(
+      @Param("companyId") Long companyId, @Param("fiscalYear") Integer fiscalYear);
+
+  /**
+   * Verifica existência de arquivo ECF por empresa, ano fiscal e tipo (sem carregar content).
+   *
+   * @param companyId ID da empresa
+   * @param fiscalYear ano fiscal
+   * @param fileType tipo do arquivo
+   * @return true se existir
+   */
+  boolean existsByCompanyIdAndFiscalYearAndFileType(
+      Long companyId, Integer fiscalYear, EcfFileType fileType);
 }
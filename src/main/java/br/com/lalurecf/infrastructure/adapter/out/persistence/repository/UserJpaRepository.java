@@ -2,10 +2,12 @@ package br.com.lalurecf.infrastructure.adapter.out.persistence.repository;
 
 import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.UserEntity;
+import java.util.List;
 import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 /**
  * Spring Data JPA repository para UserEntity.
@@ -54,4 +56,15 @@ public interface UserJpaRepository extends JpaRepository<UserEntity, Long> {
    */
   Page<UserEntity> findByFirstNameContainingIgnoreCaseOrLastNameContainingIgnoreCaseAndStatus(
       String firstName, String lastName, Status status, Pageable pageable);
+
+  /**
+   * Busca IDs de usuários cujos tokens já emitidos não devem ser aceitos: inativos ou com troca
+   * de senha pendente (senha resetada).
+   *
+   * @return IDs dos usuários
+   */
+  @Query(
+      "SELECT u.id FROM UserEntity u WHERE u.status = br.com.lalurecf.domain.enums.Status.INACTIVE"
+          + " OR u.mustChangePassword = true")
+  List<Long> findIdsWithRevokedSessions();
 }
@@ -0,0 +1,21 @@
+package br.com.lalurecf.infrastructure.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation para marcar operações pesadas (importações, upload, geração e validação de ECF) que
+ * ocupam CPU, memória e uma conexão do banco por muito tempo.
+ *
+ * <p>O {@link br.com.lalurecf.infrastructure.aspect.ConcurrencyLimitAspect} limita quantas dessas
+ * operações rodam ao mesmo tempo, no total e por empresa, deixando conexões livres para as demais
+ * requisições. Quando a fila de espera está cheia ou não há vaga no prazo configurado, é lançada
+ * {@link br.com.lalurecf.infrastructure.exception.ServerBusyException} (HTTP 429).
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface LimitedConcurrency {
+  // Annotation marker - sem propriedades
+}
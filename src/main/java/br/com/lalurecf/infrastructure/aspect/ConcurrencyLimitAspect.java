@@ -0,0 +1,265 @@
+package br.com.lalurecf.infrastructure.aspect;
+
+import br.com.lalurecf.application.port.out.AdmissionControlPort;
+import br.com.lalurecf.infrastructure.exception.ServerBusyException;
+import br.com.lalurecf.infrastructure.security.CompanyContext;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Aspect de controle de admissão dos métodos anotados com @LimitedConcurrency.
+ *
+ * <p>Importações, upload, geração, merge e validação de ECF seguram CPU, heap e uma conexão do
+ * banco (open-in-view) durante toda a requisição. Sem limite, um pico de importações no
+ * fechamento do mês ocupa o pool inteiro, e uma única empresa com um arquivo grande degrada a
+ * latência de todas as outras. Cada operação precisa de duas vagas, obtidas nesta ordem:
+ * <ul>
+ *   <li>Empresa: no máximo {@code http.concurrency.per-company-max-in-flight} operações da
+ *       empresa do contexto ({@code X-Company-Id}) ao mesmo tempo
+ *   <li>Global: no máximo {@code http.concurrency.heavy-max-in-flight} operações ao mesmo tempo
+ *       (0 = metade de {@code spring.datasource.hikari.maximum-pool-size})
+ * </ul>
+ *
+ * <p>Sem vaga imediata, a requisição entra na fila de espera (justa), limitada a
+ * {@code http.concurrency.max-queue} requisições no total e a
+ * {@code http.concurrency.per-company-max-queue} por empresa, e aguarda as duas vagas por até
+ * {@code http.concurrency.acquire-timeout-ms}. Fila cheia ou prazo esgotado lançam
+ * {@link ServerBusyException} (HTTP 429 + Retry-After). Com threads virtuais a espera não ocupa
+ * thread de plataforma.
+ *
+ * <p>Métricas (Micrometer): {@code lalur.admission.queue.depth} (requisições aguardando),
+ * {@code lalur.admission.in.flight} (operações em execução) e {@code lalur.admission.wait}
+ * (tempo de espera por {@code outcome}: admitted, timeout ou queue_full). Os valores por empresa
+ * ficam fora das tags para não multiplicar séries.
+ *
+ * <p>Também implementa {@link AdmissionControlPort}: o lote de ECF obtém vagas globais adicionais
+ * para os seus workers, sem esperar, e dimensiona o paralelismo pelo que conseguiu.
+ *
+ * <p>Executa depois dos interceptors de method security ({@code @PreAuthorize}): requisições
+ * sem permissão são recusadas sem ocupar vaga nem lugar na fila. E antes de
+ * {@code @Transactional} (se houver), para que a espera aconteça sem conexão aberta.
+ */
+@Aspect
+@Component
+@Slf4j
+@Order(ConcurrencyLimitAspect.ORDER)
+public class ConcurrencyLimitAspect implements AdmissionControlPort {
+
+  /**
+   * Ordem do aspect: depois de {@code AuthorizationInterceptorsOrder} (100 a 600) e antes do
+   * {@code @Transactional} ({@link Ordered#LOWEST_PRECEDENCE}).
+   */
+  public static final int ORDER = 1000;
+
+  private static final long RETRY_AFTER_SECONDS = 5;
+  private static final String BUSY_MESSAGE =
+      "Servidor ocupado com outras importações/gerações. Tente novamente em instantes.";
+  private static final String COMPANY_BUSY_MESSAGE =
+      "Muitas importações/gerações em andamento para esta empresa. "
+          + "Tente novamente em instantes.";
+
+  private final Semaphore permits;
+  private final int maxInFlight;
+  private final int perCompanyMaxInFlight;
+  private final int maxQueue;
+  private final int perCompanyMaxQueue;
+  private final long acquireTimeoutMs;
+  private final AtomicInteger queueDepth = new AtomicInteger();
+  private final Map<Long, CompanySlot> companies = new ConcurrentHashMap<>();
+  private final Timer admittedTimer;
+  private final Timer timeoutTimer;
+  private final Timer queueFullTimer;
+
+  /**
+   * Cria o aspect.
+   *
+   * @param heavyMaxInFlight operações pesadas simultâneas; 0 usa metade do pool de conexões
+   * @param poolSize tamanho máximo do pool de conexões
+   * @param perCompanyMaxInFlight operações pesadas simultâneas por empresa
+   * @param maxQueue requisições aguardando vaga, no total
+   * @param perCompanyMaxQueue requisições aguardando vaga, por empresa
+   * @param acquireTimeoutMs espera máxima por uma vaga
+   * @param meterRegistry registro das métricas de fila e espera
+   */
+  public ConcurrencyLimitAspect(
+      @Value("${http.concurrency.heavy-max-in-flight:0}") int heavyMaxInFlight,
+      @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+      @Value("${http.concurrency.per-company-max-in-flight:2}") int perCompanyMaxInFlight,
+      @Value("${http.concurrency.max-queue:50}") int maxQueue,
+      @Value("${http.concurrency.per-company-max-queue:10}") int perCompanyMaxQueue,
+      @Value("${http.concurrency.acquire-timeout-ms:10000}") long acquireTimeoutMs,
+      MeterRegistry meterRegistry) {
+    this.maxInFlight = heavyMaxInFlight > 0 ? heavyMaxInFlight : Math.max(1, poolSize / 2);
+    this.permits = new Semaphore(maxInFlight, true);
+    this.perCompanyMaxInFlight = Math.max(1, perCompanyMaxInFlight);
+    this.maxQueue = Math.max(0, maxQueue);
+    this.perCompanyMaxQueue = Math.max(0, perCompanyMaxQueue);
+    this.acquireTimeoutMs = acquireTimeoutMs;
+
+    Gauge.builder("lalur.admission.queue.depth", queueDepth, AtomicInteger::get)
+        .description("Operações pesadas aguardando vaga")
+        .register(meterRegistry);
+    Gauge.builder("lalur.admission.in.flight", permits, p -> maxInFlight - p.availablePermits())
+        .description("Operações pesadas em execução")
+        .register(meterRegistry);
+    this.admittedTimer = waitTimer(meterRegistry, "admitted");
+    this.timeoutTimer = waitTimer(meterRegistry, "timeout");
+    this.queueFullTimer = waitTimer(meterRegistry, "queue_full");
+  }
+
+  /**
+   * Executa o método alvo quando houver vaga na empresa do contexto e no limite global.
+   *
+   * @param joinPoint método interceptado
+   * @return retorno do método
+   * @throws Throwable exceção do método alvo
+   * @throws ServerBusyException se a fila estiver cheia ou não houver vaga no prazo
+   */
+  @Around("@annotation(br.com.lalurecf.infrastructure.annotation.LimitedConcurrency)")
+  public Object limit(ProceedingJoinPoint joinPoint) throws Throwable {
+    Long companyId = CompanyContext.getCurrentCompanyId();
+    CompanySlot company = companyId == null
+        ? null
+        : companies.computeIfAbsent(companyId, id -> new CompanySlot(perCompanyMaxInFlight));
+    long start = System.nanoTime();
+
+    if (!acquire(company, 0)) {
+      if (!enqueue(company)) {
+        queueFullTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.warn("ConcurrencyLimitAspect: fila cheia (empresa {}), rejeitando {}",
+            companyId, joinPoint.getSignature().toShortString());
+        throw busy(company);
+      }
+      boolean acquired;
+      try {
+        acquired = acquire(company, TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMs));
+      } finally {
+        dequeue(company);
+      }
+      if (!acquired) {
+        timeoutTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        log.warn("ConcurrencyLimitAspect: sem vaga em {} ms (empresa {}), rejeitando {}",
+            acquireTimeoutMs, companyId, joinPoint.getSignature().toShortString());
+        throw busy(company);
+      }
+    }
+    admittedTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+    try {
+      return joinPoint.proceed();
+    } finally {
+      permits.release();
+      if (company != null) {
+        company.permits.release();
+      }
+    }
+  }
+
+  @Override
+  public int tryAcquireAdditional(int max) {
+    try {
+      for (int n = Math.min(max, permits.availablePermits()); n > 0; n--) {
+        // Prazo zero respeita a ordem de quem já está na fila
+        if (permits.tryAcquire(n, 0, TimeUnit.NANOSECONDS)) {
+          return n;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return 0;
+  }
+
+  @Override
+  public void releaseAdditional(int additional) {
+    if (additional > 0) {
+      permits.release(additional);
+    }
+  }
+
+  /**
+   * Obtém a vaga da empresa e depois a global, dentro do mesmo prazo. Com prazo zero não espera,
+   * mas respeita a ordem de quem já está na fila.
+   */
+  private boolean acquire(CompanySlot company, long timeoutNanos) {
+    long deadline = System.nanoTime() + timeoutNanos;
+    boolean companyAcquired = false;
+    try {
+      if (company != null) {
+        companyAcquired = company.permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        if (!companyAcquired) {
+          return false;
+        }
+      }
+      long remaining = Math.max(0, deadline - System.nanoTime());
+      if (permits.tryAcquire(remaining, TimeUnit.NANOSECONDS)) {
+        return true;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    if (companyAcquired) {
+      company.permits.release();
+    }
+    return false;
+  }
+
+  private boolean enqueue(CompanySlot company) {
+    if (queueDepth.incrementAndGet() > maxQueue) {
+      queueDepth.decrementAndGet();
+      return false;
+    }
+    if (company != null && company.waiting.incrementAndGet() > perCompanyMaxQueue) {
+      company.waiting.decrementAndGet();
+      queueDepth.decrementAndGet();
+      return false;
+    }
+    return true;
+  }
+
+  private void dequeue(CompanySlot company) {
+    queueDepth.decrementAndGet();
+    if (company != null) {
+      company.waiting.decrementAndGet();
+    }
+  }
+
+  private ServerBusyException busy(CompanySlot company) {
+    boolean companySaturated = company != null && company.permits.availablePermits() == 0
+        && permits.availablePermits() > 0;
+    return new ServerBusyException(
+        companySaturated ? COMPANY_BUSY_MESSAGE : BUSY_MESSAGE, RETRY_AFTER_SECONDS);
+  }
+
+  private static Timer waitTimer(MeterRegistry meterRegistry, String outcome) {
+    return Timer.builder("lalur.admission.wait")
+        .description("Espera por vaga das operações pesadas")
+        .tag("outcome", outcome)
+        .register(meterRegistry);
+  }
+
+  /** Vagas e fila de espera de uma empresa. */
+  private static final class CompanySlot {
+
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    private CompanySlot(int maxInFlight) {
+      this.permits = new Semaphore(maxInFlight, true);
+    }
+  }
+}
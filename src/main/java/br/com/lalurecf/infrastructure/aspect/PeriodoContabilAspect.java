@@ -1,8 +1,8 @@
 package br.com.lalurecf.infrastructure.aspect;
 
+import br.com.lalurecf.application.port.out.CompanyRepositoryPort;
+import br.com.lalurecf.domain.model.Company;
 import br.com.lalurecf.domain.model.TemporalEntity;
-import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.CompanyEntity;
-import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.CompanyJpaRepository;
 import br.com.lalurecf.infrastructure.exception.PeriodoContabilViolationException;
 import br.com.lalurecf.infrastructure.security.CompanyContext;
 import java.time.LocalDate;
@@ -21,7 +21,8 @@ import org.springframework.stereotype.Component;
  * <p>Funcionalidade:
  * <ul>
  *   <li>Intercepta métodos anotados com @EnforcePeriodoContabil
- *   <li>Busca Período Contábil da empresa do contexto (CompanyContext)
+ *   <li>Busca Período Contábil da empresa do contexto (CompanyContext), reutilizando o
+ *       snapshot já carregado pelo CompanyContextFilter
  *   <li>Verifica se algum argumento do método implementa TemporalEntity
  *   <li>Compara competência do registro com Período Contábil
  *   <li>Lança PeriodoContabilViolationException se competência < Período Contábil
@@ -33,7 +34,7 @@ import org.springframework.stereotype.Component;
 @RequiredArgsConstructor
 public class PeriodoContabilAspect {
 
-  private final CompanyJpaRepository companyRepository;
+  private final CompanyRepositoryPort companyRepository;
 
   /**
    * Intercepta métodos anotados com @EnforcePeriodoContabil.
@@ -56,7 +57,7 @@ public class PeriodoContabilAspect {
     }
 
     // 2. Buscar Período Contábil da empresa
-    CompanyEntity company = companyRepository.findById(companyId)
+    Company company = companyRepository.findById(companyId)
         .orElseThrow(() -> new IllegalStateException(
             "Empresa não encontrada com ID: " + companyId));
 
@@ -0,0 +1,91 @@
+package br.com.lalurecf.infrastructure.cache;
+
+import br.com.lalurecf.domain.model.Company;
+import br.com.lalurecf.infrastructure.security.CompanyContext;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache de snapshots de {@link Company} consultados pelo contexto de empresa.
+ *
+ * <p>Toda requisição com {@code X-Company-Id} carrega a empresa no {@code CompanyContextFilter},
+ * de novo no {@code PeriodoContabilAspect} e nos services. A busca por ID passa por dois níveis:
+ * <ul>
+ *   <li>Requisição: o snapshot validado pelo filtro fica em {@link CompanyContext} e é reutilizado
+ *       pelas demais buscas da mesma empresa na thread da requisição
+ *   <li>Compartilhado: cache Caffeine limitado ({@value #CACHE_NAME}), entre requisições
+ * </ul>
+ *
+ * <p>Empresa inexistente não é cacheada. Os snapshots são imutáveis para o chamador: cada busca
+ * devolve uma cópia. Escritas em empresa devem chamar {@link #evict(Long)} — inclusive as feitas
+ * diretamente pelo {@code CompanyJpaRepository}; a remoção é imediata e repetida ao final da
+ * transação, para que leituras concorrentes não recoloquem o estado anterior.
+ */
+@Component
+public class CompanySnapshotCache {
+
+  public static final String CACHE_NAME = "company-snapshot";
+
+  private final Cache<Object, Object> cache;
+
+  @SuppressWarnings("unchecked")
+  public CompanySnapshotCache(CacheManager cacheManager) {
+    this.cache = (Cache<Object, Object>) cacheManager.getCache(CACHE_NAME).getNativeCache();
+  }
+
+  /**
+   * Busca o snapshot da empresa, carregando-o do banco apenas se ausente dos dois níveis.
+   *
+   * @param id ID da empresa
+   * @param loader busca no banco (executada uma única vez por ID em cargas concorrentes)
+   * @return cópia do snapshot, ou vazio se a empresa não existir
+   */
+  public Optional<Company> get(Long id, Function<Long, Optional<Company>> loader) {
+    Company current = CompanyContext.getCurrentCompany();
+    if (current != null && id.equals(current.getId())) {
+      return Optional.of(copy(current));
+    }
+    Company snapshot = (Company) cache.get(id, key -> loader.apply(id).orElse(null));
+    return Optional.ofNullable(snapshot).map(CompanySnapshotCache::copy);
+  }
+
+  /**
+   * Remove o snapshot da empresa dos dois níveis, agora e ao final da transação corrente.
+   *
+   * @param id ID da empresa alterada
+   */
+  public void evict(Long id) {
+    if (id == null) {
+      return;
+    }
+    evictNow(id);
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCompletion(int status) {
+          evictNow(id);
+        }
+      });
+    }
+  }
+
+  private void evictNow(Long id) {
+    cache.invalidate(id);
+    Company current = CompanyContext.getCurrentCompany();
+    if (current != null && id.equals(current.getId())) {
+      CompanyContext.setCurrentCompany(null);
+    }
+  }
+
+  private static Company copy(Company company) {
+    return new Company(company.getId(), company.getCnpj(), company.getRazaoSocial(),
+        company.getPeriodoContabil(), company.getMascaraNiveis(), company.getStatus(),
+        company.getCreatedBy(), company.getCreatedAt(),
+        company.getUpdatedBy(), company.getUpdatedAt());
+  }
+}
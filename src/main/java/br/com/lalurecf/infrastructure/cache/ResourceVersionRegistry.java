@@ -0,0 +1,146 @@
+package br.com.lalurecf.infrastructure.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.WebRequest;
+
+/**
+ * Versões das listagens consultadas por polling, usadas como ETag fraco.
+ *
+ * <p>Cada escrita nos repository adapters avança a versão do recurso no escopo afetado
+ * (empresa + ano fiscal para ECF e plano de contas; global para conta referencial e parâmetros
+ * tributários). Os endpoints de listagem calculam o ETag a partir da versão antes de consultar
+ * o banco e respondem 304 a {@code If-None-Match} sem executar a consulta.
+ *
+ * <p>As versões vêm de um único relógio monotônico iniciado no boot com o instante atual em
+ * microssegundos: após um restart todas as versões são maiores que as emitidas antes, sem
+ * persistência. A versão só avança após o commit da transação que escreveu; um leitor
+ * concorrente pode, no máximo, receber dados novos com a versão antiga (e rebuscar no próximo
+ * poll), nunca dados antigos com a versão nova.
+ *
+ * <p>Os contadores ficam em memória: válido enquanto a aplicação roda em uma única instância
+ * (mesma premissa dos caches Caffeine em {@code CacheConfig}).
+ */
+@Component
+public class ResourceVersionRegistry {
+
+  /** Cache-Control das listagens versionadas: o cliente sempre revalida com o ETag. */
+  public static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+  /** Headers de contexto que alteram a resposta (para o header Vary). */
+  public static final String[] VARY_HEADERS = {"X-Company-Id", "X-Fiscal-Year"};
+
+  /** Recursos versionados e se a versão é por empresa + ano fiscal ou global. */
+  public enum VersionedResource {
+    ECF_FILE(true),
+    PLANO_DE_CONTAS(true),
+    CONTA_REFERENCIAL(false),
+    TAX_PARAMETER(false);
+
+    private final boolean scoped;
+
+    VersionedResource(boolean scoped) {
+      this.scoped = scoped;
+    }
+  }
+
+  private final AtomicLong clock = new AtomicLong(System.currentTimeMillis() * 1000);
+  private final long bootVersion = clock.get();
+  private final Map<Key, Long> versions = new ConcurrentHashMap<>();
+  private final Map<VersionedResource, Long> floors = new ConcurrentHashMap<>();
+
+  /**
+   * Avança a versão do recurso no escopo, após o commit da transação corrente (ou
+   * imediatamente, se não houver transação).
+   *
+   * @param resource recurso alterado
+   * @param companyId empresa (ignorado para recursos globais)
+   * @param fiscalYear ano fiscal (ignorado para recursos globais)
+   */
+  public void bump(VersionedResource resource, Long companyId, Integer fiscalYear) {
+    Key key = key(resource, companyId, fiscalYear);
+    afterCommit(() -> versions.merge(key, clock.incrementAndGet(), Math::max));
+  }
+
+  /**
+   * Avança a versão do recurso em todos os escopos (escrita cujo escopo não é conhecido).
+   *
+   * @param resource recurso alterado
+   */
+  public void bumpAll(VersionedResource resource) {
+    afterCommit(() -> floors.merge(resource, clock.incrementAndGet(), Math::max));
+  }
+
+  /**
+   * Versão atual do recurso no escopo.
+   *
+   * @param resource recurso
+   * @param companyId empresa (ignorado para recursos globais)
+   * @param fiscalYear ano fiscal (ignorado para recursos globais)
+   * @return versão; muda sempre que uma escrita no escopo é confirmada
+   */
+  public long version(VersionedResource resource, Long companyId, Integer fiscalYear) {
+    long floor = floors.getOrDefault(resource, bootVersion);
+    long version = versions.getOrDefault(key(resource, companyId, fiscalYear), 0L);
+    return Math.max(floor, version);
+  }
+
+  /**
+   * ETag fraco da listagem: versões dos recursos que compõem a resposta mais um hash do escopo
+   * (empresa, ano fiscal) e dos parâmetros da requisição, para que a mesma versão em outra
+   * página, filtro ou empresa não gere o mesmo ETag.
+   *
+   * @param request requisição (parâmetros de query)
+   * @param companyId empresa do contexto
+   * @param fiscalYear ano fiscal do contexto
+   * @param resources recursos lidos pela listagem
+   * @return ETag no formato {@code W/"..."}
+   */
+  public String etag(WebRequest request, Long companyId, Integer fiscalYear,
+      VersionedResource... resources) {
+    StringBuilder etag = new StringBuilder("W/\"");
+    for (VersionedResource resource : resources) {
+      etag.append(Long.toString(version(resource, companyId, fiscalYear), 36)).append('.');
+    }
+
+    CRC32 crc = new CRC32();
+    StringBuilder scope = new StringBuilder().append(companyId).append('|').append(fiscalYear);
+    for (Map.Entry<String, String[]> param : new TreeMap<>(request.getParameterMap()).entrySet()) {
+      scope.append('|').append(param.getKey()).append('=')
+          .append(Arrays.toString(param.getValue()));
+    }
+    crc.update(scope.toString().getBytes(StandardCharsets.UTF_8));
+    return etag.append(Long.toHexString(crc.getValue())).append('"').toString();
+  }
+
+  private static Key key(VersionedResource resource, Long companyId, Integer fiscalYear) {
+    return resource.scoped
+        ? new Key(resource, companyId, fiscalYear)
+        : new Key(resource, null, null);
+  }
+
+  private static void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
+  }
+
+  private record Key(VersionedResource resource, Long companyId, Integer fiscalYear) {
+  }
+}
@@ -0,0 +1,58 @@
+package br.com.lalurecf.infrastructure.cache;
+
+import br.com.lalurecf.infrastructure.security.VerifiedToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+
+/**
+ * Cache de access tokens já verificados pelo {@code JwtAuthenticationFilter}.
+ *
+ * <p>Um token repetido (o mesmo token acompanha todas as requisições de uma sessão) é servido
+ * sem nova decodificação, verificação HMAC ou busca do usuário. A chave é o SHA-256 do token,
+ * para que o token em si não fique em memória; cada entrada expira junto com o token (ver
+ * {@code CacheConfig}). Tokens inválidos não são cacheados.
+ *
+ * <p>Revogações não invalidam entradas: o filtro consulta a {@code TokenRevocationList} a cada
+ * requisição, inclusive para tokens servidos pelo cache.
+ */
+@Component
+public class VerifiedTokenCache {
+
+  public static final String CACHE_NAME = "jwt-verified-token";
+
+  private final Cache<Object, Object> cache;
+
+  @SuppressWarnings("unchecked")
+  public VerifiedTokenCache(CacheManager cacheManager) {
+    this.cache = (Cache<Object, Object>) cacheManager.getCache(CACHE_NAME).getNativeCache();
+  }
+
+  /**
+   * Busca o token verificado, verificando-o apenas se ausente do cache.
+   *
+   * @param token access token recebido no header Authorization
+   * @param verifier verificação completa do token (assinatura, expiração e claims)
+   * @return claims verificados, ou vazio se o token for inválido
+   */
+  public Optional<VerifiedToken> get(
+      String token, Function<String, Optional<VerifiedToken>> verifier) {
+    return Optional.ofNullable(
+        (VerifiedToken) cache.get(digest(token), key -> verifier.apply(token).orElse(null)));
+  }
+
+  private static String digest(String token) {
+    try {
+      MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+      return HexFormat.of().formatHex(sha256.digest(token.getBytes(StandardCharsets.US_ASCII)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 indisponível", e);
+    }
+  }
+}
@@ -1,7 +1,17 @@
 package br.com.lalurecf.infrastructure.config;
 
+import br.com.lalurecf.application.service.EcfValidationCacheService;
+import br.com.lalurecf.application.service.ImportedEcfIndex;
+import br.com.lalurecf.application.service.ImportedEcfIndexService;
+import br.com.lalurecf.infrastructure.cache.CompanySnapshotCache;
+import br.com.lalurecf.infrastructure.cache.VerifiedTokenCache;
+import br.com.lalurecf.infrastructure.security.VerifiedToken;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.concurrent.TimeUnit;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.cache.caffeine.CaffeineCacheManager;
@@ -28,15 +38,97 @@ public class CacheConfig {
    *   <li>Usado para cachear consultas de CNPJ na BrasilAPI
    * </ul>
    *
+   * <p>Cache "ecf-imported-index":
+   * <ul>
+   *   <li>Limitado por memória estimada ({@code ecf.merge.index-cache-max-mb}), não por entradas
+   *   <li>Guarda só o índice (offsets, contagens, blocos M e 9), pesado pelo que retém
+   *       ({@link ImportedEcfIndex#pesoKb()})
+   *   <li>Expira 2 horas após o último acesso
+   *   <li>Chave é o hash do conteúdo: novos uploads nunca leem índice desatualizado
+   * </ul>
+   *
+   * <p>Cache "ecf-validation-result":
+   * <ul>
+   *   <li>Tamanho máximo: 500 resultados, expira 2 horas após o último acesso
+   *   <li>Chave é hash do conteúdo + tipo do arquivo; os resultados também são persistidos
+   * </ul>
+   *
+   * <p>Cache "company-snapshot":
+   * <ul>
+   *   <li>Tamanho máximo: 1000 empresas, expira 10 minutos após a escrita
+   *   <li>Invalidado pelas escritas em empresa; o TTL só cobre escritas fora da aplicação
+   * </ul>
+   *
+   * <p>Cache "jwt-verified-token":
+   * <ul>
+   *   <li>Tamanho máximo: 10000 tokens; cada entrada expira junto com o token
+   *   <li>Chave é o SHA-256 do token; revogações são checadas fora do cache
+   * </ul>
+   *
+   * @param indexCacheMaxMb memória máxima do cache de índices, em MB
    * @return CacheManager configurado
    */
   @Bean
-  public CacheManager cacheManager() {
+  public CacheManager cacheManager(
+      @Value("${ecf.merge.index-cache-max-mb:256}") long indexCacheMaxMb) {
     CaffeineCacheManager cacheManager = new CaffeineCacheManager("cnpj-data");
     cacheManager.setCaffeine(caffeineCacheBuilder());
+    cacheManager.registerCustomCache(ImportedEcfIndexService.CACHE_NAME,
+        Caffeine.newBuilder()
+            .maximumWeight(indexCacheMaxMb * 1024)
+            .<Object, Object>weigher((key, value) -> ((ImportedEcfIndex) value).pesoKb())
+            .expireAfterAccess(2, TimeUnit.HOURS)
+            .recordStats()
+            .build());
+    cacheManager.registerCustomCache(EcfValidationCacheService.CACHE_NAME,
+        Caffeine.newBuilder()
+            .maximumSize(500)
+            .expireAfterAccess(2, TimeUnit.HOURS)
+            .recordStats()
+            .build());
+    cacheManager.registerCustomCache(CompanySnapshotCache.CACHE_NAME,
+        Caffeine.newBuilder()
+            .maximumSize(1000)
+            .expireAfterWrite(10, TimeUnit.MINUTES)
+            .recordStats()
+            .build());
+    cacheManager.registerCustomCache(VerifiedTokenCache.CACHE_NAME,
+        Caffeine.newBuilder()
+            .maximumSize(10_000)
+            .expireAfter(untilTokenExpiry())
+            .recordStats()
+            .build());
     return cacheManager;
   }
 
+  /**
+   * Expiração das entradas de "jwt-verified-token": o instante de expiração do próprio token.
+   *
+   * @return política de expiração por entrada
+   */
+  private static Expiry<Object, Object> untilTokenExpiry() {
+    return new Expiry<>() {
+      @Override
+      public long expireAfterCreate(Object key, Object value, long currentTime) {
+        Instant expiresAt = ((VerifiedToken) value).expiresAt();
+        return expiresAt == null
+            ? 0L : Math.max(0L, Duration.between(Instant.now(), expiresAt).toNanos());
+      }
+
+      @Override
+      public long expireAfterUpdate(Object key, Object value, long currentTime,
+          long currentDuration) {
+        return expireAfterCreate(key, value, currentTime);
+      }
+
+      @Override
+      public long expireAfterRead(Object key, Object value, long currentTime,
+          long currentDuration) {
+        return currentDuration;
+      }
+    };
+  }
+
   /**
    * Constrói configuração do Caffeine para o cache.
    *
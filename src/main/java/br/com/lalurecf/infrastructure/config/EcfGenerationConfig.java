@@ -0,0 +1,31 @@
+package br.com.lalurecf.infrastructure.config;
+
+import java.util.concurrent.ForkJoinPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuração do pool usado na geração paralela do bloco M e na validação por blocos.
+ *
+ * <p>Geração e validação são CPU-bound (formatação e indexação de texto), por isso usam um
+ * ForkJoinPool dedicado, separado do pool comum da JVM e das threads do Tomcat. O paralelismo
+ * padrão é o número de processadores disponíveis.
+ */
+@Configuration
+public class EcfGenerationConfig {
+
+  /**
+   * Pool de geração do bloco M ({@code ecf.generation.parallel=true}) e de validação por blocos
+   * ({@code ecf.validation.parallel=true}).
+   *
+   * @param parallelism número máximo de tarefas simultâneas ({@code ecf.generation.parallelism})
+   * @return ForkJoinPool dedicado
+   */
+  @Bean(destroyMethod = "shutdown")
+  public ForkJoinPool ecfGenerationPool(
+      @Value("${ecf.generation.parallelism:0}") int parallelism) {
+    int effective = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    return new ForkJoinPool(effective);
+  }
+}
@@ -0,0 +1,116 @@
+package br.com.lalurecf.infrastructure.dto.ecf;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO para geração em lote dos arquivos ECF.
+ *
+ * <p>Situação de um lote em execução ou concluído, consultada por polling pelo {@link #jobId}.
+ * Contém o resultado de cada empresa já processada e métricas agregadas do lote (duração e
+ * empresas por segundo, parciais enquanto {@link JobStatus#RUNNING}).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EcfBatchGenerationResponse {
+
+  /** Identificador do lote, para consulta em {@code GET /ecf/batch/jobs/{jobId}}. */
+  private String jobId;
+
+  /** Situação do lote. */
+  private JobStatus status;
+
+  /** Ano fiscal processado. */
+  private Integer fiscalYear;
+
+  /** Início do lote. */
+  private LocalDateTime startedAt;
+
+  /** Fim do lote (null enquanto em execução). */
+  private LocalDateTime finishedAt;
+
+  /** Total de empresas ativas do lote. */
+  private int totalCompanies;
+
+  /** Empresas já processadas (sucesso, ignoradas ou com erro). */
+  private int processedCompanies;
+
+  /** Empresas com Arquivo Parcial gerado com sucesso. */
+  private int succeeded;
+
+  /** Empresas ignoradas por não terem lançamentos da Parte B no ano fiscal. */
+  private int skipped;
+
+  /** Empresas com erro na geração. */
+  private int failed;
+
+  /** Quantidade de ECF Completos gerados (empresas com ECF Importado). */
+  private int completosGerados;
+
+  /** Duração total do lote em milissegundos. */
+  private long durationMs;
+
+  /** Throughput do lote (empresas processadas por segundo). */
+  private double companiesPerSecond;
+
+  /** Erro que interrompeu o lote (null se não houve). */
+  private String error;
+
+  /** Resultado por empresa já processada, na ordem das empresas do lote. */
+  @Builder.Default private List<CompanyResult> results = new ArrayList<>();
+
+  /** Situação de um lote. */
+  public enum JobStatus {
+    /** Em execução: {@link #results} contém só as empresas já processadas. */
+    RUNNING,
+    /** Todas as empresas processadas. */
+    COMPLETED,
+    /** Interrompido por erro fora do processamento das empresas. */
+    FAILED
+  }
+
+  /** Classe interna com o resultado da geração de uma empresa. */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class CompanyResult {
+
+    /** ID da empresa. */
+    private Long companyId;
+
+    /** CNPJ da empresa. */
+    private String cnpj;
+
+    /** Razão social da empresa. */
+    private String razaoSocial;
+
+    /** Indica se a geração foi bem-sucedida. */
+    private boolean success;
+
+    /** Indica se a empresa foi ignorada por não ter lançamentos da Parte B no ano fiscal. */
+    private boolean skipped;
+
+    /** Motivo da empresa ter sido ignorada (null se não foi). */
+    private String skipReason;
+
+    /** ID do Arquivo Parcial gerado (null em caso de erro). */
+    private Long parcialFileId;
+
+    /** ID do ECF Completo gerado (null se não houver ECF Importado ou em caso de erro). */
+    private Long completoFileId;
+
+    /** Mensagem de erro (null em caso de sucesso ou empresa ignorada). */
+    private String error;
+
+    /** Duração do processamento da empresa em milissegundos. */
+    private long durationMs;
+  }
+}
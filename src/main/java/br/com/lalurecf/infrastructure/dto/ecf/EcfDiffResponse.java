@@ -0,0 +1,83 @@
+package br.com.lalurecf.infrastructure.dto.ecf;
+
+import br.com.lalurecf.domain.enums.EcfFileType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO da comparação estrutural do bloco M entre dois arquivos ECF.
+ *
+ * <p>Cada bloco é um M300/M350 com seus filhos (M305/M310/M355/M360), identificado pela chave
+ * {codigoApuracao}|{tipo}|{codigoEnquadramento}. Blocos com linhas idênticas nos dois arquivos
+ * são contados em {@code unchanged} e não são listados.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EcfDiffResponse {
+
+  /** ID do arquivo base. */
+  private Long baseFileId;
+
+  /** Tipo do arquivo base. */
+  private EcfFileType baseFileType;
+
+  /** ID do arquivo alvo. */
+  private Long targetFileId;
+
+  /** Tipo do arquivo alvo. */
+  private EcfFileType targetFileType;
+
+  /** Quantidade de blocos iguais nos dois arquivos. */
+  private int unchanged;
+
+  /** Blocos presentes apenas no alvo. */
+  @Builder.Default private List<BlockDiff> added = new ArrayList<>();
+
+  /** Blocos presentes apenas na base. */
+  @Builder.Default private List<BlockDiff> removed = new ArrayList<>();
+
+  /** Blocos presentes nos dois arquivos com linhas diferentes. */
+  @Builder.Default private List<BlockDiff> changed = new ArrayList<>();
+
+  /** Classe interna com a diferença de um bloco M300/M350. */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class BlockDiff {
+
+    /** Chave {codigoApuracao}|{tipo}|{codigoEnquadramento}. */
+    private String key;
+
+    /** Período de apuração (campo 4 do M030). */
+    private String codigoApuracao;
+
+    /** Registro pai (M300 ou M350). */
+    private String registro;
+
+    /** Código de enquadramento. */
+    private String codigoEnquadramento;
+
+    /** totalValor na base (null se ausente ou inválido). */
+    private BigDecimal valorBase;
+
+    /** totalValor no alvo (null se ausente ou inválido). */
+    private BigDecimal valorAlvo;
+
+    /** valorAlvo - valorBase (ausente conta como zero; null se algum valor for inválido). */
+    private BigDecimal delta;
+
+    /** Linhas do bloco na base (vazio se adicionado). */
+    @Builder.Default private List<String> linhasBase = new ArrayList<>();
+
+    /** Linhas do bloco no alvo (vazio se removido). */
+    @Builder.Default private List<String> linhasAlvo = new ArrayList<>();
+  }
+}
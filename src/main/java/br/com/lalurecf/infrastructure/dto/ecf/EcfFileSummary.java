@@ -16,6 +16,9 @@ public class EcfFileSummary {
   private String fileType;
   private String fileName;
   private Long fileSizeBytes;
+
+  /**Quantidade de linhas do arquivo (null para arquivos gravados antes da contagem). */
+  private Integer lineCount;
   private String fileStatus;
   private LocalDateTime generatedAt;
   private String generatedBy;
@@ -72,6 +75,14 @@ public class EcfFileSummary {
     this.fileSizeBytes = fileSizeBytes;
   }
 
+  public Integer getLineCount() {
+    return lineCount;
+  }
+
+  public void setLineCount(Integer lineCount) {
+    this.lineCount = lineCount;
+  }
+
   public String getFileStatus() {
     return fileStatus;
   }
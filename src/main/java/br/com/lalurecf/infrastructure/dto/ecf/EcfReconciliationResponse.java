@@ -0,0 +1,81 @@
+package br.com.lalurecf.infrastructure.dto.ecf;
+
+import br.com.lalurecf.domain.enums.EcfFileType;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response DTO da conciliação do bloco M de um arquivo ECF com os Lançamentos da Parte B.
+ *
+ * <p>Os totais esperados são os que a geração do bloco M produziria a partir dos lançamentos
+ * ACTIVE: M300/M350 por (codigoApuracao, código de enquadramento) e M305/M310/M355/M360 por
+ * conta. Apenas divergências são listadas.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EcfReconciliationResponse {
+
+  /** ID do arquivo conciliado. */
+  private Long ecfFileId;
+
+  /** Tipo do arquivo conciliado. */
+  private EcfFileType fileType;
+
+  /** Ano fiscal do arquivo (ano de referência dos lançamentos). */
+  private Integer fiscalYear;
+
+  /** True se nenhum total divergir. */
+  private boolean consistent;
+
+  /** Quantidade de totais esperados verificados. */
+  private int checkedTotals;
+
+  /** Totais divergentes, na ordem dos totais esperados (extras do arquivo ao final). */
+  @Builder.Default private List<Mismatch> mismatches = new ArrayList<>();
+
+  /** Tipo de divergência. */
+  public enum MismatchType {
+    /** Total esperado sem registro correspondente no arquivo. */
+    MISSING_IN_FILE,
+    /** Registro presente com valor diferente (ou inválido). */
+    VALUE_DIFFERS,
+    /** Filho M305/M310/M355/M360 no arquivo sem lançamentos da conta no banco. */
+    NOT_IN_DATABASE
+  }
+
+  /** Classe interna com a divergência de um registro. */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Mismatch {
+
+    /** Tipo de divergência. */
+    private MismatchType type;
+
+    /** Período de apuração (campo PER_APUR do M030, ex: A03). */
+    private String codigoApuracao;
+
+    /** Registro (M300, M305, M310, M350, M355 ou M360). */
+    private String registro;
+
+    /** Código de enquadramento do M300/M350. */
+    private String codigoEnquadramento;
+
+    /** Código da conta (null para M300/M350). */
+    private String conta;
+
+    /** Valor calculado a partir dos lançamentos (null se ausente no banco). */
+    private BigDecimal valorEsperado;
+
+    /** Valor no arquivo (null se ausente ou inválido). */
+    private BigDecimal valorArquivo;
+  }
+}
@@ -34,6 +34,16 @@ public class ValidationResult {
     this.warnings.add(message);
   }
 
+  /**
+   * Acrescenta os erros e avisos de outro resultado, preservando a ordem.
+   *
+   * @param other resultado a incorporar
+   */
+  public void addAll(ValidationResult other) {
+    other.errors.forEach(this::addError);
+    this.warnings.addAll(other.warnings);
+  }
+
   public boolean isValid() {
     return valid;
   }
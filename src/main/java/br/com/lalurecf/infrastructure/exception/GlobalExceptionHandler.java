@@ -10,6 +10,7 @@ import java.util.HashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -179,6 +180,27 @@ public class GlobalExceptionHandler {
     return ResponseEntity.badRequest().body(error);
   }
 
+  /**
+   * Handler para ServerBusyException.
+   *
+   * @param ex exceção lançada
+   * @return response 429 Too Many Requests com header Retry-After
+   */
+  @ExceptionHandler(ServerBusyException.class)
+  public ResponseEntity<ErrorResponse> handleServerBusy(ServerBusyException ex) {
+    log.warn("Servidor ocupado: {}", ex.getMessage());
+    ErrorResponse error =
+        ErrorResponse.builder()
+            .timestamp(LocalDateTime.now())
+            .status(HttpStatus.TOO_MANY_REQUESTS.value())
+            .error("Too Many Requests")
+            .message(ex.getMessage())
+            .build();
+    return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+        .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+        .body(error);
+  }
+
   /**
    * Handler para IllegalArgumentException.
    *
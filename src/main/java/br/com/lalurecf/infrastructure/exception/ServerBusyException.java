@@ -0,0 +1,27 @@
+package br.com.lalurecf.infrastructure.exception;
+
+/**
+ * Exception lançada quando uma operação pesada não é admitida (fila cheia ou sem vaga no prazo).
+ *
+ * <p>Esta exception resulta em HTTP 429 Too Many Requests com header Retry-After quando
+ * tratada pelo {@link br.com.lalurecf.infrastructure.exception.GlobalExceptionHandler}.
+ */
+public class ServerBusyException extends RuntimeException {
+
+  private final long retryAfterSeconds;
+
+  /**
+   * Construtor da exception.
+   *
+   * @param message mensagem para o cliente
+   * @param retryAfterSeconds segundos sugeridos até uma nova tentativa
+   */
+  public ServerBusyException(String message, long retryAfterSeconds) {
+    super(message);
+    this.retryAfterSeconds = retryAfterSeconds;
+  }
+
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+}
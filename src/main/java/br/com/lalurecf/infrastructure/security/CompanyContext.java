@@ -1,5 +1,7 @@
 package br.com.lalurecf.infrastructure.security;
 
+import br.com.lalurecf.domain.model.Company;
+
 /**
  * Thread-safe context holder for current company ID.
  * <p>
@@ -8,6 +10,10 @@ package br.com.lalurecf.infrastructure.security;
  * the X-Company-Id header.
  * </p>
  * <p>
+ * Besides the ID, it holds the company snapshot validated by the filter, so that
+ * later lookups of the same company in the request reuse it instead of querying again.
+ * </p>
+ * <p>
  * <strong>CRITICAL:</strong> Always call {@link #clear()} in a finally block to prevent
  * memory leaks in thread pool environments.
  * </p>
@@ -17,6 +23,7 @@ package br.com.lalurecf.infrastructure.security;
 public final class CompanyContext {
 
   private static final ThreadLocal<Long> currentCompanyId = new ThreadLocal<>();
+  private static final ThreadLocal<Company> currentCompany = new ThreadLocal<>();
 
   private CompanyContext() {
     // Utility class - prevent instantiation
@@ -41,7 +48,25 @@ public final class CompanyContext {
   }
 
   /**
-   * Clears the current company ID from this thread.
+   * Sets the company snapshot loaded for this request.
+   *
+   * @param company the snapshot, or null to discard it (e.g. after the company is updated)
+   */
+  public static void setCurrentCompany(Company company) {
+    currentCompany.set(company);
+  }
+
+  /**
+   * Gets the company snapshot loaded for this request.
+   *
+   * @return the snapshot, or null if not set
+   */
+  public static Company getCurrentCompany() {
+    return currentCompany.get();
+  }
+
+  /**
+   * Clears the current company ID and snapshot from this thread.
    * <p>
    * <strong>MUST</strong> be called in a finally block after request processing
    * to prevent memory leaks.
@@ -49,5 +74,6 @@ public final class CompanyContext {
    */
   public static void clear() {
     currentCompanyId.remove();
+    currentCompany.remove();
   }
 }
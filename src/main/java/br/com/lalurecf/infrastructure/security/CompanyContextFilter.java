@@ -74,6 +74,7 @@ public class CompanyContextFilter implements Filter {
 
           // Store in context for this request
           CompanyContext.setCurrentCompanyId(companyId);
+          CompanyContext.setCurrentCompany(company);
           log.debug("Company context set: companyId={}", companyId);
 
         } catch (NumberFormatException e) {
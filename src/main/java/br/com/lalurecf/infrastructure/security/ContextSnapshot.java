@@ -0,0 +1,99 @@
+package br.com.lalurecf.infrastructure.security;
+
+import br.com.lalurecf.domain.model.Company;
+import java.util.concurrent.Callable;
+
+/**
+ * Cópia dos contextos da requisição ({@link CompanyContext} e {@link FiscalYearContext}) para
+ * execução em outra thread.
+ *
+ * <p>Os holders são por thread: uma tarefa submetida a um executor (thread de plataforma ou
+ * virtual) não enxerga a empresa nem o ano fiscal de quem a submeteu. {@link #capture()} copia os
+ * valores na thread chamadora e {@link #wrap(Runnable)} os vincula na thread da tarefa apenas
+ * durante sua execução, no estilo de {@code ScopedValue}: ao final, os valores anteriores da
+ * thread são restaurados, sem vazar contexto para a próxima tarefa do pool.
+ *
+ * @param companyId empresa do contexto (pode ser null)
+ * @param company snapshot da empresa validada pelo filtro (pode ser null)
+ * @param fiscalYear ano fiscal do contexto (pode ser null)
+ */
+public record ContextSnapshot(Long companyId, Company company, Integer fiscalYear) {
+
+  /**
+   * Copia os contextos da thread corrente.
+   *
+   * @return snapshot dos contextos
+   */
+  public static ContextSnapshot capture() {
+    return new ContextSnapshot(CompanyContext.getCurrentCompanyId(),
+        CompanyContext.getCurrentCompany(), FiscalYearContext.getCurrentFiscalYear());
+  }
+
+  /**
+   * Vincula os contextos à thread corrente até o fechamento do escopo retornado.
+   *
+   * @return escopo que restaura os valores anteriores ao ser fechado
+   */
+  public Scope bind() {
+    ContextSnapshot previous = capture();
+    apply(this);
+    return () -> apply(previous);
+  }
+
+  /**
+   * Tarefa que executa com estes contextos vinculados.
+   *
+   * @param task tarefa
+   * @return tarefa com contexto
+   */
+  public Runnable wrap(Runnable task) {
+    return () -> {
+      Scope scope = bind();
+      try {
+        task.run();
+      } finally {
+        scope.close();
+      }
+    };
+  }
+
+  /**
+   * Tarefa que executa com estes contextos vinculados.
+   *
+   * @param task tarefa
+   * @param <T> tipo do resultado
+   * @return tarefa com contexto
+   */
+  public <T> Callable<T> wrap(Callable<T> task) {
+    return () -> {
+      Scope scope = bind();
+      try {
+        return task.call();
+      } finally {
+        scope.close();
+      }
+    };
+  }
+
+  private static void apply(ContextSnapshot snapshot) {
+    if (snapshot.companyId() == null && snapshot.company() == null) {
+      CompanyContext.clear();
+    } else {
+      CompanyContext.setCurrentCompanyId(snapshot.companyId());
+      CompanyContext.setCurrentCompany(snapshot.company());
+    }
+    if (snapshot.fiscalYear() == null) {
+      FiscalYearContext.clear();
+    } else {
+      FiscalYearContext.setCurrentFiscalYear(snapshot.fiscalYear());
+    }
+  }
+
+  /** Escopo de vinculação dos contextos; fechar restaura os valores anteriores. */
+  @FunctionalInterface
+  public interface Scope extends AutoCloseable {
+
+    @Override
+    void close();
+  }
+}
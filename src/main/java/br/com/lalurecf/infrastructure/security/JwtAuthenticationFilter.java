@@ -1,6 +1,7 @@
 package br.com.lalurecf.infrastructure.security;
 
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.UserJpaRepository;
+import br.com.lalurecf.infrastructure.cache.VerifiedTokenCache;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,6 +9,7 @@ import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
@@ -22,18 +24,41 @@ import org.springframework.web.filter.OncePerRequestFilter;
  * <p>Intercepta requests, extrai token do header Authorization, valida e popula SecurityContext
  * com userId como principal para auditoria JPA.
  *
+ * <p>O token é decodificado e verificado uma única vez e o resultado fica no
+ * {@link VerifiedTokenCache}: requisições seguintes com o mesmo token não repetem a verificação
+ * HMAC nem consultam o banco (o userId vem do claim {@code uid}). Tokens revogados
+ * ({@link TokenRevocationList}) são rejeitados mesmo quando servidos pelo cache.
+ *
  * <p>Executado uma vez por request antes de UsernamePasswordAuthenticationFilter.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+  /** ID do usuário SYSTEM, usado quando o usuário do token não existe. */
+  private static final Long SYSTEM_USER_ID = 1L;
+
   private final JwtTokenProvider jwtTokenProvider;
   private final UserJpaRepository userRepository;
+  private final VerifiedTokenCache tokenCache;
+  private final TokenRevocationList revocationList;
 
+  /**
+   * Cria o filtro.
+   *
+   * @param jwtTokenProvider validação e leitura dos tokens
+   * @param userRepository busca do usuário de tokens emitidos sem o claim de ID
+   * @param tokenCache cache dos tokens já verificados
+   * @param revocationList sessões revogadas
+   */
   public JwtAuthenticationFilter(
-      JwtTokenProvider jwtTokenProvider, UserJpaRepository userRepository) {
+      JwtTokenProvider jwtTokenProvider,
+      UserJpaRepository userRepository,
+      VerifiedTokenCache tokenCache,
+      TokenRevocationList revocationList) {
     this.jwtTokenProvider = jwtTokenProvider;
     this.userRepository = userRepository;
+    this.tokenCache = tokenCache;
+    this.revocationList = revocationList;
   }
 
   @Override
@@ -44,18 +69,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     if (authHeader != null && authHeader.startsWith("Bearer ")) {
       String token = authHeader.substring(7);
+      VerifiedToken verified = tokenCache.get(token, this::verify).orElse(null);
 
-      if (jwtTokenProvider.validateToken(token)) {
-        String email = jwtTokenProvider.getEmailFromToken(token);
-        String role = jwtTokenProvider.getRoleFromToken(token).name();
-
-        // Buscar userId do banco APENAS AQUI (uma vez por request)
-        // Isso evita StackOverflow ao fazer query dentro do AuditorAware
-        Long userId =
-            userRepository
-                .findByEmail(email)
-                .map(user -> user.getId())
-                .orElse(1L); // Fallback para SYSTEM_USER_ID
+      if (verified != null && !revocationList.isRevoked(verified)) {
+        String role = verified.role().name();
 
         // ADMIN herda todas as permissões de CONTADOR
         List<GrantedAuthority> authorities = new ArrayList<>();
@@ -66,7 +83,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         // IMPORTANTE: userId como principal (não email) para auditoria JPA
         UsernamePasswordAuthenticationToken authentication =
-            new UsernamePasswordAuthenticationToken(userId, null, authorities);
+            new UsernamePasswordAuthenticationToken(verified.userId(), null, authorities);
 
         authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
         SecurityContextHolder.getContext().setAuthentication(authentication);
@@ -75,4 +92,20 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     filterChain.doFilter(request, response);
   }
+
+  /** Verificação completa do token, executada apenas quando ele não está no cache. */
+  private Optional<VerifiedToken> verify(String token) {
+    return jwtTokenProvider.verify(token).map(verified -> {
+      if (verified.userId() != null) {
+        return verified;
+      }
+      // Tokens emitidos antes do claim uid: buscar userId do banco (uma vez por token)
+      // Isso evita StackOverflow ao fazer query dentro do AuditorAware
+      return verified.withUserId(
+          userRepository
+              .findByEmail(verified.email())
+              .map(user -> user.getId())
+              .orElse(SYSTEM_USER_ID));
+    });
+  }
 }
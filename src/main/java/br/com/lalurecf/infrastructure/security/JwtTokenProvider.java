@@ -2,23 +2,29 @@ package br.com.lalurecf.infrastructure.security;
 
 import br.com.lalurecf.domain.enums.UserRole;
 import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTCreator;
 import com.auth0.jwt.algorithms.Algorithm;
 import com.auth0.jwt.exceptions.JWTVerificationException;
 import com.auth0.jwt.interfaces.DecodedJWT;
 import java.util.Date;
+import java.util.Optional;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 /**
  * Provedor de tokens JWT para autenticação stateless.
  *
- * <p>Gera e valida tokens JWT usando HMAC256. Tokens contêm email (subject) e role (claim).
+ * <p>Gera e valida tokens JWT usando HMAC256. Tokens contêm email (subject), role e o ID do
+ * usuário (claim {@value #USER_ID_CLAIM}), para que a autenticação não precise consultar o banco.
  * Access tokens expiram em 7 dias para conveniência do usuário (sistema corporativo interno).
  * Refresh tokens mantidos por compatibilidade mas não são mais usados.
  */
 @Component
 public class JwtTokenProvider {
 
+  /** Claim com o ID do usuário. */
+  public static final String USER_ID_CLAIM = "uid";
+
   @Value("${jwt.secret}")
   private String secret;
 
@@ -36,9 +42,25 @@ public class JwtTokenProvider {
    * @return token JWT assinado
    */
   public String generateAccessToken(String email, UserRole role) {
-    return JWT.create()
+    return generateAccessToken(email, role, null);
+  }
+
+  /**
+   * Gera access token JWT com email, role e ID do usuário.
+   *
+   * @param email email do usuário (usado como subject)
+   * @param role papel do usuário (ADMIN ou CONTADOR)
+   * @param userId ID do usuário (claim omitido se null)
+   * @return token JWT assinado
+   */
+  public String generateAccessToken(String email, UserRole role, Long userId) {
+    JWTCreator.Builder builder = JWT.create()
         .withSubject(email)
-        .withClaim("role", role.name())
+        .withClaim("role", role.name());
+    if (userId != null) {
+      builder.withClaim(USER_ID_CLAIM, userId);
+    }
+    return builder
         .withIssuedAt(new Date())
         .withExpiresAt(new Date(System.currentTimeMillis() + accessTokenExpiration))
         .sign(Algorithm.HMAC256(secret));
@@ -73,6 +95,31 @@ public class JwtTokenProvider {
     }
   }
 
+  /**
+   * Verifica o access token e extrai seus claims com uma única decodificação.
+   *
+   * @param token token JWT
+   * @return claims verificados; vazio se o token for inválido, expirado ou não tiver role
+   *     (refresh token)
+   */
+  public Optional<VerifiedToken> verify(String token) {
+    try {
+      DecodedJWT jwt = JWT.require(Algorithm.HMAC256(secret)).build().verify(token);
+      String role = jwt.getClaim("role").asString();
+      if (role == null) {
+        return Optional.empty();
+      }
+      return Optional.of(new VerifiedToken(
+          jwt.getClaim(USER_ID_CLAIM).asLong(),
+          jwt.getSubject(),
+          UserRole.valueOf(role),
+          jwt.getIssuedAtAsInstant(),
+          jwt.getExpiresAtAsInstant()));
+    } catch (JWTVerificationException | IllegalArgumentException e) {
+      return Optional.empty();
+    }
+  }
+
   /**
    * Extrai email do token.
    *
@@ -0,0 +1,74 @@
+package br.com.lalurecf.infrastructure.security;
+
+import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.UserJpaRepository;
+import jakarta.annotation.PostConstruct;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Lista de revogação de access tokens por usuário.
+ *
+ * <p>Como os tokens são stateless (validade de 7 dias) e verificados pelo cache do
+ * {@code JwtAuthenticationFilter}, desativar um usuário, resetar sua senha ou alterar sua role
+ * não invalidaria os tokens já emitidos. Essas operações registram aqui o instante da revogação
+ * e o filtro rejeita todo token do usuário emitido até esse instante; tokens emitidos depois
+ * (novo login) são aceitos normalmente.
+ *
+ * <p>A lista fica em memória. Na inicialização, ela é preenchida com os usuários inativos ou com
+ * troca de senha pendente, revogando os tokens emitidos antes do boot; revogações por troca de
+ * role não sobrevivem a um restart.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class TokenRevocationList {
+
+  private final UserJpaRepository userRepository;
+  private final Map<Long, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+  /** Revoga os tokens emitidos antes do boot para usuários sem sessão válida. */
+  @PostConstruct
+  void loadRevokedUsers() {
+    Instant boot = now();
+    List<Long> userIds = userRepository.findIdsWithRevokedSessions();
+    userIds.forEach(userId -> revokedBefore.put(userId, boot));
+    log.info("Lista de revogação de tokens carregada: {} usuário(s)", userIds.size());
+  }
+
+  /**
+   * Revoga todos os tokens do usuário emitidos até agora.
+   *
+   * @param userId ID do usuário
+   */
+  public void revokeUser(Long userId) {
+    revokedBefore.merge(userId, now(), (anterior, atual) -> atual.isAfter(anterior)
+        ? atual : anterior);
+    log.info("Tokens revogados para usuário: id={}", userId);
+  }
+
+  /**
+   * Indica se o token foi revogado.
+   *
+   * @param token token verificado
+   * @return true se o token foi emitido até a última revogação do usuário
+   */
+  public boolean isRevoked(VerifiedToken token) {
+    if (token.userId() == null) {
+      return false;
+    }
+    Instant revokedAt = revokedBefore.get(token.userId());
+    return revokedAt != null
+        && (token.issuedAt() == null || !token.issuedAt().isAfter(revokedAt));
+  }
+
+  /** O {@code iat} do JWT tem precisão de segundos; um token do mesmo segundo é revogado. */
+  private static Instant now() {
+    return Instant.now().truncatedTo(ChronoUnit.SECONDS);
+  }
+}
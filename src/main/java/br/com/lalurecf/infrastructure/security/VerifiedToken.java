@@ -0,0 +1,27 @@
+package br.com.lalurecf.infrastructure.security;
+
+import br.com.lalurecf.domain.enums.UserRole;
+import java.time.Instant;
+
+/**
+ * Claims de um access token cuja assinatura e validade já foram verificadas.
+ *
+ * @param userId ID do usuário (claim {@code uid}; resolvido pelo email em tokens antigos)
+ * @param email email do usuário (subject)
+ * @param role papel do usuário
+ * @param issuedAt emissão do token (precisão de segundos)
+ * @param expiresAt expiração do token
+ */
+public record VerifiedToken(
+    Long userId, String email, UserRole role, Instant issuedAt, Instant expiresAt) {
+
+  /**
+   * Cópia com o ID do usuário informado.
+   *
+   * @param userId ID do usuário
+   * @return token verificado com o userId
+   */
+  public VerifiedToken withUserId(Long userId) {
+    return new VerifiedToken(userId, email, role, issuedAt, expiresAt);
+  }
+}
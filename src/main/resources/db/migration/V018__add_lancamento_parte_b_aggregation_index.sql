@@ -0,0 +1,13 @@
+-- ============================================================================
+-- Index for bloco M aggregation over tb_lancamento_parte_b
+-- Version: V018
+-- ============================================================================
+--
+-- PartMGeneratorService now aggregates Parte B lançamentos in PostgreSQL
+-- (GROUP BY tipo_apuracao, mes_referencia, parametro_tributario_id, ...)
+-- filtering by company, year and ACTIVE status. This composite index lets the
+-- planner resolve the WHERE clause without scanning other companies/years.
+-- ============================================================================
+
+CREATE INDEX IF NOT EXISTS idx_lancamento_parte_b_company_ano_status
+    ON tb_lancamento_parte_b(company_id, ano_referencia, status);
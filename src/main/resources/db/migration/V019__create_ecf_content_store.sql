@@ -0,0 +1,88 @@
+-- ============================================================================
+-- Content-addressed store for ECF file content
+-- Version: V019
+-- ============================================================================
+--
+-- tb_ecf_file.content kept every ECF (tens of MB each) as uncompressed TEXT,
+-- three copies per company/year, and most of a COMPLETE_ECF duplicates the
+-- IMPORTED_ECF it was merged from. Content now lives in tb_ecf_content:
+--
+--   hash       - SHA-256 (hex) of the ISO-8859-1 bytes; identical files share
+--                a single row
+--   compression - GZIP for rows written by the application; NONE for rows
+--                migrated below (SQL has no gzip — they are rewritten as GZIP
+--                the next time the file is regenerated/uploaded). data keeps
+--                the default EXTENDED storage, so TOAST still compresses the
+--                migrated NONE rows; GZIP rows are left as is by pglz
+--   charset    - LATIN1, or UTF8 for migrated rows whose text has characters
+--                outside ISO-8859-1 (convert_to(..., 'LATIN1') would abort the
+--                migration). The application converts them on read, replacing
+--                those characters with '?' as the old download did; their hash
+--                is the SHA-256 of the UTF8 bytes
+--   ref_count  - number of tb_ecf_file rows pointing at the content; the
+--                application deletes the row when it reaches zero
+--
+-- tb_ecf_file keeps only metadata plus content_hash.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS tb_ecf_content (
+    hash                  VARCHAR(64)  PRIMARY KEY,
+    compression           VARCHAR(10)  NOT NULL CHECK (compression IN ('GZIP', 'NONE')),
+    charset               VARCHAR(10)  NOT NULL DEFAULT 'LATIN1'
+                                       CHECK (charset IN ('LATIN1', 'UTF8')),
+    data                  BYTEA        NOT NULL,
+    size_bytes            BIGINT       NOT NULL,
+    compressed_size_bytes BIGINT       NOT NULL,
+    ref_count             INTEGER      NOT NULL DEFAULT 0,
+    criado_em             TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Migrate existing content (deduplicated by hash)
+ALTER TABLE tb_ecf_file ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+
+-- LATIN1 bytes of the text, or NULL when it has characters outside ISO-8859-1
+CREATE FUNCTION pg_temp.ecf_latin1(texto TEXT) RETURNS BYTEA AS $$
+BEGIN
+    RETURN convert_to(texto, 'LATIN1');
+EXCEPTION
+    WHEN untranslatable_character THEN
+        RETURN NULL;
+END $$ LANGUAGE plpgsql IMMUTABLE;
+
+UPDATE tb_ecf_file
+   SET content_hash = encode(sha256(
+           COALESCE(pg_temp.ecf_latin1(content), convert_to(content, 'UTF8'))), 'hex');
+
+INSERT INTO tb_ecf_content
+       (hash, compression, charset, data, size_bytes, compressed_size_bytes, ref_count)
+SELECT c.hash,
+       'NONE',
+       CASE WHEN c.latin1 IS NULL THEN 'UTF8' ELSE 'LATIN1' END,
+       COALESCE(c.latin1, convert_to(c.content, 'UTF8')),
+       char_length(c.content),
+       octet_length(COALESCE(c.latin1, convert_to(c.content, 'UTF8'))),
+       c.refs
+  FROM (SELECT f.content_hash AS hash,
+               MIN(f.content) AS content,
+               pg_temp.ecf_latin1(MIN(f.content)) AS latin1,
+               COUNT(*) AS refs
+          FROM tb_ecf_file f
+         GROUP BY f.content_hash) c;
+
+DROP FUNCTION pg_temp.ecf_latin1(TEXT);
+
+ALTER TABLE tb_ecf_file ALTER COLUMN content_hash SET NOT NULL;
+
+ALTER TABLE tb_ecf_file
+    ADD CONSTRAINT fk_ecf_file_content
+    FOREIGN KEY (content_hash) REFERENCES tb_ecf_content(hash);
+
+CREATE INDEX IF NOT EXISTS idx_ecf_file_content_hash
+    ON tb_ecf_file(content_hash);
+
+ALTER TABLE tb_ecf_file DROP COLUMN content;
+
+COMMENT ON TABLE tb_ecf_content IS 'Conteúdo de arquivos ECF endereçado por SHA-256, comprimido e com contagem de referências';
+COMMENT ON COLUMN tb_ecf_content.size_bytes IS 'Tamanho do conteúdo descomprimido (bytes ISO-8859-1)';
+COMMENT ON COLUMN tb_ecf_content.charset IS 'Codificação de data: LATIN1 ou UTF8 (linhas migradas com caracteres fora do ISO-8859-1)';
+COMMENT ON COLUMN tb_ecf_file.content_hash IS 'SHA-256 do conteúdo em tb_ecf_content';
@@ -0,0 +1,35 @@
+-- ============================================================================
+-- Persisted size and line count for ECF files
+-- Version: V020
+-- ============================================================================
+--
+-- The GET /ecf listing only needs metadata. size_bytes and line_count are
+-- filled when the content is stored, so the listing projection never touches
+-- tb_ecf_content.
+--
+-- Backfill: size comes from tb_ecf_content. Lines are counted only for rows
+-- still stored uncompressed (compression = 'NONE', migrated by V019); GZIP
+-- rows keep line_count NULL until the file is uploaded/regenerated again.
+-- ============================================================================
+
+ALTER TABLE tb_ecf_file ADD COLUMN IF NOT EXISTS size_bytes BIGINT;
+ALTER TABLE tb_ecf_file ADD COLUMN IF NOT EXISTS line_count INTEGER;
+
+UPDATE tb_ecf_file f
+   SET size_bytes = c.size_bytes
+  FROM tb_ecf_content c
+ WHERE c.hash = f.content_hash;
+
+UPDATE tb_ecf_file f
+   SET line_count = t.line_count
+  FROM (SELECT hash,
+               length(texto) - length(replace(texto, E'\n', ''))
+                   + CASE WHEN texto <> '' AND right(texto, 1) <> E'\n' THEN 1 ELSE 0 END
+                   AS line_count
+          FROM (SELECT hash, convert_from(data, 'LATIN1') AS texto
+                  FROM tb_ecf_content
+                 WHERE compression = 'NONE') n) t
+ WHERE t.hash = f.content_hash;
+
+COMMENT ON COLUMN tb_ecf_file.size_bytes IS 'Tamanho do conteúdo em bytes (ISO-8859-1)';
+COMMENT ON COLUMN tb_ecf_file.line_count IS 'Quantidade de linhas do conteúdo';
@@ -0,0 +1,33 @@
+-- ============================================================================
+-- Validation results cache for ECF content
+-- Version: V021
+-- ============================================================================
+--
+-- Validating an ECF file depends only on its content, its type (rule set) and
+-- the validator version. Results are keyed by (content_hash, file_type,
+-- validator_version), so revalidating unchanged content is a lookup.
+--
+-- Rows are removed together with the content (ON DELETE CASCADE): when
+-- tb_ecf_file.content_hash changes and the previous content loses its last
+-- reference, its cached results go with it. Bumping the validator version
+-- makes older rows unreachable; they are removed with the content as well.
+-- ============================================================================
+
+CREATE TABLE IF NOT EXISTS tb_ecf_validation_result (
+    content_hash      VARCHAR(64)  NOT NULL
+                      REFERENCES tb_ecf_content(hash) ON DELETE CASCADE,
+    file_type         VARCHAR(30)  NOT NULL,
+    validator_version INTEGER      NOT NULL,
+    valid             BOOLEAN      NOT NULL,
+    errors            TEXT         NOT NULL,
+    warnings          TEXT         NOT NULL,
+    criado_em         TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT pk_ecf_validation_result
+        PRIMARY KEY (content_hash, file_type, validator_version)
+);
+
+COMMENT ON TABLE tb_ecf_validation_result IS
+    'Resultados de validação por conteúdo ECF (hash, tipo, versão do validador)';
+COMMENT ON COLUMN tb_ecf_validation_result.errors IS 'JSON array de erros';
+COMMENT ON COLUMN tb_ecf_validation_result.warnings IS 'JSON array de avisos';
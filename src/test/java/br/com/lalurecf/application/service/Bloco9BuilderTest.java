@@ -0,0 +1,273 @@
+package br.com.lalurecf.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes do Bloco9Builder.
+ *
+ * <p>Além dos casos unitários, compara o builder com o algoritmo anterior (recálculo sobre a
+ * lista do bloco 9 com {@code findInsertPosition9900}), mantido aqui como oráculo, no ECF real
+ * de exemplo com registros 9900 removidos.
+ */
+@DisplayName("Bloco9Builder - reconstrução do bloco 9")
+class Bloco9BuilderTest {
+
+  private static final Set<String> TOTALIZADORES =
+      Set.of("9001", "9100", "9900", "9990", "9999");
+
+  @Test
+  @DisplayName("Deve inserir tipos novos na ordem dos blocos, preservando ordem e layout")
+  void build_insereNovosNaOrdemDosBlocos() {
+    Bloco9Builder builder = new Bloco9Builder();
+    for (String line : List.of(
+        "|9001|0|",
+        "|9900|0000|1|0|",
+        "|9900|M300|9|0|",
+        "|9900|M990|1|0|",
+        "|9900|9001|1|0|",
+        "|9900|9900|7|0|",
+        "|9900|9990|1|0|",
+        "|9900|9999|1|0|",
+        "|9990|9|",
+        "|9999|20|")) {
+      builder.add(line);
+    }
+    Map<String, Integer> countByTipo = new LinkedHashMap<>();
+    countByTipo.put("0000", 1);
+    countByTipo.put("M300", 2);
+    countByTipo.put("M310", 3);
+    countByTipo.put("M305", 2);
+    countByTipo.put("M990", 1);
+    countByTipo.put("Y800", 1);
+    countByTipo.put("9001", 1);
+    countByTipo.put("9900", 7);
+    countByTipo.put("9990", 1);
+    countByTipo.put("9999", 1);
+
+    List<String> bloco9 = builder.build(countByTipo, 20, 10);
+
+    assertThat(bloco9).containsExactly(
+        "|9001|0|",
+        "|9900|0000|1|0|",
+        "|9900|M300|2|0|",
+        "|9900|M305|2||",
+        "|9900|M310|3||",
+        "|9900|M990|1|0|",
+        "|9900|Y800|1||",
+        "|9900|9001|1|0|",
+        "|9900|9900|10|0|",
+        "|9900|9990|1|0|",
+        "|9900|9999|1|0|",
+        "|9990|13|",
+        "|9999|23|");
+  }
+
+  @Test
+  @DisplayName("Deve produzir o mesmo bloco 9 que o algoritmo anterior no ECF de exemplo")
+  void build_equivalenteAoAlgoritmoAnterior() throws IOException {
+    List<String> exemplo = lerExemplo();
+    List<String> declarados = tiposDeclarados(exemplo);
+    String ultimoDeLetra = declarados.get(declarados.size() - 1);
+
+    assertThat(reconstruir(exemplo)).isEqualTo(reconstruirAnterior(exemplo));
+    for (String tipo : declarados) {
+      if (tipo.equals(ultimoDeLetra)) {
+        continue;
+      }
+      List<String> semDeclaracao = semRegistros9900(exemplo, Set.of(tipo));
+      assertThat(reconstruir(semDeclaracao))
+          .as("sem |9900|%s|", tipo)
+          .isEqualTo(reconstruirAnterior(semDeclaracao));
+    }
+    List<String> semVarios = semRegistros9900(exemplo, Set.of("0", "930", "C001", "M305", "M310",
+        "M312", "N630", "Y520"));
+    assertThat(reconstruir(semVarios)).isEqualTo(reconstruirAnterior(semVarios));
+  }
+
+  @Test
+  @DisplayName("Tipo novo após o último bloco de letras deve entrar antes do |9900|9001|")
+  void build_novoAposUltimoBlocoAntesDoBloco9() throws IOException {
+    List<String> exemplo = lerExemplo();
+    List<String> declarados = tiposDeclarados(exemplo);
+    String ultimoDeLetra = declarados.get(declarados.size() - 1);
+    List<String> semDeclaracao = semRegistros9900(exemplo, Set.of(ultimoDeLetra));
+
+    List<String> bloco9 = reconstruir(semDeclaracao);
+    List<String> anterior = reconstruirAnterior(semDeclaracao);
+
+    // O algoritmo anterior comparava só em ordem alfabética e inseria após |9900|9900|
+    int novo = indice9900(bloco9, ultimoDeLetra);
+    assertThat(bloco9.get(novo + 1)).startsWith("|9900|9001|");
+    assertThat(anterior.get(indice9900(anterior, ultimoDeLetra) - 1)).startsWith("|9900|9900|");
+    List<String> semNovo = new ArrayList<>(bloco9);
+    semNovo.remove(novo);
+    List<String> anteriorSemNovo = new ArrayList<>(anterior);
+    anteriorSemNovo.remove(indice9900(anterior, ultimoDeLetra));
+    assertThat(semNovo).isEqualTo(anteriorSemNovo);
+  }
+
+  private static List<String> lerExemplo() throws IOException {
+    String conteudo = Files.readString(EcfValidatorServiceTest.ECF_EXEMPLO,
+        StandardCharsets.ISO_8859_1);
+    List<String> lines = new ArrayList<>(Arrays.asList(conteudo.split("\n")));
+    while (lines.get(lines.size() - 1).isEmpty()) {
+      lines.remove(lines.size() - 1);
+    }
+    return lines;
+  }
+
+  /** Tipos com |9900| no arquivo, sem os totalizadores do bloco 9, na ordem do arquivo. */
+  private static List<String> tiposDeclarados(List<String> lines) {
+    List<String> tipos = new ArrayList<>();
+    for (String line : lines) {
+      if (line.startsWith("|9900|")) {
+        String tipo = line.split("\\|", -1)[2];
+        if (!TOTALIZADORES.contains(tipo)) {
+          tipos.add(tipo);
+        }
+      }
+    }
+    return tipos;
+  }
+
+  private static List<String> semRegistros9900(List<String> lines, Set<String> tipos) {
+    List<String> resultado = new ArrayList<>(lines);
+    resultado.removeIf(line -> line.startsWith("|9900|")
+        && tipos.contains(line.split("\\|", -1)[2]));
+    return resultado;
+  }
+
+  private static int indice9900(List<String> bloco9, String tipo) {
+    for (int i = 0; i < bloco9.size(); i++) {
+      if (bloco9.get(i).startsWith("|9900|" + tipo + "|")) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private static List<String> reconstruir(List<String> lines) {
+    Bloco9Builder builder = new Bloco9Builder();
+    for (String line : bloco9(lines)) {
+      builder.add(line);
+    }
+    return builder.build(contagem(lines), lines.size(), total9(lines));
+  }
+
+  private static List<String> reconstruirAnterior(List<String> lines) {
+    List<String> bloco9 = new ArrayList<>(bloco9(lines));
+    recalcularBloco9Anterior(bloco9, contagem(lines), lines.size(), total9(lines));
+    return bloco9;
+  }
+
+  private static List<String> bloco9(List<String> lines) {
+    int inicio = 0;
+    while (!lines.get(inicio).startsWith("|9")) {
+      inicio++;
+    }
+    return lines.subList(inicio, lines.size());
+  }
+
+  private static Map<String, Integer> contagem(List<String> lines) {
+    Map<String, Integer> countByTipo = new LinkedHashMap<>();
+    for (String line : lines) {
+      String tipo = ImportedEcfIndex.extractTipo(line);
+      if (tipo != null) {
+        countByTipo.merge(tipo, 1, Integer::sum);
+      }
+    }
+    return countByTipo;
+  }
+
+  private static int total9(List<String> lines) {
+    return (int) lines.stream().map(ImportedEcfIndex::extractTipo)
+        .filter(tipo -> tipo != null && tipo.startsWith("9")).count();
+  }
+
+  /** Algoritmo anterior ao Bloco9Builder (EcfMergerService#recalcularBloco9), sem alterações. */
+  private static void recalcularBloco9Anterior(
+      List<String> bloco9, Map<String, Integer> countByTipo, int totalGeral, int total9) {
+    Set<String> tiposComRegistro9900 = new HashSet<>();
+    String template9900 = null;
+    for (int i = 0; i < bloco9.size(); i++) {
+      String line = bloco9.get(i);
+      if (!"9900".equals(ImportedEcfIndex.extractTipo(line))) {
+        continue;
+      }
+      String[] parts = line.split("\\|", -1);
+      if (parts.length < 4) {
+        continue;
+      }
+      tiposComRegistro9900.add(parts[2]);
+      parts[3] = String.valueOf(countByTipo.getOrDefault(parts[2], 0));
+      bloco9.set(i, String.join("|", parts));
+      template9900 = line;
+    }
+
+    List<String> tiposFaltantes = new ArrayList<>();
+    for (String tipo : countByTipo.keySet()) {
+      if (!tipo.isEmpty() && !TOTALIZADORES.contains(tipo)
+          && !tiposComRegistro9900.contains(tipo)) {
+        tiposFaltantes.add(tipo);
+      }
+    }
+
+    if (!tiposFaltantes.isEmpty() && template9900 != null) {
+      int numCampos = template9900.split("\\|", -1).length;
+      for (String tipo : tiposFaltantes) {
+        StringBuilder novaLinha = new StringBuilder("|9900|").append(tipo).append('|')
+            .append(countByTipo.getOrDefault(tipo, 0)).append('|');
+        novaLinha.append("|".repeat(Math.max(0, numCampos - 5)));
+        bloco9.add(findInsertPosition9900Anterior(bloco9, tipo), novaLinha.toString());
+      }
+      totalGeral += tiposFaltantes.size();
+      total9 += tiposFaltantes.size();
+
+      int total9900 = countByTipo.getOrDefault("9900", 0) + tiposFaltantes.size();
+      for (int i = 0; i < bloco9.size(); i++) {
+        String[] parts = bloco9.get(i).split("\\|", -1);
+        if (parts.length >= 4 && "9900".equals(parts[1]) && "9900".equals(parts[2])) {
+          parts[3] = String.valueOf(total9900);
+          bloco9.set(i, String.join("|", parts));
+        }
+      }
+    }
+
+    for (int i = 0; i < bloco9.size(); i++) {
+      String tipo = ImportedEcfIndex.extractTipo(bloco9.get(i));
+      if ("9990".equals(tipo)) {
+        bloco9.set(i, "|9990|" + total9 + "|");
+      } else if ("9999".equals(tipo)) {
+        bloco9.set(i, "|9999|" + totalGeral + "|");
+      }
+    }
+  }
+
+  private static int findInsertPosition9900Anterior(List<String> lines, String novoTipo) {
+    int ultimoIndice9900 = -1;
+    for (int i = 0; i < lines.size(); i++) {
+      String line = lines.get(i);
+      if (!"9900".equals(ImportedEcfIndex.extractTipo(line))) {
+        continue;
+      }
+      if (line.split("\\|", -1)[2].compareTo(novoTipo) > 0) {
+        return i;
+      }
+      ultimoIndice9900 = i;
+    }
+    return ultimoIndice9900 + 1;
+  }
+}
@@ -0,0 +1,231 @@
+package br.com.lalurecf.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import br.com.lalurecf.application.port.in.ecf.GenerateArquivoParcialUseCase;
+import br.com.lalurecf.application.port.in.ecf.GenerateCompleteEcfUseCase;
+import br.com.lalurecf.application.port.out.AdmissionControlPort;
+import br.com.lalurecf.application.port.out.CompanyRepositoryPort;
+import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.domain.enums.Status;
+import br.com.lalurecf.domain.exception.EmptyFiscalYearException;
+import br.com.lalurecf.domain.model.Company;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfBatchGenerationResponse;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfBatchGenerationResponse.CompanyResult;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfBatchGenerationResponse.JobStatus;
+import br.com.lalurecf.infrastructure.dto.ecf.GenerateArquivoParcialResponse;
+import br.com.lalurecf.infrastructure.dto.ecf.GenerateCompleteEcfResponse;
+import br.com.lalurecf.infrastructure.exception.ServerBusyException;
+import br.com.lalurecf.infrastructure.security.CompanyContext;
+import br.com.lalurecf.infrastructure.security.FiscalYearContext;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+/**
+ * Testes unitários para EcfBatchGenerationService.
+ *
+ * <p>Verifica o isolamento por empresa (falha em uma não interrompe o lote, ano sem lançamentos
+ * é ignorado), a geração condicional do ECF Completo, a ordem do relatório, as vagas de admissão
+ * dos workers, o contexto da empresa em cada worker e o lote único por ano fiscal.
+ */
+@ExtendWith(MockitoExtension.class)
+@SuppressWarnings("checkstyle:AbbreviationAsWordInName")
+@DisplayName("EcfBatchGenerationService - Testes Unitários")
+class EcfBatchGenerationServiceTest {
+
+  @Mock
+  private CompanyRepositoryPort companyRepositoryPort;
+
+  @Mock
+  private EcfFileRepositoryPort ecfFileRepositoryPort;
+
+  @Mock
+  private GenerateArquivoParcialUseCase generateArquivoParcialUseCase;
+
+  @Mock
+  private GenerateCompleteEcfUseCase generateCompleteEcfUseCase;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @Mock
+  private AdmissionControlPort admissionControlPort;
+
+  @InjectMocks
+  private EcfBatchGenerationService service;
+
+  private static final Integer FISCAL_YEAR = 2024;
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(service, "concurrency", 2);
+    ReflectionTestUtils.setField(service, "connectionPoolSize", 10);
+    ReflectionTestUtils.setField(service, "jobRetentionMinutes", 60L);
+  }
+
+  @Test
+  @DisplayName("Deve gerar por empresa, ignorar anos vazios e reportar falhas sem interromper")
+  void start_isolaFalhasPorEmpresa() throws Exception {
+    Company comImportado = company(1L, "Empresa A");
+    Company semLancamentos = company(2L, "Empresa B");
+    Company semImportado = company(3L, "Empresa C");
+    Company comFalha = company(4L, "Empresa D");
+    when(companyRepositoryPort.findAllByStatus(Status.ACTIVE))
+        .thenReturn(List.of(comImportado, semLancamentos, semImportado, comFalha));
+
+    when(generateArquivoParcialUseCase.generate(FISCAL_YEAR, 1L, "user"))
+        .thenReturn(new GenerateArquivoParcialResponse(true, "ok", 10L, "p1.txt", 1, 1));
+    when(generateArquivoParcialUseCase.generate(FISCAL_YEAR, 2L, "user"))
+        .thenThrow(new EmptyFiscalYearException("Nenhum Lançamento da Parte B encontrado"));
+    when(generateArquivoParcialUseCase.generate(FISCAL_YEAR, 3L, "user"))
+        .thenReturn(new GenerateArquivoParcialResponse(true, "ok", 30L, "p3.txt", 1, 1));
+    when(generateArquivoParcialUseCase.generate(FISCAL_YEAR, 4L, "user"))
+        .thenThrow(new IllegalStateException("Parâmetro tributário inválido"));
+
+    when(ecfFileRepositoryPort.existsByCompanyAndFiscalYearAndType(
+        1L, FISCAL_YEAR, EcfFileType.IMPORTED_ECF)).thenReturn(true);
+    when(ecfFileRepositoryPort.existsByCompanyAndFiscalYearAndType(
+        3L, FISCAL_YEAR, EcfFileType.IMPORTED_ECF)).thenReturn(false);
+    when(generateCompleteEcfUseCase.generate(FISCAL_YEAR, 1L, "user"))
+        .thenReturn(new GenerateCompleteEcfResponse(
+            true, "ok", 11L, "c1.txt", 100L, 5L, 10L, 4));
+
+    when(admissionControlPort.tryAcquireAdditional(2)).thenReturn(2);
+
+    EcfBatchGenerationResponse iniciado = service.start(FISCAL_YEAR, "user");
+    assertThat(iniciado.getJobId()).isNotBlank();
+    assertThat(iniciado.getTotalCompanies()).isEqualTo(4);
+
+    EcfBatchGenerationResponse response = aguardar(iniciado.getJobId());
+
+    assertThat(response.getStatus()).isEqualTo(JobStatus.COMPLETED);
+    assertThat(response.getProcessedCompanies()).isEqualTo(4);
+    assertThat(response.getSucceeded()).isEqualTo(2);
+    assertThat(response.getSkipped()).isEqualTo(1);
+    assertThat(response.getFailed()).isEqualTo(1);
+    assertThat(response.getCompletosGerados()).isEqualTo(1);
+    assertThat(response.getFinishedAt()).isNotNull();
+    assertThat(response.getResults()).extracting(CompanyResult::getCompanyId)
+        .containsExactly(1L, 2L, 3L, 4L);
+
+    CompanyResult a = response.getResults().get(0);
+    assertThat(a.isSuccess()).isTrue();
+    assertThat(a.getParcialFileId()).isEqualTo(10L);
+    assertThat(a.getCompletoFileId()).isEqualTo(11L);
+
+    CompanyResult b = response.getResults().get(1);
+    assertThat(b.isSuccess()).isFalse();
+    assertThat(b.isSkipped()).isTrue();
+    assertThat(b.getSkipReason()).contains("Nenhum Lançamento");
+    assertThat(b.getError()).isNull();
+
+    CompanyResult c = response.getResults().get(2);
+    assertThat(c.isSuccess()).isTrue();
+    assertThat(c.getCompletoFileId()).isNull();
+    verify(generateCompleteEcfUseCase, never()).generate(FISCAL_YEAR, 3L, "user");
+
+    CompanyResult d = response.getResults().get(3);
+    assertThat(d.isSuccess()).isFalse();
+    assertThat(d.isSkipped()).isFalse();
+    assertThat(d.getError()).contains("Parâmetro tributário");
+
+    verify(admissionControlPort).releaseAdditional(2);
+    assertThat(service.findJob(iniciado.getJobId())).contains(response);
+  }
+
+  @Test
+  @DisplayName("Deve rodar cada empresa com seu contexto, mesmo com uma única vaga")
+  void start_vinculaContextoDaEmpresa() throws Exception {
+    ReflectionTestUtils.setField(service, "concurrency", 4);
+    when(companyRepositoryPort.findAllByStatus(Status.ACTIVE))
+        .thenReturn(List.of(company(1L, "Empresa A"), company(2L, "Empresa B")));
+    when(admissionControlPort.tryAcquireAdditional(4)).thenReturn(1);
+    Map<Long, String> contextos = new ConcurrentHashMap<>();
+    when(generateArquivoParcialUseCase.generate(eq(FISCAL_YEAR), anyLong(), eq("user")))
+        .thenAnswer(invocation -> {
+          Long companyId = invocation.getArgument(1);
+          contextos.put(companyId, CompanyContext.getCurrentCompanyId() + "/"
+              + FiscalYearContext.getCurrentFiscalYear());
+          return new GenerateArquivoParcialResponse(true, "ok", companyId, "p.txt", 1, 1);
+        });
+
+    EcfBatchGenerationResponse response =
+        aguardar(service.start(FISCAL_YEAR, "user").getJobId());
+
+    assertThat(response.getSucceeded()).isEqualTo(2);
+    assertThat(contextos).containsOnly(entry(1L, "1/2024"), entry(2L, "2/2024"));
+    verify(admissionControlPort).releaseAdditional(1);
+    assertThat(CompanyContext.getCurrentCompanyId()).isNull();
+  }
+
+  @Test
+  @DisplayName("Deve devolver o lote em execução do ano em vez de iniciar outro")
+  void start_reaproveitaLoteEmExecucao() throws Exception {
+    when(companyRepositoryPort.findAllByStatus(Status.ACTIVE))
+        .thenReturn(List.of(company(1L, "Empresa A")));
+    when(admissionControlPort.tryAcquireAdditional(2)).thenReturn(2);
+    CountDownLatch liberar = new CountDownLatch(1);
+    when(generateArquivoParcialUseCase.generate(FISCAL_YEAR, 1L, "user"))
+        .thenAnswer(invocation -> {
+          liberar.await(5, TimeUnit.SECONDS);
+          return new GenerateArquivoParcialResponse(true, "ok", 10L, "p1.txt", 1, 1);
+        });
+
+    EcfBatchGenerationResponse primeiro = service.start(FISCAL_YEAR, "user");
+    EcfBatchGenerationResponse segundo = service.start(FISCAL_YEAR, "user");
+
+    assertThat(segundo.getJobId()).isEqualTo(primeiro.getJobId());
+    assertThat(segundo.getStatus()).isEqualTo(JobStatus.RUNNING);
+    assertThat(segundo.getResults()).isEmpty();
+    liberar.countDown();
+    assertThat(aguardar(primeiro.getJobId()).getSucceeded()).isEqualTo(1);
+    verify(companyRepositoryPort, times(1)).findAllByStatus(Status.ACTIVE);
+  }
+
+  @Test
+  @DisplayName("Deve recusar o lote sem vagas de admissão livres")
+  void start_semVagas() {
+    when(companyRepositoryPort.findAllByStatus(Status.ACTIVE))
+        .thenReturn(List.of(company(1L, "Empresa A")));
+    when(admissionControlPort.tryAcquireAdditional(2)).thenReturn(0);
+
+    assertThatThrownBy(() -> service.start(FISCAL_YEAR, "user"))
+        .isInstanceOf(ServerBusyException.class);
+    verify(generateArquivoParcialUseCase, never()).generate(any(), any(), any());
+    assertThat(service.findJob("inexistente")).isEmpty();
+  }
+
+  private EcfBatchGenerationResponse aguardar(String jobId) throws Exception {
+    return service.completion(jobId).get(5, TimeUnit.SECONDS);
+  }
+
+  private Company company(Long id, String razaoSocial) {
+    Company company = new Company();
+    company.setId(id);
+    company.setRazaoSocial(razaoSocial);
+    company.setStatus(Status.ACTIVE);
+    return company;
+  }
+}
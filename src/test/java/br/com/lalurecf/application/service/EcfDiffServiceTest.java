@@ -0,0 +1,126 @@
+package br.com.lalurecf.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.domain.model.EcfFile;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfDiffResponse;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfDiffResponse.BlockDiff;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+/**
+ * Testes unitários para EcfDiffService.
+ *
+ * <p>Cobre a comparação por chave {codigoApuracao}|{tipo}|{codigoEnquadramento} entre o ECF
+ * Importado e o ECF Completo e a verificação de ownership dos arquivos informados por ID.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EcfDiffService - Testes Unitários")
+class EcfDiffServiceTest {
+
+  @Mock
+  private EcfFileRepositoryPort ecfFileRepositoryPort;
+
+  @Mock
+  private EcfContentStorePort ecfContentStorePort;
+
+  @InjectMocks
+  private EcfDiffService service;
+
+  private static final String IMPORTADO = String.join("\n",
+      "|0000|LECF|0010|123|NOME|0|0|||01012024|31122024|",
+      "|M001|0|",
+      "|M030|01012024|31012024|A01|",
+      "|M300|1|Multas|A|1|100,00|antigo|",
+      "|M305|PB1|100,00|D|",
+      "|M300|2|Brindes|A|1|50,00|mantido|",
+      "|M305|PB2|50,00|D|",
+      "|M350|3|Doacoes|A|1|80,00|removido|",
+      "|M990|9|",
+      "|9999|10|") + "\n";
+
+  private static final String COMPLETO = String.join("\n",
+      "|0000|LECF|0010|123|NOME|0|0|||01012024|31122024|",
+      "|M001|0|",
+      "|M030|01012024|31012024|A01|",
+      "|M300|1|Multas|A|3|300,00|novo|",
+      "|M305|PB1|200,00|D|",
+      "|M310|4.01.01||100,00|D|",
+      "|M300|2|Brindes|A|1|50,00|mantido|",
+      "|M305|PB2|50,00|D|",
+      "|M030|01022024|29022024|A02|",
+      "|M300|1|Multas|A|1|10,00|fevereiro|",
+      "|M990|11|",
+      "|9999|12|") + "\n";
+
+  @Test
+  @DisplayName("Deve comparar IMPORTED_ECF com COMPLETE_ECF por chave de bloco")
+  void diff_importadoVersusCompleto() {
+    when(ecfFileRepositoryPort.findByCompanyAndFiscalYearAndType(
+        1L, 2024, EcfFileType.IMPORTED_ECF))
+        .thenReturn(Optional.of(file(10L, 1L, EcfFileType.IMPORTED_ECF, "h-imp")));
+    when(ecfFileRepositoryPort.findByCompanyAndFiscalYearAndType(
+        1L, 2024, EcfFileType.COMPLETE_ECF))
+        .thenReturn(Optional.of(file(20L, 1L, EcfFileType.COMPLETE_ECF, "h-comp")));
+    when(ecfContentStorePort.openStream("h-imp")).thenReturn(
+        new ByteArrayInputStream(IMPORTADO.getBytes(StandardCharsets.ISO_8859_1)));
+    when(ecfContentStorePort.openStream("h-comp")).thenReturn(
+        new ByteArrayInputStream(COMPLETO.getBytes(StandardCharsets.ISO_8859_1)));
+
+    EcfDiffResponse diff = service.diff(1L, 2024, null, null);
+
+    assertThat(diff.getBaseFileId()).isEqualTo(10L);
+    assertThat(diff.getTargetFileId()).isEqualTo(20L);
+    assertThat(diff.getUnchanged()).isEqualTo(1);
+
+    assertThat(diff.getChanged()).hasSize(1);
+    BlockDiff alterado = diff.getChanged().get(0);
+    assertThat(alterado.getKey()).isEqualTo("A01|M300|1");
+    assertThat(alterado.getValorBase()).isEqualByComparingTo(new BigDecimal("100.00"));
+    assertThat(alterado.getValorAlvo()).isEqualByComparingTo(new BigDecimal("300.00"));
+    assertThat(alterado.getDelta()).isEqualByComparingTo(new BigDecimal("200.00"));
+    assertThat(alterado.getLinhasAlvo()).hasSize(3);
+
+    assertThat(diff.getRemoved()).extracting(BlockDiff::getKey).containsExactly("A01|M350|3");
+    assertThat(diff.getRemoved().get(0).getDelta())
+        .isEqualByComparingTo(new BigDecimal("-80.00"));
+    assertThat(diff.getAdded()).extracting(BlockDiff::getKey).containsExactly("A02|M300|1");
+    assertThat(diff.getAdded().get(0).getDelta()).isEqualByComparingTo(new BigDecimal("10.00"));
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar arquivo de outra empresa")
+  void diff_arquivoDeOutraEmpresa() {
+    when(ecfFileRepositoryPort.findById(10L))
+        .thenReturn(Optional.of(file(10L, 1L, EcfFileType.IMPORTED_ECF, "h-imp")));
+    when(ecfFileRepositoryPort.findById(20L))
+        .thenReturn(Optional.of(file(20L, 2L, EcfFileType.COMPLETE_ECF, "h-comp")));
+
+    assertThatThrownBy(() -> service.diff(1L, null, 10L, 20L))
+        .isInstanceOf(AccessDeniedException.class);
+  }
+
+  private static EcfFile file(Long id, Long companyId, EcfFileType type, String hash) {
+    return EcfFile.builder()
+        .id(id)
+        .companyId(companyId)
+        .fiscalYear(2024)
+        .fileType(type)
+        .contentHash(hash)
+        .build();
+  }
+}
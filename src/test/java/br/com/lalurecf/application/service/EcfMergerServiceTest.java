@@ -0,0 +1,235 @@
+package br.com.lalurecf.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import br.com.lalurecf.application.port.out.CompanyRepositoryPort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort.ContentWriter;
+import br.com.lalurecf.application.port.out.EcfContentStorePort.StoredContent;
+import br.com.lalurecf.application.service.EcfMergerService.MergeResult;
+import br.com.lalurecf.application.service.EcfMergerService.ParsedParcial;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.domain.model.Company;
+import br.com.lalurecf.domain.model.EcfFile;
+import br.com.lalurecf.infrastructure.dto.ecf.GenerateCompleteEcfResponse;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Testes unitários para EcfMergerService.
+ *
+ * <p>Cobre o merge em passada única: substituição de M300/M350 por chave, recálculo do M990
+ * e dos totalizadores do bloco 9 (9900/9990/9999), e a leitura dos arquivos em streaming.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EcfMergerService - Testes Unitários")
+class EcfMergerServiceTest {
+
+  @Mock
+  private EcfFileRepositoryPort ecfFileRepositoryPort;
+
+  @Mock
+  private CompanyRepositoryPort companyRepositoryPort;
+
+  @Mock
+  private EcfContentStorePort ecfContentStorePort;
+
+  @Mock
+  private ImportedEcfIndexService importedEcfIndexService;
+
+  @InjectMocks
+  private EcfMergerService service;
+
+  private static final String PARCIAL = String.join("\n",
+      "|M001|0|",
+      "|M030|01012024|31012024|A01|",
+      "|M300|1|Multas|A|3|300,00|novo|",
+      "|M305|PB1|200,00|D|",
+      "|M310|4.01.01||100,00|D|",
+      "|M990|5|") + "\n";
+
+  private static final String IMPORTADO = String.join("\n",
+      "|0000|LECF|0010|123|NOME|0|0|||01012024|31122024|",
+      "|M001|0|",
+      "|M030|01012024|31012024|A01|",
+      "|M300|1|Multas|A|1|100,00|antigo|",
+      "|M305|PB1|100,00|D|",
+      "|M300|2|Brindes|A|1|50,00|mantido|",
+      "|M305|PB2|50,00|D|",
+      "|M990|7|",
+      "|9001|0|",
+      "|9900|0000|1|",
+      "|9900|M001|1|",
+      "|9900|M030|1|",
+      "|9900|M300|2|",
+      "|9900|M305|2|",
+      "|9900|M990|1|",
+      "|9900|9001|1|",
+      "|9900|9900|10|",
+      "|9900|9990|1|",
+      "|9900|9999|1|",
+      "|9990|13|",
+      "|9999|21|") + "\n";
+
+  @Test
+  @DisplayName("Deve substituir M300 por chave e recalcular M990 e bloco 9 na mesma passada")
+  void merge_substituiERecalculaTotalizadores() throws IOException {
+    StringWriter output = new StringWriter();
+
+    MergeResult result = service.merge(new StringReader(IMPORTADO), parcial(PARCIAL), output);
+
+    String esperado = String.join("\n",
+        "|0000|LECF|0010|123|NOME|0|0|||01012024|31122024|",
+        "|M001|0|",
+        "|M030|01012024|31012024|A01|",
+        "|M300|1|Multas|A|3|300,00|novo|",
+        "|M305|PB1|200,00|D|",
+        "|M310|4.01.01||100,00|D|",
+        "|M300|2|Brindes|A|1|50,00|mantido|",
+        "|M305|PB2|50,00|D|",
+        "|M990|8|",
+        "|9001|0|",
+        "|9900|0000|1|",
+        "|9900|M001|1|",
+        "|9900|M030|1|",
+        "|9900|M300|2|",
+        "|9900|M305|2|",
+        "|9900|M310|1|",
+        "|9900|M990|1|",
+        "|9900|9001|1|",
+        "|9900|9900|11|",
+        "|9900|9990|1|",
+        "|9900|9999|1|",
+        "|9990|14|",
+        "|9999|23|") + "\n";
+    assertThat(output.toString()).isEqualTo(esperado);
+    assertThat(result.totalLinhasM990()).isEqualTo(8);
+    assertThat(result.caracteres()).isEqualTo(esperado.length());
+  }
+
+  @Test
+  @DisplayName("Deve preservar \\r das linhas e descartar linhas vazias ao final")
+  void merge_preservaCrlfEDescartaVaziasFinais() throws IOException {
+    String importado = "|0000|X|\r\n\n|M001|0|\r\n|M990|2|\r\n\n\n";
+    StringWriter output = new StringWriter();
+
+    MergeResult result = service.merge(
+        new StringReader(importado), parcial("|M001|0|\n|M990|2|\n"), output);
+
+    assertThat(output.toString()).isEqualTo("|0000|X|\r\n\n|M001|0|\r\n|M990|2|\n");
+    assertThat(result.totalLinhasM990()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("Merge pelo índice cacheado deve produzir o mesmo arquivo que o merge completo")
+  void merge_indiceEquivalenteAoDocumento() throws IOException {
+    String importado = IMPORTADO.replace("|M001|0|\n", "|0990|2|\r\n\n|M001|0|\n")
+        .replace("|9001|0|\n", "|N001|0|\n|N990|2|\n|9001|0|\n");
+    StringWriter completo = new StringWriter();
+    StringWriter indexado = new StringWriter();
+
+    MergeResult esperado =
+        service.merge(new StringReader(importado), parcial(PARCIAL), completo);
+    ImportedEcfIndex index = ImportedEcfIndex.of(new StringReader(importado));
+    MergeResult result =
+        service.merge(index, new StringReader(importado), parcial(PARCIAL), indexado);
+
+    assertThat(index.isEstruturado()).isTrue();
+    assertThat(index.contagemSufixo()).containsOnlyKeys("N001", "N990");
+    assertThat(index.blocoM()).startsWith("|M001|").endsWith("|M990|7|\n");
+    assertThat(indexado.toString()).isEqualTo(completo.toString());
+    assertThat(result).isEqualTo(esperado);
+  }
+
+  @Test
+  @DisplayName("Importado sem bloco 9 deve cair no merge linha a linha")
+  void merge_indiceSemBloco9UsaStreamCompleto() throws IOException {
+    String importado = "|0000|X|\n|M001|0|\n|M990|2|\n";
+    StringWriter output = new StringWriter();
+
+    ImportedEcfIndex index = ImportedEcfIndex.of(new StringReader(importado));
+    service.merge(index, new StringReader(importado), parcial("|M001|0|\n|M990|2|\n"), output);
+
+    assertThat(index.isEstruturado()).isFalse();
+    assertThat(output.toString()).isEqualTo(importado);
+  }
+
+  @Test
+  @DisplayName("Peso do índice no cache deve refletir só o que ele retém")
+  void pesoKb_contaBlocoMENaoPrefixo() throws IOException {
+    String linhaLonga = "|I200|" + "x".repeat(1000) + "|\n";
+    String prefixoGrande = IMPORTADO.replace("|M001|0|\n", linhaLonga.repeat(500) + "|M001|0|\n");
+    String blocoMGrande = IMPORTADO.replace("|M990|7|\n",
+        "|M305|PB9|1,00|D|\n".repeat(20_000) + "|M990|7|\n");
+
+    ImportedEcfIndex base = ImportedEcfIndex.of(new StringReader(IMPORTADO));
+    ImportedEcfIndex comPrefixo = ImportedEcfIndex.of(new StringReader(prefixoGrande));
+    ImportedEcfIndex comBlocoM = ImportedEcfIndex.of(new StringReader(blocoMGrande));
+
+    assertThat(comPrefixo.pesoKb()).isEqualTo(base.pesoKb());
+    assertThat((long) comBlocoM.pesoKb() * 1024)
+        .isGreaterThanOrEqualTo(comBlocoM.blocoM().length() + comBlocoM.bloco9().length());
+  }
+
+  @Test
+  @DisplayName("Deve gerar o ECF Completo lendo Importado e Parcial em streaming")
+  void generate_leConteudoEmStreaming() throws IOException {
+    when(ecfFileRepositoryPort.findByCompanyAndFiscalYearAndType(
+        1L, 2024, EcfFileType.IMPORTED_ECF))
+        .thenReturn(Optional.of(file(10L, EcfFileType.IMPORTED_ECF, "h-imp")));
+    when(ecfFileRepositoryPort.findByCompanyAndFiscalYearAndType(
+        1L, 2024, EcfFileType.ARQUIVO_PARCIAL))
+        .thenReturn(Optional.of(file(11L, EcfFileType.ARQUIVO_PARCIAL, "h-par")));
+    when(ecfContentStorePort.openStream("h-imp")).thenAnswer(invocation -> stream(IMPORTADO));
+    when(ecfContentStorePort.openStream("h-par")).thenAnswer(invocation -> stream(PARCIAL));
+    when(importedEcfIndexService.indexar("h-imp"))
+        .thenReturn(ImportedEcfIndex.of(new StringReader(IMPORTADO)));
+    StringWriter gravado = new StringWriter();
+    when(ecfContentStorePort.store(any(ContentWriter.class))).thenAnswer(invocation -> {
+      invocation.<ContentWriter>getArgument(0).writeTo(gravado);
+      return new StoredContent("h-comp", gravado.toString().length(), 23);
+    });
+    when(companyRepositoryPort.findById(1L)).thenReturn(Optional.of(new Company()));
+    when(ecfFileRepositoryPort.saveOrReplace(any(EcfFile.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    GenerateCompleteEcfResponse response = service.generate(2024, 1L, "user");
+
+    StringWriter esperado = new StringWriter();
+    service.merge(new StringReader(IMPORTADO), parcial(PARCIAL), esperado);
+    assertThat(gravado.toString()).isEqualTo(esperado.toString());
+    assertThat(response.getTotalLinhas()).isEqualTo(8);
+    verify(ecfContentStorePort, never()).read(anyString());
+    verify(ecfContentStorePort, never()).readBytes(anyString());
+  }
+
+  private static ParsedParcial parcial(String conteudo) throws IOException {
+    return EcfMergerService.parseParcial(new StringReader(conteudo));
+  }
+
+  private static InputStream stream(String conteudo) {
+    return new ByteArrayInputStream(conteudo.getBytes(StandardCharsets.ISO_8859_1));
+  }
+
+  private static EcfFile file(Long id, EcfFileType tipo, String hash) {
+    return EcfFile.builder().id(id).companyId(1L).fiscalYear(2024).fileType(tipo)
+        .contentHash(hash).build();
+  }
+}
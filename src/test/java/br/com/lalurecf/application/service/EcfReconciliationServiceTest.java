@@ -0,0 +1,131 @@
+package br.com.lalurecf.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.application.port.out.LancamentoParteBRepositoryPort;
+import br.com.lalurecf.application.port.out.LancamentoParteBTotal;
+import br.com.lalurecf.application.port.out.LancamentoParteBTotal.Nivel;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.domain.enums.TipoApuracao;
+import br.com.lalurecf.domain.model.EcfFile;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfReconciliationResponse;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfReconciliationResponse.Mismatch;
+import br.com.lalurecf.infrastructure.dto.ecf.EcfReconciliationResponse.MismatchType;
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.access.AccessDeniedException;
+
+/**
+ * Testes unitários para EcfReconciliationService.
+ *
+ * <p>Cobre a conciliação dos totais M300/M350 e filhos com os totais do banco e a verificação
+ * de ownership do arquivo.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EcfReconciliationService - Testes Unitários")
+class EcfReconciliationServiceTest {
+
+  @Mock
+  private EcfFileRepositoryPort ecfFileRepositoryPort;
+
+  @Mock
+  private EcfContentStorePort ecfContentStorePort;
+
+  @Mock
+  private LancamentoParteBRepositoryPort lancamentoParteBRepositoryPort;
+
+  @InjectMocks
+  private EcfReconciliationService service;
+
+  private static final String COMPLETO = String.join("\n",
+      "|0000|LECF|0010|123|NOME|0|0|||01012024|31122024|",
+      "|M001|0|",
+      "|M030|01012024|31012024|A01|",
+      "|M300|1|Multas|A|3|300,00|lançamentos|",
+      "|M305|PB1|200,00|D|",
+      "|M310|4.01.01||100,00|D|",
+      "|M300|9|Importado|A|1|70,00|sem lançamentos|",
+      "|M305|PB9|70,00|D|",
+      "|M350|2|Brindes|A|2|50,00|lançamentos|",
+      "|M355|PB2|40,00|D|",
+      "|M355|PB3|10,00|D|",
+      "|M030|01022024|29022024|A02|",
+      "|M300|1|Multas|A|1|10,00|fevereiro|",
+      "|M990|14|",
+      "|M300|1|Fora do bloco|A|1|999,00||",
+      "|9999|16|") + "\n";
+
+  @Test
+  @DisplayName("Deve listar totais ausentes, divergentes e contas sem lançamentos")
+  void reconcile_divergencias() {
+    when(ecfFileRepositoryPort.findById(20L)).thenReturn(Optional.of(file(20L, 1L)));
+    when(ecfContentStorePort.openStream("h-comp")).thenReturn(
+        new ByteArrayInputStream(COMPLETO.getBytes(StandardCharsets.ISO_8859_1)));
+    when(lancamentoParteBRepositoryPort.findTotaisBlocoMAtivosByCompanyIdAndAnoReferencia(
+        1L, 2024)).thenReturn(List.of(
+            total(TipoApuracao.IRPJ, 1, "1", Nivel.ENQUADRAMENTO, null, "300.00"),
+            total(TipoApuracao.IRPJ, 1, "1", Nivel.CONTA_PARTE_B, "PB1", "200.00"),
+            total(TipoApuracao.IRPJ, 1, "1", Nivel.CONTA_CONTABIL, "4.01.01", "100.00"),
+            total(TipoApuracao.CSLL, 1, "2", Nivel.ENQUADRAMENTO, null, "50.00"),
+            total(TipoApuracao.CSLL, 1, "2", Nivel.CONTA_PARTE_B, "PB2", "50.00"),
+            total(TipoApuracao.IRPJ, 2, "1", Nivel.ENQUADRAMENTO, null, "15.00"),
+            total(TipoApuracao.IRPJ, 3, "1", Nivel.ENQUADRAMENTO, null, "5.00")));
+
+    EcfReconciliationResponse response = service.reconcile(20L, 1L);
+
+    assertThat(response.getEcfFileId()).isEqualTo(20L);
+    assertThat(response.getFiscalYear()).isEqualTo(2024);
+    assertThat(response.getCheckedTotals()).isEqualTo(7);
+    assertThat(response.isConsistent()).isFalse();
+    assertThat(response.getMismatches())
+        .extracting(Mismatch::getType, Mismatch::getCodigoApuracao, Mismatch::getRegistro,
+            Mismatch::getConta)
+        .containsExactly(
+            tuple(MismatchType.VALUE_DIFFERS, "A01", "M355", "PB2"),
+            tuple(MismatchType.VALUE_DIFFERS, "A02", "M300", null),
+            tuple(MismatchType.MISSING_IN_FILE, "A03", "M300", null),
+            tuple(MismatchType.NOT_IN_DATABASE, "A01", "M355", "PB3"));
+
+    Mismatch fevereiro = response.getMismatches().get(1);
+    assertThat(fevereiro.getValorEsperado()).isEqualByComparingTo(new BigDecimal("15.00"));
+    assertThat(fevereiro.getValorArquivo()).isEqualByComparingTo(new BigDecimal("10.00"));
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar arquivo de outra empresa")
+  void reconcile_arquivoDeOutraEmpresa() {
+    when(ecfFileRepositoryPort.findById(20L)).thenReturn(Optional.of(file(20L, 2L)));
+
+    assertThatThrownBy(() -> service.reconcile(20L, 1L))
+        .isInstanceOf(AccessDeniedException.class);
+  }
+
+  private static LancamentoParteBTotal total(TipoApuracao tipo, int mes, String codigo,
+      Nivel nivel, String conta, String valor) {
+    return new LancamentoParteBTotal(tipo, mes, codigo, nivel, conta, new BigDecimal(valor));
+  }
+
+  private static EcfFile file(Long id, Long companyId) {
+    return EcfFile.builder()
+        .id(id)
+        .companyId(companyId)
+        .fiscalYear(2024)
+        .fileType(EcfFileType.COMPLETE_ECF)
+        .contentHash("h-comp")
+        .build();
+  }
+}
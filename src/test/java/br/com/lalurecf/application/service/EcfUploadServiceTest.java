@@ -0,0 +1,184 @@
+package br.com.lalurecf.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import br.com.lalurecf.application.port.out.CompanyRepositoryPort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort.StoredContent;
+import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.domain.model.Company;
+import br.com.lalurecf.domain.model.EcfFile;
+import br.com.lalurecf.infrastructure.dto.ecf.UploadImportedEcfResponse;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Testes unitários para EcfUploadService.
+ *
+ * <p>Cobre a validação do arquivo copiado para disco (formato SPED, ano fiscal, bloco M e
+ * tamanho) e a gravação em streaming no armazenamento.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("EcfUploadService - Testes Unitários")
+class EcfUploadServiceTest {
+
+  @Mock
+  private EcfFileRepositoryPort ecfFileRepositoryPort;
+
+  @Mock
+  private CompanyRepositoryPort companyRepositoryPort;
+
+  @Mock
+  private EcfContentStorePort ecfContentStorePort;
+
+  @InjectMocks
+  private EcfUploadService service;
+
+  private static final String IMPORTADO = String.join("\r\n",
+      "|0000|LECF|0010|123|NOME|0|0|||01012024|31122024|",
+      "|0001|0|",
+      "|M001|0|",
+      "|M030|01012024|31012024|A01|",
+      "|M990|3|",
+      "|9999|6|") + "\r\n";
+
+  @BeforeEach
+  void setUp() {
+    ReflectionTestUtils.setField(service, "maxFileSizeMb", 1L);
+  }
+
+  @Test
+  @DisplayName("Deve validar e gravar o conteúdo lido do arquivo temporário")
+  void upload_gravaConteudo() {
+    when(ecfFileRepositoryPort.findByCompanyAndFiscalYearAndType(
+        1L, 2024, EcfFileType.IMPORTED_ECF)).thenReturn(Optional.empty());
+    when(ecfFileRepositoryPort.findByCompanyAndFiscalYearAndType(
+        1L, 2024, EcfFileType.COMPLETE_ECF)).thenReturn(Optional.empty());
+    Company company = new Company();
+    company.setId(1L);
+    when(companyRepositoryPort.findById(1L)).thenReturn(Optional.of(company));
+    ByteArrayOutputStream gravado = new ByteArrayOutputStream();
+    when(ecfContentStorePort.store(any(InputStream.class))).thenAnswer(invocation -> {
+      ((InputStream) invocation.getArgument(0)).transferTo(gravado);
+      return new StoredContent("h", gravado.size(), 6);
+    });
+    when(ecfFileRepositoryPort.saveOrReplace(any(EcfFile.class))).thenAnswer(invocation -> {
+      EcfFile ecfFile = invocation.getArgument(0);
+      ecfFile.setId(10L);
+      return ecfFile;
+    });
+
+    UploadImportedEcfResponse response =
+        service.upload(stream(IMPORTADO), "ecf.txt", 2024, 1L, "user", false);
+
+    assertThat(response.isSuccess()).isTrue();
+    assertThat(response.getEcfFileId()).isEqualTo(10L);
+    assertThat(response.getLineCount()).isEqualTo(6);
+    assertThat(response.getFileSizeBytes()).isEqualTo(IMPORTADO.length());
+    assertThat(gravado.toString(StandardCharsets.ISO_8859_1)).isEqualTo(IMPORTADO);
+  }
+
+  @Test
+  @DisplayName("Deve descomprimir .txt.gz e gravar o conteúdo original")
+  void upload_gzip() throws IOException {
+    when(ecfFileRepositoryPort.findByCompanyAndFiscalYearAndType(
+        1L, 2024, EcfFileType.IMPORTED_ECF)).thenReturn(Optional.empty());
+    when(ecfFileRepositoryPort.findByCompanyAndFiscalYearAndType(
+        1L, 2024, EcfFileType.COMPLETE_ECF)).thenReturn(Optional.empty());
+    Company company = new Company();
+    company.setId(1L);
+    when(companyRepositoryPort.findById(1L)).thenReturn(Optional.of(company));
+    ByteArrayOutputStream gravado = new ByteArrayOutputStream();
+    when(ecfContentStorePort.store(any(InputStream.class))).thenAnswer(invocation -> {
+      ((InputStream) invocation.getArgument(0)).transferTo(gravado);
+      return new StoredContent("h", gravado.size(), 6);
+    });
+    when(ecfFileRepositoryPort.saveOrReplace(any(EcfFile.class)))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+      gzip.write(IMPORTADO.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    UploadImportedEcfResponse response = service.upload(
+        new ByteArrayInputStream(comprimido.toByteArray()), "ecf.txt.gz", 2024, 1L, "u", false);
+
+    assertThat(response.isSuccess()).isTrue();
+    assertThat(gravado.toString(StandardCharsets.ISO_8859_1)).isEqualTo(IMPORTADO);
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar .zip cujo arquivo interno não é .txt")
+  void upload_zipSemTxt() throws IOException {
+    ByteArrayOutputStream comprimido = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(comprimido)) {
+      zip.putNextEntry(new ZipEntry("ecf.csv"));
+      zip.write(IMPORTADO.getBytes(StandardCharsets.ISO_8859_1));
+    }
+
+    assertThatThrownBy(() -> service.upload(new ByteArrayInputStream(comprimido.toByteArray()),
+        "ecf.zip", 2024, 1L, "u", false))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining(".txt");
+    verify(ecfContentStorePort, never()).store(any(InputStream.class));
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar ano fiscal divergente do |0000|")
+  void upload_anoFiscalDivergente() {
+    when(ecfFileRepositoryPort.findByCompanyAndFiscalYearAndType(
+        1L, 2023, EcfFileType.IMPORTED_ECF)).thenReturn(Optional.empty());
+
+    assertThatThrownBy(() -> service.upload(stream(IMPORTADO), "ecf.txt", 2023, 1L, "u", false))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("(2024)");
+    verify(ecfContentStorePort, never()).store(any(InputStream.class));
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar arquivo sem bloco M")
+  void upload_semBlocoM() {
+    when(ecfFileRepositoryPort.findByCompanyAndFiscalYearAndType(
+        1L, 2024, EcfFileType.IMPORTED_ECF)).thenReturn(Optional.empty());
+    String semBlocoM = IMPORTADO.replace("|M001|0|", "|N001|0|");
+
+    assertThatThrownBy(() -> service.upload(stream(semBlocoM), "ecf.txt", 2024, 1L, "u", false))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("|M001|");
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar arquivo acima do tamanho máximo durante a cópia")
+  void upload_excedeTamanhoMaximo() {
+    String grande = IMPORTADO + "|9900|X|".repeat(200_000);
+
+    assertThatThrownBy(() -> service.upload(stream(grande), "ecf.txt", 2024, 1L, "u", false))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("1MB");
+  }
+
+  private static InputStream stream(String content) {
+    return new ByteArrayInputStream(content.getBytes(StandardCharsets.ISO_8859_1));
+  }
+}
@@ -0,0 +1,130 @@
+package br.com.lalurecf.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfValidationResultPort;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+/**
+ * Testes do EcfValidationCacheService com o proxy de cache do Spring.
+ *
+ * <p>Cobre os dois níveis: cache em memória e resultado persistido por (hash, tipo, versão).
+ */
+@SpringJUnitConfig(EcfValidationCacheServiceTest.Config.class)
+@DisplayName("EcfValidationCacheService - cache e resultados persistidos")
+class EcfValidationCacheServiceTest {
+
+  private static final String HASH = "abc123";
+
+  @Autowired
+  private EcfValidationCacheService service;
+
+  @Autowired
+  private EcfValidationResultPort ecfValidationResultPort;
+
+  @Autowired
+  private EcfContentStorePort ecfContentStorePort;
+
+  @Autowired
+  private EcfValidatorService ecfValidatorService;
+
+  @Autowired
+  private CacheManager cacheManager;
+
+  @BeforeEach
+  void setUp() {
+    Mockito.reset(ecfValidationResultPort, ecfContentStorePort, ecfValidatorService);
+    cacheManager.getCache(EcfValidationCacheService.CACHE_NAME).clear();
+  }
+
+  @Test
+  @DisplayName("Deve validar e persistir uma vez e responder a segunda chamada do cache")
+  void validar_cacheHit() {
+    ValidationResult result = new ValidationResult();
+    when(ecfValidationResultPort.find(HASH, EcfFileType.ARQUIVO_PARCIAL,
+        EcfValidatorService.VERSION)).thenReturn(Optional.empty());
+    when(ecfContentStorePort.read(HASH)).thenReturn("|M001|0|\n|M990|2|\n");
+    when(ecfValidatorService.validateArquivoParcial("|M001|0|\n|M990|2|\n")).thenReturn(result);
+
+    ValidationResult primeira = service.validar(HASH, EcfFileType.ARQUIVO_PARCIAL);
+    ValidationResult segunda = service.validar(HASH, EcfFileType.ARQUIVO_PARCIAL);
+
+    assertThat(primeira).isSameAs(result);
+    assertThat(segunda).isSameAs(result);
+    verify(ecfValidatorService, times(1)).validateArquivoParcial(anyString());
+    verify(ecfValidationResultPort, times(1))
+        .save(HASH, EcfFileType.ARQUIVO_PARCIAL, EcfValidatorService.VERSION, result);
+    verify(ecfValidationResultPort, times(1)).find(anyString(), any(), anyInt());
+  }
+
+  @Test
+  @DisplayName("Deve reaproveitar o resultado persistido sem ler nem validar o conteúdo")
+  void validar_resultadoPersistido() {
+    ValidationResult persistido = new ValidationResult();
+    persistido.addError("Nenhum registro M030 encontrado no arquivo");
+    when(ecfValidationResultPort.find(HASH, EcfFileType.IMPORTED_ECF,
+        EcfValidatorService.VERSION)).thenReturn(Optional.of(persistido));
+
+    ValidationResult result = service.validar(HASH, EcfFileType.IMPORTED_ECF);
+
+    assertThat(result).isSameAs(persistido);
+    verify(ecfContentStorePort, never()).read(anyString());
+    verify(ecfValidatorService, never()).validateImportedEcf(anyString());
+    verify(ecfValidationResultPort, never()).save(anyString(), any(), anyInt(), any());
+  }
+
+  @Configuration
+  @EnableCaching
+  static class Config {
+
+    @Bean
+    CacheManager cacheManager() {
+      return new ConcurrentMapCacheManager(EcfValidationCacheService.CACHE_NAME);
+    }
+
+    @Bean
+    EcfValidationResultPort ecfValidationResultPort() {
+      return Mockito.mock(EcfValidationResultPort.class);
+    }
+
+    @Bean
+    EcfContentStorePort ecfContentStorePort() {
+      return Mockito.mock(EcfContentStorePort.class);
+    }
+
+    @Bean
+    EcfValidatorService ecfValidatorService() {
+      return Mockito.mock(EcfValidatorService.class);
+    }
+
+    @Bean
+    EcfValidationCacheService ecfValidationCacheService(
+        EcfValidationResultPort ecfValidationResultPort,
+        EcfContentStorePort ecfContentStorePort,
+        EcfValidatorService ecfValidatorService) {
+      return new EcfValidationCacheService(
+          ecfValidationResultPort, ecfContentStorePort, ecfValidatorService);
+    }
+  }
+}
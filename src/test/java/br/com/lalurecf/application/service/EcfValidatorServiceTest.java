@@ -0,0 +1,53 @@
+package br.com.lalurecf.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Testes do EcfValidatorService com o ECF real de exemplo em {@code docs/info}.
+ */
+@DisplayName("EcfValidatorService - ECF de exemplo")
+class EcfValidatorServiceTest {
+
+  /**
+   * ECF real de exemplo, exportado com o zero à esquerda do dia omitido nas datas (ex:
+   * {@code 1012023}); fora isso, conforme o leiaute.
+   */
+  static final Path ECF_EXEMPLO = Path.of("docs", "info",
+      "CNPJ-14607203000155-FLOTTWEG DO BRASIL COMERCIO DE CENTRIFUGAS LTDA-Ano 2023-2024.txt");
+
+  private final ForkJoinPool pool = new ForkJoinPool(2);
+  private final EcfValidatorService service = new EcfValidatorService(pool);
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdown();
+  }
+
+  @Test
+  @DisplayName("ECF Importado de exemplo deve ser válido, com avisos só das datas de 7 dígitos")
+  void validateImportedEcf_exemploValido() throws IOException {
+    String conteudo = Files.readString(ECF_EXEMPLO, StandardCharsets.ISO_8859_1);
+
+    ValidationResult sequencial = service.validateImportedEcf(conteudo);
+    ReflectionTestUtils.setField(service, "parallelValidation", true);
+    ValidationResult paralelo = service.validateImportedEcf(conteudo);
+
+    assertThat(sequencial.isValid()).isTrue();
+    assertThat(sequencial.getErrors()).isEmpty();
+    assertThat(sequencial.getWarnings()).isNotEmpty()
+        .allMatch(aviso -> aviso.contains("data com 7 dígitos"));
+    assertThat(paralelo.getErrors()).isEmpty();
+    assertThat(paralelo.getWarnings()).isEqualTo(sequencial.getWarnings());
+  }
+}
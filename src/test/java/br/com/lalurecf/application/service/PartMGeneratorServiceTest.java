@@ -5,6 +5,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.when;
 
 import br.com.lalurecf.application.port.out.ContaParteBRepositoryPort;
+import br.com.lalurecf.application.port.out.LancamentoParteBAgregado;
 import br.com.lalurecf.application.port.out.LancamentoParteBRepositoryPort;
 import br.com.lalurecf.application.port.out.PlanoDeContasRepositoryPort;
 import br.com.lalurecf.application.port.out.TaxParameterRepositoryPort;
@@ -20,6 +21,7 @@ import br.com.lalurecf.domain.model.TaxParameter;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -91,8 +93,9 @@ class PartMGeneratorServiceTest {
   void generateGrupoIrpj_deveGerarM030ComDatasCorretas() {
     LancamentoParteB lanc = lancamentoIrpj(1, TipoRelacionamento.CONTA_CONTABIL, TipoAjuste.ADICAO,
         BigDecimal.valueOf(500));
-    when(taxParameterRepo.findById(PARAMETRO_ID)).thenReturn(Optional.of(parametro));
-    when(planoDeContasRepo.findById(CONTA_CONTABIL_ID)).thenReturn(Optional.of(planoDeContas));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
 
     List<String> lines = service.generateGrupoIrpj(List.of(lanc), FISCAL_YEAR);
 
@@ -107,8 +110,9 @@ class PartMGeneratorServiceTest {
         TipoAjuste.ADICAO, BigDecimal.valueOf(300));
     LancamentoParteB exclusao = lancamentoIrpj(2, TipoRelacionamento.CONTA_CONTABIL,
         TipoAjuste.EXCLUSAO, BigDecimal.valueOf(200));
-    when(taxParameterRepo.findById(PARAMETRO_ID)).thenReturn(Optional.of(parametro));
-    when(planoDeContasRepo.findById(CONTA_CONTABIL_ID)).thenReturn(Optional.of(planoDeContas));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
 
     List<String> adicaoLines = service.generateGrupoIrpj(List.of(adicao), FISCAL_YEAR);
     List<String> exclusaoLines = service.generateGrupoIrpj(List.of(exclusao), FISCAL_YEAR);
@@ -130,9 +134,10 @@ class PartMGeneratorServiceTest {
   @DisplayName("tipoRelacionamento = AMBOS gera tanto M305 quanto M310")
   void generateGrupoIrpj_ambosGeraM305eM310() {
     LancamentoParteB lanc = lancamentoIrpjAmbos(1, TipoAjuste.ADICAO, BigDecimal.valueOf(100));
-    when(taxParameterRepo.findById(PARAMETRO_ID)).thenReturn(Optional.of(parametro));
-    when(contaParteBRepo.findById(CONTA_PARTE_B_ID)).thenReturn(Optional.of(contaParteB));
-    when(planoDeContasRepo.findById(CONTA_CONTABIL_ID)).thenReturn(Optional.of(planoDeContas));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(contaParteBRepo.findAllById(List.of(CONTA_PARTE_B_ID))).thenReturn(List.of(contaParteB));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
 
     List<String> lines = service.generateGrupoIrpj(List.of(lanc), FISCAL_YEAR);
 
@@ -147,8 +152,9 @@ class PartMGeneratorServiceTest {
   void generateGrupoIrpj_contaContabilNaoGeraM305() {
     LancamentoParteB lanc = lancamentoIrpj(1, TipoRelacionamento.CONTA_CONTABIL,
         TipoAjuste.ADICAO, BigDecimal.valueOf(100));
-    when(taxParameterRepo.findById(PARAMETRO_ID)).thenReturn(Optional.of(parametro));
-    when(planoDeContasRepo.findById(CONTA_CONTABIL_ID)).thenReturn(Optional.of(planoDeContas));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
 
     List<String> lines = service.generateGrupoIrpj(List.of(lanc), FISCAL_YEAR);
 
@@ -161,8 +167,8 @@ class PartMGeneratorServiceTest {
   void generateGrupoIrpj_contaParteBNaoGeraM310() {
     LancamentoParteB lanc = lancamentoIrpj(1, TipoRelacionamento.CONTA_PARTE_B,
         TipoAjuste.ADICAO, BigDecimal.valueOf(100));
-    when(taxParameterRepo.findById(PARAMETRO_ID)).thenReturn(Optional.of(parametro));
-    when(contaParteBRepo.findById(CONTA_PARTE_B_ID)).thenReturn(Optional.of(contaParteB));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(contaParteBRepo.findAllById(List.of(CONTA_PARTE_B_ID))).thenReturn(List.of(contaParteB));
 
     List<String> lines = service.generateGrupoIrpj(List.of(lanc), FISCAL_YEAR);
 
@@ -187,8 +193,9 @@ class PartMGeneratorServiceTest {
         .valor(BigDecimal.valueOf(200))
         .status(Status.ACTIVE)
         .build();
-    when(taxParameterRepo.findById(PARAMETRO_ID)).thenReturn(Optional.of(parametro));
-    when(planoDeContasRepo.findById(CONTA_CONTABIL_ID)).thenReturn(Optional.of(planoDeContas));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
 
     List<String> irpjLines = service.generateGrupoIrpj(List.of(irpj), FISCAL_YEAR);
     List<String> csllLines = service.generateGrupoCsll(List.of(csll), FISCAL_YEAR);
@@ -207,8 +214,9 @@ class PartMGeneratorServiceTest {
   void generateGrupoIrpj_formatacaoDeValorComVirgula() {
     LancamentoParteB lanc = lancamentoIrpj(1, TipoRelacionamento.CONTA_CONTABIL,
         TipoAjuste.ADICAO, new BigDecimal("1234.56"));
-    when(taxParameterRepo.findById(PARAMETRO_ID)).thenReturn(Optional.of(parametro));
-    when(planoDeContasRepo.findById(CONTA_CONTABIL_ID)).thenReturn(Optional.of(planoDeContas));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
 
     List<String> lines = service.generateGrupoIrpj(List.of(lanc), FISCAL_YEAR);
 
@@ -223,8 +231,9 @@ class PartMGeneratorServiceTest {
         TipoAjuste.ADICAO, BigDecimal.valueOf(300));
     LancamentoParteB lanc2 = lancamentoIrpj(1, TipoRelacionamento.CONTA_CONTABIL,
         TipoAjuste.ADICAO, BigDecimal.valueOf(200));
-    when(taxParameterRepo.findById(PARAMETRO_ID)).thenReturn(Optional.of(parametro));
-    when(planoDeContasRepo.findById(CONTA_CONTABIL_ID)).thenReturn(Optional.of(planoDeContas));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
 
     List<String> lines = service.generateGrupoIrpj(List.of(lanc1, lanc2), FISCAL_YEAR);
 
@@ -233,37 +242,89 @@ class PartMGeneratorServiceTest {
   }
 
   @Test
-  @DisplayName("Lançamentos INACTIVE são ignorados")
-  void generateArquivoParcial_lancamentosInativosIgnorados() {
-    LancamentoParteB active = lancamentoIrpj(1, TipoRelacionamento.CONTA_CONTABIL,
-        TipoAjuste.ADICAO, BigDecimal.valueOf(100));
-    LancamentoParteB inactive = LancamentoParteB.builder()
-        .mesReferencia(1)
-        .anoReferencia(FISCAL_YEAR)
-        .tipoApuracao(TipoApuracao.IRPJ)
-        .tipoRelacionamento(TipoRelacionamento.CONTA_CONTABIL)
-        .tipoAjuste(TipoAjuste.ADICAO)
-        .contaContabilId(CONTA_CONTABIL_ID)
-        .parametroTributarioId(PARAMETRO_ID)
-        .descricao("inactive")
-        .valor(BigDecimal.valueOf(999))
-        .status(Status.INACTIVE)
-        .build();
-    when(lancamentoRepo.findByCompanyIdAndAnoReferencia(COMPANY_ID, FISCAL_YEAR))
-        .thenReturn(List.of(active, inactive));
-    when(taxParameterRepo.findById(PARAMETRO_ID)).thenReturn(Optional.of(parametro));
-    when(planoDeContasRepo.findById(CONTA_CONTABIL_ID)).thenReturn(Optional.of(planoDeContas));
+  @DisplayName("generateArquivoParcial formata linhas agregadas no banco (sem lançamentos)")
+  void generateArquivoParcial_usaLinhasAgregadasDoBanco() {
+    LancamentoParteBAgregado contabil = new LancamentoParteBAgregado(
+        TipoApuracao.IRPJ, 1, PARAMETRO_ID, TipoRelacionamento.CONTA_CONTABIL,
+        null, CONTA_CONTABIL_ID, TipoAjuste.ADICAO, new BigDecimal("300.00"), 3, 5L, "primeiro");
+    LancamentoParteBAgregado parteB = new LancamentoParteBAgregado(
+        TipoApuracao.IRPJ, 1, PARAMETRO_ID, TipoRelacionamento.CONTA_PARTE_B,
+        CONTA_PARTE_B_ID, null, TipoAjuste.ADICAO, new BigDecimal("200.00"), 2, 7L, "segundo");
+    when(lancamentoRepo.findAgregadosAtivosByCompanyIdAndAnoReferencia(COMPANY_ID, FISCAL_YEAR))
+        .thenReturn(List.of(contabil, parteB));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(contaParteBRepo.findAllById(List.of(CONTA_PARTE_B_ID))).thenReturn(List.of(contaParteB));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
 
     String result = service.generateArquivoParcial(COMPANY_ID, FISCAL_YEAR);
 
-    assertThat(result).doesNotContain("999,00");
-    assertThat(result).contains("100,00");
+    assertThat(result.split("\n")).containsExactly(
+        "|M030|01012024|31012024|A01|",
+        "|M300|001|Multas nao dedutiveis|A|3|500,00|primeiro|",
+        "|M305|4.01.01|200,00|D|",
+        "|M310|1.1.01.001||300,00|D|",
+        "|M990|5|");
+  }
+
+  @Test
+  @DisplayName("Agregação em memória produz o mesmo resultado das linhas agregadas no banco")
+  void generateArquivoParcial_listaEAgregadosGeramMesmoConteudo() {
+    LancamentoParteB lanc1 = lancamentoIrpjAmbos(1, TipoAjuste.ADICAO, BigDecimal.valueOf(100));
+    LancamentoParteB lanc2 = lancamentoIrpjAmbos(1, TipoAjuste.ADICAO, BigDecimal.valueOf(50));
+    LancamentoParteB lanc3 = lancamentoIrpj(2, TipoRelacionamento.CONTA_CONTABIL,
+        TipoAjuste.EXCLUSAO, BigDecimal.valueOf(70));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(contaParteBRepo.findAllById(List.of(CONTA_PARTE_B_ID))).thenReturn(List.of(contaParteB));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
+
+    List<LancamentoParteBAgregado> agregados = service.agregar(List.of(lanc1, lanc2, lanc3));
+
+    assertThat(agregados).hasSize(2);
+    assertThat(agregados.get(0).valorTotal()).isEqualByComparingTo("150");
+    assertThat(agregados.get(0).quantidade()).isEqualTo(2);
+    assertThat(service.generateArquivoParcialFromAgregados(agregados, FISCAL_YEAR))
+        .isEqualTo(service.generateArquivoParcial(List.of(lanc1, lanc2, lanc3), FISCAL_YEAR));
+  }
+
+  @Test
+  @DisplayName("Geração paralela (IRPJ|CSLL × mês) produz conteúdo idêntico à sequencial")
+  void generateArquivoParcial_paraleloIdenticoAoSequencial() {
+    List<LancamentoParteBAgregado> agregados = new java.util.ArrayList<>();
+    for (int mes = 1; mes <= 12; mes++) {
+      for (TipoApuracao tipo : TipoApuracao.values()) {
+        agregados.add(new LancamentoParteBAgregado(
+            tipo, mes, PARAMETRO_ID, TipoRelacionamento.AMBOS, CONTA_PARTE_B_ID,
+            CONTA_CONTABIL_ID, TipoAjuste.ADICAO, BigDecimal.valueOf(mes * 10L), 1,
+            (long) mes, "mes " + mes));
+      }
+    }
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(contaParteBRepo.findAllById(List.of(CONTA_PARTE_B_ID))).thenReturn(List.of(contaParteB));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      PartMGeneratorService paralelo = new PartMGeneratorService(
+          lancamentoRepo, contaParteBRepo, planoDeContasRepo, taxParameterRepo, pool);
+
+      String sequencial = paralelo.generateArquivoParcialFromAgregados(
+          agregados, FISCAL_YEAR, false);
+      String emParalelo = paralelo.generateArquivoParcialFromAgregados(
+          agregados, FISCAL_YEAR, true);
+
+      assertThat(emParalelo).isEqualTo(sequencial);
+      assertThat(emParalelo.indexOf("|M350|")).isGreaterThan(emParalelo.lastIndexOf("|M300|"));
+    } finally {
+      pool.shutdown();
+    }
   }
 
   @Test
   @DisplayName("Sem lançamentos ACTIVE lança IllegalArgumentException")
   void generateArquivoParcial_semLancamentosAtivosLancaExcecao() {
-    when(lancamentoRepo.findByCompanyIdAndAnoReferencia(COMPANY_ID, FISCAL_YEAR))
+    when(lancamentoRepo.findAgregadosAtivosByCompanyIdAndAnoReferencia(COMPANY_ID, FISCAL_YEAR))
         .thenReturn(List.of());
 
     assertThatThrownBy(() -> service.generateArquivoParcial(COMPANY_ID, FISCAL_YEAR))
@@ -278,8 +339,9 @@ class PartMGeneratorServiceTest {
         TipoAjuste.ADICAO, BigDecimal.valueOf(100));
     LancamentoParteB lancMes3 = lancamentoIrpj(3, TipoRelacionamento.CONTA_CONTABIL,
         TipoAjuste.ADICAO, BigDecimal.valueOf(200));
-    when(taxParameterRepo.findById(PARAMETRO_ID)).thenReturn(Optional.of(parametro));
-    when(planoDeContasRepo.findById(CONTA_CONTABIL_ID)).thenReturn(Optional.of(planoDeContas));
+    when(taxParameterRepo.findAllById(List.of(PARAMETRO_ID))).thenReturn(List.of(parametro));
+    when(planoDeContasRepo.findAllById(List.of(CONTA_CONTABIL_ID)))
+        .thenReturn(List.of(planoDeContas));
 
     List<String> lines = service.generateGrupoIrpj(List.of(lancMes1, lancMes3), FISCAL_YEAR);
 
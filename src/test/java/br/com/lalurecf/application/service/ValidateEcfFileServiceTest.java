@@ -0,0 +1,90 @@
+package br.com.lalurecf.application.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.domain.enums.EcfFileStatus;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.domain.model.EcfFile;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.Optional;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+/**
+ * Testes unitários para ValidateEcfFileService.
+ *
+ * <p>Verifica que o arquivo só é regravado quando o resultado da validação muda seu status ou
+ * seus erros.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ValidateEcfFileService - Testes Unitários")
+class ValidateEcfFileServiceTest {
+
+  @Mock
+  private EcfFileRepositoryPort ecfFileRepositoryPort;
+
+  @Mock
+  private EcfValidationCacheService ecfValidationCacheService;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks
+  private ValidateEcfFileService service;
+
+  @Test
+  @DisplayName("Não deve regravar o arquivo quando status e erros não mudaram")
+  void validate_inalteradoNaoGrava() {
+    EcfFile ecfFile = ecfFile(EcfFileStatus.VALIDATED, null);
+    when(ecfFileRepositoryPort.findById(1L)).thenReturn(Optional.of(ecfFile));
+    when(ecfValidationCacheService.validar("h1", EcfFileType.ARQUIVO_PARCIAL))
+        .thenReturn(new ValidationResult());
+
+    ValidationResult result = service.validate(1L, 10L);
+
+    assertThat(result.isValid()).isTrue();
+    verify(ecfFileRepositoryPort, never()).saveOrReplace(any());
+  }
+
+  @Test
+  @DisplayName("Deve gravar status ERROR e os erros quando o resultado muda o arquivo")
+  void validate_alteradoGrava() {
+    EcfFile ecfFile = ecfFile(EcfFileStatus.VALIDATED, null);
+    when(ecfFileRepositoryPort.findById(1L)).thenReturn(Optional.of(ecfFile));
+    ValidationResult invalido = new ValidationResult();
+    invalido.addError("Nenhum registro M030 encontrado no arquivo");
+    when(ecfValidationCacheService.validar("h1", EcfFileType.ARQUIVO_PARCIAL))
+        .thenReturn(invalido);
+
+    service.validate(1L, 10L);
+
+    ArgumentCaptor<EcfFile> saved = ArgumentCaptor.forClass(EcfFile.class);
+    verify(ecfFileRepositoryPort).saveOrReplace(saved.capture());
+    assertThat(saved.getValue().getFileStatus()).isEqualTo(EcfFileStatus.ERROR);
+    assertThat(saved.getValue().getValidationErrors())
+        .isEqualTo("[\"Nenhum registro M030 encontrado no arquivo\"]");
+  }
+
+  private static EcfFile ecfFile(EcfFileStatus fileStatus, String validationErrors) {
+    return EcfFile.builder()
+        .id(1L)
+        .companyId(10L)
+        .fileType(EcfFileType.ARQUIVO_PARCIAL)
+        .contentHash("h1")
+        .fileStatus(fileStatus)
+        .validationErrors(validationErrors)
+        .build();
+  }
+}
@@ -0,0 +1,99 @@
+package br.com.lalurecf.application.service.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import br.com.lalurecf.domain.util.SpedDocument;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes unitários para EcfValidationEngine.
+ *
+ * <p>Cobre o despacho por tipo de registro em passada única, a ordem dos resultados por regra e
+ * a equivalência da validação paralela por blocos.
+ */
+@DisplayName("EcfValidationEngine - Testes Unitários")
+class EcfValidationEngineTest {
+
+  private static final String COMPLETO = String.join("\n",
+      "|0000|LECF|",
+      "|M001|0|",
+      "|M030|01012024|31012024|A01|",
+      "|M300|1|Multas|A|3|200,00|hist|",
+      "|M305|PB1|200,00|D|",
+      "|M310|4.01.01||100,00|X|",
+      "|M990|6|",
+      "|9999|8|") + "\n";
+
+  @Test
+  @DisplayName("Deve entregar cada linha inscrita uma única vez, em ordem")
+  void validate_despachaPorTipo() {
+    List<Integer> vistas = new ArrayList<>();
+    EcfValidationRule regra = new EcfValidationRule() {
+      @Override
+      public Set<String> tipos() {
+        return Set.of("M300", "M305", "M999");
+      }
+
+      @Override
+      public void accept(SpedDocument doc, int line, ValidationResult result) {
+        vistas.add(line);
+      }
+    };
+
+    new EcfValidationEngine(List.of(() -> regra)).validate(SpedDocument.parse(COMPLETO));
+
+    assertThat(vistas).containsExactly(3, 4);
+  }
+
+  @Test
+  @DisplayName("Deve agrupar erros na ordem das regras")
+  void validate_ordemDasRegras() {
+    EcfValidationEngine engine = new EcfValidationEngine(
+        List.of(EstruturaSpedRule::new, BlocoMRule::new, M990CountRule::new));
+
+    String semM001 = COMPLETO.replace("|M001|0|\n", "");
+    ValidationResult result = engine.validate(SpedDocument.parse(semM001));
+
+    assertThat(result.isValid()).isFalse();
+    assertThat(result.getErrors()).containsExactly(
+        "Registro |M001| não encontrado",
+        "M310 conta 4.01.01: D/C inválido 'X'");
+    assertThat(result.getWarnings()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Validação por blocos deve produzir o mesmo resultado da sequencial")
+  void validate_paraleloIgualSequencial() {
+    String arquivo = String.join("\n",
+        "|0000|LECF|",
+        "|0001|0|",
+        "|0990|3|",
+        "|M001|0|",
+        "|M030|01012024|31012024|A01|",
+        "|M300|1|Multas|A|1|100,00|hist|",
+        "|N001|0|",
+        "|M305|PB1|50,00|D|",
+        "linha invalida",
+        "|M990|9|",
+        "|9001|0|",
+        "|9999|12|") + "\n";
+    EcfValidationEngine engine = new EcfValidationEngine(
+        List.of(EstruturaSpedRule::new, BlocoMRule::new, M990CountRule::new));
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      ValidationResult sequencial = engine.validate(SpedDocument.parse(arquivo));
+      ValidationResult paralelo = engine.validate(arquivo, pool);
+
+      assertThat(paralelo.getErrors()).isNotEmpty().isEqualTo(sequencial.getErrors());
+      assertThat(paralelo.getWarnings()).isNotEmpty().isEqualTo(sequencial.getWarnings());
+    } finally {
+      pool.shutdown();
+    }
+  }
+}
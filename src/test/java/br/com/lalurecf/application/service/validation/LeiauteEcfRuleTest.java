@@ -0,0 +1,149 @@
+package br.com.lalurecf.application.service.validation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import br.com.lalurecf.domain.util.SpedDocument;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Testes unitários para LeiauteEcfRule e EcfLeiaute.
+ *
+ * <p>Cobre a carga do leiaute versionado, a verificação de campos (tipo, tamanho e
+ * obrigatoriedade) e da hierarquia, a agregação das ocorrências e a equivalência da validação
+ * por blocos.
+ */
+@DisplayName("LeiauteEcfRule - Testes Unitários")
+class LeiauteEcfRuleTest {
+
+  private static final String VALIDO = String.join("\n",
+      "|0000|LECF|0010|12345678000195|EMPRESA|0|0|||01012023|31122023|N||0|",
+      "|0001|0|",
+      "|0990|2|",
+      "|M001|0|",
+      "|M030|01012023|31122023|A00|",
+      "|M300|1|Multas|A|1|200,00|hist|",
+      "|M305|PB1|200,00|D|",
+      "|M990|5|",
+      "|9001|0|",
+      "|9900|0000|1|",
+      "|9990|3|",
+      "|9999|11|") + "\n";
+
+  @Test
+  @DisplayName("Deve carregar o leiaute da versão declarada no |0000|")
+  void leiaute_versaoDeclarada() {
+    String versao = EcfLeiaute.versaoDeclarada(VALIDO);
+    EcfLeiaute leiaute = EcfLeiaute.daVersao(versao);
+
+    assertThat(versao).isEqualTo("0010");
+    assertThat(leiaute.versao()).isEqualTo("0010");
+    assertThat(leiaute.campo("0000", "DT_FIN")).isEqualTo(11);
+    assertThat(leiaute.campo("M300", "VALOR")).isEqualTo(6);
+    assertThat(EcfLeiaute.daVersao("9999")).isSameAs(EcfLeiaute.maisRecente());
+  }
+
+  @Test
+  @DisplayName("Arquivo conforme o leiaute não deve gerar erros nem avisos")
+  void validate_arquivoValido() {
+    ValidationResult result = validar(VALIDO, "0010");
+
+    assertThat(result.getErrors()).isEmpty();
+    assertThat(result.getWarnings()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Deve agregar erros de campo e de hierarquia por registro, campo e problema")
+  void validate_errosAgregados() {
+    String arquivo = VALIDO
+        .replace("|M030|01012023|", "|M030|01132023|")
+        .replace("|M305|PB1|200,00|D|\n",
+            "|M305|PB1|200,00|D|\n|M305|PB2|1,005|D|\n|M305||10,00|D|EXTRA|\n")
+        .replace("|M001|0|\n", "|M001|0|\n|M305|PB0|1,00|C|\n");
+
+    ValidationResult result = validar(arquivo, "0010");
+
+    assertThat(result.getErrors()).containsExactly(
+        "M305 fora da hierarquia (esperado dentro de M300) em 1 linha(s), a primeira na linha 5",
+        "M030 campo DT_INI: data inválida (esperado DDMMAAAA) em 1 linha(s), "
+            + "a primeira na linha 6",
+        "M305 campo VL_CTA: valor inválido (esperado número com vírgula decimal e até 2 casas)"
+            + " em 1 linha(s), a primeira na linha 9",
+        "M305: mais campos que os 3 do leiaute 0010 em 1 linha(s), a primeira na linha 10",
+        "M305 campo COD_CTA_B: obrigatório vazio em 1 linha(s), a primeira na linha 10");
+    assertThat(result.getWarnings()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("Data com 7 dígitos (dia sem zero à esquerda) deve gerar aviso, não erro")
+  void validate_dataSemZeroAEsquerda() {
+    String arquivo = VALIDO
+        .replace("|M030|01012023|31122023|", "|M030|1012023|31122023|")
+        .replace("|M300|1|Multas|", "|M030|1022023|28022023|A02|\n|M300|1|Multas|")
+        .replace("|M990|5|", "|M030|0012023|31122023|A03|\n|M990|5|");
+
+    ValidationResult result = validar(arquivo, "0010");
+
+    assertThat(result.getErrors()).containsExactly(
+        "M030 campo DT_INI: data inválida (esperado DDMMAAAA) em 1 linha(s), "
+            + "a primeira na linha 9");
+    assertThat(result.getWarnings()).containsExactly(
+        "M030 campo DT_INI: data com 7 dígitos (dia sem o zero à esquerda), lida como DDMMAAAA"
+            + " em 2 linha(s), a primeira na linha 5");
+  }
+
+  @Test
+  @DisplayName("Campos condicionais do M300/M350 podem ficar vazios em linhas de rótulo")
+  void validate_condicionaisVazios() {
+    String arquivo = VALIDO
+        .replace("|M300|1|Multas|", "|M300|1|ATIVIDADE GERAL|R|\n|M300|2|Multas|")
+        .replace("|M305|PB1|200,00|D|\n",
+            "|M305|PB1|200,00|D|\n|M350|172|COMPENSACAO|\n|M350|173|Multas|A|X|\n");
+
+    ValidationResult result = validar(arquivo, "0010");
+
+    assertThat(result.getErrors()).containsExactly(
+        "M350 campo IND_RELACAO: deve conter apenas dígitos em 1 linha(s), "
+            + "a primeira na linha 10");
+  }
+
+  @Test
+  @DisplayName("Deve avisar quando a versão declarada não está descrita")
+  void validate_versaoNaoDescrita() {
+    ValidationResult result = validar(VALIDO.replace("|LECF|0010|", "|LECF|0099|"), "0099");
+
+    assertThat(result.getErrors()).isEmpty();
+    assertThat(result.getWarnings())
+        .containsExactly("Leiaute ECF 0099 não descrito — arquivo validado pelo leiaute 0010");
+  }
+
+  @Test
+  @DisplayName("Validação por blocos deve produzir o mesmo resultado da sequencial")
+  void validate_paraleloIgualSequencial() {
+    String arquivo = VALIDO
+        .replace("|0001|0|", "|0001|X|")
+        .replace("|M305|PB1|200,00|D|", "|M305|PB1|200,00|D|\n|M312|1|")
+        .replace("|9900|0000|1|", "|9900|0000|1|\n|9900|M300|A|");
+    EcfLeiaute leiaute = EcfLeiaute.maisRecente();
+    EcfValidationEngine engine =
+        new EcfValidationEngine(List.of(() -> new LeiauteEcfRule(leiaute, "0010")));
+    ForkJoinPool pool = new ForkJoinPool(2);
+    try {
+      ValidationResult sequencial = engine.validate(SpedDocument.parse(arquivo));
+      ValidationResult paralelo = engine.validate(arquivo, pool);
+
+      assertThat(paralelo.getErrors()).hasSize(3).isEqualTo(sequencial.getErrors());
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  private static ValidationResult validar(String arquivo, String versao) {
+    EcfLeiaute leiaute = EcfLeiaute.daVersao(versao);
+    return new EcfValidationEngine(List.of(() -> new LeiauteEcfRule(leiaute, versao)))
+        .validate(SpedDocument.parse(arquivo));
+  }
+}
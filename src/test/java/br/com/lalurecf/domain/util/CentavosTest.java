@@ -0,0 +1,77 @@
+package br.com.lalurecf.domain.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+@DisplayName("Centavos - aritmética de ponto fixo")
+class CentavosTest {
+
+  @ParameterizedTest
+  @CsvSource({
+      "0, 0",
+      "1234.56, 123456",
+      "-0.50, -50",
+      "10, 1000",
+      "0.005, 1"
+  })
+  @DisplayName("Deve converter BigDecimal para centavos com HALF_UP")
+  void of_converteBigDecimal(String valor, long esperado) {
+    assertThat(Centavos.of(new BigDecimal(valor))).isEqualTo(esperado);
+  }
+
+  @Test
+  @DisplayName("Deve tratar null como zero e voltar para BigDecimal com escala 2")
+  void of_nullEToBigDecimal() {
+    assertThat(Centavos.of(null)).isZero();
+    assertThat(Centavos.toBigDecimal(123456)).isEqualTo(new BigDecimal("1234.56"));
+  }
+
+  @ParameterizedTest
+  @CsvSource({
+      "'1234,56', 123456",
+      "'1234.56', 123456",
+      "'1,5', 150",
+      "'-0,01', -1",
+      "'+7', 700",
+      "',5', 50",
+      "'1E+2', 10000"
+  })
+  @DisplayName("Deve interpretar valores no formato SPED")
+  void parse_formatosValidos(String valor, long esperado) {
+    assertThat(Centavos.parse(valor)).isEqualTo(esperado);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "-", ",", "abc", "1,234", "1.2.3", "12,3x"})
+  @DisplayName("Deve rejeitar valores fora do formato monetário")
+  void parse_formatosInvalidos(String valor) {
+    assertThatThrownBy(() -> Centavos.parse(valor))
+        .isInstanceOf(NumberFormatException.class);
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"0", "0.01", "-0.50", "1234.56", "-987654.3", "100"})
+  @DisplayName("Formatação deve ser idêntica ao %.2f com vírgula usado anteriormente")
+  void format_equivalenteAoFormatoAnterior(String valor) {
+    BigDecimal decimal = new BigDecimal(valor);
+    String anterior = String.format("%.2f", decimal).replace(".", ",");
+
+    assertThat(Centavos.format(Centavos.of(decimal))).isEqualTo(anterior);
+  }
+
+  @Test
+  @DisplayName("Deve lançar ArithmeticException em overflow")
+  void add_overflow() {
+    assertThatThrownBy(() -> Centavos.add(Long.MAX_VALUE, 1))
+        .isInstanceOf(ArithmeticException.class);
+    assertThatThrownBy(() -> Centavos.subtract(Long.MIN_VALUE, 1))
+        .isInstanceOf(ArithmeticException.class);
+  }
+}
@@ -0,0 +1,123 @@
+package br.com.lalurecf.domain.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("CompressedUploads - descompressão de uploads em streaming")
+class CompressedUploadsTest {
+
+  private static final String CSV = "conta;valor\n1.01;10,00\n";
+
+  @Test
+  @DisplayName("Deve descomprimir .gz e remover a extensão do nome")
+  void open_gzip() throws IOException {
+    CompressedUploads.Upload upload =
+        CompressedUploads.open(gzip(bytes(CSV)), "lancamentos.csv.gz", 1024);
+
+    assertThat(upload.fileName()).isEqualTo("lancamentos.csv");
+    assertThat(ler(upload.content())).isEqualTo(CSV);
+  }
+
+  @Test
+  @DisplayName("Deve ler a única entrada do .zip, ignorando diretórios e __MACOSX")
+  void open_zipComUmArquivo() throws IOException {
+    InputStream zip = zip("dados/", null, "dados/plano.csv", CSV, "__MACOSX/._plano.csv", "x");
+
+    CompressedUploads.Upload upload = CompressedUploads.open(zip, "plano.ZIP", 1024);
+
+    assertThat(upload.fileName()).isEqualTo("plano.csv");
+    assertThat(ler(upload.content())).isEqualTo(CSV);
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar .zip com mais de um arquivo")
+  void open_zipComVariosArquivos() throws IOException {
+    InputStream zip = zip("a.csv", CSV, "b.csv", CSV);
+
+    CompressedUploads.Upload upload = CompressedUploads.open(zip, "lote.zip", 1024);
+
+    assertThatThrownBy(() -> ler(upload.content()))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("único arquivo");
+  }
+
+  @Test
+  @DisplayName("Deve interromper a leitura quando o conteúdo descomprimido excede o limite")
+  void open_excedeLimite() throws IOException {
+    byte[] grande = new byte[1024 * 1024 + 1];
+    CompressedUploads.Upload upload = CompressedUploads.open(gzip(grande), "bomba.gz", 1024 * 1024);
+
+    assertThatThrownBy(() -> upload.content().transferTo(OutputStream.nullOutputStream()))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("1MB");
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar .gz inválido")
+  void open_gzipInvalido() {
+    assertThatThrownBy(() -> CompressedUploads.open(
+        new ByteArrayInputStream(bytes(CSV)), "lancamentos.csv.gz", 1024))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("Arquivo comprimido inválido");
+  }
+
+  @Test
+  @DisplayName("Deve usar UTF-8 sem o BOM quando presente e ISO-8859-1 caso contrário")
+  void textReader_detectaBom() throws IOException {
+    byte[] utf8 = "\uFEFFdescrição".getBytes(StandardCharsets.UTF_8);
+    byte[] latin1 = "descrição".getBytes(StandardCharsets.ISO_8859_1);
+
+    try (BufferedReader reader = CompressedUploads.textReader(new ByteArrayInputStream(utf8))) {
+      assertThat(reader.readLine()).isEqualTo("descrição");
+    }
+    try (BufferedReader reader = CompressedUploads.textReader(new ByteArrayInputStream(latin1))) {
+      assertThat(reader.readLine()).isEqualTo("descrição");
+    }
+  }
+
+  private static String ler(InputStream content) throws IOException {
+    try (content) {
+      return new String(content.readAllBytes(), StandardCharsets.ISO_8859_1);
+    }
+  }
+
+  private static byte[] bytes(String texto) {
+    return texto.getBytes(StandardCharsets.ISO_8859_1);
+  }
+
+  private static InputStream gzip(byte[] conteudo) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+      gzip.write(conteudo);
+    }
+    return new ByteArrayInputStream(out.toByteArray());
+  }
+
+  /** Zip com pares (nome, conteúdo); conteúdo null cria diretório. */
+  private static InputStream zip(String... entradas) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ZipOutputStream zip = new ZipOutputStream(out)) {
+      for (int i = 0; i < entradas.length; i += 2) {
+        zip.putNextEntry(new ZipEntry(entradas[i]));
+        if (entradas[i + 1] != null) {
+          zip.write(bytes(entradas[i + 1]));
+        }
+        zip.closeEntry();
+      }
+    }
+    return new ByteArrayInputStream(out.toByteArray());
+  }
+}
@@ -0,0 +1,67 @@
+package br.com.lalurecf.domain.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("LongObjectMap / LongIdIndex - estruturas com chave long")
+class LongObjectMapTest {
+
+  @Test
+  @DisplayName("LongIdIndex deve atribuir índices densos na ordem da primeira ocorrência")
+  void longIdIndex_indicesDensos() {
+    LongIdIndex index = new LongIdIndex();
+
+    assertThat(index.add(900L)).isZero();
+    assertThat(index.add(5L)).isEqualTo(1);
+    assertThat(index.add(900L)).isZero();
+    assertThat(index.add(-3L)).isEqualTo(2);
+
+    assertThat(index.size()).isEqualTo(3);
+    assertThat(index.indexOf(5L)).isEqualTo(1);
+    assertThat(index.indexOf(6L)).isEqualTo(-1);
+    assertThat(index.keyAt(2)).isEqualTo(-3L);
+    assertThatThrownBy(() -> index.keyAt(3)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+
+  @Test
+  @DisplayName("Deve se comportar como HashMap após crescer com muitas chaves")
+  void put_get_equivalenteAoHashMap() {
+    LongObjectMap<String> map = new LongObjectMap<>();
+    Map<Long, String> referencia = new HashMap<>();
+    Random random = new Random(42);
+
+    for (int i = 0; i < 10_000; i++) {
+      long key = i % 3 == 0 ? i : random.nextLong();
+      map.put(key, "v" + i);
+      referencia.put(key, "v" + i);
+    }
+
+    assertThat(map.size()).isEqualTo(referencia.size());
+    referencia.forEach((k, v) -> assertThat(map.get(k)).isEqualTo(v));
+    assertThat(map.get(1L)).isNull();
+    assertThat(map.containsKey(3L)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Iteração por posição deve seguir a ordem de inserção")
+  void keyAt_valueAt_ordemDeInsercao() {
+    LongObjectMap<StringBuilder> map = new LongObjectMap<>(2);
+    map.computeIfAbsent(30L, k -> new StringBuilder()).append("a");
+    map.computeIfAbsent(10L, k -> new StringBuilder()).append("b");
+    map.computeIfAbsent(30L, k -> new StringBuilder()).append("c");
+    map.put(20L, new StringBuilder("d"));
+
+    assertThat(map.size()).isEqualTo(3);
+    assertThat(map.keyAt(0)).isEqualTo(30L);
+    assertThat(map.keyAt(1)).isEqualTo(10L);
+    assertThat(map.keyAt(2)).isEqualTo(20L);
+    assertThat(map.valueAt(0)).hasToString("ac");
+    assertThatThrownBy(() -> map.valueAt(3)).isInstanceOf(IndexOutOfBoundsException.class);
+  }
+}
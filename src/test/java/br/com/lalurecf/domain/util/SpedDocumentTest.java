@@ -0,0 +1,68 @@
+package br.com.lalurecf.domain.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("SpedDocument - índice de linhas e campos")
+class SpedDocumentTest {
+
+  private static final String CONTEUDO = String.join("\r\n",
+      "|0000|LECF|0010|",
+      "|M300|1|Multas|A|3|300,00|",
+      "",
+      "|M300|2||",
+      "lixo",
+      "|M990|4|") + "\r\n\r\n";
+
+  @Test
+  @DisplayName("Campos devem seguir a numeração de split(\"\\\\|\", -1), sem o \\r final")
+  void field_equivalenteAoSplit() {
+    SpedDocument doc = SpedDocument.parse(CONTEUDO);
+
+    assertThat(doc.lineCount()).isEqualTo(7);
+    assertThat(doc.fieldCount(1)).isEqualTo(8);
+    assertThat(doc.field(1, 3).toString()).isEqualTo("Multas");
+    assertThat(doc.fieldString(1, 6)).isEqualTo("300,00");
+    assertThat(doc.fieldString(1, 7)).isEmpty();
+    assertThat(doc.fieldString(1, 20)).isEmpty();
+    assertThat(doc.fieldEquals(1, 5, "3")).isTrue();
+    assertThat(doc.isFieldBlank(3, 3)).isTrue();
+    assertThat(doc.line(5).toString()).isEqualTo("|M990|4|");
+    assertThat(doc.isPipeDelimited(5)).isTrue();
+    assertThat(doc.isPipeDelimited(4)).isFalse();
+    assertThat(doc.isBlank(2)).isTrue();
+  }
+
+  @Test
+  @DisplayName("Tipos devem ser internados em IDs densos compartilhados entre linhas")
+  void tipo_internado() {
+    SpedDocument doc = SpedDocument.parse(CONTEUDO);
+
+    assertThat(doc.tipo(1)).isSameAs(doc.tipo(3)).isEqualTo("M300");
+    assertThat(doc.tipoId(1)).isEqualTo(doc.tipoId("M300"));
+    assertThat(doc.tipoId(4)).isEqualTo(SpedDocument.SEM_TIPO);
+    assertThat(doc.tipo(2)).isNull();
+    assertThat(doc.tipoCount()).isEqualTo(3);
+    assertThat(doc.tipoId("M001")).isEqualTo(SpedDocument.SEM_TIPO);
+    assertThat(doc.firstLineOf("M990")).isEqualTo(5);
+  }
+
+  @Test
+  @DisplayName("Linhas brutas devem preservar o \\r e ignorar linhas vazias finais")
+  void rawLine_preservaTerminador() throws IOException {
+    SpedDocument doc = SpedDocument.parse(CONTEUDO);
+    StringWriter writer = new StringWriter();
+
+    int gravados = doc.writeRawLine(5, writer);
+
+    assertThat(doc.rawLine(0)).isEqualTo("|0000|LECF|0010|\r");
+    assertThat(writer.toString()).isEqualTo("|M990|4|\r");
+    assertThat(gravados).isEqualTo(9);
+    assertThat(doc.lineCountWithoutTrailingEmpty()).isEqualTo(7);
+    assertThat(SpedDocument.parse("|A|\n\n\n").lineCountWithoutTrailingEmpty()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,156 @@
+package br.com.lalurecf.infrastructure.adapter.in.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort.StoredContent;
+import br.com.lalurecf.application.port.out.EcfFileRepositoryPort;
+import br.com.lalurecf.domain.enums.EcfFileStatus;
+import br.com.lalurecf.domain.enums.EcfFileType;
+import br.com.lalurecf.domain.enums.Status;
+import br.com.lalurecf.domain.model.EcfFile;
+import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.CompanyEntity;
+import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.CompanyJpaRepository;
+import br.com.lalurecf.util.IntegrationTestBase;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.zip.GZIPInputStream;
+import org.hamcrest.Matchers;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Testes de integração do download de ECF no EcfController.
+ *
+ * <p>Cobre as respostas HTTP do download em streaming: 304 em requisição condicional, 206 com
+ * Content-Range em requisição com Range e entrega em GZIP com Vary.
+ */
+@AutoConfigureMockMvc
+@Transactional
+@DisplayName("EcfController - Download")
+class EcfControllerTest extends IntegrationTestBase {
+
+  private static final String CONTEUDO =
+      "|0000|LECF|0010|12345678000195|EMPRESA|\n".repeat(200) + "|9999|201|\n";
+
+  @Autowired private MockMvc mockMvc;
+
+  @Autowired private CompanyJpaRepository companyRepository;
+
+  @Autowired private EcfFileRepositoryPort ecfFileRepositoryPort;
+
+  @Autowired private EcfContentStorePort ecfContentStorePort;
+
+  private Long companyId;
+  private String contentHash;
+
+  @BeforeEach
+  void setUp() {
+    CompanyEntity company = new CompanyEntity();
+    company.setCnpj("12345678000195");
+    company.setRazaoSocial("Empresa Teste Download ECF");
+    company.setStatus(Status.ACTIVE);
+    company.setPeriodoContabil(LocalDate.of(2024, 1, 31));
+    company.setCreatedAt(LocalDateTime.now());
+    company.setUpdatedAt(LocalDateTime.now());
+    companyId = companyRepository.save(company).getId();
+
+    StoredContent stored = ecfContentStorePort.store(CONTEUDO);
+    contentHash = stored.hash();
+    ecfFileRepositoryPort.saveOrReplace(EcfFile.builder()
+        .fileType(EcfFileType.COMPLETE_ECF)
+        .companyId(companyId)
+        .fiscalYear(2024)
+        .contentHash(stored.hash())
+        .sizeBytes(stored.sizeBytes())
+        .lineCount(stored.lineCount())
+        .fileName("ECF_COMPLETO_2024.txt")
+        .fileStatus(EcfFileStatus.VALIDATED)
+        .generatedAt(LocalDateTime.now())
+        .generatedBy("contador@test.com")
+        .status(Status.ACTIVE)
+        .build());
+  }
+
+  @Test
+  @DisplayName("Deve entregar o arquivo completo com ETag do hash do conteúdo")
+  @WithMockUser(username = "contador@test.com", roles = "CONTADOR")
+  void download_completo() throws Exception {
+    mockMvc
+        .perform(download())
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + contentHash + "\""))
+        .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, CONTEUDO.length()))
+        .andExpect(content().bytes(CONTEUDO.getBytes(StandardCharsets.ISO_8859_1)));
+  }
+
+  @Test
+  @DisplayName("Deve responder 304 sem corpo quando If-None-Match coincide com a ETag")
+  @WithMockUser(username = "contador@test.com", roles = "CONTADOR")
+  void download_naoModificado() throws Exception {
+    mockMvc
+        .perform(download().header(HttpHeaders.IF_NONE_MATCH, "\"" + contentHash + "\""))
+        .andExpect(status().isNotModified())
+        .andExpect(content().string(""));
+  }
+
+  @Test
+  @DisplayName("Deve responder 206 com Content-Range para Range de bytes")
+  @WithMockUser(username = "contador@test.com", roles = "CONTADOR")
+  void download_range() throws Exception {
+    int inicio = CONTEUDO.length() - 30;
+
+    mockMvc
+        .perform(download()
+            .header(HttpHeaders.RANGE, "bytes=" + inicio + "-")
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+            "bytes " + inicio + "-" + (CONTEUDO.length() - 1) + "/" + CONTEUDO.length()))
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andExpect(content().bytes(
+            CONTEUDO.substring(inicio).getBytes(StandardCharsets.ISO_8859_1)));
+  }
+
+  @Test
+  @DisplayName("Deve entregar GZIP com Content-Encoding, Vary e ETag própria")
+  @WithMockUser(username = "contador@test.com", roles = "CONTADOR")
+  void download_gzip() throws Exception {
+    MvcResult result = mockMvc
+        .perform(download().header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andExpect(header().string(HttpHeaders.VARY,
+            Matchers.containsString(HttpHeaders.ACCEPT_ENCODING)))
+        .andExpect(header().string(HttpHeaders.ETAG, "\"" + contentHash + "-gzip\""))
+        .andReturn();
+
+    try (InputStream gzip = new GZIPInputStream(
+        new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+      assertThat(new String(gzip.readAllBytes(), StandardCharsets.ISO_8859_1))
+          .isEqualTo(CONTEUDO);
+    }
+  }
+
+  private MockHttpServletRequestBuilder download() {
+    return get("/ecf/download/COMPLETE_ECF")
+        .header("X-Company-Id", companyId)
+        .header("X-Fiscal-Year", 2024);
+  }
+}
@@ -2,8 +2,14 @@ package br.com.lalurecf.infrastructure.adapter.out.persistence.adapter;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import br.com.lalurecf.application.port.out.EcfContentStorePort;
+import br.com.lalurecf.application.port.out.EcfContentStorePort.StoredContent;
+import br.com.lalurecf.application.port.out.EcfFileMetadata;
+import br.com.lalurecf.application.port.out.EcfValidationResultPort;
 import br.com.lalurecf.domain.enums.EcfFileStatus;
 import br.com.lalurecf.domain.enums.EcfFileType;
 import br.com.lalurecf.domain.enums.Status;
@@ -11,15 +17,21 @@ import br.com.lalurecf.domain.model.EcfFile;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.entity.CompanyEntity;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.CompanyJpaRepository;
 import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.EcfFileJpaRepository;
+import br.com.lalurecf.infrastructure.dto.ecf.ValidationResult;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.springframework.transaction.annotation.Transactional;
@@ -53,9 +65,18 @@ class EcfFileRepositoryAdapterTest {
     @Autowired
     private EcfFileJpaRepository jpaRepository;
 
+    @Autowired
+    private EcfContentStorePort contentStore;
+
+    @Autowired
+    private EcfValidationResultPort validationResults;
+
     @Autowired
     private CompanyJpaRepository companyJpaRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private Long testCompanyId;
 
     @BeforeEach
@@ -86,7 +107,7 @@ class EcfFileRepositoryAdapterTest {
         assertTrue(found.isPresent());
         assertEquals(EcfFileType.ARQUIVO_PARCIAL, found.get().getFileType());
         assertEquals(2024, found.get().getFiscalYear());
-        assertEquals("|M001|0|1|\n|M990|2|", found.get().getContent());
+        assertEquals("|M001|0|1|\n|M990|2|", contentOf(found.get()));
         assertEquals(EcfFileStatus.DRAFT, found.get().getFileStatus());
     }
 
@@ -102,8 +123,8 @@ class EcfFileRepositoryAdapterTest {
         // Verify only one record in DB
         List<EcfFile> all = repositoryAdapter.findByCompanyAndFiscalYear(testCompanyId, 2024);
         assertEquals(1, all.size());
-        assertEquals("conteudo versao 2", saved.getContent());
-        assertEquals("conteudo versao 2", all.get(0).getContent());
+        assertEquals("conteudo versao 2", contentOf(saved));
+        assertEquals("conteudo versao 2", contentOf(all.get(0)));
     }
 
     @Test
@@ -116,7 +137,20 @@ class EcfFileRepositoryAdapterTest {
         Optional<EcfFile> found = repositoryAdapter.findById(saved.getId());
 
         assertTrue(found.isPresent());
-        assertEquals(largeContent, found.get().getContent());
+        assertEquals(largeContent, contentOf(found.get()));
+    }
+
+    @Test
+    @DisplayName("Should open stored content as GZIP for compressed downloads")
+    void shouldOpenStoredContentAsGzip() throws IOException {
+        String content = "|0000|LECF|\n".repeat(1000) + "|9999|1001|";
+        EcfFile saved = repositoryAdapter.saveOrReplace(
+            buildEcfFile(EcfFileType.COMPLETE_ECF, content));
+
+        try (InputStream gzip = new GZIPInputStream(
+            contentStore.openGzipStream(saved.getContentHash()))) {
+            assertEquals(content, new String(gzip.readAllBytes(), StandardCharsets.ISO_8859_1));
+        }
     }
 
     @Test
@@ -139,9 +173,9 @@ class EcfFileRepositoryAdapterTest {
         assertTrue(parcial.isPresent());
         assertTrue(importado.isPresent());
         assertTrue(completo.isPresent());
-        assertEquals("parcial", parcial.get().getContent());
-        assertEquals("importado", importado.get().getContent());
-        assertEquals("completo", completo.get().getContent());
+        assertEquals("parcial", contentOf(parcial.get()));
+        assertEquals("importado", contentOf(importado.get()));
+        assertEquals("completo", contentOf(completo.get()));
     }
 
     @Test
@@ -163,12 +197,123 @@ class EcfFileRepositoryAdapterTest {
         assertTrue(importado.isEmpty());
     }
 
+    @Test
+    @DisplayName("Should list metadata with persisted size and line count")
+    void shouldListMetadataWithPersistedSizeAndLineCount() {
+        EcfFile parcial = repositoryAdapter.saveOrReplace(
+            buildEcfFile(EcfFileType.ARQUIVO_PARCIAL, "|M001|0|\n|M990|2|\n"));
+        EcfFile completo = buildEcfFile(EcfFileType.COMPLETE_ECF, "|0000|\n|9999|2|");
+        completo.setSourceParcialFileId(parcial.getId());
+        repositoryAdapter.saveOrReplace(completo);
+
+        List<EcfFileMetadata> metadata =
+            repositoryAdapter.findMetadataByCompanyAndFiscalYear(testCompanyId, 2024);
+
+        assertEquals(2, metadata.size());
+        EcfFileMetadata parcialMetadata = metadata.stream()
+            .filter(m -> m.fileType() == EcfFileType.ARQUIVO_PARCIAL).findFirst().orElseThrow();
+        EcfFileMetadata completoMetadata = metadata.stream()
+            .filter(m -> m.fileType() == EcfFileType.COMPLETE_ECF).findFirst().orElseThrow();
+        assertEquals(18L, parcialMetadata.sizeBytes());
+        assertEquals(2, parcialMetadata.lineCount());
+        assertEquals(2, completoMetadata.lineCount());
+        assertEquals(parcial.getId(), completoMetadata.sourceParcialFileId());
+        assertNull(parcialMetadata.sourceParcialFileId());
+    }
+
+    @Test
+    @DisplayName("Should share identical content and release replaced content")
+    void shouldShareIdenticalContentAndReleaseReplacedContent() {
+        EcfFile importado = repositoryAdapter.saveOrReplace(
+            buildEcfFile(EcfFileType.IMPORTED_ECF, "conteudo igual"));
+        EcfFile completo = repositoryAdapter.saveOrReplace(
+            buildEcfFile(EcfFileType.COMPLETE_ECF, "conteudo igual"));
+        assertEquals(importado.getContentHash(), completo.getContentHash());
+
+        // Substituir o COMPLETE_ECF não remove o conteúdo ainda referenciado pelo IMPORTED_ECF
+        EcfFile novoCompleto = repositoryAdapter.saveOrReplace(
+            buildEcfFile(EcfFileType.COMPLETE_ECF, "conteudo novo"));
+        assertEquals("conteudo igual", contentStore.read(importado.getContentHash()));
+        assertEquals("conteudo novo", contentOf(novoCompleto));
+
+        // Substituir o IMPORTED_ECF libera a última referência e remove o conteúdo
+        repositoryAdapter.saveOrReplace(buildEcfFile(EcfFileType.IMPORTED_ECF, "outro"));
+        assertThrows(IllegalStateException.class,
+            () -> contentStore.read(importado.getContentHash()));
+    }
+
+    @Test
+    @DisplayName("Should keep validation result per content and drop it with replaced content")
+    void shouldDropValidationResultWhenContentIsReplaced() {
+        EcfFile parcial = repositoryAdapter.saveOrReplace(
+            buildEcfFile(EcfFileType.ARQUIVO_PARCIAL, "|M001|0|\n|M990|2|\n"));
+        ValidationResult result = new ValidationResult();
+        result.addError("Nenhum registro M030 encontrado no arquivo");
+        result.addWarning("aviso");
+        validationResults.save(parcial.getContentHash(), EcfFileType.ARQUIVO_PARCIAL, 1, result);
+
+        Optional<ValidationResult> found = validationResults.find(
+            parcial.getContentHash(), EcfFileType.ARQUIVO_PARCIAL, 1);
+        assertTrue(found.isPresent());
+        assertEquals(result.getErrors(), found.get().getErrors());
+        assertEquals(result.getWarnings(), found.get().getWarnings());
+        assertTrue(validationResults.find(
+            parcial.getContentHash(), EcfFileType.ARQUIVO_PARCIAL, 2).isEmpty());
+
+        // Novo conteúdo libera o anterior, e o resultado é removido em cascata
+        repositoryAdapter.saveOrReplace(buildEcfFile(EcfFileType.ARQUIVO_PARCIAL, "novo"));
+        assertTrue(validationResults.find(
+            parcial.getContentHash(), EcfFileType.ARQUIVO_PARCIAL, 1).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should read migrated UTF8 content as ISO-8859-1 replacing unmappable chars")
+    void shouldReadMigratedUtf8ContentAsLatin1() {
+        byte[] utf8 = "|0000|AÇÃO – “teste”|\n".getBytes(StandardCharsets.UTF_8);
+        jdbcTemplate.update(
+            "INSERT INTO tb_ecf_content (hash, compression, charset, data, size_bytes, "
+                + "compressed_size_bytes, ref_count) "
+                + "VALUES ('migrado', 'NONE', 'UTF8', ?, 22, ?, 0)",
+            utf8, utf8.length);
+
+        assertEquals("|0000|AÇÃO ? ?teste?|\n", contentStore.read("migrado"));
+    }
+
+    @Test
+    @DisplayName("Should stream uncompressed content across slices, skipping without reading")
+    void shouldStreamUncompressedContentAcrossSlices() throws IOException {
+        String content = "|M300|1|Lucro Liquido|L||100,00|\n"
+            .repeat(EcfContentStoreAdapter.SLICE_SIZE / 16);
+        byte[] latin1 = content.getBytes(StandardCharsets.ISO_8859_1);
+        jdbcTemplate.update(
+            "INSERT INTO tb_ecf_content (hash, compression, data, size_bytes, "
+                + "compressed_size_bytes, ref_count) VALUES ('legado', 'NONE', ?, ?, ?, 0)",
+            latin1, latin1.length, latin1.length);
+        long offset = EcfContentStoreAdapter.SLICE_SIZE + 7L;
+
+        try (InputStream in = contentStore.openStream("legado")) {
+            assertEquals(offset, in.skip(offset));
+            assertEquals(content.substring((int) offset),
+                new String(in.readAllBytes(), StandardCharsets.ISO_8859_1));
+        }
+        try (InputStream gzip = new GZIPInputStream(contentStore.openGzipStream("legado"))) {
+            assertEquals(content, new String(gzip.readAllBytes(), StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    private String contentOf(EcfFile file) {
+        return contentStore.read(file.getContentHash());
+    }
+
     private EcfFile buildEcfFile(EcfFileType type, String content) {
+        StoredContent stored = contentStore.store(content);
         return EcfFile.builder()
             .fileType(type)
             .companyId(testCompanyId)
             .fiscalYear(2024)
-            .content(content)
+            .contentHash(stored.hash())
+            .sizeBytes(stored.sizeBytes())
+            .lineCount(stored.lineCount())
             .fileName("ECF_" + type.name() + "_2024.txt")
             .fileStatus(EcfFileStatus.DRAFT)
             .generatedAt(LocalDateTime.now())
@@ -5,6 +5,9 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import br.com.lalurecf.application.port.out.LancamentoParteBAgregado;
+import br.com.lalurecf.application.port.out.LancamentoParteBTotal;
+import br.com.lalurecf.application.port.out.LancamentoParteBTotal.Nivel;
 import br.com.lalurecf.domain.enums.ParameterNature;
 import br.com.lalurecf.domain.enums.Status;
 import br.com.lalurecf.domain.enums.TipoAjuste;
@@ -480,6 +483,190 @@ class LancamentoParteBRepositoryAdapterTest {
     assertTrue(found.isEmpty());
   }
 
+  @Test
+  @DisplayName("Should aggregate only ACTIVE lancamentos of the year by group key")
+  void shouldAggregateActiveLancamentosByGroupKey() {
+    // Arrange
+    LancamentoParteB primeiro = createTestLancamento(
+        TipoRelacionamento.CONTA_CONTABIL, testContaContabilId, null, TipoApuracao.IRPJ);
+    primeiro.setDescricao("Zeta - primeiro lançamento");
+    primeiro.setValor(new BigDecimal("100.00"));
+    primeiro = repositoryAdapter.save(primeiro);
+    LancamentoParteB segundo = createTestLancamento(
+        TipoRelacionamento.CONTA_CONTABIL, testContaContabilId, null, TipoApuracao.IRPJ);
+    segundo.setDescricao("Alfa - segundo lançamento");
+    segundo.setValor(new BigDecimal("50.00"));
+    repositoryAdapter.save(segundo);
+    LancamentoParteB inativo = createTestLancamento(
+        TipoRelacionamento.CONTA_CONTABIL, testContaContabilId, null, TipoApuracao.IRPJ);
+    inativo.setValor(new BigDecimal("999.00"));
+    inativo.setStatus(Status.INACTIVE);
+    repositoryAdapter.save(inativo);
+    LancamentoParteB exclusao = salvarLancamento(TipoApuracao.IRPJ, 3,
+        TipoRelacionamento.CONTA_CONTABIL, testContaContabilId, null, TipoAjuste.EXCLUSAO,
+        "30.00");
+    LancamentoParteB parteB = salvarLancamento(TipoApuracao.IRPJ, 1,
+        TipoRelacionamento.CONTA_PARTE_B, null, testContaParteBId, TipoAjuste.ADICAO, "20.00");
+    LancamentoParteB ambos = salvarLancamento(TipoApuracao.CSLL, 1,
+        TipoRelacionamento.AMBOS, testContaContabilId, testContaParteBId, TipoAjuste.ADICAO,
+        "10.00");
+    LancamentoParteB outroAno = createTestLancamento(
+        TipoRelacionamento.CONTA_CONTABIL, testContaContabilId, null, TipoApuracao.IRPJ);
+    outroAno.setAnoReferencia(2023);
+    repositoryAdapter.save(outroAno);
+    jpaRepository.flush();
+
+    // Act
+    List<LancamentoParteBAgregado> agregados =
+        repositoryAdapter.findAgregadosAtivosByCompanyIdAndAnoReferencia(testCompanyId, 2024);
+
+    // Assert: ordem por apuração, mês e primeiro lançamento do grupo
+    assertEquals(4, agregados.size());
+
+    LancamentoParteBAgregado csll = agregados.get(0);
+    assertEquals(TipoApuracao.CSLL, csll.tipoApuracao());
+    assertEquals(TipoRelacionamento.AMBOS, csll.tipoRelacionamento());
+    assertEquals(testContaContabilId, csll.contaContabilId());
+    assertEquals(testContaParteBId, csll.contaParteBId());
+    assertEquals(ambos.getId(), csll.primeiroId());
+
+    LancamentoParteBAgregado irpjJaneiro = agregados.get(1);
+    assertEquals(1, irpjJaneiro.mesReferencia());
+    assertEquals(TipoRelacionamento.CONTA_PARTE_B, irpjJaneiro.tipoRelacionamento());
+    assertEquals(null, irpjJaneiro.contaContabilId());
+    assertEquals(0, new BigDecimal("20.00").compareTo(irpjJaneiro.valorTotal()));
+    assertEquals(parteB.getId(), irpjJaneiro.primeiroId());
+
+    // Mesmo grupo: soma e contagem sem o INACTIVE; descrição do menor ID, não a menor
+    LancamentoParteBAgregado adicoes = agregados.get(2);
+    assertEquals(3, adicoes.mesReferencia());
+    assertEquals(TipoAjuste.ADICAO, adicoes.tipoAjuste());
+    assertEquals(testParametroTributarioId, adicoes.parametroTributarioId());
+    assertEquals(0, new BigDecimal("150.00").compareTo(adicoes.valorTotal()));
+    assertEquals(2, adicoes.quantidade());
+    assertEquals(primeiro.getId(), adicoes.primeiroId());
+    assertEquals("Zeta - primeiro lançamento", adicoes.primeiraDescricao());
+
+    LancamentoParteBAgregado exclusoes = agregados.get(3);
+    assertEquals(TipoAjuste.EXCLUSAO, exclusoes.tipoAjuste());
+    assertEquals(0, new BigDecimal("30.00").compareTo(exclusoes.valorTotal()));
+    assertEquals(1, exclusoes.quantidade());
+    assertEquals(exclusao.getId(), exclusoes.primeiroId());
+  }
+
+  @Test
+  @DisplayName("Should total bloco M per enquadramento, Parte B account and accounting account")
+  void shouldTotalBlocoMPerLevel() {
+    // Arrange
+    Long contaContabil2Id = criarContaContabil("3.01.02");
+    Long contaParteB2Id = criarContaParteB("4.01.02");
+    salvarLancamento(TipoApuracao.IRPJ, 2, TipoRelacionamento.AMBOS,
+        testContaContabilId, testContaParteBId, TipoAjuste.ADICAO, "100.00");
+    salvarLancamento(TipoApuracao.IRPJ, 2, TipoRelacionamento.CONTA_PARTE_B,
+        null, contaParteB2Id, TipoAjuste.ADICAO, "40.00");
+    salvarLancamento(TipoApuracao.IRPJ, 2, TipoRelacionamento.CONTA_CONTABIL,
+        contaContabil2Id, null, TipoAjuste.EXCLUSAO, "25.00");
+    salvarLancamento(TipoApuracao.IRPJ, 2, TipoRelacionamento.CONTA_CONTABIL,
+        testContaContabilId, null, TipoAjuste.ADICAO, "5.00");
+    LancamentoParteB inativo = createTestLancamento(
+        TipoRelacionamento.AMBOS, testContaContabilId, testContaParteBId, TipoApuracao.IRPJ);
+    inativo.setMesReferencia(2);
+    inativo.setStatus(Status.INACTIVE);
+    repositoryAdapter.save(inativo);
+    salvarLancamento(TipoApuracao.CSLL, 2, TipoRelacionamento.CONTA_PARTE_B,
+        null, testContaParteBId, TipoAjuste.ADICAO, "7.00");
+    jpaRepository.flush();
+
+    // Act
+    List<LancamentoParteBTotal> totais = repositoryAdapter
+        .findTotaisBlocoMAtivosByCompanyIdAndAnoReferencia(testCompanyId, 2024);
+
+    // Assert: grupos com conta nula no nível (lançamentos sem essa conta) não aparecem
+    assertEquals(7, totais.size());
+    assertTotal(totais.get(0), TipoApuracao.CSLL, Nivel.ENQUADRAMENTO, null, "7.00");
+    assertTotal(totais.get(1), TipoApuracao.CSLL, Nivel.CONTA_PARTE_B, "4.01.01", "7.00");
+    assertTotal(totais.get(2), TipoApuracao.IRPJ, Nivel.ENQUADRAMENTO, null, "170.00");
+    // AMBOS entra no total da conta da Parte B e no da conta contábil
+    assertTotal(totais.get(3), TipoApuracao.IRPJ, Nivel.CONTA_PARTE_B, "4.01.01", "100.00");
+    assertTotal(totais.get(4), TipoApuracao.IRPJ, Nivel.CONTA_PARTE_B, "4.01.02", "40.00");
+    assertTotal(totais.get(5), TipoApuracao.IRPJ, Nivel.CONTA_CONTABIL, "3.01.01", "105.00");
+    assertTotal(totais.get(6), TipoApuracao.IRPJ, Nivel.CONTA_CONTABIL, "3.01.02", "25.00");
+    for (LancamentoParteBTotal total : totais) {
+      assertEquals(2, total.mesReferencia());
+      assertEquals("CNAE-6201-5", total.codigoEnquadramento());
+    }
+  }
+
+  private static void assertTotal(LancamentoParteBTotal total, TipoApuracao tipoApuracao,
+      Nivel nivel, String codigoConta, String valor) {
+    assertEquals(tipoApuracao, total.tipoApuracao());
+    assertEquals(nivel, total.nivel());
+    assertEquals(codigoConta, total.codigoConta());
+    assertEquals(0, new BigDecimal(valor).compareTo(total.valorTotal()),
+        () -> nivel + " " + codigoConta + ": " + total.valorTotal());
+  }
+
+  /**
+   * Cria outra conta contábil da empresa de teste, com a conta referencial da primeira.
+   */
+  private Long criarContaContabil(String code) {
+    PlanoDeContasEntity primeira = planoDeContasJpaRepository.findById(testContaContabilId)
+        .orElseThrow();
+    PlanoDeContasEntity conta = PlanoDeContasEntity.builder()
+        .company(primeira.getCompany())
+        .contaReferencial(primeira.getContaReferencial())
+        .code(code)
+        .name("Conta " + code)
+        .fiscalYear(2024)
+        .accountType(primeira.getAccountType())
+        .classe(primeira.getClasse())
+        .nivel(primeira.getNivel())
+        .natureza(primeira.getNatureza())
+        .status(Status.ACTIVE)
+        .createdAt(LocalDateTime.now())
+        .updatedAt(LocalDateTime.now())
+        .build();
+    return planoDeContasJpaRepository.save(conta).getId();
+  }
+
+  /**
+   * Cria outra conta da Parte B (IRPJ) da empresa de teste.
+   */
+  private Long criarContaParteB(String codigoConta) {
+    ContaParteBEntity conta = new ContaParteBEntity();
+    conta.setCompany(companyJpaRepository.findById(testCompanyId).orElseThrow());
+    conta.setCodigoConta(codigoConta);
+    conta.setDescricao("Conta " + codigoConta);
+    conta.setAnoBase(2024);
+    conta.setDataVigenciaInicio(LocalDate.of(2024, 1, 1));
+    conta.setTipoTributo(TipoTributo.IRPJ);
+    conta.setSaldoInicial(BigDecimal.ZERO);
+    conta.setTipoSaldo(TipoSaldo.DEVEDOR);
+    conta.setStatus(Status.ACTIVE);
+    conta.setCreatedAt(LocalDateTime.now());
+    conta.setUpdatedAt(LocalDateTime.now());
+    return contaParteBJpaRepository.save(conta).getId();
+  }
+
+  /**
+   * Salva um lançamento ACTIVE de 2024 com o parâmetro de teste.
+   */
+  private LancamentoParteB salvarLancamento(
+      TipoApuracao tipoApuracao,
+      int mesReferencia,
+      TipoRelacionamento tipoRelacionamento,
+      Long contaContabilId,
+      Long contaParteBId,
+      TipoAjuste tipoAjuste,
+      String valor) {
+    LancamentoParteB lancamento =
+        createTestLancamento(tipoRelacionamento, contaContabilId, contaParteBId, tipoApuracao);
+    lancamento.setMesReferencia(mesReferencia);
+    lancamento.setTipoAjuste(tipoAjuste);
+    lancamento.setValor(new BigDecimal(valor));
+    return repositoryAdapter.save(lancamento);
+  }
+
   /**
    * Helper method para criar lançamento de teste.
    */
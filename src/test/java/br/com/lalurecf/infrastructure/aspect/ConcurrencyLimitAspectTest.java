@@ -0,0 +1,128 @@
+package br.com.lalurecf.infrastructure.aspect;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import br.com.lalurecf.infrastructure.exception.ServerBusyException;
+import br.com.lalurecf.infrastructure.security.CompanyContext;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.security.authorization.method.AuthorizationInterceptorsOrder;
+
+@DisplayName("ConcurrencyLimitAspect - controle de admissão de operações pesadas")
+class ConcurrencyLimitAspectTest {
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private final CountDownLatch liberar = new CountDownLatch(1);
+
+  @AfterEach
+  void tearDown() {
+    liberar.countDown();
+    CompanyContext.clear();
+  }
+
+  @Test
+  @DisplayName("Deve usar metade do pool e rejeitar com 429 quando não houver vaga no prazo")
+  void limit_semVaga() throws Throwable {
+    ConcurrencyLimitAspect aspect = new ConcurrencyLimitAspect(0, 2, 2, 10, 10, 50, meterRegistry);
+    Thread primeira = ocupar(aspect, null);
+
+    ProceedingJoinPoint rapida = joinPoint();
+    when(rapida.proceed()).thenReturn("ok");
+    assertThatThrownBy(() -> aspect.limit(rapida))
+        .isInstanceOf(ServerBusyException.class)
+        .extracting("retryAfterSeconds").isEqualTo(5L);
+    assertThat(meterRegistry.get("lalur.admission.wait").tag("outcome", "timeout").timer()
+        .count()).isEqualTo(1);
+
+    liberar.countDown();
+    primeira.join();
+    assertThat(aspect.limit(rapida)).isEqualTo("ok");
+    assertThat(meterRegistry.get("lalur.admission.queue.depth").gauge().value()).isZero();
+  }
+
+  @Test
+  @DisplayName("Deve limitar por empresa sem bloquear as demais empresas")
+  void limit_porEmpresa() throws Throwable {
+    ConcurrencyLimitAspect aspect = new ConcurrencyLimitAspect(4, 10, 1, 10, 10, 50, meterRegistry);
+    ocupar(aspect, 1L);
+
+    ProceedingJoinPoint rapida = joinPoint();
+    when(rapida.proceed()).thenReturn("ok");
+    CompanyContext.setCurrentCompanyId(1L);
+    assertThatThrownBy(() -> aspect.limit(rapida))
+        .isInstanceOf(ServerBusyException.class)
+        .hasMessageContaining("esta empresa");
+
+    CompanyContext.setCurrentCompanyId(2L);
+    assertThat(aspect.limit(rapida)).isEqualTo("ok");
+    assertThat(meterRegistry.get("lalur.admission.in.flight").gauge().value()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Deve rejeitar imediatamente quando a fila de espera estiver cheia")
+  void limit_filaCheia() throws Throwable {
+    ConcurrencyLimitAspect aspect =
+        new ConcurrencyLimitAspect(1, 10, 2, 0, 10, 10_000, meterRegistry);
+    ocupar(aspect, null);
+
+    ProceedingJoinPoint rapida = joinPoint();
+    long inicio = System.nanoTime();
+    assertThatThrownBy(() -> aspect.limit(rapida)).isInstanceOf(ServerBusyException.class);
+
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio)).isLessThan(5_000);
+    assertThat(meterRegistry.get("lalur.admission.wait").tag("outcome", "queue_full").timer()
+        .count()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("Deve executar depois do @PreAuthorize e antes do @Transactional")
+  void order_depoisDaAutorizacao() {
+    int order = ConcurrencyLimitAspect.class.getAnnotation(Order.class).value();
+
+    assertThat(order)
+        .isGreaterThan(AuthorizationInterceptorsOrder.POST_FILTER.getOrder())
+        .isLessThan(Ordered.LOWEST_PRECEDENCE);
+  }
+
+  /** Inicia uma operação lenta que segura as vagas até o fim do teste. */
+  private Thread ocupar(ConcurrencyLimitAspect aspect, Long companyId) throws Throwable {
+    CountDownLatch emExecucao = new CountDownLatch(1);
+    ProceedingJoinPoint lenta = joinPoint();
+    when(lenta.proceed()).thenAnswer(invocation -> {
+      emExecucao.countDown();
+      return liberar.await(5, TimeUnit.SECONDS);
+    });
+
+    Thread thread = Thread.ofVirtual().start(() -> {
+      CompanyContext.setCurrentCompanyId(companyId);
+      try {
+        aspect.limit(lenta);
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      } finally {
+        CompanyContext.clear();
+      }
+    });
+    assertThat(emExecucao.await(5, TimeUnit.SECONDS)).isTrue();
+    return thread;
+  }
+
+  private static ProceedingJoinPoint joinPoint() {
+    ProceedingJoinPoint joinPoint = mock(ProceedingJoinPoint.class);
+    Signature signature = mock(Signature.class);
+    when(signature.toShortString()).thenReturn("EcfController.uploadImportado(..)");
+    when(joinPoint.getSignature()).thenReturn(signature);
+    return joinPoint;
+  }
+}
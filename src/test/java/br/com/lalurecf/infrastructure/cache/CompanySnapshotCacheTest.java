@@ -0,0 +1,98 @@
+package br.com.lalurecf.infrastructure.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import br.com.lalurecf.domain.enums.Status;
+import br.com.lalurecf.domain.model.Company;
+import br.com.lalurecf.infrastructure.security.CompanyContext;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+@DisplayName("CompanySnapshotCache - snapshots de empresa por requisição e compartilhados")
+class CompanySnapshotCacheTest {
+
+  private final AtomicInteger consultas = new AtomicInteger();
+  private LocalDate periodoNoBanco = LocalDate.of(2024, 1, 1);
+  private final Function<Long, Optional<Company>> banco = id -> {
+    consultas.incrementAndGet();
+    return id == 1L ? Optional.of(empresa(periodoNoBanco)) : Optional.empty();
+  };
+
+  private final CompanySnapshotCache cache = new CompanySnapshotCache(cacheManager());
+
+  @AfterEach
+  void tearDown() {
+    CompanyContext.clear();
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("Deve consultar o banco uma vez e devolver cópias do snapshot")
+  void get_cacheCompartilhado() {
+    Company primeira = cache.get(1L, banco).orElseThrow();
+    primeira.setPeriodoContabil(LocalDate.of(2030, 1, 1));
+    Company segunda = cache.get(1L, banco).orElseThrow();
+
+    assertThat(consultas).hasValue(1);
+    assertThat(segunda.getPeriodoContabil()).isEqualTo(LocalDate.of(2024, 1, 1));
+  }
+
+  @Test
+  @DisplayName("Deve reutilizar o snapshot da requisição e não cachear empresa inexistente")
+  void get_snapshotDaRequisicao() {
+    CompanyContext.setCurrentCompany(empresa(LocalDate.of(2024, 3, 1)));
+
+    assertThat(cache.get(1L, banco)).get()
+        .extracting(Company::getPeriodoContabil).isEqualTo(LocalDate.of(2024, 3, 1));
+    assertThat(cache.get(2L, banco)).isEmpty();
+    assertThat(cache.get(2L, banco)).isEmpty();
+    assertThat(consultas).hasValue(2);
+  }
+
+  @Test
+  @DisplayName("Deve remover o snapshot na escrita e novamente ao final da transação")
+  void evict_aoFinalDaTransacao() {
+    CompanyContext.setCurrentCompany(cache.get(1L, banco).orElseThrow());
+    TransactionSynchronizationManager.initSynchronization();
+
+    cache.evict(1L);
+    assertThat(CompanyContext.getCurrentCompany()).isNull();
+
+    // leitura concorrente antes do commit recoloca o estado anterior
+    cache.get(1L, banco);
+    periodoNoBanco = LocalDate.of(2024, 6, 1);
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+    assertThat(cache.get(1L, banco)).get()
+        .extracting(Company::getPeriodoContabil).isEqualTo(LocalDate.of(2024, 6, 1));
+    assertThat(consultas).hasValue(3);
+  }
+
+  private static CaffeineCacheManager cacheManager() {
+    CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    cacheManager.registerCustomCache(CompanySnapshotCache.CACHE_NAME,
+        Caffeine.newBuilder().maximumSize(10).build());
+    return cacheManager;
+  }
+
+  private static Company empresa(LocalDate periodoContabil) {
+    Company company = new Company();
+    company.setId(1L);
+    company.setRazaoSocial("Empresa Teste");
+    company.setPeriodoContabil(periodoContabil);
+    company.setStatus(Status.ACTIVE);
+    return company;
+  }
+}
@@ -0,0 +1,87 @@
+package br.com.lalurecf.infrastructure.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import br.com.lalurecf.infrastructure.cache.ResourceVersionRegistry.VersionedResource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+@DisplayName("ResourceVersionRegistry - versões e ETags das listagens")
+class ResourceVersionRegistryTest {
+
+  private final ResourceVersionRegistry registry = new ResourceVersionRegistry();
+
+  @AfterEach
+  void tearDown() {
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @DisplayName("Deve avançar só a versão do escopo escrito")
+  void bump_avancaEscopo() {
+    String empresa1 = etag(1L, VersionedResource.ECF_FILE);
+    String empresa2 = etag(2L, VersionedResource.ECF_FILE);
+
+    registry.bump(VersionedResource.ECF_FILE, 2L, 2024);
+
+    assertThat(etag(1L, VersionedResource.ECF_FILE)).isEqualTo(empresa1);
+    assertThat(etag(2L, VersionedResource.ECF_FILE)).isNotEqualTo(empresa2).startsWith("W/\"");
+  }
+
+  @Test
+  @DisplayName("Deve avançar a versão só após o commit da transação")
+  void bump_aposCommit() {
+    String antes = etag(1L, VersionedResource.PLANO_DE_CONTAS);
+    TransactionSynchronizationManager.initSynchronization();
+
+    registry.bump(VersionedResource.PLANO_DE_CONTAS, 1L, 2024);
+    assertThat(etag(1L, VersionedResource.PLANO_DE_CONTAS)).isEqualTo(antes);
+
+    TransactionSynchronizationManager.getSynchronizations()
+        .forEach(TransactionSynchronization::afterCommit);
+    assertThat(etag(1L, VersionedResource.PLANO_DE_CONTAS)).isNotEqualTo(antes);
+  }
+
+  @Test
+  @DisplayName("Deve combinar recursos, ignorar escopo de recursos globais e bumpAll")
+  void etag_recursosGlobais() {
+    String plano =
+        etag(1L, VersionedResource.PLANO_DE_CONTAS, VersionedResource.CONTA_REFERENCIAL);
+
+    registry.bump(VersionedResource.CONTA_REFERENCIAL, 1L, 2024);
+    String aposConta =
+        etag(1L, VersionedResource.PLANO_DE_CONTAS, VersionedResource.CONTA_REFERENCIAL);
+    assertThat(aposConta).isNotEqualTo(plano);
+
+    registry.bumpAll(VersionedResource.PLANO_DE_CONTAS);
+    assertThat(etag(1L, VersionedResource.PLANO_DE_CONTAS, VersionedResource.CONTA_REFERENCIAL))
+        .isNotEqualTo(aposConta);
+  }
+
+  @Test
+  @DisplayName("Deve gerar ETags diferentes para parâmetros de query diferentes")
+  void etag_porParametros() {
+    MockHttpServletRequest pagina1 = new MockHttpServletRequest();
+    pagina1.setParameter("page", "0");
+    MockHttpServletRequest pagina2 = new MockHttpServletRequest();
+    pagina2.setParameter("page", "1");
+
+    assertThat(registry.etag(new ServletWebRequest(pagina1), null, null,
+        VersionedResource.TAX_PARAMETER))
+        .isNotEqualTo(registry.etag(new ServletWebRequest(pagina2), null, null,
+            VersionedResource.TAX_PARAMETER));
+  }
+
+  private String etag(Long companyId, VersionedResource... resources) {
+    WebRequest request = new ServletWebRequest(new MockHttpServletRequest());
+    return registry.etag(request, companyId, 2024, resources);
+  }
+}
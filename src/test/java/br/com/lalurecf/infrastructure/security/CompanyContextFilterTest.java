@@ -69,6 +69,7 @@ class CompanyContextFilterTest {
     verify(companyRepository).findById(companyId);
     // Context should be cleared in finally block
     assertNull(CompanyContext.getCurrentCompanyId());
+    assertNull(CompanyContext.getCurrentCompany());
   }
 
   @Test
@@ -0,0 +1,55 @@
+package br.com.lalurecf.infrastructure.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("ContextSnapshot - propagação de empresa e ano fiscal para tarefas")
+class ContextSnapshotTest {
+
+  @AfterEach
+  void tearDown() {
+    CompanyContext.clear();
+    FiscalYearContext.clear();
+  }
+
+  @Test
+  @DisplayName("Deve vincular os contextos na tarefa e não vazar para a próxima tarefa da thread")
+  void wrap_propagaSemVazar() throws Exception {
+    CompanyContext.setCurrentCompanyId(7L);
+    FiscalYearContext.setCurrentFiscalYear(2024);
+
+    try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+      String naTarefa = executor.submit(ContextSnapshot.capture().wrap(
+          () -> CompanyContext.getCurrentCompanyId() + "/"
+              + FiscalYearContext.getCurrentFiscalYear())).get();
+      String depois = executor.submit(
+          () -> CompanyContext.getCurrentCompanyId() + "/"
+              + FiscalYearContext.getCurrentFiscalYear()).get();
+
+      assertThat(naTarefa).isEqualTo("7/2024");
+      assertThat(depois).isEqualTo("null/null");
+    }
+  }
+
+  @Test
+  @DisplayName("Deve restaurar os valores anteriores ao fechar o escopo")
+  void bind_restauraAnteriores() {
+    CompanyContext.setCurrentCompanyId(1L);
+
+    ContextSnapshot.Scope scope = new ContextSnapshot(2L, null, 2023).bind();
+    try {
+      assertThat(CompanyContext.getCurrentCompanyId()).isEqualTo(2L);
+      assertThat(FiscalYearContext.getCurrentFiscalYear()).isEqualTo(2023);
+    } finally {
+      scope.close();
+    }
+
+    assertThat(CompanyContext.getCurrentCompanyId()).isEqualTo(1L);
+    assertThat(FiscalYearContext.getCurrentFiscalYear()).isNull();
+  }
+}
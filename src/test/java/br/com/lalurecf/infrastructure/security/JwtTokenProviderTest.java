@@ -102,4 +102,33 @@ class JwtTokenProviderTest {
     assertThat(extractedEmail).isEqualTo(email);
     assertThat(extractedRole).isEqualTo(role);
   }
+
+  @Test
+  @DisplayName("Deve verificar access token e extrair claims com userId em uma decodificação")
+  void shouldVerifyAccessTokenWithUserId() {
+    // Arrange
+    String token = jwtTokenProvider.generateAccessToken("admin@example.com", UserRole.ADMIN, 42L);
+    String semUserId = jwtTokenProvider.generateAccessToken("admin@example.com", UserRole.ADMIN);
+
+    // Act
+    VerifiedToken verified = jwtTokenProvider.verify(token).orElseThrow();
+
+    // Assert
+    assertThat(verified.userId()).isEqualTo(42L);
+    assertThat(verified.email()).isEqualTo("admin@example.com");
+    assertThat(verified.role()).isEqualTo(UserRole.ADMIN);
+    assertThat(verified.expiresAt()).isAfter(verified.issuedAt());
+    assertThat(jwtTokenProvider.verify(semUserId)).get()
+        .extracting(VerifiedToken::userId).isNull();
+  }
+
+  @Test
+  @DisplayName("Não deve verificar refresh token nem token adulterado")
+  void shouldNotVerifyRefreshOrTamperedToken() {
+    String refreshToken = jwtTokenProvider.generateRefreshToken("test@example.com");
+    String token = jwtTokenProvider.generateAccessToken("test@example.com", UserRole.CONTADOR, 7L);
+
+    assertThat(jwtTokenProvider.verify(refreshToken)).isEmpty();
+    assertThat(jwtTokenProvider.verify(token + "x")).isEmpty();
+  }
 }
@@ -0,0 +1,52 @@
+package br.com.lalurecf.infrastructure.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import br.com.lalurecf.domain.enums.UserRole;
+import br.com.lalurecf.infrastructure.adapter.out.persistence.repository.UserJpaRepository;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+@DisplayName("TokenRevocationList - revogação de tokens por usuário")
+class TokenRevocationListTest {
+
+  private TokenRevocationList revocationList;
+
+  @BeforeEach
+  void setUp() {
+    UserJpaRepository userRepository = mock(UserJpaRepository.class);
+    when(userRepository.findIdsWithRevokedSessions()).thenReturn(List.of(5L));
+    revocationList = new TokenRevocationList(userRepository);
+    revocationList.loadRevokedUsers();
+  }
+
+  @Test
+  @DisplayName("Deve revogar tokens emitidos até a revogação e aceitar os posteriores")
+  void revokeUser_tokensAnteriores() {
+    Instant agora = Instant.now();
+
+    revocationList.revokeUser(1L);
+
+    assertThat(revocationList.isRevoked(token(1L, agora.minus(1, ChronoUnit.HOURS)))).isTrue();
+    assertThat(revocationList.isRevoked(token(1L, agora.plusSeconds(2)))).isFalse();
+    assertThat(revocationList.isRevoked(token(2L, agora.minus(1, ChronoUnit.HOURS)))).isFalse();
+  }
+
+  @Test
+  @DisplayName("Deve revogar no boot os tokens de usuários inativos ou com senha resetada")
+  void loadRevokedUsers_revogaAntesDoBoot() {
+    assertThat(revocationList.isRevoked(token(5L, Instant.now().minusSeconds(60)))).isTrue();
+    assertThat(revocationList.isRevoked(token(5L, Instant.now().plusSeconds(2)))).isFalse();
+  }
+
+  private static VerifiedToken token(Long userId, Instant issuedAt) {
+    return new VerifiedToken(userId, "user@example.com", UserRole.CONTADOR, issuedAt,
+        issuedAt.plus(7, ChronoUnit.DAYS));
+  }
+}